@@ -0,0 +1,47 @@
+package io.codemc.bot.config;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConfigHandlerBenchmark {
+
+    private ConfigHandler handler;
+
+    @Setup
+    public void setup() {
+        handler = new ConfigHandler();
+        handler.loadConfig();
+        handler.set(List.of(405917902865170453L, 659568973079379971L), "allowed_roles", "applications", "accept");
+    }
+
+    @Benchmark
+    public String getString() {
+        return handler.getString("jenkins", "url");
+    }
+
+    @Benchmark
+    public long getLong() {
+        return handler.getLong("server");
+    }
+
+    @Benchmark
+    public List<Long> getLongList() {
+        return handler.getLongList("allowed_roles", "applications", "accept");
+    }
+
+    @Benchmark
+    public boolean getConfigRoles() {
+        return handler.getConfig().roles().acceptApplications().contains(405917902865170453L);
+    }
+
+    @Benchmark
+    public long getConfigServer() {
+        return handler.getConfig().server();
+    }
+
+}
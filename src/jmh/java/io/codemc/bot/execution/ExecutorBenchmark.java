@@ -0,0 +1,62 @@
+package io.codemc.bot.execution;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecutorBenchmark {
+
+    /** How many interactions block at once, e.g. during a storm of accepts. */
+    @Param({"100", "500"})
+    public int tasks;
+
+    /** How long each interaction blocks, like a backend call would. */
+    @Param({"20"})
+    public long blockingMillis;
+
+    private BotExecutors executors;
+
+    @Setup
+    public void setup() {
+        executors = new BotExecutors(ExecutionMode.VIRTUAL, 1, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executors.shutdown();
+    }
+
+    /** JDA runs callbacks on the common pool by default, which is what PLATFORM mode blocks on. */
+    @Benchmark
+    public void platform() throws InterruptedException {
+        run(ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public void virtual() throws InterruptedException {
+        run(executors.interactions());
+    }
+
+    private void run(Executor executor) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(blockingMillis);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            });
+        }
+
+        latch.await();
+    }
+
+}
@@ -0,0 +1,75 @@
+package io.codemc.bot.listeners;
+
+import io.codemc.bot.CodeMCBot;
+import io.codemc.bot.cache.PermissionCache;
+import io.codemc.bot.config.Capability;
+import io.codemc.bot.config.PermissionMatrix;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ListenerBenchmark {
+
+    /** How many roles the member has. The allowed role, if any, is the last one. */
+    @Param({"1", "10", "50"})
+    public int roles;
+
+    private PermissionMatrix permissions;
+    private PermissionCache cache;
+    private Member member;
+    private List<Role> memberRoles;
+
+    @Setup
+    public void setup() {
+        CodeMCBot bot = new CodeMCBot();
+        bot.getConfigHandler().loadConfig();
+        bot.getConfigHandler().set(List.of(405917902865170453L, 659568973079379971L, 1000L + roles - 1), "allowed_roles", "applications", "accept");
+
+        permissions = bot.getConfigHandler().getConfig().permissions();
+        cache = new PermissionCache();
+
+        memberRoles = LongStream.range(1000L, 1000L + roles).mapToObj(id -> {
+            Role role = mock(Role.class);
+            when(role.getIdLong()).thenReturn(id);
+            return role;
+        }).toList();
+
+        member = mock(Member.class);
+        when(member.getIdLong()).thenReturn(1L);
+        when(member.getRoles()).thenReturn(memberRoles);
+    }
+
+    /** Resolves the capabilities from the roles every time, as happens on a cache miss. */
+    @Benchmark
+    public boolean resolveCapabilities() {
+        return Capability.ACCEPT_APPLICATIONS.in(permissions.resolve(memberRoles));
+    }
+
+    @Benchmark
+    public boolean cachedCapabilities() {
+        return cache.allows(member, permissions, Capability.ACCEPT_APPLICATIONS.bit());
+    }
+
+    // The listeners split their IDs inline, these mirror the calls in ButtonListener and ModalListener.
+
+    @Benchmark
+    public String[] parseButtonId() {
+        return "application:accept:Andre_601:Bot".split(":");
+    }
+
+    @Benchmark
+    public String[] parseModalId() {
+        return "submit:1234567890".split(":");
+    }
+
+}
@@ -0,0 +1,54 @@
+package io.codemc.bot.utils;
+
+import io.codemc.bot.CodeMCBot;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ApplicationHandlerBenchmark {
+
+    private CodeMCBot bot;
+    private MessageEmbed request;
+    private User reviewer;
+
+    @Setup
+    public void setup() {
+        bot = new CodeMCBot();
+        bot.getConfigHandler().loadConfig();
+
+        request = CommandUtil.requestEmbed(
+                "[CodeMC](https://github.com/CodeMC)",
+                "[Bot](https://github.com/CodeMC/Bot)",
+                "`Andre_601` (<@204232208049766400>)",
+                "The Discord bot of CodeMC."
+        );
+
+        reviewer = mock(User.class, withSettings().stubOnly());
+        when(reviewer.getAsMention()).thenReturn("<@405917902865170453>");
+    }
+
+    @Benchmark
+    public Object fromEmbed() {
+        return ApplicationHandler.fromEmbed(1234567890L, request);
+    }
+
+    @Benchmark
+    public Object getMessageAccepted() {
+        return ApplicationHandler.getMessage(bot, "204232208049766400", "[CodeMC](https://github.com/CodeMC)",
+                "[Bot](https://github.com/CodeMC/Bot)", "https://ci.codemc.io/job/CodeMC/job/Bot", reviewer, true);
+    }
+
+    @Benchmark
+    public Object getMessageDenied() {
+        return ApplicationHandler.getMessage(bot, "204232208049766400", "[CodeMC](https://github.com/CodeMC)",
+                "[Bot](https://github.com/CodeMC/Bot)", "Not a Minecraft project.", reviewer, false);
+    }
+
+}
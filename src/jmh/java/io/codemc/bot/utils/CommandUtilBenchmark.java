@@ -0,0 +1,69 @@
+package io.codemc.bot.utils;
+
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.Role;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.Mockito.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CommandUtilBenchmark {
+
+    /** How many roles the member has. The allowed role, if any, is the last one. */
+    @Param({"1", "10", "50"})
+    public int roles;
+
+    private Member allowed;
+    private Member denied;
+    private List<Long> allowedRoles;
+
+    @Setup
+    public void setup() {
+        allowedRoles = List.of(405917902865170453L, 659568973079379971L, 1000L + roles - 1);
+
+        // Mockito answers add a constant cost per getRoles() call, the role matching itself is what should scale.
+        List<Role> roleList = LongStream.range(1000L, 1000L + roles).mapToObj(CommandUtilBenchmark::role).toList();
+        allowed = mock(Member.class, withSettings().stubOnly());
+        when(allowed.getRoles()).thenReturn(roleList);
+
+        List<Role> otherRoles = LongStream.range(5000L, 5000L + roles).mapToObj(CommandUtilBenchmark::role).toList();
+        denied = mock(Member.class, withSettings().stubOnly());
+        when(denied.getRoles()).thenReturn(otherRoles);
+    }
+
+    @Benchmark
+    public boolean hasRoleAllowed() {
+        return CommandUtil.hasRole(allowed, allowedRoles);
+    }
+
+    @Benchmark
+    public boolean hasRoleDenied() {
+        return CommandUtil.hasRole(denied, allowedRoles);
+    }
+
+    @Benchmark
+    public MessageEmbed embedReplySuccess() {
+        return CommandUtil.EmbedReply.empty().success("Successfully validated 1 User(s)").build();
+    }
+
+    @Benchmark
+    public MessageEmbed embedReplyError() {
+        return CommandUtil.EmbedReply.empty()
+                .error("Failed to validate Andre_601:", "Jenkins User does not exist")
+                .build();
+    }
+
+    private static Role role(long id) {
+        Role role = mock(Role.class, withSettings().stubOnly());
+        when(role.getIdLong()).thenReturn(id);
+        return role;
+    }
+
+}
@@ -25,22 +25,59 @@ import io.codemc.api.jenkins.JenkinsAPI;
 import io.codemc.api.jenkins.JenkinsConfig;
 import io.codemc.api.nexus.NexusAPI;
 import io.codemc.api.nexus.NexusConfig;
+import io.codemc.bot.cache.Inventory;
+import io.codemc.bot.cache.MemberCacheMode;
+import io.codemc.bot.cache.MemberLookup;
+import io.codemc.bot.cache.PermissionCache;
+import io.codemc.bot.cache.UserIndex;
 import io.codemc.bot.commands.*;
 import io.codemc.bot.config.ConfigHandler;
+import io.codemc.bot.execution.BotExecutors;
+import io.codemc.bot.github.GitHubAppTokens;
+import io.codemc.bot.github.GitHubAuth;
+import io.codemc.bot.github.GitHubClient;
+import io.codemc.bot.health.Backend;
+import io.codemc.bot.health.BackendStatus;
+import io.codemc.bot.health.Resilience;
+import io.codemc.bot.health.RetryPolicy;
 import io.codemc.bot.listeners.ButtonListener;
+import io.codemc.bot.listeners.MemberListener;
 import io.codemc.bot.listeners.ModalListener;
+import io.codemc.bot.metrics.DiscordRestMetrics;
+import io.codemc.bot.metrics.MetricsServer;
+import io.codemc.bot.provisioning.ProvisioningJournal;
+import io.codemc.bot.provisioning.ProvisioningQueue;
+import io.codemc.bot.tracing.Tracing;
 import io.codemc.bot.utils.APIUtil;
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import okhttp3.OkHttpClient;
 
 import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.security.auth.login.LoginException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
 
 public class CodeMCBot{
     
@@ -50,6 +87,25 @@ public class CodeMCBot{
     @VisibleForTesting
     ConfigHandler configHandler = new ConfigHandler();
     
+    @VisibleForTesting
+    BotExecutors executors;
+    
+    private final UserIndex userIndex = new UserIndex();
+    private final Inventory inventory = new Inventory();
+    private final PermissionCache permissionCache = new PermissionCache();
+    private final MemberLookup memberLookup = new MemberLookup(MEMBER_LOOKUP_SIZE);
+    private final BackendStatus backends = new BackendStatus();
+    private final CompletableFuture<JDA> connected = new CompletableFuture<>();
+    private ProvisioningQueue provisioning;
+    
+    private static final int DEFAULT_INVENTORY_REFRESH_MINUTES = 10;
+    private static final int MEMBER_LOOKUP_SIZE = 128;
+    private static final int DEFAULT_BACKEND_TIMEOUT_SECONDS = 10;
+    private static final int BACKEND_RETRY_SECONDS = 30;
+    private static final String DEFAULT_METRICS_HOST = "127.0.0.1";
+    
+    private final long startedAt = System.nanoTime();
+    
     public static void main(String[] args){
         try{
             new CodeMCBot().start();
@@ -62,6 +118,17 @@ public class CodeMCBot{
     void start() throws LoginException{
         loadConfig();
         validateConfig();
+        logger.info("Loaded and validated config in {} ms.", millisSince(startedAt));
+        
+        executors = new BotExecutors(configHandler);
+        logger.info("Using {} execution mode.", executors.getMode());
+        startMetrics();
+        configureResilience();
+        openProvisioning();
+        
+        int slowThreshold = configHandler.getInt("tracing", "slow_threshold_ms");
+        if(slowThreshold > 0)
+            Tracing.setSlowThreshold(Duration.ofMillis(slowThreshold));
 
         String token = configHandler.getString("bot_token");
         long owner = configHandler.getLong("users", "owner");
@@ -84,8 +151,99 @@ public class CodeMCBot{
             clientBuilder.setCoOwnerIds(coOwnerIds);
         }
 
-        initializeAPI();
+        // The gateway connection is established in the background while the backends are checked.
         login(clientBuilder, token);
+        CompletableFuture<Void> backendChecks = initializeAPI().whenComplete((v, ex) -> {
+            logger.info("Finished backend checks {} ms after startup.", millisSince(startedAt));
+            startInventory();
+        });
+        
+        // Jobs interrupted by the last shutdown need both the backends and the guild to continue.
+        backendChecks.thenCombine(connected, (v, jda) -> jda.getGuildById(guildId)).thenAccept(guild -> {
+            if(guild == null){
+                logger.error("Unable to resume provisioning jobs: Server with ID {} not found!", guildId);
+                return;
+            }
+            
+            provisioning.resume(guild);
+        });
+    }
+    
+    /**
+     * Applies the configured retry policy and circuit breaker settings, keeping the defaults for unset values.
+     * <br>Backend calls run in the {@link BotExecutors#bulkhead(String) bulkheads} of the executors from here on.
+     */
+    @VisibleForTesting
+    void configureResilience(){
+        RetryPolicy defaults = Resilience.DEFAULT_RETRY;
+        int attempts = configHandler.getInt("resilience", "attempts");
+        int backoff = configHandler.getInt("resilience", "backoff_ms");
+        int maxBackoff = configHandler.getInt("resilience", "max_backoff_ms");
+        int threshold = configHandler.getInt("resilience", "failure_threshold");
+        int failureThreshold = threshold <= 0 ? Resilience.DEFAULT_FAILURE_THRESHOLD : threshold;
+        int open = configHandler.getInt("resilience", "open_seconds");
+        
+        RetryPolicy retry = new RetryPolicy(
+            attempts <= 0 ? defaults.attempts() : attempts,
+            backoff < 0 ? defaults.baseDelay() : Duration.ofMillis(backoff),
+            maxBackoff < 0 ? defaults.maxDelay() : Duration.ofMillis(maxBackoff)
+        );
+        Resilience.configure(
+            retry,
+            failureThreshold,
+            open <= 0 ? Resilience.DEFAULT_OPEN_DURATION : Duration.ofSeconds(open)
+        );
+        Resilience.setBulkheads(executors::bulkhead);
+        logger.info("Retrying idempotent backend calls up to {} times, opening circuits after {} failures.", retry.attempts(), failureThreshold);
+    }
+    
+    /**
+     * Opens the provisioning journal and creates the queue, restoring the jobs that were not finished before.
+     * <br>Without a configured journal, jobs are only tracked in memory.
+     */
+    @VisibleForTesting
+    void openProvisioning(){
+        String path = configHandler.getString("provisioning", "journal");
+        ProvisioningJournal journal = ProvisioningJournal.inMemory();
+        if(path == null || path.isEmpty()){
+            logger.warn("No provisioning journal configured! Unfinished join requests will not be resumed after a restart.");
+        }else{
+            try{
+                journal = ProvisioningJournal.open(Path.of(path));
+            }catch(IOException | UncheckedIOException ex){
+                logger.error("Unable to open provisioning journal at '{}'! Falling back to an in-memory journal.", path, ex);
+            }
+        }
+        
+        provisioning = new ProvisioningQueue(this, journal, executors.bulk(), executors.getProvisioningThreads());
+        if(provisioning.size() > 0)
+            logger.info("Restored {} unfinished provisioning job(s) from the journal.", provisioning.size());
+    }
+
+    private void startInventory(){
+        int minutes = configHandler.getInt("inventory", "refresh_minutes");
+        if(minutes <= 0)
+            minutes = DEFAULT_INVENTORY_REFRESH_MINUTES;
+        
+        inventory.start(executors.scheduler(), executors.bulk(), Duration.ofMinutes(minutes));
+    }
+
+    private void startMetrics(){
+        int port = configHandler.getInt("metrics", "port");
+        if(port <= 0){
+            logger.info("Metrics endpoint is disabled.");
+            return;
+        }
+        
+        String host = configHandler.getString("metrics", "host");
+        if(host == null || host.isEmpty())
+            host = DEFAULT_METRICS_HOST;
+        
+        try{
+            new MetricsServer(host, port).start();
+        }catch(IOException ex){
+            logger.error("Unable to serve metrics on {}:{}!", host, port, ex);
+        }
     }
 
     private void loadConfig() {
@@ -119,8 +277,14 @@ public class CodeMCBot{
         }
     }
 
+    /**
+     * Configures the API clients and checks the database, Jenkins and Nexus concurrently, each with its own deadline.
+     * <br>A backend failing its check is marked as unavailable and checked again periodically until it responds.
+     *
+     * @return A future completing once every backend finished its first check, whether it succeeded or not.
+     */
     @VisibleForTesting
-    final void initializeAPI() {
+    final CompletableFuture<Void> initializeAPI() {
         logger.info("Initializing API...");
         JenkinsConfig jenkins = new JenkinsConfig(
                 configHandler.getString("jenkins", "url"),
@@ -143,29 +307,96 @@ public class CodeMCBot{
         );
 
         CodeMCAPI.initialize(jenkins, nexus, db);
-        logger.info("Connected to the database at {}:{}", dbHost, dbPort);
 
-        boolean jenkinsPing = JenkinsAPI.ping();
-        if (!jenkinsPing) {
-            logger.error("Failed to connect to Jenkins at '{}'!", jenkins.getUrl());
-            System.exit(1);
-            return;
-        }
-        logger.info("Connected to Jenkins at {}", jenkins.getUrl());
+        APIUtil.setGitHub(createGitHubClient());
 
-        boolean nexusPing = NexusAPI.ping();
-        if (!nexusPing) {
-            logger.error("Failed to connect to Nexus at '{}'!", nexus.getUrl());
-            System.exit(1);
-            return;
+        return CompletableFuture.allOf(
+                checkBackend(Backend.DATABASE, dbHost + ":" + dbPort, () -> {
+                    userIndex.load();
+                    return true;
+                }),
+                checkBackend(Backend.JENKINS, jenkins.getUrl(), JenkinsAPI::ping),
+                checkBackend(Backend.NEXUS, nexus.getUrl(), NexusAPI::ping)
+        );
+    }
+
+    private GitHubClient createGitHubClient() {
+        String url = configHandler.getString("github_url");
+        if (url.isEmpty())
+            url = GitHubClient.DEFAULT_URL;
+
+        long appId = configHandler.getLong("github_app", "app_id");
+        long installationId = configHandler.getLong("github_app", "installation_id");
+        String privateKey = configHandler.getString("github_app", "private_key");
+        if (appId > 0 && installationId > 0 && !privateKey.isEmpty()) {
+            try {
+                GitHubClient client = GitHubClient.forApp(url, Long.toString(appId), installationId, GitHubAppTokens.readPrivateKey(Files.readString(Path.of(privateKey))));
+                logger.info("Authenticating to GitHub as installation {} of GitHub App {}", installationId, appId);
+                return client;
+            } catch (IOException | GeneralSecurityException ex) {
+                logger.error("Unable to read the private key of the GitHub App from '{}'! Falling back to the GitHub API Token.", privateKey, ex);
+            }
         }
-        logger.info("Connected to Nexus at {}", nexus.getUrl());
 
-        APIUtil.GITHUB_API_TOKEN = configHandler.getString("github");
-        if (APIUtil.GITHUB_API_TOKEN.isEmpty())
+        String token = configHandler.getString("github");
+        if (token.isEmpty())
             logger.warn("GitHub API Token is empty! This may cause issues with GitHub API requests.");
         else
             logger.info("GitHub API Token set");
+
+        return new GitHubClient(url, GitHubAuth.token(token));
+    }
+
+    private CompletableFuture<Boolean> checkBackend(Backend backend, String target, BooleanSupplier check) {
+        int configured = configHandler.getInt("startup", "timeout_seconds");
+        int timeout = configured <= 0 ? DEFAULT_BACKEND_TIMEOUT_SECONDS : configured;
+
+        long started = System.nanoTime();
+        // The pings have no timeout of their own, so a probe that hangs is interrupted instead of being left running.
+        FutureTask<Boolean> probe = new FutureTask<>(check::getAsBoolean);
+        CompletableFuture<Void> stopped = new CompletableFuture<>();
+        executors.bulk().execute(() -> {
+            try {
+                probe.run();
+            } finally {
+                stopped.complete(null);
+            }
+        });
+
+        return stopped.copy()
+                .orTimeout(timeout, TimeUnit.SECONDS)
+                .handle((v, ex) -> {
+                    if (ex == null && probe.state() == Future.State.SUCCESS && probe.resultNow()) {
+                        backends.set(backend, BackendStatus.State.READY);
+                        logger.info("Connected to {} at {} in {} ms.", backend.getName(), target, millisSince(started));
+                        return true;
+                    }
+
+                    backends.set(backend, BackendStatus.State.UNAVAILABLE);
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause == null && probe.state() == Future.State.FAILED)
+                        cause = probe.exceptionNow();
+
+                    if (cause instanceof TimeoutException) {
+                        probe.cancel(true);
+                        logger.error("{} at '{}' did not respond within {} seconds! Retrying in {} seconds.", backend.getName(), target, timeout, BACKEND_RETRY_SECONDS);
+                    } else if (cause != null) {
+                        logger.error("Failed to connect to {} at '{}'! Retrying in {} seconds.", backend.getName(), target, BACKEND_RETRY_SECONDS, cause);
+                    } else {
+                        logger.error("Failed to connect to {} at '{}'! Retrying in {} seconds.", backend.getName(), target, BACKEND_RETRY_SECONDS);
+                    }
+
+                    // Only one probe per backend at a time, so a backend ignoring the interrupt cannot pile up threads.
+                    if (!stopped.isDone())
+                        logger.warn("The check of {} is still running, the next one starts once it returned.", backend.getName());
+
+                    stopped.thenRun(() -> executors.scheduler().schedule(() -> checkBackend(backend, target, check), BACKEND_RETRY_SECONDS, TimeUnit.SECONDS));
+                    return false;
+                });
+    }
+
+    private static long millisSince(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
     }
 
     private void login(CommandClientBuilder clientBuilder, String token) {
@@ -179,14 +410,24 @@ public class CodeMCBot{
             new CmdCodeMC(this)
         );
         
+        MemberCacheMode memberCacheMode = MemberCacheMode.fromString(configHandler.getString("members", "cache"));
+        logger.info("Caching {} members.", memberCacheMode == MemberCacheMode.ALL ? "all" : "only role holding");
+        
         logger.info("Starting bot...");
-        JDABuilder.createDefault(token)
-            .enableIntents(
-                GatewayIntent.GUILD_MEMBERS,
-                GatewayIntent.GUILD_MESSAGES,
-                GatewayIntent.MESSAGE_CONTENT
+        // Only member updates are listened to, interactions are received regardless of intents.
+        JDABuilder.create(token, GatewayIntent.GUILD_MEMBERS)
+            .disableCache(
+                CacheFlag.ACTIVITY,
+                CacheFlag.CLIENT_STATUS,
+                CacheFlag.EMOJI,
+                CacheFlag.MEMBER_OVERRIDES,
+                CacheFlag.ONLINE_STATUS,
+                CacheFlag.SCHEDULED_EVENTS,
+                CacheFlag.STICKER,
+                CacheFlag.VOICE_STATE
             )
-            .setMemberCachePolicy(MemberCachePolicy.ALL)
+            .setMemberCachePolicy(memberCachePolicy(memberCacheMode))
+            .setHttpClientBuilder(new OkHttpClient.Builder().addInterceptor(new DiscordRestMetrics()))
             .setActivity(Activity.of(
                 Activity.ActivityType.WATCHING,
                 "Applications"
@@ -194,12 +435,55 @@ public class CodeMCBot{
             .addEventListeners(
                 clientBuilder.build(),
                 new ButtonListener(this),
-                new ModalListener(this)
+                new ModalListener(this),
+                new MemberListener(this),
+                (EventListener) event -> {
+                    if(event instanceof ReadyEvent){
+                        logger.info("Connected to Discord {} ms after startup.", millisSince(startedAt));
+                        connected.complete(event.getJDA());
+                    }
+                }
             )
             .build();
     }
     
+    private MemberCachePolicy memberCachePolicy(MemberCacheMode mode){
+        if(mode == MemberCacheMode.ALL)
+            return MemberCachePolicy.ALL;
+        
+        // Re-evaluated by JDA on every member update, so members gaining or losing a role move in and out of the cache.
+        return member -> configHandler.getConfig().permissions().resolve(member.getRoles()) != 0;
+    }
+    
     public ConfigHandler getConfigHandler(){
         return configHandler;
     }
+    
+    public BotExecutors getExecutors(){
+        return executors;
+    }
+    
+    public UserIndex getUserIndex(){
+        return userIndex;
+    }
+    
+    public Inventory getInventory(){
+        return inventory;
+    }
+    
+    public PermissionCache getPermissionCache(){
+        return permissionCache;
+    }
+    
+    public MemberLookup getMemberLookup(){
+        return memberLookup;
+    }
+    
+    public BackendStatus getBackends(){
+        return backends;
+    }
+    
+    public ProvisioningQueue getProvisioning(){
+        return provisioning;
+    }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.cache;
+
+import io.codemc.api.database.DatabaseAPI;
+import io.codemc.api.database.User;
+import io.codemc.api.jenkins.JenkinsAPI;
+import io.codemc.api.nexus.NexusAPI;
+import io.codemc.bot.health.Resilience;
+import io.codemc.bot.metrics.Metrics;
+import kotlinx.serialization.json.JsonElement;
+import kotlinx.serialization.json.JsonPrimitive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Periodically refreshed snapshot of the Jenkins users, Nexus repositories and database users.
+ * <br>Commands that only need totals or membership checks read them from here instead of listing the external
+ * services on every call. Each {@link Source} is refreshed independently, keeps the time of its last successful
+ * refresh and the {@link Delta} to the refresh before. A failing refresh keeps the previous snapshot.
+ */
+public class Inventory{
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(Inventory.class);
+    
+    private final Source jenkinsUsers;
+    private final Source nexusRepositories;
+    private final Source databaseUsers;
+    
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private ScheduledFuture<?> task = null;
+    
+    public Inventory(){
+        this(
+            () -> Resilience.retry(Metrics.JENKINS, "getAllJenkinsUsers", JenkinsAPI::getAllJenkinsUsers),
+            () -> Resilience.retry(Metrics.NEXUS, "getRepositories", () -> NexusAPI.getRepositories()).stream().map(repository -> name(repository.get("name"))).toList(),
+            () -> Resilience.isolate(Metrics.DATABASE, "getAllUsers", () -> DatabaseAPI.getAllUsers()).stream().map(User::getUsername).toList()
+        );
+    }
+    
+    public Inventory(Supplier<Collection<String>> jenkinsUsers, Supplier<Collection<String>> nexusRepositories, Supplier<Collection<String>> databaseUsers){
+        this.jenkinsUsers = new Source("Jenkins Users", jenkinsUsers);
+        this.nexusRepositories = new Source("Nexus Repositories", nexusRepositories);
+        this.databaseUsers = new Source("Database Users", databaseUsers);
+    }
+    
+    /**
+     * Refreshes all sources every {@code interval}, starting right away.
+     * <br>The scheduler only triggers the refresh, which itself runs on {@code executor}.
+     */
+    public synchronized void start(ScheduledExecutorService scheduler, Executor executor, Duration interval){
+        if(task != null)
+            task.cancel(false);
+        
+        task = scheduler.scheduleWithFixedDelay(
+            () -> executor.execute(this::refresh),
+            0, interval.toMillis(), TimeUnit.MILLISECONDS
+        );
+        LOGGER.info("Refreshing inventory every {} minute(s).", interval.toMinutes());
+    }
+    
+    public synchronized void stop(){
+        if(task != null){
+            task.cancel(false);
+            task = null;
+        }
+    }
+    
+    /**
+     * Refreshes all sources, unless a refresh is already running.
+     */
+    public void refresh(){
+        if(!refreshing.compareAndSet(false, true))
+            return;
+        
+        try{
+            jenkinsUsers.refresh();
+            nexusRepositories.refresh();
+            databaseUsers.refresh();
+        }finally{
+            refreshing.set(false);
+        }
+    }
+    
+    public Source getJenkinsUsers(){
+        return jenkinsUsers;
+    }
+    
+    public Source getNexusRepositories(){
+        return nexusRepositories;
+    }
+    
+    public Source getDatabaseUsers(){
+        return databaseUsers;
+    }
+    
+    private static String name(JsonElement element){
+        return element instanceof JsonPrimitive primitive ? primitive.getContent() : String.valueOf(element);
+    }
+    
+    /**
+     * A single listing kept in memory.
+     * <br>If it has never been loaded, the first read loads it on the calling thread.
+     */
+    public static final class Source{
+        
+        private final String name;
+        private final Supplier<Collection<String>> loader;
+        private volatile State state = null;
+        
+        private Source(String name, Supplier<Collection<String>> loader){
+            this.name = name;
+            this.loader = loader;
+        }
+        
+        /**
+         * Lists the source again and publishes the result.
+         *
+         * @return The items now in the snapshot, which are the previous ones if listing failed.
+         */
+        public synchronized Set<String> refresh(){
+            State previous = state;
+            
+            Set<String> items;
+            try{
+                items = Set.copyOf(loader.get());
+            }catch(RuntimeException ex){
+                LOGGER.warn("Failed to refresh {}, keeping the previous snapshot.", name, ex);
+                return previous == null ? Set.of() : previous.items();
+            }
+            
+            Delta delta = previous == null ? Delta.NONE : Delta.between(previous.items(), items);
+            state = new State(items, Instant.now(), delta);
+            
+            if(previous != null && !delta.isEmpty())
+                LOGGER.info("{} changed: {} added, {} removed. Now {} in total.", name, delta.added().size(), delta.removed().size(), items.size());
+            
+            return items;
+        }
+        
+        public Set<String> getItems(){
+            return state().items();
+        }
+        
+        public int count(){
+            return state().items().size();
+        }
+        
+        public boolean contains(String item){
+            return state().items().contains(item);
+        }
+        
+        /**
+         * The time of the last successful refresh, or {@code null} if it was never loaded.
+         */
+        public Instant getRefreshedAt(){
+            State current = state;
+            return current == null ? null : current.refreshedAt();
+        }
+        
+        /**
+         * The changes between the last two successful refreshes.
+         */
+        public Delta getLastDelta(){
+            State current = state;
+            return current == null ? Delta.NONE : current.delta();
+        }
+        
+        private State state(){
+            State current = state;
+            if(current != null)
+                return current;
+            
+            refresh();
+            current = state;
+            return current == null ? new State(Set.of(), null, Delta.NONE) : current;
+        }
+    }
+    
+    private record State(Set<String> items, Instant refreshedAt, Delta delta){}
+    
+    /**
+     * Items added and removed between two refreshes.
+     */
+    public record Delta(Set<String> added, Set<String> removed){
+        
+        public static final Delta NONE = new Delta(Set.of(), Set.of());
+        
+        static Delta between(Set<String> before, Set<String> after){
+            Set<String> added = new HashSet<>(after);
+            added.removeAll(before);
+            
+            Set<String> removed = new HashSet<>(before);
+            removed.removeAll(after);
+            
+            return added.isEmpty() && removed.isEmpty() ? NONE : new Delta(Set.copyOf(added), Set.copyOf(removed));
+        }
+        
+        public boolean isEmpty(){
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
+}
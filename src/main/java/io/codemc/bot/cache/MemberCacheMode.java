@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.cache;
+
+import java.util.Locale;
+
+/**
+ * Which members of the CodeMC Server JDA keeps in its member cache.
+ * <br>Configured through the {@code members.cache} option of the config.json.
+ */
+public enum MemberCacheMode{
+    
+    /**
+     * Every member JDA sees is cached for as long as they stay on the server.
+     */
+    ALL,
+    
+    /**
+     * Only members holding the author role or any role from {@code allowed_roles} are cached.
+     * <br>Everyone else is retrieved on demand through the {@link MemberLookup}.
+     */
+    ROLES;
+    
+    public static MemberCacheMode fromString(String mode){
+        if(mode == null || mode.isEmpty())
+            return ALL;
+        
+        try{
+            return valueOf(mode.toUpperCase(Locale.ROOT));
+        }catch(IllegalArgumentException ex){
+            return ALL;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.cache;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Resolves members that may not be in JDA's member cache.
+ * <br>Cached members are returned directly. Anyone else is retrieved from Discord and kept in a small LRU,
+ * so that a member handled several times in a row (e.g. while their application is processed) is only
+ * requested once.
+ */
+public class MemberLookup{
+    
+    private final Logger logger = LoggerFactory.getLogger(MemberLookup.class);
+    
+    private final Map<Long, Member> members;
+    
+    public MemberLookup(int capacity){
+        this.members = new LinkedHashMap<Long, Member>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Member> eldest){
+                return size() > capacity;
+            }
+        };
+    }
+    
+    /**
+     * Returns the member with the given ID, retrieving them from Discord if they are not cached.
+     * <br>The future completes with {@code null} when the user is not a member of the server or could not be retrieved.
+     * It never completes exceptionally, and can be safely chained from within JDA callbacks.
+     */
+    public CompletableFuture<Member> retrieve(Guild guild, long id){
+        Member member = guild.getMemberById(id);
+        if(member != null)
+            return CompletableFuture.completedFuture(member);
+        
+        synchronized(members){
+            member = members.get(id);
+        }
+        if(member != null)
+            return CompletableFuture.completedFuture(member);
+        
+        return guild.retrieveMemberById(id).submit()
+            .thenApply(retrieved -> {
+                if(retrieved != null){
+                    synchronized(members){
+                        members.put(id, retrieved);
+                    }
+                }
+                
+                return retrieved;
+            })
+            .exceptionally(ex -> {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                if(!(cause instanceof ErrorResponseException response) || response.getErrorResponse() != ErrorResponse.UNKNOWN_MEMBER)
+                    logger.warn("Unable to retrieve Member with ID {}!", id, cause);
+                
+                return null;
+            });
+    }
+    
+    /**
+     * Drops a member retrieved earlier, e.g. after their roles changed.
+     */
+    public void invalidate(long id){
+        synchronized(members){
+            members.remove(id);
+        }
+    }
+    
+    public int size(){
+        synchronized(members){
+            return members.size();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.cache;
+
+import io.codemc.bot.config.PermissionMatrix;
+import net.dv8tion.jda.api.entities.Member;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Caches the {@link io.codemc.bot.config.Capability Capability} mask of every member that used the bot, keyed by
+ * their user ID.
+ * <br>Entries are dropped when the roles of a member change and the whole cache is cleared once a different
+ * {@link PermissionMatrix} (i.e. a reloaded config) is passed in, so a hit is always what resolving the member
+ * again would return.
+ * <br>The entries live in a primitive open-addressing table read under an optimistic {@link StampedLock}, meaning
+ * a cached check neither locks nor allocates.
+ */
+public class PermissionCache{
+    
+    private static final int INITIAL_CAPACITY = 64;
+    // Discord snowflakes are never 0, so it marks free slots
+    private static final long FREE = 0L;
+    
+    private final StampedLock lock = new StampedLock();
+    
+    private Table table = new Table(INITIAL_CAPACITY);
+    private int size = 0;
+    private volatile PermissionMatrix matrix = null;
+    
+    public PermissionCache(){}
+    
+    /**
+     * Returns the capabilities of the member under the given matrix, resolving and caching them on a miss.
+     */
+    public int resolve(Member member, PermissionMatrix matrix){
+        if(this.matrix != matrix)
+            reset(matrix);
+        
+        long id = member.getIdLong();
+        int cached = get(id);
+        if(cached >= 0)
+            return cached;
+        
+        int mask = matrix.resolve(member.getRoles());
+        put(id, mask, matrix);
+        return mask;
+    }
+    
+    /**
+     * Whether the member has any of the {@code required} capabilities.
+     *
+     * @see PermissionMatrix#allows(int, int)
+     */
+    public boolean allows(Member member, PermissionMatrix matrix, int required){
+        return matrix.allows(resolve(member, matrix), required);
+    }
+    
+    /**
+     * Drops the cached capabilities of a single member, e.g. after their roles changed.
+     */
+    public void invalidate(long memberId){
+        long stamp = lock.writeLock();
+        try{
+            remove(memberId);
+        }finally{
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    public void invalidateAll(){
+        long stamp = lock.writeLock();
+        try{
+            table = new Table(INITIAL_CAPACITY);
+            size = 0;
+        }finally{
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    public int size(){
+        long stamp = lock.readLock();
+        try{
+            return size;
+        }finally{
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    private void reset(PermissionMatrix matrix){
+        long stamp = lock.writeLock();
+        try{
+            if(this.matrix == matrix)
+                return;
+            
+            table = new Table(INITIAL_CAPACITY);
+            size = 0;
+            this.matrix = matrix;
+        }finally{
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    // Returns -1 when absent, masks themselves are never negative
+    private int get(long id){
+        long stamp = lock.tryOptimisticRead();
+        int value = table.get(id);
+        if(lock.validate(stamp))
+            return value;
+        
+        stamp = lock.readLock();
+        try{
+            return table.get(id);
+        }finally{
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    private void put(long id, int mask, PermissionMatrix matrix){
+        long stamp = lock.writeLock();
+        try{
+            // the config was reloaded while resolving, the mask is already outdated
+            if(this.matrix != matrix)
+                return;
+            
+            if((size + 1) * 2 > table.keys.length)
+                table = table.grow();
+            
+            if(table.put(id, mask))
+                size++;
+        }finally{
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    private void remove(long id){
+        if(table.remove(id))
+            size--;
+    }
+    
+    private static final class Table{
+        
+        private final long[] keys;
+        private final int[] values;
+        
+        private Table(int capacity){
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+        }
+        
+        private int slot(long id){
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return (int)(hash ^ (hash >>> 32)) & (keys.length - 1);
+        }
+        
+        private int get(long id){
+            int mask = keys.length - 1;
+            int i = slot(id);
+            // bounded so a read racing a writer can never spin, the result is discarded anyway
+            for(int probes = 0; probes < keys.length; probes++){
+                long key = keys[i];
+                if(key == id)
+                    return values[i];
+                if(key == FREE)
+                    return -1;
+                
+                i = (i + 1) & mask;
+            }
+            
+            return -1;
+        }
+        
+        private boolean put(long id, int value){
+            int mask = keys.length - 1;
+            int i = slot(id);
+            while(keys[i] != FREE){
+                if(keys[i] == id){
+                    values[i] = value;
+                    return false;
+                }
+                
+                i = (i + 1) & mask;
+            }
+            
+            keys[i] = id;
+            values[i] = value;
+            return true;
+        }
+        
+        private boolean remove(long id){
+            int mask = keys.length - 1;
+            int i = slot(id);
+            while(keys[i] != id){
+                if(keys[i] == FREE)
+                    return false;
+                
+                i = (i + 1) & mask;
+            }
+            
+            // shift the following entries of the probe chain back instead of leaving a tombstone
+            int gap = i;
+            int j = (i + 1) & mask;
+            while(keys[j] != FREE){
+                int home = slot(keys[j]);
+                if(((j - home) & mask) >= ((j - gap) & mask)){
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+                
+                j = (j + 1) & mask;
+            }
+            
+            keys[gap] = FREE;
+            values[gap] = 0;
+            return true;
+        }
+        
+        private Table grow(){
+            Table grown = new Table(keys.length * 2);
+            for(int i = 0; i < keys.length; i++){
+                if(keys[i] != FREE)
+                    grown.put(keys[i], values[i]);
+            }
+            
+            return grown;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.cache;
+
+import io.codemc.api.database.DatabaseAPI;
+import io.codemc.api.database.User;
+import io.codemc.bot.health.Resilience;
+import io.codemc.bot.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the links between Discord users and Jenkins/Nexus usernames stored in the database.
+ * <br>The index is loaded once on startup and afterwards kept up to date by writing links through it,
+ * so that looking up the accounts of a Discord user no longer requires reading the whole users table.
+ * <br>Usernames are looked up case-insensitively, like the database and Jenkins do.
+ */
+public class UserIndex{
+    
+    private final Logger logger = LoggerFactory.getLogger(UserIndex.class);
+    
+    // Replaced as a whole when reloading, so that readers never see a half-built index.
+    private volatile Index index = new Index(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    
+    public UserIndex(){}
+    
+    /**
+     * (Re)builds the index from all users currently stored in the database.
+     */
+    public synchronized void load(){
+        List<User> users = Resilience.isolate(Metrics.DATABASE, "getAllUsers", () -> DatabaseAPI.getAllUsers());
+        
+        Map<Long, List<String>> byDiscord = new HashMap<>();
+        Map<String, Long> byUsername = new ConcurrentHashMap<>();
+        for(User user : users){
+            byDiscord.computeIfAbsent(user.getDiscord(), k -> new ArrayList<>()).add(user.getUsername());
+            byUsername.put(key(user.getUsername()), user.getDiscord());
+        }
+        
+        Map<Long, List<String>> usernames = new ConcurrentHashMap<>();
+        byDiscord.forEach((id, names) -> usernames.put(id, List.copyOf(names)));
+        index = new Index(usernames, byUsername);
+        
+        logger.info("Indexed {} linked user(s) of {} Discord user(s).", byUsername.size(), byDiscord.size());
+    }
+    
+    public int size(){
+        return index.discordIds().size();
+    }
+    
+    /**
+     * Returns all usernames linked to the Discord user, in the order they were linked.
+     */
+    public List<String> getUsernames(long discordId){
+        return index.usernames().getOrDefault(discordId, Collections.emptyList());
+    }
+    
+    /**
+     * Returns the first username linked to the Discord user, or {@code null} if there is none.
+     */
+    public String getUsername(long discordId){
+        return getUsername(discordId, null);
+    }
+    
+    /**
+     * Returns the username linked to the Discord user that equals {@code target} ignoring case, or the first one if
+     * {@code target} is null.
+     */
+    public String getUsername(long discordId, String target){
+        for(String username : getUsernames(discordId)){
+            if(target == null || username.equalsIgnoreCase(target))
+                return username;
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Returns the ID of the Discord user the username is linked to, or {@code -1} if it isn't linked.
+     */
+    public long getDiscord(String username){
+        return index.discordIds().getOrDefault(key(username), -1L);
+    }
+    
+    /**
+     * Stores a new link in the database and the index.
+     */
+    public void add(String username, long discordId){
+        Resilience.isolate(Metrics.DATABASE, "addUser", () -> DatabaseAPI.addUser(username, discordId));
+        index(username, discordId);
+    }
+    
+    /**
+     * Links the username to the Discord user, replacing any existing link of the username.
+     */
+    public void link(String username, long discordId){
+        if(Resilience.isolate(Metrics.DATABASE, "getUser", () -> DatabaseAPI.getUser(username)) == null)
+            Resilience.isolate(Metrics.DATABASE, "addUser", () -> DatabaseAPI.addUser(username, discordId));
+        else
+            Resilience.isolate(Metrics.DATABASE, "updateUser", () -> DatabaseAPI.updateUser(username, discordId));
+        
+        index(username, discordId);
+    }
+    
+    /**
+     * Removes the link of the username from the database and the index.
+     *
+     * @return The amount of removed database rows.
+     */
+    public int remove(String username){
+        int removed = Resilience.isolate(Metrics.DATABASE, "removeUser", () -> DatabaseAPI.removeUser(username));
+        unindex(username);
+        
+        return removed;
+    }
+    
+    private synchronized void index(String username, long discordId){
+        unindex(username);
+        
+        Index index = this.index;
+        index.discordIds().put(key(username), discordId);
+        index.usernames().compute(discordId, (id, names) -> {
+            List<String> updated = names == null ? new ArrayList<>() : new ArrayList<>(names);
+            updated.add(username);
+            return List.copyOf(updated);
+        });
+    }
+    
+    private synchronized void unindex(String username){
+        Index index = this.index;
+        Long discordId = index.discordIds().remove(key(username));
+        if(discordId == null)
+            return;
+        
+        index.usernames().computeIfPresent(discordId, (id, names) -> {
+            List<String> updated = new ArrayList<>(names);
+            updated.removeIf(name -> name.equalsIgnoreCase(username));
+            return updated.isEmpty() ? null : List.copyOf(updated);
+        });
+    }
+    
+    private static String key(String username){
+        return username.toLowerCase(Locale.ROOT);
+    }
+    
+    private record Index(Map<Long, List<String>> usernames, Map<String, Long> discordIds){}
+}
@@ -21,17 +21,38 @@ package io.codemc.bot.commands;
 import com.jagrosh.jdautilities.command.SlashCommand;
 import com.jagrosh.jdautilities.command.SlashCommandEvent;
 import io.codemc.bot.CodeMCBot;
+import io.codemc.bot.config.BotConfig;
+import io.codemc.bot.config.Capability;
+import io.codemc.bot.execution.KeyedDispatcher;
+import io.codemc.bot.health.Backend;
+import io.codemc.bot.health.BackendUnavailableException;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import io.codemc.bot.tracing.Trace;
+import io.codemc.bot.tracing.Tracing;
 import io.codemc.bot.utils.CommandUtil;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.interactions.InteractionHook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Set;
 
 public abstract class BotCommand extends SlashCommand{
     
-    protected List<Long> allowedRoles = new ArrayList<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(BotCommand.class);
+    
+    /**
+     * Mask of the {@link Capability Capabilities} of which the member needs any to use this command.
+     * <br>Commands requiring none are usable by everyone.
+     */
+    protected int capabilities = 0;
+    /**
+     * The backends this command uses. It is refused while any of them is not {@link io.codemc.bot.health.BackendStatus ready}.
+     */
+    protected Set<Backend> backends = Set.of();
     protected boolean hasModalReply = false;
     
     public final CodeMCBot bot;
@@ -42,18 +63,22 @@ public abstract class BotCommand extends SlashCommand{
     
     @Override
     public void execute(SlashCommandEvent event){
+        long started = System.nanoTime();
         Guild guild = event.getGuild();
         if(guild == null){
             CommandUtil.EmbedReply.from(event)
                 .error("Command can only be executed in a Server!")
                 .send();
+            Metrics.rejected(Metrics.COMMAND, name);
             return;
         }
         
-        if(guild.getIdLong() != bot.getConfigHandler().getLong("server")){
+        BotConfig config = bot.getConfigHandler().getConfig();
+        if(guild.getIdLong() != config.server()){
             CommandUtil.EmbedReply.from(event)
                 .error("Unable to find CodeMC Server!")
                 .send();
+            Metrics.rejected(Metrics.COMMAND, name);
             return;
         }
         
@@ -62,23 +87,78 @@ public abstract class BotCommand extends SlashCommand{
             CommandUtil.EmbedReply.from(event)
                 .error("Unable to retrieve Member from Event!")
                 .send();
+            Metrics.rejected(Metrics.COMMAND, name);
             return;
         }
         
-        if(!CommandUtil.hasRole(member, allowedRoles)){
+        if(!bot.getPermissionCache().allows(member, config.permissions(), capabilities)){
             CommandUtil.EmbedReply.from(event)
                 .error("You lack the permissions required to use this command!")
                 .send();
+            Metrics.rejected(Metrics.COMMAND, name);
             return;
         }
         
-        if(hasModalReply){
-            withModalReply(event);
-        }else{
-            event.deferReply(true).queue(hook -> withHookReply(hook, event, guild, member));
+        Backend unavailable = bot.getBackends().firstUnavailable(backends);
+        if(unavailable != null){
+            CommandUtil.EmbedReply.from(event)
+                .error(unavailable.getName() + " is not available right now. Please try again in a moment.")
+                .send();
+            Metrics.rejected(Metrics.COMMAND, name);
+            return;
+        }
+        
+        Trace trace = Tracing.start(Metrics.COMMAND, name);
+        try(Trace.Scope ignored = trace.activate(); Trace.Scope bounded = Deadline.forInteraction().activate()){
+            if(hasModalReply){
+                traced(trace, started, () -> withModalReply(event));
+            }else{
+                String key = resourceKey(event, member);
+                // An interaction waiting for another one on the same resource is queued, so that it never parks a JDA thread.
+                event.deferReply(true).queue(bot.getExecutors().dispatch(
+                    hook -> bot.getExecutors().keyed()
+                        .submit(key, bot.getExecutors().bulk(), () -> traced(trace, started, () -> reply(hook, event, guild, member)))
+                        .exceptionally(ex -> {
+                            LOGGER.error("Failed to handle command {}.", name, ex);
+                            return null;
+                        })
+                ));
+            }
+        }
+    }
+    
+    private void reply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member){
+        try{
+            withHookReply(hook, event, guild, member);
+        }catch(BackendUnavailableException ex){
+            // A backend that kept failing or is too busy is not waited on, the member is told to come back later instead.
+            CommandUtil.EmbedReply.from(hook).error(ex.getMessage()).send();
+        }catch(DeadlineExceededException ex){
+            // Waited too long for a backend or for other interactions on the same resource, e.g. the account being
+            // provisioned, the rest is skipped.
+            CommandUtil.EmbedReply.from(hook).error(ex.getMessage()).send();
         }
     }
     
+    private void traced(Trace trace, long started, Runnable handler){
+        try{
+            Metrics.handle(Metrics.COMMAND, name, started, handler);
+        }finally{
+            trace.finish();
+        }
+    }
+    
+    /**
+     * The resource this interaction works on, e.g. {@link KeyedDispatcher#user(String) an account}.
+     * <br>Interactions for the same resource are handled one after another, so that they cannot interleave
+     * their Jenkins, Nexus and database changes.
+     *
+     * @return The key of the resource, or {@code null} if the interaction can run alongside any other.
+     */
+    protected String resourceKey(SlashCommandEvent event, Member member){
+        return null;
+    }
+    
     public abstract void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member);
     
     public abstract void withModalReply(SlashCommandEvent event);
@@ -21,6 +21,8 @@ package io.codemc.bot.commands;
 import com.jagrosh.jdautilities.command.SlashCommand;
 import com.jagrosh.jdautilities.command.SlashCommandEvent;
 import io.codemc.bot.CodeMCBot;
+import io.codemc.bot.config.Capability;
+import io.codemc.bot.health.Backend;
 import io.codemc.bot.utils.ApplicationHandler;
 import io.codemc.bot.utils.CommandUtil;
 import net.dv8tion.jda.api.entities.Guild;
@@ -31,6 +33,7 @@ import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 
 import java.util.List;
+import java.util.Set;
 
 import org.jetbrains.annotations.VisibleForTesting;
 
@@ -42,7 +45,7 @@ public class CmdApplication extends BotCommand{
         this.name = "application";
         this.help = "Accept or deny applications.";
         
-        this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "application");
+        this.capabilities = Capability.APPLICATION.bit();
         
         this.children = new SlashCommand[]{
             new Accept(bot),
@@ -65,7 +68,8 @@ public class CmdApplication extends BotCommand{
             this.name = "accept";
             this.help = "Accept an application";
             
-            this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "application");
+            this.capabilities = Capability.APPLICATION.bit();
+            this.backends = Backend.ALL;
             
             this.options = List.of(
                     new OptionData(OptionType.STRING, "id", "The message id of the application.").setRequired(true)
@@ -111,7 +115,8 @@ public class CmdApplication extends BotCommand{
             this.name = "deny";
             this.help = "Deny an application";
             
-            this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "application");
+            this.capabilities = Capability.APPLICATION.bit();
+            this.backends = Set.of(Backend.DATABASE);
             
             this.options = List.of(
                     new OptionData(OptionType.STRING, "id", "The message id of the application.").setRequired(true),
@@ -20,20 +20,33 @@ package io.codemc.bot.commands;
 
 import com.jagrosh.jdautilities.command.SlashCommand;
 import com.jagrosh.jdautilities.command.SlashCommandEvent;
-import io.codemc.api.database.DatabaseAPI;
-import io.codemc.api.database.User;
 import io.codemc.api.jenkins.JenkinsAPI;
 import io.codemc.api.jenkins.JenkinsJob;
 import io.codemc.api.nexus.NexusAPI;
 import io.codemc.bot.CodeMCBot;
+import io.codemc.bot.config.Capability;
+import io.codemc.bot.execution.KeyedDispatcher;
+import io.codemc.bot.health.Backend;
+import io.codemc.bot.health.BackendStatus;
+import io.codemc.bot.health.CircuitBreaker;
+import io.codemc.bot.health.Resilience;
+import io.codemc.bot.cache.Inventory;
+import io.codemc.bot.config.BotConfig;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import io.codemc.bot.tracing.Trace;
 import io.codemc.bot.utils.APIUtil;
+import io.codemc.bot.utils.BulkValidator;
 import io.codemc.bot.utils.CommandUtil;
+import io.codemc.bot.utils.ProgressReporter;
 import kotlinx.serialization.json.JsonArray;
 import kotlinx.serialization.json.JsonObject;
 import kotlinx.serialization.json.JsonPrimitive;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.exceptions.ErrorHandler;
@@ -42,8 +55,11 @@ import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.api.requests.ErrorResponse;
-
+import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+import net.dv8tion.jda.api.requests.restaction.WebhookMessageEditAction;
+import net.dv8tion.jda.api.utils.FileUpload;
 import net.dv8tion.jda.api.utils.MarkdownUtil;
+import net.dv8tion.jda.api.utils.TimeFormat;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
@@ -53,13 +69,19 @@ import org.w3c.dom.Document;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class CmdCodeMC extends BotCommand {
@@ -83,7 +105,8 @@ public class CmdCodeMC extends BotCommand {
                 new CreateUser(bot),
                 new DeleteUser(bot),
                 new MyStatus(bot),
-                new Help(bot)
+                new Help(bot),
+                new Status(bot)
         };
     }
 
@@ -95,6 +118,12 @@ public class CmdCodeMC extends BotCommand {
     public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
     }
 
+    // The owner type is looked up first, so that the GitHub request is not timed as part of the Jenkins call.
+    static boolean createJenkinsUser(String username, String password) {
+        boolean group = APIUtil.isGroup(username);
+        return Resilience.call(Metrics.JENKINS, "createJenkinsUser", () -> JenkinsAPI.createJenkinsUser(username, password, group), Resilience.UNSUCCESSFUL);
+    }
+
     @VisibleForTesting
     static class Jenkins extends BotCommand {
 
@@ -103,6 +132,7 @@ public class CmdCodeMC extends BotCommand {
 
             this.name = "jenkins";
             this.help = "Fetch information about the Jenkins Service.";
+            this.backends = Set.of(Backend.JENKINS);
 
             this.options = List.of(
                     new OptionData(OptionType.STRING, "job", "The Jenkins Job Location to fetch. I.e. \"CodeMC/API\".").setRequired(true)
@@ -132,11 +162,11 @@ public class CmdCodeMC extends BotCommand {
 
         @VisibleForTesting
         MessageEmbed createInfoEmbed(String job) {
-            String jenkinsUrl = bot.getConfigHandler().getString("jenkins", "url");
+            String jenkinsUrl = bot.getConfigHandler().getConfig().jenkinsUrl();
             String username = job.split("/")[0];
             String jobName = job.split("/")[1];
 
-            JenkinsJob info = JenkinsAPI.getJobInfo(username, jobName);
+            JenkinsJob info = Resilience.retry(Metrics.JENKINS, "getJobInfo", () -> JenkinsAPI.getJobInfo(username, jobName));
             if (info == null) return null;
 
             EmbedBuilder embed = CommandUtil.getEmbed()
@@ -169,6 +199,7 @@ public class CmdCodeMC extends BotCommand {
 
             this.name = "nexus";
             this.help = "Fetch information about the Nexus Service.";
+            this.backends = Set.of(Backend.NEXUS);
 
             this.options = List.of(
                     new OptionData(OptionType.STRING, "user", "The user that owns the repository.").setRequired(true)
@@ -199,10 +230,10 @@ public class CmdCodeMC extends BotCommand {
 
         @VisibleForTesting
         MessageEmbed createInfoEmbed(String user) {
-            String nexusUrl = bot.getConfigHandler().getString("nexus", "url");
+            String nexusUrl = bot.getConfigHandler().getConfig().nexusUrl();
             String repository = user.toLowerCase();
 
-            JsonObject info = NexusAPI.getNexusRepository(repository);
+            JsonObject info = Resilience.retry(Metrics.NEXUS, "getNexusRepository", () -> NexusAPI.getNexusRepository(repository));
             if (info == null) return null;
 
             String format = ((JsonPrimitive) info.get("format")).getContent();
@@ -226,8 +257,9 @@ public class CmdCodeMC extends BotCommand {
 
             this.name = "remove";
             this.help = "Remove a user from a CodeMC Service.";
+            this.backends = Backend.ALL;
 
-            this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "codemc");
+            this.capabilities = Capability.CODEMC.bit();
 
             this.options = List.of(
                     new OptionData(OptionType.STRING, "username", "The Jenkins/Nexus username of the user.").setRequired(true)
@@ -238,31 +270,40 @@ public class CmdCodeMC extends BotCommand {
         public void withModalReply(SlashCommandEvent event) {
         }
 
+        @Override
+        protected String resourceKey(SlashCommandEvent event, Member member) {
+            return KeyedDispatcher.user(event.getOption("username", null, OptionMapping::getAsString));
+        }
+
         @Override
         public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
             String username = event.getOption("username", null, OptionMapping::getAsString);
 
             if (checkUsername(hook, username)) return;
 
-            User dbUser = DatabaseAPI.getUser(username);
+            long id = bot.getUserIndex().getDiscord(username);
 
-            DatabaseAPI.removeUser(username);
-            JenkinsAPI.deleteUser(username);
-            NexusAPI.deleteNexus(username);
+            // A job left queued for the user would create the accounts again on the next restart.
+            bot.getProvisioning().cancel(username);
+            bot.getUserIndex().remove(username);
+            Resilience.retry(Metrics.JENKINS, "deleteUser", () -> JenkinsAPI.deleteUser(username));
+            Resilience.retry(Metrics.NEXUS, "deleteNexus", () -> NexusAPI.deleteNexus(username));
 
-            if (dbUser == null) {
+            if (id == -1L) {
                 CommandUtil.EmbedReply.from(hook).success("Successfully removed " + username + " from the CodeMC Services!").send();
                 return;
             }
 
-            long id = dbUser.getDiscord();
-            Member user = guild.getMemberById(id);
+            bot.getMemberLookup().retrieve(guild, id).thenAccept(user -> revokeAuthor(hook, member, guild, username, user));
+        }
+
+        private void revokeAuthor(InteractionHook hook, Member member, Guild guild, String username, Member user) {
             if (user == null) {
                 CommandUtil.EmbedReply.from(hook).success("Successfully removed " + username + " from the CodeMC Services!").send();
                 return;
             }
 
-            Role authorRole = guild.getRoleById(bot.getConfigHandler().getLong("author_role"));
+            Role authorRole = guild.getRoleById(bot.getConfigHandler().getConfig().authorRole());
             if (authorRole == null) {
                 CommandUtil.EmbedReply.from(hook).error("The Author role is not set up correctly!").send();
                 return;
@@ -298,7 +339,7 @@ public class CmdCodeMC extends BotCommand {
                 return true;
             }
 
-            if (!JenkinsAPI.existsUser(username)) {
+            if (!Resilience.retry(Metrics.JENKINS, "existsUser", () -> JenkinsAPI.existsUser(username))) {
                 CommandUtil.EmbedReply.from(hook).error("The user does not have a Jenkins account!").send();
                 return true;
             }
@@ -310,13 +351,18 @@ public class CmdCodeMC extends BotCommand {
     @VisibleForTesting
     static class Validate extends BotCommand{
 
+        private static final int DEFAULT_PARALLELISM = 8;
+        private static final int MAX_FAILURES_LENGTH = 900;
+        private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+
         public Validate(CodeMCBot bot) {
             super(bot);
 
             this.name = "validate";
             this.help = "Validates the existence of current API services for specific users.";
+            this.backends = Backend.ALL;
 
-            this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "codemc");
+            this.capabilities = Capability.CODEMC.bit();
 
             this.options = List.of(
                     new OptionData(OptionType.STRING, "username", "Target Username to validate. When left blank, validates all existing Jenkins Users.")
@@ -327,78 +373,170 @@ public class CmdCodeMC extends BotCommand {
         public void withModalReply(SlashCommandEvent event) {}
 
         @Override
-        public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
-            AtomicInteger count = new AtomicInteger(0);
-            AtomicBoolean success = new AtomicBoolean(true);
+        protected String resourceKey(SlashCommandEvent event, Member member) {
+            return KeyedDispatcher.user(event.getOption("username", null, OptionMapping::getAsString));
+        }
 
+        @Override
+        public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
             String username = event.getOption("username", null, OptionMapping::getAsString);
-            if (username == null) {
-                CommandUtil.EmbedReply.from(hook)
-                        .success("Validating all Jenkins Users...")
-                        .send();
+            if (username != null) {
+                List<String> problems = validate(username);
+                if (problems.isEmpty())
+                    CommandUtil.EmbedReply.from(hook)
+                            .success("Successfully validated 1 User(s)")
+                            .send();
+                else
+                    CommandUtil.EmbedReply.from(hook)
+                            .error("Failed to validate " + username + ":", String.join("\n", problems))
+                            .send();
+                return;
+            }
 
-                JenkinsAPI.getAllJenkinsUsers().forEach(user -> {
-                    if (success.get())
-                        success.set(validate(null, user, count));
-                });
-            } else {
-                success.set(validate(hook, username, count));
-                if (!success.get()) return;
+            // Users not validated by the interaction's deadline are skipped, leaving time for the final report.
+            Deadline deadline = Deadline.current();
+            // Listing the users anyway, so refresh the inventory with it instead of listing twice.
+            List<String> users = bot.getInventory().getJenkinsUsers().refresh().stream().sorted().toList();
+            // Users that have to be recreated need their owner type, look them all up in a few requests instead of one each.
+            APIUtil.prefetchOwnerTypes(users);
+
+            ProgressReporter reporter = new ProgressReporter(
+                    hook, bot.getExecutors().scheduler(), PROGRESS_INTERVAL,
+                    content -> hook.editOriginal(EmbedBuilder.ZERO_WIDTH_SPACE).setEmbeds(CommandUtil.embedSuccess(content))
+            );
+            reporter.update("Validating all Jenkins Users...");
+
+            int parallelism = bot.getConfigHandler().getInt("validation", "parallelism");
+            BulkValidator validator = new BulkValidator(
+                    bot.getExecutors().bulk(),
+                    parallelism <= 0 ? DEFAULT_PARALLELISM : parallelism,
+                    this::validateKeyed
+            );
+
+            validator.run(users, progress -> {
+                if (deadline.isExpired()) {
+                    reporter.cancel();
+                    return;
+                }
+
+                reporter.update("Validating all Jenkins Users... (" + progress.completed() + "/" + progress.total() + ", " + progress.failed() + " failed)");
+            }).whenComplete((report, ex) -> {
+                if (ex != null) {
+                    LOGGER.error("Failed to validate all Jenkins Users!", ex);
+                    reporter.error("Failed to validate user(s)!");
+                    return;
+                }
+
+                sendReport(hook, reporter, report);
+            });
+        }
+
+        // Takes each account's key like the single-user command does, so that validating it cannot interleave with
+        // provisioning, removing it or changing its password.
+        private List<String> validateKeyed(String username) {
+            AtomicReference<List<String>> problems = new AtomicReference<>();
+            try {
+                bot.getExecutors().keyed().run(KeyedDispatcher.user(username), () -> problems.set(validate(username)));
+            } catch (DeadlineExceededException ex) {
+                return List.of("Skipped, the account was busy until the deadline passed.");
             }
 
-            if (success.get())
-                CommandUtil.EmbedReply.from(hook)
-                        .success("Successfully validated " + count.get() + " User(s)")
-                        .send();
-            else
-                CommandUtil.EmbedReply.from(hook)
-                        .error("Failed to validate user(s)!")
-                        .send();
+            return problems.get();
         }
 
-        private boolean validate(InteractionHook hook, String username, AtomicInteger count) {
-            boolean success = true;
+        @VisibleForTesting
+        static List<String> validate(String username) {
+            List<String> problems = new ArrayList<>();
 
             String password = APIUtil.newPassword();
-            String jenkins = JenkinsAPI.getJenkinsUser(username);
+            String jenkins = Resilience.retry(Metrics.JENKINS, "getJenkinsUser", () -> JenkinsAPI.getJenkinsUser(username));
 
             boolean noJenkins = jenkins == null || jenkins.isEmpty();
-            if (noJenkins)
-                success &= JenkinsAPI.createJenkinsUser(username, password, APIUtil.isGroup(username));
+            if (noJenkins && !createJenkinsUser(username, password))
+                problems.add("Failed to create Jenkins User");
 
-            JenkinsAPI.checkUserConfig(username);
-            JenkinsAPI.checkCredentials(username, password);
+            Resilience.retry(Metrics.JENKINS, "checkUserConfig", () -> JenkinsAPI.checkUserConfig(username));
+            Resilience.retry(Metrics.JENKINS, "checkCredentials", () -> JenkinsAPI.checkCredentials(username, password));
 
-            JsonObject info = NexusAPI.getNexusRepository(username);
+            JsonObject info = Resilience.retry(Metrics.NEXUS, "getNexusRepository", () -> NexusAPI.getNexusRepository(username));
             if (info == null || info.isEmpty()) {
-                success &= APIUtil.createNexus(hook, username, password);
+                if (!APIUtil.createNexus(null, username, password))
+                    problems.add("Failed to create Nexus Repository");
+
+                if (!noJenkins && !Resilience.retry(Metrics.JENKINS, "changeJenkinsPassword", () -> JenkinsAPI.changeJenkinsPassword(username, password), Resilience.UNSUCCESSFUL))
+                    problems.add("Failed to change Jenkins Password");
+            } else if (!Resilience.retry(Metrics.NEXUS, "validatePrivileges", () -> NexusAPI.validatePrivileges(username))) {
+                problems.add("Failed to validate Nexus Privileges");
+            }
 
-                if (!noJenkins)
-                    success &= JenkinsAPI.changeJenkinsPassword(username, password);
+            return problems;
+        }
+
+        private static void sendReport(InteractionHook hook, ProgressReporter reporter, BulkValidator.Report report) {
+            List<BulkValidator.Result> failed = report.failed();
+            int total = report.results().size();
+
+            MessageEmbed embed;
+            FileUpload file = null;
+            if (failed.isEmpty()) {
+                embed = CommandUtil.embedSuccess("Successfully validated " + total + " User(s)");
             } else {
-                success &= NexusAPI.validatePrivileges(username);
+                StringBuilder lines = new StringBuilder();
+                int listed = 0;
+                for (BulkValidator.Result result : failed) {
+                    String line = "- `" + result.username() + "`: " + String.join(", ", result.problems()) + "\n";
+                    if (lines.length() + line.length() > MAX_FAILURES_LENGTH) break;
+
+                    lines.append(line);
+                    listed++;
+                }
+
+                if (listed < failed.size()) {
+                    lines.append("...and ").append(failed.size() - listed).append(" more, see the attached report.");
+                    file = FileUpload.fromData(report.toText().getBytes(StandardCharsets.UTF_8), "validation-report.txt");
+                }
+
+                embed = CommandUtil.embedError("Failed to validate " + failed.size() + " of " + total + " User(s)!", lines.toString());
+            }
+
+            FileUpload attachment = file;
+            if (!hook.isExpired()) {
+                reporter.finish(h -> {
+                    WebhookMessageEditAction<Message> action = h.editOriginal(EmbedBuilder.ZERO_WIDTH_SPACE).setEmbeds(embed);
+                    if (attachment != null)
+                        action = action.setFiles(attachment);
+
+                    action.queue();
+                });
+                return;
             }
 
-            count.incrementAndGet();
-            return success;
+            // The interaction token has expired by now, so the report can only be posted as a new message.
+            reporter.cancel();
+            MessageCreateAction action = CommandUtil.fallback(hook).setEmbeds(embed);
+            if (file != null)
+                action = action.addFiles(file);
+
+            action.queue();
         }
     }
 
     @VisibleForTesting
     static class MyStatus extends BotCommand {
 
+        private static final Duration LOOKUP_TIMEOUT = Duration.ofSeconds(5);
+        private static final String UNAVAILABLE = MarkdownUtil.underline("Unavailable");
+
         public MyStatus(CodeMCBot bot) {
             super(bot);
 
             this.name = "my-status";
             this.help = "Checks the status of your CodeMC Jenkins and Nexus accounts.";
+            // Jenkins and Nexus are looked up individually and reported as unavailable when they do not answer.
+            this.backends = Set.of(Backend.DATABASE);
             this.aliases = new String[]{"mystatus"};
 
-            List<Long> roles = new ArrayList<>();
-            roles.add(bot.getConfigHandler().getLong("author_role"));
-            roles.addAll(bot.getConfigHandler().getLongList("allowed_roles", "commands", "codemc"));
-
-            this.allowedRoles = roles;
+            this.capabilities = Capability.mask(Capability.AUTHOR, Capability.CODEMC);
         }
 
         @Override
@@ -407,11 +545,7 @@ public class CmdCodeMC extends BotCommand {
 
         @Override
         public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
-            String username = DatabaseAPI.getAllUsers().stream()
-                    .filter(user -> user.getDiscord() == member.getIdLong())
-                    .map(User::getUsername)
-                    .findFirst()
-                    .orElse(null);
+            String username = bot.getUserIndex().getUsername(member.getIdLong());
 
             if (username == null) {
                 CommandUtil.EmbedReply.from(hook).error("You are not linked to any Jenkins/Nexus accounts!").send();
@@ -428,21 +562,48 @@ public class CmdCodeMC extends BotCommand {
         @NotNull
         MessageEmbed build(String username) {
             try {
-                int totalUsers = JenkinsAPI.getAllJenkinsUsers().size();
-                int totalRepositories = NexusAPI.getRepositories().size();
-
-                String jenkinsUrl = bot.getConfigHandler().getString("jenkins", "url");
-                String nexusUrl = bot.getConfigHandler().getString("nexus", "url");
-
+                // The lookups are independent, so run them at once and wait for the slowest one
+                // instead of their sum. A lookup that fails or times out only marks its own fields.
+                // They share one deadline, so that their retries stop once nobody waits for them anymore.
+                String lowercase = username.toLowerCase();
+                Deadline deadline = Deadline.after(LOOKUP_TIMEOUT);
+                CompletableFuture<String> jenkinsConfig = lookup("Jenkins User", username, deadline,
+                        () -> Resilience.retry(Metrics.JENKINS, "existsUser", () -> JenkinsAPI.existsUser(username)) ? Resilience.retry(Metrics.JENKINS, "getJenkinsUser", () -> JenkinsAPI.getJenkinsUser(username)) : null);
+                CompletableFuture<JsonObject> nexusRepository = lookup("Nexus Repository", username, deadline, () -> Resilience.retry(Metrics.NEXUS, "getNexusRepository", () -> NexusAPI.getNexusRepository(username)));
+
+                // The Nexus User and Role are only shown next to the repository, so without one they are not looked up.
+                CompletableFuture<JsonObject> nexusUser = nexusRepository.thenCompose(repository -> exists(repository)
+                        ? lookup("Nexus User", username, deadline, () -> Resilience.retry(Metrics.NEXUS, "getNexusUser", () -> NexusAPI.getNexusUser(lowercase)))
+                        : CompletableFuture.completedFuture(null));
+                CompletableFuture<JsonObject> nexusRole = nexusRepository.thenCompose(repository -> exists(repository)
+                        ? lookup("Nexus Role", username, deadline, () -> Resilience.retry(Metrics.NEXUS, "getNexusRole", () -> NexusAPI.getNexusRole(lowercase)))
+                        : CompletableFuture.completedFuture(null));
+
+                Inventory inventory = bot.getInventory();
+                int totalUsers = inventory.getJenkinsUsers().count();
+                int totalRepositories = inventory.getNexusRepositories().count();
+                Instant refreshedAt = inventory.getJenkinsUsers().getRefreshedAt();
+
+                String jenkinsUrl = bot.getConfigHandler().getConfig().jenkinsUrl();
+                String nexusUrl = bot.getConfigHandler().getConfig().nexusUrl();
+
+                String description = "Total Jenkins Users: " + totalUsers + "\nTotal Nexus Repositories: " + totalRepositories;
+                if (refreshedAt != null)
+                    description += "\n-# Totals as of " + TimeFormat.RELATIVE.format(refreshedAt);
 
                 EmbedBuilder embed = CommandUtil.getEmbed()
                         .setTitle("CodeMC Account Status for " + username)
-                        .setDescription("Total Jenkins Users: " + totalUsers + "\nTotal Nexus Repositories: " + totalRepositories)
+                        .setDescription(description)
                         .setTimestamp(Instant.now());
 
-                boolean jenkinsExists = JenkinsAPI.existsUser(username);
-                if (jenkinsExists) {
-                    String config = JenkinsAPI.getJenkinsUser(username);
+                CompletableFuture.allOf(jenkinsConfig, nexusRepository, nexusUser, nexusRole)
+                        .exceptionally(ex -> null)
+                        .join();
+
+                if (jenkinsConfig.isCompletedExceptionally()) {
+                    embed.addField("Jenkins Account", UNAVAILABLE, true);
+                } else if (jenkinsConfig.join() != null) {
+                    String config = jenkinsConfig.join();
                     embed.addField("Jenkins Account", jenkinsUrl + "/job/" + username, true);
 
                     if (config.contains("com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty")) {
@@ -460,29 +621,37 @@ public class CmdCodeMC extends BotCommand {
                     embed.addField("Jenkins Account", MarkdownUtil.underline("Does Not Exist"), true);
                 }
 
-                JsonObject nexusInfo = NexusAPI.getNexusRepository(username);
-                boolean nexusExists = nexusInfo != null && !nexusInfo.isEmpty();
-
-                if (nexusExists) {
-                    embed.addField("Nexus Repository", nexusUrl + "/#browse/browse:" + username.toLowerCase(), true);
-
-                    JsonObject user = NexusAPI.getNexusUser(username.toLowerCase());
-                    String userId = ((JsonPrimitive) user.get("userId")).getContent();
-                    String roles = ((JsonArray) user.get("roles"))
-                            .stream()
-                            .map(role -> ((JsonPrimitive) role).getContent())
-                            .collect(Collectors.joining("\n- ", "- ", ""));
-
-                    embed.addField("Nexus User ID", userId, true);
-                    embed.addField("Nexus Roles", roles, false);
+                if (nexusRepository.isCompletedExceptionally()) {
+                    embed.addField("Nexus Repository", UNAVAILABLE, true);
+                } else if (exists(nexusRepository.join())) {
+                    embed.addField("Nexus Repository", nexusUrl + "/#browse/browse:" + lowercase, true);
+
+                    JsonObject user = nexusUser.isCompletedExceptionally() ? null : nexusUser.join();
+                    if (user != null) {
+                        String userId = ((JsonPrimitive) user.get("userId")).getContent();
+                        String roles = ((JsonArray) user.get("roles"))
+                                .stream()
+                                .map(role -> ((JsonPrimitive) role).getContent())
+                                .collect(Collectors.joining("\n- ", "- ", ""));
+
+                        embed.addField("Nexus User ID", userId, true);
+                        embed.addField("Nexus Roles", roles, false);
+                    } else {
+                        embed.addField("Nexus User ID", UNAVAILABLE, true);
+                        embed.addField("Nexus Roles", UNAVAILABLE, false);
+                    }
 
-                    JsonObject role = NexusAPI.getNexusRole(username.toLowerCase());
-                    String privileges = ((JsonArray) role.get("privileges"))
-                            .stream()
-                            .map(priv -> ((JsonPrimitive) priv).getContent())
-                            .collect(Collectors.joining("\n- ", "- ", ""));
+                    JsonObject role = nexusRole.isCompletedExceptionally() ? null : nexusRole.join();
+                    if (role != null) {
+                        String privileges = ((JsonArray) role.get("privileges"))
+                                .stream()
+                                .map(priv -> ((JsonPrimitive) priv).getContent())
+                                .collect(Collectors.joining("\n- ", "- ", ""));
 
-                    embed.addField("Nexus Privileges", privileges, false);
+                        embed.addField("Nexus Privileges", privileges, false);
+                    } else {
+                        embed.addField("Nexus Privileges", UNAVAILABLE, false);
+                    }
                 } else embed.addField("Nexus Repository", MarkdownUtil.underline("Does Not Exist"), true);
 
                 return embed.build();
@@ -495,6 +664,84 @@ public class CmdCodeMC extends BotCommand {
                         .build();
             }
         }
+
+        private static boolean exists(JsonObject repository) {
+            return repository != null && !repository.isEmpty();
+        }
+
+        private <T> CompletableFuture<T> lookup(String name, String username, Deadline deadline, Supplier<T> supplier) {
+            return CompletableFuture.supplyAsync(() -> {
+                        try (Trace.Scope ignored = deadline.activate()) {
+                            return supplier.get();
+                        }
+                    }, bot.getExecutors().bulk())
+                    .orTimeout(deadline.remainingMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null)
+                            LOGGER.warn("Failed to look up {} for user '{}'", name, username, ex);
+                    });
+        }
+    }
+
+    @VisibleForTesting
+    static class Status extends BotCommand {
+
+        public Status(CodeMCBot bot) {
+            super(bot);
+
+            this.name = "status";
+            this.help = "Shows whether the CodeMC Services are reachable right now.";
+
+            this.capabilities = Capability.mask(Capability.APPLICATION, Capability.CODEMC);
+        }
+
+        @Override
+        public void withModalReply(SlashCommandEvent event) {
+        }
+
+        @Override
+        public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
+            hook.editOriginalEmbeds(createStatusEmbed()).queue();
+        }
+
+        @VisibleForTesting
+        MessageEmbed createStatusEmbed() {
+            EmbedBuilder embed = CommandUtil.getEmbed()
+                    .setTitle("CodeMC Service Status")
+                    .setTimestamp(Instant.now());
+
+            for (Backend backend : Backend.values()) {
+                String value = "Startup Check: " + describe(bot.getBackends().get(backend));
+
+                String key = backend.name().toLowerCase(Locale.ROOT);
+                if (Resilience.BACKENDS.contains(key))
+                    value += "\nCircuit: " + describe(Resilience.breaker(key));
+
+                embed.addField(backend.getName(), value, true);
+            }
+
+            // GitHub is not checked on startup, only guarded by its circuit.
+            embed.addField(Resilience.displayName(Metrics.GITHUB), "Circuit: " + describe(Resilience.breaker(Metrics.GITHUB)), true);
+
+            return embed.build();
+        }
+
+        private static String describe(BackendStatus.State state) {
+            return switch (state) {
+                case STARTING -> "Starting";
+                case READY -> "Ready";
+                case UNAVAILABLE -> "Unavailable";
+            };
+        }
+
+        @VisibleForTesting
+        static String describe(CircuitBreaker breaker) {
+            return switch (breaker.getState()) {
+                case CLOSED -> breaker.getFailures() == 0 ? "Closed" : "Closed (" + breaker.getFailures() + " failed call(s) in a row)";
+                case OPEN -> "Open, probing again in " + Math.max(1, (breaker.getRemainingMillis() + 999) / 1000) + " seconds";
+                case HALF_OPEN -> "Half-open, probing";
+            };
+        }
     }
 
     @VisibleForTesting
@@ -513,17 +760,11 @@ public class CmdCodeMC extends BotCommand {
 
         @Override
         public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
-            List<Role> roles = member.getRoles();
-            boolean isAuthor = roles.stream()
-                    .anyMatch(role -> role.getIdLong() == bot.getConfigHandler().getLong("author_role"));
-
-            List<Long> reviewerRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "application");
-            boolean isReviewer = roles.stream()
-                    .anyMatch(role -> reviewerRoles.contains(role.getIdLong()));
-
-            List<Long> adminRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "codemc");
-            boolean isAdmin = roles.stream()
-                    .anyMatch(role -> adminRoles.contains(role.getIdLong()));
+            BotConfig config = bot.getConfigHandler().getConfig();
+            int capabilities = bot.getPermissionCache().resolve(member, config.permissions());
+            boolean isAuthor = Capability.AUTHOR.in(capabilities);
+            boolean isReviewer = Capability.APPLICATION.in(capabilities);
+            boolean isAdmin = Capability.CODEMC.in(capabilities);
 
             EmbedBuilder embed = CommandUtil.getEmbed()
                     .setTitle("CodeMC Command Help")
@@ -587,7 +828,8 @@ public class CmdCodeMC extends BotCommand {
 
             Map<String, String> commands = Map.of(
                     "/application accept", "Accepts a user's application for Author status.",
-                    "/application deny", "Denies a user's application for Author status."
+                    "/application deny", "Denies a user's application for Author status.",
+                    "/codemc status", "Shows whether Jenkins, Nexus and GitHub are reachable right now, including the state of their circuit breakers."
             );
 
             for (Map.Entry<String, String> entry : commands.entrySet()) {
@@ -607,7 +849,8 @@ public class CmdCodeMC extends BotCommand {
                     "/codemc link", "Links a Discord User to a Jenkins/Nexus User. If it currently exists, it will be overridden.",
                     "/codemc unlink", "Unlinks a discord user from their Jenkins/Nexus account.",
                     "/codemc createuser", "Creates a new user in the Jenkins/Nexus services. Useful if user configuration is corrupted and recreation is necesssary. You can specify a user to link it to.",
-                    "/codemc deluser", "Deletes a user in the Jenkins/Nexus services. Useful if user configuration is corrupted and recreation is necesssary. Does not affect discord roles."
+                    "/codemc deluser", "Deletes a user in the Jenkins/Nexus services. Useful if user configuration is corrupted and recreation is necesssary. Does not affect discord roles.",
+                    "/codemc status", "Shows whether Jenkins, Nexus and GitHub are reachable right now, including the state of their circuit breakers."
             );
 
             for (Map.Entry<String, String> entry : commands.entrySet()) {
@@ -626,8 +869,9 @@ public class CmdCodeMC extends BotCommand {
 
             this.name = "link";
             this.help = "Links a Discord User to a Jenkins/Nexus User. If it currently exists, it will be overridden.";
+            this.backends = Backend.ALL;
 
-            this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "codemc");
+            this.capabilities = Capability.CODEMC.bit();
 
             this.options = List.of(
                     new OptionData(OptionType.STRING, "username", "The Jenkins user to validate to.").setRequired(true),
@@ -638,6 +882,11 @@ public class CmdCodeMC extends BotCommand {
         @Override
         public void withModalReply(SlashCommandEvent event) {}
 
+        @Override
+        protected String resourceKey(SlashCommandEvent event, Member member) {
+            return KeyedDispatcher.user(event.getOption("username", null, OptionMapping::getAsString));
+        }
+
         @Override
         public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
             String username = event.getOption("username", null, OptionMapping::getAsString);
@@ -650,7 +899,7 @@ public class CmdCodeMC extends BotCommand {
                 return;
             }
 
-            Role authorRole = guild.getRoleById(bot.getConfigHandler().getLong("author_role"));
+            Role authorRole = guild.getRoleById(bot.getConfigHandler().getConfig().authorRole());
             if (authorRole == null) {
                 CommandUtil.EmbedReply.from(hook).error("The Author role is not set up correctly!").send();
                 return;
@@ -662,10 +911,7 @@ public class CmdCodeMC extends BotCommand {
                 return;
             }
 
-            if (DatabaseAPI.getUser(username) == null)
-                DatabaseAPI.addUser(username, target.getIdLong());
-            else
-                DatabaseAPI.updateUser(username, target.getIdLong());
+            bot.getUserIndex().link(username, target.getIdLong());
 
             CommandUtil.EmbedReply.from(hook).success("Linked Discord User " + target.getUser().getEffectiveName() + " to Jenkins User " + username + "!").send();
 
@@ -680,8 +926,9 @@ public class CmdCodeMC extends BotCommand {
 
             this.name = "unlink";
             this.help = "Unlinks a discord user from their Jenkins/Nexus account.";
+            this.backends = Backend.ALL;
 
-            this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "codemc");
+            this.capabilities = Capability.CODEMC.bit();
 
             this.options = List.of(
                     new OptionData(OptionType.USER, "discord", "The discord user to unlink.").setRequired(true),
@@ -692,6 +939,16 @@ public class CmdCodeMC extends BotCommand {
         @Override
         public void withModalReply(SlashCommandEvent event) {}
 
+        @Override
+        protected String resourceKey(SlashCommandEvent event, Member member) {
+            Member target = event.getOption("discord", null, OptionMapping::getAsMember);
+            if (target == null)
+                return null;
+
+            String userTarget = event.getOption("username", null, OptionMapping::getAsString);
+            return KeyedDispatcher.user(bot.getUserIndex().getUsername(target.getIdLong(), userTarget));
+        }
+
         @Override
         public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
             Member target = event.getOption("discord", null, OptionMapping::getAsMember);
@@ -702,13 +959,8 @@ public class CmdCodeMC extends BotCommand {
                 return;
             }
 
-            String username = DatabaseAPI.getAllUsers().stream()
-                    .filter(user -> user.getDiscord() == target.getIdLong())
-                    .map(User::getUsername)
-                    .filter(user -> userTarget == null || user.equals(userTarget))
-                    .findFirst()
-                    .orElse(null);
-            
+            String username = bot.getUserIndex().getUsername(target.getIdLong(), userTarget);
+
             if (username == null) {
                 if (userTarget == null)
                     CommandUtil.EmbedReply.from(hook).error("The user is not linked to any Jenkins/Nexus account!").send();
@@ -717,7 +969,7 @@ public class CmdCodeMC extends BotCommand {
                 return;
             }
 
-            DatabaseAPI.removeUser(username);
+            bot.getUserIndex().remove(username);
             CommandUtil.EmbedReply.from(hook).success("Unlinked Discord User " + target.getUser().getEffectiveName() + " from their Jenkins/Nexus account!").send();
 
         }
@@ -731,6 +983,7 @@ public class CmdCodeMC extends BotCommand {
 
             this.name = "change-password";
             this.help = "Regenerates your Nexus Credentials.";
+            this.backends = Backend.ALL;
 
             this.options = List.of(
                 new OptionData(OptionType.STRING, "username", "The name of the account to regenerate, if you have multiple. Defaults to the first one found.").setRequired(false)
@@ -740,9 +993,15 @@ public class CmdCodeMC extends BotCommand {
         @Override
         public void withModalReply(SlashCommandEvent event) {}
 
+        @Override
+        protected String resourceKey(SlashCommandEvent event, Member member) {
+            String target = event.getOption("username", null, OptionMapping::getAsString);
+            return KeyedDispatcher.user(bot.getUserIndex().getUsername(member.getIdLong(), target));
+        }
+
         @Override
         public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
-            Role authorRole = guild.getRoleById(bot.getConfigHandler().getLong("author_role"));
+            Role authorRole = guild.getRoleById(bot.getConfigHandler().getConfig().authorRole());
             String target = event.getOption("username", null, OptionMapping::getAsString);
 
             if (authorRole == null) {
@@ -756,12 +1015,7 @@ public class CmdCodeMC extends BotCommand {
                 return;
             }
 
-            String username = DatabaseAPI.getAllUsers().stream()
-                    .filter(user -> user.getDiscord() == member.getIdLong())
-                    .map(User::getUsername)
-                    .filter(user -> target == null || user.equals(target))
-                    .findFirst()
-                    .orElse(null);
+            String username = bot.getUserIndex().getUsername(member.getIdLong(), target);
 
             if (username == null) {
                 if (target == null)
@@ -771,7 +1025,7 @@ public class CmdCodeMC extends BotCommand {
                 return;
             }
 
-            if (!JenkinsAPI.existsUser(username)) {
+            if (!Resilience.retry(Metrics.JENKINS, "existsUser", () -> JenkinsAPI.existsUser(username))) {
                 CommandUtil.EmbedReply.from(hook).error("You do not have a Jenkins account!").send();
                 return;
             }
@@ -797,8 +1051,9 @@ public class CmdCodeMC extends BotCommand {
 
             this.name = "createuser";
             this.help = "Creates a new user in the Jenkins/Nexus services.";
+            this.backends = Backend.ALL;
 
-            this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "codemc");
+            this.capabilities = Capability.CODEMC.bit();
 
             this.options = List.of(
                     new OptionData(OptionType.STRING, "username", "The name of Jenkins user to create.").setRequired(true),
@@ -809,6 +1064,11 @@ public class CmdCodeMC extends BotCommand {
         @Override
         public void withModalReply(SlashCommandEvent event) {}
 
+        @Override
+        protected String resourceKey(SlashCommandEvent event, Member member) {
+            return KeyedDispatcher.user(event.getOption("username", null, OptionMapping::getAsString));
+        }
+
         @Override
         public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
             String username = event.getOption("username", null, OptionMapping::getAsString);
@@ -819,7 +1079,7 @@ public class CmdCodeMC extends BotCommand {
                 return;
             }
 
-            if (JenkinsAPI.existsUser(username)) {
+            if (Resilience.retry(Metrics.JENKINS, "existsUser", () -> JenkinsAPI.existsUser(username))) {
                 CommandUtil.EmbedReply.from(hook).error("A user with that username already exists.").send();
                 return;
             }
@@ -829,7 +1089,7 @@ public class CmdCodeMC extends BotCommand {
                 return;
             }
 
-            Role authorRole = guild.getRoleById(bot.getConfigHandler().getLong("author_role"));
+            Role authorRole = guild.getRoleById(bot.getConfigHandler().getConfig().authorRole());
             if (authorRole == null) {
                 CommandUtil.EmbedReply.from(hook).error("The Author role is not set up correctly!").send();
                 return;
@@ -854,8 +1114,8 @@ public class CmdCodeMC extends BotCommand {
             }
 
             String password = APIUtil.newPassword();
-            DatabaseAPI.addUser(username, target.getIdLong());
-            JenkinsAPI.createJenkinsUser(username, password, APIUtil.isGroup(username));
+            bot.getUserIndex().add(username, target.getIdLong());
+            createJenkinsUser(username, password);
             APIUtil.createNexus(hook, username, password);
 
             CommandUtil.EmbedReply.from(hook).success("Successfully created user " + username + " and linked it to " + target.getUser().getEffectiveName() + "!").send();
@@ -871,8 +1131,9 @@ public class CmdCodeMC extends BotCommand {
 
             this.name = "deluser";
             this.help = "Deletes a user in the Jenkins/Nexus services. Does not affect discord roles.";
+            this.backends = Backend.ALL;
 
-            this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "codemc");
+            this.capabilities = Capability.CODEMC.bit();
 
             this.options = List.of(
                     new OptionData(OptionType.STRING, "username", "The name of Jenkins user to delete.").setRequired(true)
@@ -882,6 +1143,11 @@ public class CmdCodeMC extends BotCommand {
         @Override
         public void withModalReply(SlashCommandEvent event) {}
 
+        @Override
+        protected String resourceKey(SlashCommandEvent event, Member member) {
+            return KeyedDispatcher.user(event.getOption("username", null, OptionMapping::getAsString));
+        }
+
         @Override
         public void withHookReply(InteractionHook hook, SlashCommandEvent event, Guild guild, Member member) {
             String username = event.getOption("username", null, OptionMapping::getAsString);
@@ -891,14 +1157,14 @@ public class CmdCodeMC extends BotCommand {
                 return;
             }
 
-            if (!JenkinsAPI.existsUser(username)) {
+            if (!Resilience.retry(Metrics.JENKINS, "existsUser", () -> JenkinsAPI.existsUser(username))) {
                 CommandUtil.EmbedReply.from(hook).error("The user does not exist!").send();
                 return;
             }
 
-            DatabaseAPI.removeUser(username);
-            JenkinsAPI.deleteUser(username);
-            NexusAPI.deleteNexus(username);
+            bot.getUserIndex().remove(username);
+            Resilience.retry(Metrics.JENKINS, "deleteUser", () -> JenkinsAPI.deleteUser(username));
+            Resilience.retry(Metrics.NEXUS, "deleteNexus", () -> NexusAPI.deleteNexus(username));
 
             CommandUtil.EmbedReply.from(hook).success("Successfully deleted user " + username + "!").send();
             LOGGER.info("Deleted user '{}' from the Jenkins/Nexus services.", username);
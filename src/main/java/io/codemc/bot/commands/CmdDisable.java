@@ -20,6 +20,7 @@ package io.codemc.bot.commands;
 
 import com.jagrosh.jdautilities.command.SlashCommandEvent;
 import io.codemc.bot.CodeMCBot;
+import io.codemc.bot.config.Capability;
 import io.codemc.bot.utils.CommandUtil;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
@@ -37,7 +38,7 @@ public class CmdDisable extends BotCommand{
         this.name = "disable";
         this.help = "Disables the bot.";
         
-        this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "disable");
+        this.capabilities = Capability.DISABLE.bit();
     }
     
     @Override
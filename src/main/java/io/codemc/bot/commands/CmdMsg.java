@@ -21,6 +21,7 @@ package io.codemc.bot.commands;
 import com.jagrosh.jdautilities.command.SlashCommand;
 import com.jagrosh.jdautilities.command.SlashCommandEvent;
 import io.codemc.bot.CodeMCBot;
+import io.codemc.bot.config.Capability;
 import io.codemc.bot.utils.CommandUtil;
 import net.dv8tion.jda.api.components.label.Label;
 import net.dv8tion.jda.api.components.textinput.TextInput;
@@ -48,7 +49,7 @@ public class CmdMsg extends BotCommand{
         this.name = "msg";
         this.help = "Sends a message in a specified channel or edits one.";
         
-        this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "msg");
+        this.capabilities = Capability.MSG.bit();
         
         this.children = new SlashCommand[]{
             new Post(bot),
@@ -71,7 +72,7 @@ public class CmdMsg extends BotCommand{
             this.name = "send";
             this.help = "Sends a message as the Bot.";
             
-            this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "msg");
+            this.capabilities = Capability.MSG.bit();
             this.hasModalReply = true;
             
             this.options = Arrays.asList(
@@ -121,7 +122,7 @@ public class CmdMsg extends BotCommand{
             this.name = "edit";
             this.help = "Edit an existing message of the bot.";
             
-            this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "msg");
+            this.capabilities = Capability.MSG.bit();
             this.hasModalReply = true;
             
             this.options = Arrays.asList(
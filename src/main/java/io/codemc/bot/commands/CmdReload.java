@@ -20,6 +20,7 @@ package io.codemc.bot.commands;
 
 import com.jagrosh.jdautilities.command.SlashCommandEvent;
 import io.codemc.bot.CodeMCBot;
+import io.codemc.bot.config.Capability;
 import io.codemc.bot.utils.CommandUtil;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
@@ -33,7 +34,7 @@ public class CmdReload extends BotCommand{
         this.name = "reload";
         this.help = "Reloads the configuration.";
         
-        this.allowedRoles = bot.getConfigHandler().getLongList("allowed_roles", "commands", "reload");
+        this.capabilities = Capability.RELOAD.bit();
     }
     
     @Override
@@ -20,6 +20,7 @@ package io.codemc.bot.commands;
 
 import com.jagrosh.jdautilities.command.SlashCommandEvent;
 import io.codemc.bot.CodeMCBot;
+import io.codemc.bot.health.Backend;
 import net.dv8tion.jda.api.components.label.Label;
 import net.dv8tion.jda.api.components.textinput.TextInput;
 import net.dv8tion.jda.api.components.textinput.TextInputStyle;
@@ -29,6 +30,8 @@ import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 import net.dv8tion.jda.api.modals.Modal;
 
+import java.util.Set;
+
 public class CmdSubmit extends BotCommand{
     
     public CmdSubmit(CodeMCBot bot){
@@ -36,6 +39,7 @@ public class CmdSubmit extends BotCommand{
         
         this.name = "submit";
         this.help = "Submit a request to join the CodeMC CI with a project.";
+        this.backends = Set.of(Backend.DATABASE, Backend.JENKINS);
         
         this.hasModalReply = true;
     }
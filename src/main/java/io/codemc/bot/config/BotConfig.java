@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.config;
+
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import java.util.List;
+
+/**
+ * Immutable, typed snapshot of the values read while handling events.
+ * <br>A new snapshot is compiled every time the configuration is (re)loaded and published as a whole by the
+ * {@link ConfigHandler}, so reading a value is a plain field access and never observes a partially loaded file.
+ *
+ * @param server The ID of the CodeMC Server.
+ * @param authorRole The ID of the Author role.
+ * @param channels The IDs of the request channels.
+ * @param roles The roles allowed to perform certain actions.
+ * @param messages The messages sent for accepted and denied requests.
+ * @param jenkinsUrl The base URL of Jenkins.
+ * @param nexusUrl The base URL of Nexus.
+ * @param permissions The author role and {@code roles}, compiled into a role to {@link Capability} lookup.
+ */
+public record BotConfig(
+    long server,
+    long authorRole,
+    Channels channels,
+    Roles roles,
+    Messages messages,
+    String jenkinsUrl,
+    String nexusUrl,
+    PermissionMatrix permissions
+){
+    
+    public record Channels(long requestAccess, long acceptedRequests, long rejectedRequests){}
+    
+    public record Roles(
+        RoleSet acceptApplications,
+        RoleSet denyApplications,
+        RoleSet application,
+        RoleSet codemc,
+        RoleSet disable,
+        RoleSet msg,
+        RoleSet reload
+    ){}
+    
+    /**
+     * @param accepted The message for accepted requests, lines already joined.
+     * @param denied The message for denied requests, lines already joined.
+     */
+    public record Messages(String accepted, String denied){
+        public String get(boolean accepted){
+            return accepted ? this.accepted : denied;
+        }
+    }
+    
+    static BotConfig compile(ConfigurationNode node) throws SerializationException{
+        ConfigurationNode allowedRoles = node.node("allowed_roles");
+        long authorRole = node.node("author_role").getLong(-1L);
+        Roles roles = new Roles(
+            roleSet(allowedRoles, "applications", "accept"),
+            roleSet(allowedRoles, "applications", "deny"),
+            roleSet(allowedRoles, "commands", "application"),
+            roleSet(allowedRoles, "commands", "codemc"),
+            roleSet(allowedRoles, "commands", "disable"),
+            roleSet(allowedRoles, "commands", "msg"),
+            roleSet(allowedRoles, "commands", "reload")
+        );
+        
+        return new BotConfig(
+            node.node("server").getLong(-1L),
+            authorRole,
+            new Channels(
+                node.node("channels", "request_access").getLong(-1L),
+                node.node("channels", "accepted_requests").getLong(-1L),
+                node.node("channels", "rejected_requests").getLong(-1L)
+            ),
+            roles,
+            new Messages(
+                message(node, "accepted"),
+                message(node, "denied")
+            ),
+            node.node("jenkins", "url").getString(""),
+            node.node("nexus", "url").getString(""),
+            PermissionMatrix.compile(authorRole, roles)
+        );
+    }
+    
+    private static RoleSet roleSet(ConfigurationNode node, Object... path) throws SerializationException{
+        return RoleSet.of(node.node(path).getList(Long.class));
+    }
+    
+    private static String message(ConfigurationNode node, String type) throws SerializationException{
+        List<String> lines = node.node("messages", type).getList(String.class);
+        return lines == null ? "" : String.join("\n", lines);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.config;
+
+/**
+ * The actions a member may be allowed to perform, each backed by one list of roles in the config.
+ * <br>A member's capabilities are resolved into a bitmask by the {@link PermissionMatrix}.
+ */
+public enum Capability{
+    
+    /** Having the {@code author_role}. */
+    AUTHOR,
+    /** {@code allowed_roles.applications.accept} */
+    ACCEPT_APPLICATIONS,
+    /** {@code allowed_roles.applications.deny} */
+    DENY_APPLICATIONS,
+    /** {@code allowed_roles.commands.application} */
+    APPLICATION,
+    /** {@code allowed_roles.commands.codemc} */
+    CODEMC,
+    /** {@code allowed_roles.commands.disable} */
+    DISABLE,
+    /** {@code allowed_roles.commands.msg} */
+    MSG,
+    /** {@code allowed_roles.commands.reload} */
+    RELOAD;
+    
+    private final int bit = 1 << ordinal();
+    
+    public int bit(){
+        return bit;
+    }
+    
+    public boolean in(int mask){
+        return (mask & bit) != 0;
+    }
+    
+    public static int mask(Capability... capabilities){
+        int mask = 0;
+        for(Capability capability : capabilities)
+            mask |= capability.bit;
+        
+        return mask;
+    }
+}
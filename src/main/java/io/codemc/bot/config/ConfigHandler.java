@@ -31,14 +31,21 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Loads the {@code config.json} file.
+ * <br>The loaded node and the {@link BotConfig} compiled from it are published together through an
+ * {@link AtomicReference}, so a reload swaps both at once and readers on other threads never see a half-loaded config.
+ * Values read while handling events should be taken from {@link #getConfig()}.
+ */
 public class ConfigHandler{
     
     private final Logger logger = LoggerFactory.getLogger(ConfigHandler.class);
     private final File file = new File("./config.json");
     private boolean loaded = false;
     
-    private ConfigurationNode node = null;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
     
     public ConfigHandler(){}
     
@@ -65,34 +72,53 @@ public class ConfigHandler{
         return reloadConfig();
     }
     
-    public boolean reloadConfig(){
+    public synchronized boolean reloadConfig(){
         GsonConfigurationLoader loader = GsonConfigurationLoader.builder()
             .file(file)
             .build();
         
         try{
-            return (node = loader.load()) != null;
+            ConfigurationNode node = loader.load();
+            if(node == null)
+                return false;
+            
+            snapshot.set(new Snapshot(node, BotConfig.compile(node)));
+            return true;
+        }catch(SerializationException ex){
+            logger.warn("Encountered invalid value while loading Configuration! Keeping the previous one.", ex);
+            return false;
         }catch(IOException ex){
             logger.warn("Encountered IOException while loading Configuration!", ex);
             return false;
         }
     }
     
+    /**
+     * Returns the current typed configuration snapshot.
+     */
+    public BotConfig getConfig(){
+        return snapshot.get().config();
+    }
+    
+    private ConfigurationNode node(){
+        return snapshot.get().node();
+    }
+    
     public String getString(Object... path){
-        return node.node(path).getString("");
+        return node().node(path).getString("");
     }
     
     public long getLong(Object... path){
-        return node.node(path).getLong(-1L);
+        return node().node(path).getLong(-1L);
     }
 
     public int getInt(Object... path){
-        return node.node(path).getInt(-1);
+        return node().node(path).getInt(-1);
     }
     
     public List<Long> getLongList(Object... path){
         try{
-            return node.node(path).getList(Long.class);
+            return node().node(path).getList(Long.class);
         }catch(SerializationException ex){
             return Collections.emptyList();
         }
@@ -100,17 +126,22 @@ public class ConfigHandler{
     
     public List<String> getStringList(Object... path){
         try{
-            return node.node(path).getList(String.class);
+            return node().node(path).getList(String.class);
         }catch(SerializationException ex){
             return Collections.emptyList();
         }
     }
 
-    public void set(Object value, Object... path){
+    public synchronized void set(Object value, Object... path){
+        // Change a copy, so that readers of the current snapshot are not affected until it is swapped.
+        ConfigurationNode node = node().copy();
         try{
             node.node(path).set(value);
+            snapshot.set(new Snapshot(node, BotConfig.compile(node)));
         }catch(SerializationException ex){
             logger.error("Unable to set value in Configuration!", ex);
         }
     }
+    
+    private record Snapshot(ConfigurationNode node, BotConfig config){}
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.config;
+
+import net.dv8tion.jda.api.entities.Role;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code author_role} and {@code allowed_roles} of the config, compiled into a sorted table mapping each
+ * role ID to the bitmask of {@link Capability Capabilities} it grants.
+ * <br>Resolving a member is one binary search per role, checking a resolved mask is a single bitwise test.
+ */
+public final class PermissionMatrix{
+    
+    private final long[] roleIds;
+    private final int[] masks;
+    private final int unrestricted;
+    
+    private PermissionMatrix(long[] roleIds, int[] masks, int unrestricted){
+        this.roleIds = roleIds;
+        this.masks = masks;
+        this.unrestricted = unrestricted;
+    }
+    
+    static PermissionMatrix compile(long authorRole, BotConfig.Roles roles){
+        RoleSet[] sets = new RoleSet[Capability.values().length];
+        sets[Capability.AUTHOR.ordinal()] = authorRole == -1L ? RoleSet.EMPTY : RoleSet.of(authorRole);
+        sets[Capability.ACCEPT_APPLICATIONS.ordinal()] = roles.acceptApplications();
+        sets[Capability.DENY_APPLICATIONS.ordinal()] = roles.denyApplications();
+        sets[Capability.APPLICATION.ordinal()] = roles.application();
+        sets[Capability.CODEMC.ordinal()] = roles.codemc();
+        sets[Capability.DISABLE.ordinal()] = roles.disable();
+        sets[Capability.MSG.ordinal()] = roles.msg();
+        sets[Capability.RELOAD.ordinal()] = roles.reload();
+        
+        long[] ids = Arrays.stream(sets)
+            .flatMapToLong(set -> set.toList().stream().mapToLong(Long::longValue))
+            .sorted()
+            .distinct()
+            .toArray();
+        
+        int[] masks = new int[ids.length];
+        int unrestricted = 0;
+        for(Capability capability : Capability.values()){
+            RoleSet set = sets[capability.ordinal()];
+            if(set.isEmpty() && capability != Capability.AUTHOR){
+                unrestricted |= capability.bit();
+                continue;
+            }
+            
+            for(int i = 0; i < ids.length; i++){
+                if(set.contains(ids[i]))
+                    masks[i] |= capability.bit();
+            }
+        }
+        
+        return new PermissionMatrix(ids, masks, unrestricted);
+    }
+    
+    /**
+     * Returns the capabilities granted by the given roles.
+     */
+    public int resolve(List<Role> roles){
+        int mask = 0;
+        for(int i = 0; i < roles.size(); i++)
+            mask |= resolve(roles.get(i).getIdLong());
+        
+        return mask;
+    }
+    
+    /**
+     * Returns the capabilities granted by a single role.
+     */
+    public int resolve(long roleId){
+        int index = Arrays.binarySearch(roleIds, roleId);
+        return index < 0 ? 0 : masks[index];
+    }
+    
+    /**
+     * Whether a member with the given capabilities may do something requiring any of the {@code required} ones.
+     * <br>Capabilities without any configured roles are open to everyone, and so is requiring none at all.
+     */
+    public boolean allows(int mask, int required){
+        return (mask & required) != 0 || (required & ~unrestricted) == 0;
+    }
+    
+    /**
+     * Whether any role is configured for the given capability.
+     */
+    public boolean isRestricted(Capability capability){
+        return (unrestricted & capability.bit()) == 0;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.config;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable set of role IDs, backed by a sorted {@code long[]}.
+ * <br>Membership checks are a binary search over primitives rather than a scan over boxed {@link Long Longs}.
+ */
+public final class RoleSet{
+    
+    public static final RoleSet EMPTY = new RoleSet(new long[0]);
+    
+    private final long[] ids;
+    
+    private RoleSet(long[] ids){
+        this.ids = ids;
+    }
+    
+    public static RoleSet of(Collection<Long> ids){
+        if(ids == null || ids.isEmpty())
+            return EMPTY;
+        
+        long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        return new RoleSet(sorted);
+    }
+    
+    public static RoleSet of(long... ids){
+        if(ids.length == 0)
+            return EMPTY;
+        
+        return new RoleSet(Arrays.stream(ids).sorted().distinct().toArray());
+    }
+    
+    public boolean contains(long id){
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+    
+    public boolean isEmpty(){
+        return ids.length == 0;
+    }
+    
+    public int size(){
+        return ids.length;
+    }
+    
+    public List<Long> toList(){
+        return Arrays.stream(ids).boxed().toList();
+    }
+    
+    @Override
+    public boolean equals(Object obj){
+        return obj instanceof RoleSet other && Arrays.equals(ids, other.ids);
+    }
+    
+    @Override
+    public int hashCode(){
+        return Arrays.hashCode(ids);
+    }
+    
+    @Override
+    public String toString(){
+        return Arrays.toString(ids);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.execution;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to the latency of the work it guards.
+ * <br>Every finished task reports how long it took. While the smoothed latency stays within {@code tolerance} times
+ * the best latency seen so far, the limit grows additively up to {@code max}. Once it rises above that, or a task fails,
+ * the limit shrinks multiplicatively down to {@code min}, so a slow Jenkins or Nexus instance is given room to recover
+ * instead of being hit even harder.
+ * <br>Uses a {@link ReentrantLock} rather than {@code synchronized}, so waiting virtual threads do not pin their carrier.
+ */
+public class AdaptiveLimiter{
+    
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_DRIFT = 0.01;
+    private static final double DECREASE = 0.8;
+    
+    private final int min;
+    private final int max;
+    private final double tolerance;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    
+    private double limit;
+    private int inFlight = 0;
+    private double latency = -1;
+    private double baseline = -1;
+    
+    public AdaptiveLimiter(int min, int max, double tolerance){
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.tolerance = tolerance;
+        this.limit = this.min;
+    }
+    
+    /**
+     * Waits until the number of running tasks is below the current limit and claims a slot.
+     */
+    public void acquire() throws InterruptedException{
+        lock.lockInterruptibly();
+        try{
+            while(inFlight >= (int)limit)
+                available.await();
+            
+            inFlight++;
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Releases a slot claimed by {@link #acquire()} and adjusts the limit based on how the task went.
+     *
+     * @param latencyNanos How long the task took, in nanoseconds.
+     * @param success Whether the task succeeded.
+     */
+    public void release(long latencyNanos, boolean success){
+        lock.lock();
+        try{
+            inFlight--;
+            
+            double sample = Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+            if(latency < 0){
+                latency = sample;
+                baseline = sample;
+            }else{
+                latency += (sample - latency) * SMOOTHING;
+                // Let the baseline follow lasting changes in latency slowly, so it isn't pinned to one lucky sample.
+                baseline = sample < baseline ? sample : baseline + (latency - baseline) * BASELINE_DRIFT;
+            }
+            
+            if(!success || latency > baseline * tolerance){
+                limit = Math.max(min, limit * DECREASE);
+            }else{
+                limit = Math.min(max, limit + 1.0 / limit);
+            }
+            
+            available.signalAll();
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    public int getLimit(){
+        lock.lock();
+        try{
+            return (int)limit;
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    public int getInFlight(){
+        lock.lock();
+        try{
+            return inFlight;
+        }finally{
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.execution;
+
+import io.codemc.bot.config.ConfigHandler;
+import io.codemc.bot.health.Resilience;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.tracing.Tracing;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the executors the bot uses to run blocking work away from JDA's callback threads.
+ * <br>The provisioning executor is bounded in both running and queued tasks, so a burst of reviews
+ * is rejected early instead of piling up behind slow Jenkins or Nexus calls.
+ * <br>Calls to Jenkins, Nexus, GitHub and the database each run in a {@link Bulkhead} of their own, so that one slow
+ * backend cannot use up the threads the others need.
+ * <br>Tasks submitted through the accessors below keep the {@link io.codemc.bot.tracing.Trace Trace} of the submitting thread.
+ *
+ * @see ExecutionMode
+ */
+public class BotExecutors{
+    
+    private static final int DEFAULT_PROVISIONING_THREADS = 4;
+    private static final int DEFAULT_PROVISIONING_QUEUE = 32;
+    
+    /**
+     * The backends with a bulkhead, and their size when none is configured.
+     */
+    public static final Map<String, Bulkhead.Limits> BULKHEADS = Map.of(
+        Metrics.JENKINS, new Bulkhead.Limits(8, 32),
+        Metrics.NEXUS, new Bulkhead.Limits(4, 16),
+        Metrics.GITHUB, new Bulkhead.Limits(4, 32),
+        Metrics.DATABASE, new Bulkhead.Limits(8, 64)
+    );
+    
+    private final ExecutionMode mode;
+    private final int provisioningThreads;
+    private final Executor interactions;
+    private final Executor provisioning;
+    private final Executor bulk;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(factory("Scheduler"));
+    private final KeyedDispatcher keyed = new KeyedDispatcher();
+    private final Map<String, Bulkhead> bulkheads;
+    
+    public BotExecutors(ConfigHandler config){
+        this(
+            ExecutionMode.fromString(config.getString("execution", "mode")),
+            orDefault(config.getInt("provisioning", "threads"), DEFAULT_PROVISIONING_THREADS),
+            orDefault(config.getInt("provisioning", "queue_size"), DEFAULT_PROVISIONING_QUEUE),
+            limits(config),
+            Bulkhead.Rejection.fromString(config.getString("bulkheads", "rejection"))
+        );
+    }
+    
+    public BotExecutors(ExecutionMode mode, int provisioningThreads, int provisioningQueue){
+        this(mode, provisioningThreads, provisioningQueue, BULKHEADS, Bulkhead.Rejection.ABORT);
+    }
+    
+    public BotExecutors(ExecutionMode mode, int provisioningThreads, int provisioningQueue, Map<String, Bulkhead.Limits> limits, Bulkhead.Rejection rejection){
+        this.mode = mode;
+        this.provisioningThreads = provisioningThreads;
+        this.provisioning = boundedExecutor(mode, "Provisioning", provisioningThreads, provisioningQueue);
+        this.bulkheads = createBulkheads(backend -> {
+            Bulkhead.Limits size = limits.getOrDefault(backend, BULKHEADS.get(backend));
+            return new Bulkhead(backend, boundedExecutor(mode, Resilience.displayName(backend), size.threads(), size.queueSize()), rejection);
+        });
+        
+        switch(mode){
+            case VIRTUAL -> {
+                this.interactions = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Interaction-", 1).factory());
+                this.bulk = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Bulk-", 1).factory());
+            }
+            default -> {
+                this.interactions = Runnable::run;
+                this.bulk = Executors.newCachedThreadPool(factory("Bulk"));
+            }
+        }
+    }
+    
+    private BotExecutors(Executor executor){
+        this.mode = ExecutionMode.PLATFORM;
+        this.provisioningThreads = 1;
+        this.interactions = executor;
+        this.provisioning = executor;
+        this.bulk = executor;
+        this.bulkheads = createBulkheads(backend -> new Bulkhead(backend, executor, Bulkhead.Rejection.ABORT));
+    }
+    
+    /**
+     * Creates executors that run every task on the calling thread.
+     * <br>Used by tests, so that interactions complete before their results are asserted.
+     */
+    @VisibleForTesting
+    public static BotExecutors direct(){
+        return new BotExecutors(Runnable::run);
+    }
+    
+    public ExecutionMode getMode(){
+        return mode;
+    }
+    
+    /**
+     * How many join requests may be provisioned at the same time.
+     */
+    public int getProvisioningThreads(){
+        return provisioningThreads;
+    }
+    
+    /**
+     * The executor interactions are handled on once they have been acknowledged.
+     * <br>In {@link ExecutionMode#PLATFORM PLATFORM} mode this runs tasks directly on the calling JDA thread.
+     */
+    public Executor interactions(){
+        return Tracing.executor(interactions);
+    }
+    
+    /**
+     * The executor running the blocking steps of accepting or denying a join request.
+     * <br>Submitting to it throws a {@link java.util.concurrent.RejectedExecutionException} once its queue is full.
+     */
+    public Executor provisioning(){
+        return Tracing.executor(provisioning);
+    }
+    
+    /**
+     * The executor running the workers of long bulk operations such as validating all users, and the interactions
+     * that were queued behind others on the same {@link #keyed() resource}.
+     * <br>It is unbounded, so callers have to limit how many workers they submit themselves.
+     */
+    public Executor bulk(){
+        return Tracing.executor(bulk);
+    }
+    
+    /**
+     * The bulkhead all calls to the given backend run in, one of the keys of {@link #BULKHEADS}.
+     */
+    public Bulkhead bulkhead(String backend){
+        Bulkhead bulkhead = bulkheads.get(backend);
+        if(bulkhead == null)
+            throw new IllegalArgumentException("No bulkhead for backend " + backend);
+        
+        return bulkhead;
+    }
+    
+    /**
+     * A single thread for delayed tasks, such as sending coalesced progress updates.
+     * <br>Tasks run on it must be short and must not block.
+     */
+    public ScheduledExecutorService scheduler(){
+        return scheduler;
+    }
+    
+    /**
+     * Orders work on the same join request or account, see {@link KeyedDispatcher}.
+     */
+    public KeyedDispatcher keyed(){
+        return keyed;
+    }
+    
+    /**
+     * Wraps the given consumer so that it is called on the {@link #interactions() interaction executor}.
+     * <br>Intended for the callbacks of deferred replies, i.e. {@code event.deferReply(true).queue(executors.dispatch(hook -> ...))}.
+     */
+    public <T> Consumer<T> dispatch(Consumer<T> consumer){
+        Consumer<T> traced = Tracing.wrap(consumer);
+        return value -> interactions.execute(() -> traced.accept(value));
+    }
+    
+    public void shutdown(){
+        if(interactions instanceof ExecutorService service)
+            service.shutdown();
+        
+        shutdown(provisioning);
+        for(Bulkhead bulkhead : bulkheads.values())
+            shutdown(bulkhead.getExecutor());
+        
+        if(bulk instanceof ExecutorService service)
+            service.shutdown();
+        
+        scheduler.shutdown();
+    }
+    
+    private static void shutdown(Executor executor){
+        if(executor instanceof ExecutorService service)
+            service.shutdown();
+        else if(executor instanceof VirtualThreadExecutor virtual)
+            virtual.shutdown();
+    }
+    
+    private static Map<String, Bulkhead.Limits> limits(ConfigHandler config){
+        return Map.copyOf(createBulkheads(backend -> new Bulkhead.Limits(
+            orDefault(config.getInt("bulkheads", backend, "threads"), BULKHEADS.get(backend).threads()),
+            orDefault(config.getInt("bulkheads", backend, "queue_size"), BULKHEADS.get(backend).queueSize())
+        )));
+    }
+    
+    private static <T> Map<String, T> createBulkheads(Function<String, T> factory){
+        return BULKHEADS.keySet().stream().collect(Collectors.toUnmodifiableMap(Function.identity(), factory));
+    }
+    
+    /**
+     * Creates an executor running at most {@code threads} tasks at once, rejecting tasks once {@code queueSize} are waiting.
+     */
+    private static Executor boundedExecutor(ExecutionMode mode, String name, int threads, int queueSize){
+        if(mode == ExecutionMode.VIRTUAL)
+            return new VirtualThreadExecutor(name, threads, queueSize);
+        
+        return new ThreadPoolExecutor(
+            threads, threads,
+            60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            factory(name),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+    
+    private static int orDefault(int value, int def){
+        return value <= 0 ? def : value;
+    }
+    
+    private static ThreadFactory factory(String name){
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
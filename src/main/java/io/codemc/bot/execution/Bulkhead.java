@@ -0,0 +1,174 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.execution;
+
+import io.codemc.bot.health.BulkheadFullException;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import io.codemc.bot.tracing.Tracing;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking calls to one backend on a bounded executor of its own.
+ * <br>A backend that hangs can then only tie up its own threads and queue: once both are full, further calls to it
+ * are rejected right away (or run on the caller, see {@link Rejection}) while calls to the other backends go on.
+ * <br>Callers wait for their call until their {@link Deadline} at most. A call still queued by then is skipped when its
+ * turn comes, so that it does not hold a thread for a result nobody waits for.
+ */
+public class Bulkhead{
+    
+    private final String name;
+    private final Executor executor;
+    private final Rejection rejection;
+    
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    
+    Bulkhead(String name, Executor executor, Rejection rejection){
+        this.name = name;
+        this.executor = executor;
+        this.rejection = rejection;
+        
+        Metrics.BULKHEAD_QUEUED.register(queued::get, name);
+        Metrics.BULKHEAD_ACTIVE.register(active::get, name);
+    }
+    
+    /**
+     * Runs the call on this bulkhead and waits for its result, rethrowing what it threw.
+     *
+     * @throws BulkheadFullException If the bulkhead is full and rejects calls instead of running them on the caller.
+     * @throws DeadlineExceededException If the deadline passed before the call completed.
+     */
+    public <T> T call(Supplier<T> call){
+        Deadline deadline = Deadline.current();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable task = Tracing.wrap(() -> {
+            queued.decrementAndGet();
+            if(deadline.isExpired()){
+                future.completeExceptionally(new DeadlineExceededException(name));
+                return;
+            }
+            
+            active.incrementAndGet();
+            try{
+                T result;
+                try{
+                    result = call.get();
+                }finally{
+                    // Before completing, so that the caller never sees its own call as still active.
+                    active.decrementAndGet();
+                }
+                
+                future.complete(result);
+            }catch(Throwable ex){
+                future.completeExceptionally(ex);
+            }
+        });
+        
+        queued.incrementAndGet();
+        try{
+            executor.execute(task);
+        }catch(RejectedExecutionException ex){
+            queued.decrementAndGet();
+            Metrics.BULKHEAD_REJECTIONS.inc(name);
+            if(rejection == Rejection.CALLER_RUNS)
+                return call.get();
+            
+            throw new BulkheadFullException(name);
+        }
+        
+        try{
+            return deadline.isBounded() ? future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS) : future.join();
+        }catch(TimeoutException ex){
+            throw new DeadlineExceededException(name);
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new CompletionException(ex);
+        }catch(ExecutionException | CompletionException ex){
+            if(ex.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if(ex.getCause() instanceof Error error)
+                throw error;
+            
+            throw new CompletionException(ex.getCause());
+        }
+    }
+    
+    public String getName(){
+        return name;
+    }
+    
+    public int getQueued(){
+        return queued.get();
+    }
+    
+    public int getActive(){
+        return active.get();
+    }
+    
+    Executor getExecutor(){
+        return executor;
+    }
+    
+    /**
+     * The size of a bulkhead: how many calls run at once, and how many may wait for a free thread.
+     */
+    public record Limits(int threads, int queueSize){
+        
+        public static final Limits DEFAULT = new Limits(4, 16);
+    }
+    
+    /**
+     * What happens to a call while its bulkhead is full.
+     */
+    public enum Rejection{
+        
+        /**
+         * The call fails right away with a {@link BulkheadFullException}.
+         */
+        ABORT,
+        
+        /**
+         * The call runs on the calling thread, trading isolation for never failing because of a full bulkhead.
+         */
+        CALLER_RUNS;
+        
+        public static Rejection fromString(String rejection){
+            if(rejection == null || rejection.isEmpty())
+                return ABORT;
+            
+            try{
+                return valueOf(rejection.toUpperCase(Locale.ROOT));
+            }catch(IllegalArgumentException ex){
+                return ABORT;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.execution;
+
+import java.util.Locale;
+
+/**
+ * The kind of threads interactions and their backend calls are executed on.
+ * <br>Configured through the {@code execution.mode} option of the config.json.
+ */
+public enum ExecutionMode{
+    
+    /**
+     * Interactions run on the JDA callback thread that received them, and provisioning uses a small pool of platform threads.
+     */
+    PLATFORM,
+    
+    /**
+     * Every interaction is dispatched onto its own virtual thread, and provisioning runs on virtual threads too.
+     * <br>Blocking Jenkins, Nexus, GitHub and database calls then no longer occupy JDA's platform threads.
+     */
+    VIRTUAL;
+    
+    public static ExecutionMode fromString(String mode){
+        if(mode == null || mode.isEmpty())
+            return PLATFORM;
+        
+        try{
+            return valueOf(mode.toUpperCase(Locale.ROOT));
+        }catch(IllegalArgumentException ex){
+            return PLATFORM;
+        }
+    }
+}
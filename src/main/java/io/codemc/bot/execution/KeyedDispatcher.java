@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.execution;
+
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import io.codemc.bot.tracing.Tracing;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Orders work by the resource it operates on, such as a join request or a Jenkins/Nexus username.
+ * <br>Work for the same key runs serially, in the order it was queued, while work for different keys runs in parallel.
+ * Each key with queued work has a chain of futures of its own, which is removed once its last task finished.
+ * <br>Callers either {@link #run(String, Runnable) wait for their turn}, until their {@link Deadline} at most, or
+ * {@link #submit(String, Executor, Runnable) queue the task} and go on, which JDA's callback threads have to do.
+ */
+public class KeyedDispatcher{
+    
+    private static final CompletableFuture<Void> FREE = CompletableFuture.completedFuture(null);
+    
+    /**
+     * The future completing once the last task queued for the key finished. Never completes exceptionally.
+     */
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * The key of a join request, by the ID of the message it was posted as.
+     */
+    public static String application(long messageId){
+        return "application:" + messageId;
+    }
+    
+    /**
+     * The key of a Jenkins/Nexus account. Usernames are compared case-insensitively, like Jenkins does.
+     *
+     * @return The key, or {@code null} if the username is {@code null} or empty.
+     */
+    public static String user(String username){
+        if(username == null || username.isEmpty())
+            return null;
+        
+        return "user:" + username.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Runs the task on the calling thread once the tasks queued before it for the same key finished.
+     * <br>A {@code null} key runs the task right away.
+     *
+     * @throws DeadlineExceededException If the {@link Deadline#current() deadline} of the calling thread passed, or
+     *         the thread was interrupted, before the other tasks for the key finished.
+     */
+    public void run(String key, Runnable task){
+        if(key == null){
+            task.run();
+            return;
+        }
+        
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = enqueue(key, done);
+        try{
+            await(previous, key);
+        }catch(RuntimeException ex){
+            // The task is skipped, but the tasks queued after it still have to wait for the ones before it.
+            previous.whenComplete((result, error) -> release(key, done));
+            throw ex;
+        }
+        
+        try{
+            task.run();
+        }finally{
+            release(key, done);
+        }
+    }
+    
+    /**
+     * Queues the task without waiting for its turn.
+     * <br>If no other task for the key is queued, or the key is {@code null}, the task runs on the calling thread right
+     * away. Otherwise it is handed to the executor once the tasks before it finished, keeping the
+     * {@link io.codemc.bot.tracing.Trace Trace} of the calling thread.
+     *
+     * @return A future completing with the task, exceptionally if it threw or the executor rejected it.
+     */
+    public CompletableFuture<Void> submit(String key, Executor executor, Runnable task){
+        if(key == null)
+            return complete(task, new CompletableFuture<>());
+        
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = enqueue(key, done);
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        if(previous.isDone()){
+            try{
+                return complete(task, result);
+            }finally{
+                release(key, done);
+            }
+        }
+        
+        Runnable traced = Tracing.wrap(task);
+        previous.whenComplete((ignored, error) -> {
+            try{
+                executor.execute(() -> {
+                    try{
+                        complete(traced, result);
+                    }finally{
+                        release(key, done);
+                    }
+                });
+            }catch(RejectedExecutionException ex){
+                release(key, done);
+                result.completeExceptionally(ex);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Starts the asynchronous task unless one for the same key is still in flight.
+     *
+     * @return The future of the started task, or {@code null} if the key was already claimed and nothing was started.
+     */
+    public <T> CompletableFuture<T> claim(String key, Supplier<CompletableFuture<T>> task){
+        if(!inFlight.add(key))
+            return null;
+        
+        CompletableFuture<T> future;
+        try{
+            future = task.get();
+        }catch(RuntimeException ex){
+            inFlight.remove(key);
+            throw ex;
+        }
+        
+        return future.whenComplete((result, ex) -> inFlight.remove(key));
+    }
+    
+    public boolean isInFlight(String key){
+        return inFlight.contains(key);
+    }
+    
+    /**
+     * The number of keys with queued or running tasks.
+     */
+    public int getActiveKeys(){
+        return tails.size();
+    }
+    
+    /**
+     * Makes {@code done} the last task of the key.
+     *
+     * @return The future of the task queued before it, which completes once it is the turn of {@code done}.
+     */
+    private CompletableFuture<Void> enqueue(String key, CompletableFuture<Void> done){
+        CompletableFuture<Void> previous = tails.put(key, done);
+        return previous == null ? FREE : previous;
+    }
+    
+    private void release(String key, CompletableFuture<Void> done){
+        done.complete(null);
+        tails.remove(key, done);
+    }
+    
+    private static CompletableFuture<Void> complete(Runnable task, CompletableFuture<Void> result){
+        try{
+            task.run();
+            result.complete(null);
+        }catch(Throwable ex){
+            result.completeExceptionally(ex);
+        }
+        
+        return result;
+    }
+    
+    private static void await(CompletableFuture<Void> previous, String key){
+        Deadline deadline = Deadline.current();
+        try{
+            if(deadline.isBounded())
+                previous.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+            else
+                previous.get();
+        }catch(TimeoutException ex){
+            throw new DeadlineExceededException("wait for " + key);
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("wait for " + key);
+        }catch(ExecutionException ex){
+            // Tails never complete exceptionally.
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.execution;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs every task on a new virtual thread, while limiting how many tasks run and wait at the same time.
+ * <br>Virtual threads should not be pooled, so the limits are enforced through semaphores instead of a thread pool.
+ */
+class VirtualThreadExecutor implements Executor{
+    
+    private final String name;
+    private final ExecutorService delegate;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    
+    /**
+     * @param name        The name prefix of the created threads.
+     * @param concurrency The maximum amount of tasks running at once.
+     * @param queueSize   The maximum amount of tasks waiting for a free slot before new ones are rejected.
+     */
+    VirtualThreadExecutor(String name, int concurrency, int queueSize){
+        this.name = name;
+        this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+        this.admitted = new Semaphore(concurrency + queueSize);
+        this.running = new Semaphore(concurrency);
+    }
+    
+    @Override
+    public void execute(Runnable command){
+        if(!admitted.tryAcquire())
+            throw new RejectedExecutionException("Executor " + name + " is saturated.");
+        
+        try{
+            delegate.execute(() -> {
+                running.acquireUninterruptibly();
+                try{
+                    command.run();
+                }finally{
+                    running.release();
+                    admitted.release();
+                }
+            });
+        }catch(RejectedExecutionException ex){
+            admitted.release();
+            throw ex;
+        }
+    }
+    
+    void shutdown(){
+        delegate.shutdown();
+    }
+}
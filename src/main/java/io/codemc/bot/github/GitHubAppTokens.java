@@ -0,0 +1,241 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.github;
+
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+
+/**
+ * Authenticates as the installation of a GitHub App, which has a higher rate limit than a personal access token.
+ * <br>Installation tokens are requested with a JWT signed by the private key of the App and are valid for an hour.
+ * A token is kept until {@link #REFRESH_MARGIN} before it expires and then replaced. If replacing it fails, the old
+ * one is used for as long as it is still valid.
+ * <br>The token is requested without holding a lock, by one caller at a time: callers needing a new token while it is
+ * requested wait for that request instead of making their own.
+ */
+public class GitHubAppTokens implements GitHubAuth{
+    
+    /**
+     * GitHub rejects JWTs valid for longer than 10 minutes.
+     */
+    static final Duration JWT_LIFETIME = Duration.ofMinutes(9);
+    /**
+     * Issued-at is backdated to allow for the clocks of the bot and GitHub being apart.
+     */
+    static final Duration CLOCK_DRIFT = Duration.ofSeconds(60);
+    static final Duration REFRESH_MARGIN = Duration.ofMinutes(5);
+    
+    private static final byte[] RSA_ALGORITHM = {
+        0x30, 0x0d, 0x06, 0x09, 0x2a, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xf7, 0x0d, 0x01, 0x01, 0x01, 0x05, 0x00
+    };
+    
+    private final Logger logger = LoggerFactory.getLogger(GitHubAppTokens.class);
+    
+    private final String appId;
+    private final long installationId;
+    private final PrivateKey privateKey;
+    private final TokenRequest request;
+    private final LongSupplier clock;
+    
+    private Token token;
+    private CompletableFuture<Token> refreshing;
+    
+    public GitHubAppTokens(String appId, long installationId, PrivateKey privateKey, TokenRequest request){
+        this(appId, installationId, privateKey, request, System::currentTimeMillis);
+    }
+    
+    @VisibleForTesting
+    GitHubAppTokens(String appId, long installationId, PrivateKey privateKey, TokenRequest request, LongSupplier clock){
+        this.appId = appId;
+        this.installationId = installationId;
+        this.privateKey = privateKey;
+        this.request = request;
+        this.clock = clock;
+    }
+    
+    @Override
+    public String authorization() throws IOException{
+        long now = clock.getAsLong();
+        CompletableFuture<Token> refresh;
+        boolean requests = false;
+        synchronized(this){
+            if(token != null && token.expiresAt() - REFRESH_MARGIN.toMillis() > now)
+                return "Bearer " + token.value();
+            
+            if(refreshing == null){
+                refreshing = new CompletableFuture<>();
+                requests = true;
+            }
+            refresh = refreshing;
+        }
+        
+        if(requests)
+            refresh(refresh, now);
+        
+        try{
+            return "Bearer " + refresh.join().value();
+        }catch(CompletionException ex){
+            if(ex.getCause() instanceof IOException cause)
+                throw cause;
+            if(ex.getCause() instanceof RuntimeException cause)
+                throw cause;
+            
+            throw ex;
+        }
+    }
+    
+    @Override
+    public synchronized void invalidate(){
+        token = null;
+    }
+    
+    private void refresh(CompletableFuture<Token> refresh, long now){
+        Token created = null;
+        Exception failure = null;
+        try{
+            created = request.create(installationId, jwt(now));
+            logger.info("Received GitHub App installation token valid until {}", Instant.ofEpochMilli(created.expiresAt()));
+        }catch(IOException | RuntimeException ex){
+            failure = ex;
+        }
+        
+        Token current;
+        synchronized(this){
+            if(created != null)
+                token = created;
+            
+            refreshing = null;
+            current = token;
+        }
+        
+        if(failure == null){
+            refresh.complete(created);
+        }else if(current != null && current.expiresAt() > now){
+            logger.warn("Failed to refresh GitHub App installation token, using the current one until it expires.", failure);
+            refresh.complete(current);
+        }else{
+            refresh.completeExceptionally(failure);
+        }
+    }
+    
+    /**
+     * Creates the JWT identifying the App, signed with RS256.
+     */
+    @VisibleForTesting
+    String jwt(long now) throws IOException{
+        long issuedAt = (now - CLOCK_DRIFT.toMillis()) / 1000;
+        long expiresAt = (now + JWT_LIFETIME.toMillis()) / 1000;
+        
+        String header = encode("{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encode(("{\"iat\":" + issuedAt + ",\"exp\":" + expiresAt + ",\"iss\":\"" + appId + "\"}").getBytes(StandardCharsets.UTF_8));
+        String unsigned = header + "." + payload;
+        
+        try{
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(privateKey);
+            signature.update(unsigned.getBytes(StandardCharsets.US_ASCII));
+            return unsigned + "." + encode(signature.sign());
+        }catch(GeneralSecurityException ex){
+            throw new IOException("Failed to sign GitHub App JWT", ex);
+        }
+    }
+    
+    /**
+     * Reads an RSA private key in PEM format, either PKCS#8 or the PKCS#1 format GitHub hands out.
+     */
+    public static PrivateKey readPrivateKey(String pem) throws GeneralSecurityException{
+        boolean pkcs1 = pem.contains("BEGIN RSA PRIVATE KEY");
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        
+        byte[] der;
+        try{
+            der = Base64.getDecoder().decode(base64);
+        }catch(IllegalArgumentException ex){
+            throw new GeneralSecurityException("Private key is not valid PEM", ex);
+        }
+        
+        if(pkcs1)
+            der = toPkcs8(der);
+        
+        return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(der));
+    }
+    
+    /**
+     * Wraps a PKCS#1 RSA key in the PKCS#8 structure the JDK can read.
+     */
+    private static byte[] toPkcs8(byte[] pkcs1){
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.writeBytes(new byte[]{0x02, 0x01, 0x00});
+        content.writeBytes(RSA_ALGORITHM);
+        content.write(0x04);
+        writeLength(content, pkcs1.length);
+        content.writeBytes(pkcs1);
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0x30);
+        writeLength(out, content.size());
+        out.writeBytes(content.toByteArray());
+        return out.toByteArray();
+    }
+    
+    private static void writeLength(ByteArrayOutputStream out, int length){
+        if(length < 0x80){
+            out.write(length);
+            return;
+        }
+        
+        int bytes = (32 - Integer.numberOfLeadingZeros(length) + 7) / 8;
+        out.write(0x80 | bytes);
+        for(int i = bytes - 1; i >= 0; i--)
+            out.write(length >>> (i * 8));
+    }
+    
+    private static String encode(byte[] bytes){
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    /**
+     * An installation token and the time it expires at, in milliseconds since the epoch.
+     */
+    public record Token(String value, long expiresAt){}
+    
+    /**
+     * Exchanges the JWT of the App for a token of the installation.
+     */
+    @FunctionalInterface
+    public interface TokenRequest{
+        Token create(long installationId, String jwt) throws IOException;
+    }
+}
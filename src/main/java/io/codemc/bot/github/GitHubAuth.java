@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.github;
+
+import java.io.IOException;
+
+/**
+ * Provides the {@code Authorization} header of requests to GitHub.
+ */
+@FunctionalInterface
+public interface GitHubAuth{
+    
+    /**
+     * Sends requests unauthenticated, which GitHub limits to 60 requests an hour.
+     */
+    GitHubAuth NONE = () -> null;
+    
+    /**
+     * The value of the {@code Authorization} header, or {@code null} to send the request without one.
+     */
+    String authorization() throws IOException;
+    
+    /**
+     * Called when GitHub rejected the credentials, so that cached ones are not used again.
+     */
+    default void invalidate(){}
+    
+    /**
+     * Authenticates with a personal access token, or not at all if the token is empty.
+     */
+    static GitHubAuth token(String token){
+        if(token == null || token.isEmpty())
+            return NONE;
+        
+        String header = "Bearer " + token;
+        return () -> header;
+    }
+}
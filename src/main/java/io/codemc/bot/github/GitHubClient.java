@@ -0,0 +1,461 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.github;
+
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import io.codemc.bot.health.BackendUnavailableException;
+import io.codemc.bot.health.Resilience;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Client for the parts of the GitHub REST and GraphQL APIs the bot uses.
+ * <br>Requests go over HTTP/2 where available, ask for gzip compressed responses and have a timeout that ends with the
+ * {@link Deadline} of the calling thread at the latest. Responses are read as a stream, picking out only the fields
+ * needed instead of buffering the whole document.
+ * <br>Requests are paced by a {@link GitHubRateLimit}, and a request refused by a rate limit is sent again once it is
+ * allowed instead of failing, so that bulk operations slow down when the quota runs low.
+ */
+public class GitHubClient{
+    
+    public static final String DEFAULT_URL = "https://api.github.com";
+    
+    static final String API_VERSION = "2022-11-28";
+    static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    /**
+     * The share of the quota below which requests are paced.
+     */
+    static final double RATE_LIMIT_RESERVE = 0.1;
+    /**
+     * How often a request refused by a rate limit is sent again before its response is returned as is.
+     */
+    static final int MAX_THROTTLED = 3;
+    /**
+     * The most logins resolved by a single GraphQL query.
+     */
+    static final int MAX_BATCH_SIZE = 100;
+    
+    private final String url;
+    private final String graphQLUrl;
+    private final GitHubAuth auth;
+    private final GitHubRateLimit rateLimit;
+    /**
+     * GraphQL queries have a quota of their own.
+     */
+    private final GitHubRateLimit graphQLRateLimit;
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(CONNECT_TIMEOUT)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+    
+    public GitHubClient(String url, GitHubAuth auth){
+        this(url, auth, new GitHubRateLimit(RATE_LIMIT_RESERVE), new GitHubRateLimit(RATE_LIMIT_RESERVE));
+    }
+    
+    @VisibleForTesting
+    GitHubClient(String url, GitHubAuth auth, GitHubRateLimit rateLimit, GitHubRateLimit graphQLRateLimit){
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        // GitHub Enterprise Server serves GraphQL next to its REST API at /api/v3, rather than below it.
+        this.graphQLUrl = this.url.endsWith("/api/v3") ? this.url.substring(0, this.url.length() - 2) + "graphql" : this.url + "/graphql";
+        this.auth = auth;
+        this.rateLimit = rateLimit;
+        this.graphQLRateLimit = graphQLRateLimit;
+        
+        Metrics.GITHUB_RATE_LIMIT_REMAINING.register(rateLimit::getRemaining);
+    }
+    
+    /**
+     * Creates a client authenticating as an installation of a GitHub App, see {@link GitHubAppTokens}.
+     */
+    public static GitHubClient forApp(String url, String appId, long installationId, PrivateKey privateKey){
+        AtomicReference<GitHubClient> client = new AtomicReference<>();
+        client.set(new GitHubClient(url, new GitHubAppTokens(
+            appId, installationId, privateKey, (id, jwt) -> client.get().createInstallationToken(id, jwt)
+        )));
+        return client.get();
+    }
+    
+    public String getUrl(){
+        return url;
+    }
+    
+    public GitHubRateLimit getRateLimit(){
+        return rateLimit;
+    }
+    
+    /**
+     * Looks up whether a username belongs to a user or an organization, for the {@link OwnerTypeCache}.
+     */
+    public OwnerTypeCache.Response getOwnerType(String username, String etag) throws IOException{
+        HttpRequest.Builder builder = request(url + "/users/" + URLEncoder.encode(username, StandardCharsets.UTF_8)).GET();
+        if(etag != null)
+            builder.header("If-None-Match", etag);
+        
+        return call("getUser", builder, rateLimit, (response, body) -> {
+            String newEtag = response.headers().firstValue("ETag").orElse(null);
+            if(response.statusCode() != 200)
+                return new OwnerTypeCache.Response(response.statusCode(), null, newEtag);
+            
+            String type = readFields(body, "type").get("type");
+            return new OwnerTypeCache.Response(200, "Organization".equals(type) ? OwnerType.ORGANIZATION : OwnerType.USER, newEtag);
+        }).value();
+    }
+    
+    /**
+     * Checks whether a repository exists and can be seen by the bot, which private repositories cannot.
+     * <br>Renamed repositories are followed to their new name.
+     *
+     * @throws IOException If GitHub could not be asked, or answered with anything but found or not found.
+     */
+    public boolean repositoryExists(String owner, String repository) throws IOException{
+        HttpRequest.Builder builder = request(url + "/repos/" + URLEncoder.encode(owner, StandardCharsets.UTF_8) + "/" + URLEncoder.encode(repository, StandardCharsets.UTF_8)).GET();
+        
+        int status = call("getRepository", builder, rateLimit, (response, body) -> null).status();
+        return switch(status){
+            case 200 -> true;
+            case 404 -> false;
+            default -> throw new IOException("Unexpected response " + status + " when looking up GitHub repository " + owner + "/" + repository);
+        };
+    }
+    
+    /**
+     * Looks up the owner types of many logins with one GraphQL query per {@link #MAX_BATCH_SIZE} logins, instead of a
+     * request per login. Logins that do not exist are {@link OwnerType#NOT_FOUND}.
+     * <br>Logins GitHub reported an error for are left out of the result, so that they can be looked up on their own.
+     *
+     * @throws IOException If a query failed, or the client is not authenticated, which GraphQL requires.
+     */
+    public Map<String, OwnerType> getOwnerTypes(List<String> logins) throws IOException{
+        if(auth == GitHubAuth.NONE)
+            throw new IOException("The GitHub GraphQL API requires authentication");
+        
+        Map<String, OwnerType> types = new HashMap<>();
+        for(int from = 0; from < logins.size(); from += MAX_BATCH_SIZE){
+            List<String> batch = logins.subList(from, Math.min(logins.size(), from + MAX_BATCH_SIZE));
+            HttpRequest.Builder builder = request(graphQLUrl)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(ownerTypesQuery(batch)));
+            
+            Reply<Map<String, OwnerType>> reply = call("getOwners", builder, graphQLRateLimit, (response, body) ->
+                response.statusCode() == 200 ? readOwnerTypes(body) : null
+            );
+            if(reply.value() == null)
+                throw new IOException("GitHub refused the GraphQL query (HTTP " + reply.status() + ")");
+            
+            reply.value().forEach((alias, type) -> types.put(batch.get(Integer.parseInt(alias.substring(1))), type));
+        }
+        
+        return types;
+    }
+    
+    /**
+     * Exchanges the JWT of a GitHub App for an installation token.
+     * <br>This does not go through {@link Resilience}, as it is called while a request to GitHub already holds a
+     * thread of its bulkhead, and its requests count against the quota of the App rather than the installation.
+     */
+    GitHubAppTokens.Token createInstallationToken(long installationId, String jwt) throws IOException{
+        HttpRequest.Builder builder = request(url + "/app/installations/" + installationId + "/access_tokens")
+            .POST(HttpRequest.BodyPublishers.noBody());
+        
+        long started = System.nanoTime();
+        boolean failed = true;
+        try{
+            HttpResponse<InputStream> response = send("createInstallationToken", builder, "Bearer " + jwt);
+            try(InputStream body = body(response)){
+                if(response.statusCode() != 201)
+                    throw new IOException("GitHub refused to create an installation token (HTTP " + response.statusCode() + ")");
+                
+                Map<String, String> fields = readFields(body, "token", "expires_at");
+                if(!fields.containsKey("token") || !fields.containsKey("expires_at"))
+                    throw new IOException("GitHub returned an incomplete installation token");
+                
+                GitHubAppTokens.Token token = new GitHubAppTokens.Token(fields.get("token"), Instant.parse(fields.get("expires_at")).toEpochMilli());
+                failed = false;
+                return token;
+            }
+        }catch(DateTimeParseException | DeadlineExceededException ex){
+            throw new IOException(ex.getMessage(), ex);
+        }finally{
+            Metrics.recordCall(Metrics.GITHUB, "createInstallationToken", started, failed);
+        }
+    }
+    
+    private <T> Reply<T> call(String operation, HttpRequest.Builder builder, GitHubRateLimit limit, Parser<T> parser) throws IOException{
+        try{
+            return Resilience.retry(Metrics.GITHUB, operation, () -> attempt(operation, builder, limit, parser), reply -> reply.status() >= 500);
+        }catch(UncheckedIOException ex){
+            throw ex.getCause();
+        }catch(BackendUnavailableException | DeadlineExceededException ex){
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+    
+    private <T> Reply<T> attempt(String operation, HttpRequest.Builder builder, GitHubRateLimit limit, Parser<T> parser){
+        try{
+            for(int throttled = 0; ; throttled++){
+                limit.acquire();
+                HttpResponse<InputStream> response = send(operation, builder, auth.authorization());
+                int status = response.statusCode();
+                limit.update(status, response.headers());
+                if(status == 401)
+                    auth.invalidate();
+                
+                try(InputStream body = body(response)){
+                    // Sent again once the rate limit allows it, rather than counting as a failure of GitHub.
+                    if(throttled < MAX_THROTTLED && GitHubRateLimit.isThrottled(status, response.headers()))
+                        continue;
+                    
+                    return new Reply<>(status, parser.parse(response, body));
+                }
+            }
+        }catch(IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    private HttpResponse<InputStream> send(String operation, HttpRequest.Builder builder, String authorization) throws IOException{
+        HttpRequest.Builder request = builder.copy().timeout(Deadline.current().timeout(operation, REQUEST_TIMEOUT));
+        if(authorization != null)
+            request.header("Authorization", authorization);
+        
+        try{
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling GitHub");
+        }
+    }
+    
+    private HttpRequest.Builder request(String uri){
+        return HttpRequest.newBuilder(URI.create(uri))
+            .header("Accept", "application/vnd.github+json")
+            .header("Accept-Encoding", "gzip")
+            .header("X-GitHub-Api-Version", API_VERSION);
+    }
+    
+    /**
+     * The body of a response, decompressed if GitHub sent it gzip encoded.
+     */
+    @VisibleForTesting
+    static InputStream body(HttpResponse<InputStream> response) throws IOException{
+        InputStream body = response.body();
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+            .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+            .orElse(false);
+        if(!gzip)
+            return body;
+        
+        // Responses without a body, like 304 Not Modified, may still name an encoding.
+        PushbackInputStream pushback = new PushbackInputStream(body);
+        int first = pushback.read();
+        if(first == -1)
+            return pushback;
+        
+        pushback.unread(first);
+        return new GZIPInputStream(pushback);
+    }
+    
+    /**
+     * Reads the string values of the given top-level fields of a JSON object, stopping once all of them were found.
+     * Fields that are missing or not strings are left out.
+     */
+    @VisibleForTesting
+    static Map<String, String> readFields(InputStream body, String... fields) throws IOException{
+        Set<String> wanted = Set.of(fields);
+        Map<String, String> values = new HashMap<>();
+        
+        JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try{
+            reader.beginObject();
+            while(values.size() < wanted.size() && reader.hasNext()){
+                String name = reader.nextName();
+                if(wanted.contains(name) && reader.peek() == JsonToken.STRING)
+                    values.put(name, reader.nextString());
+                else
+                    reader.skipValue();
+            }
+        }catch(IllegalStateException ex){
+            throw new IOException("Unexpected response from GitHub", ex);
+        }
+        
+        return values;
+    }
+    
+    /**
+     * A query resolving each login with an alias of its index, e.g. {@code u0: repositoryOwner(login: $l0)}. The
+     * logins are passed as variables rather than being written into the query.
+     */
+    @VisibleForTesting
+    static String ownerTypesQuery(List<String> logins){
+        StringBuilder parameters = new StringBuilder();
+        StringBuilder fields = new StringBuilder();
+        JsonObject variables = new JsonObject();
+        for(int i = 0; i < logins.size(); i++){
+            if(i > 0)
+                parameters.append(',');
+            parameters.append("$l").append(i).append(":String!");
+            fields.append("u").append(i).append(":repositoryOwner(login:$l").append(i).append("){__typename}");
+            variables.addProperty("l" + i, logins.get(i));
+        }
+        
+        JsonObject query = new JsonObject();
+        query.addProperty("query", "query(" + parameters + "){" + fields + "}");
+        query.add("variables", variables);
+        return query.toString();
+    }
+    
+    /**
+     * Reads the owner types by alias from the response to {@link #ownerTypesQuery(List)}.
+     */
+    @VisibleForTesting
+    static Map<String, OwnerType> readOwnerTypes(InputStream body) throws IOException{
+        Map<String, OwnerType> types = new HashMap<>();
+        Map<String, String> errors = new HashMap<>();
+        boolean data = false;
+        
+        JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try{
+            reader.beginObject();
+            while(reader.hasNext()){
+                String name = reader.nextName();
+                if(name.equals("data") && reader.peek() == JsonToken.BEGIN_OBJECT){
+                    data = true;
+                    reader.beginObject();
+                    while(reader.hasNext()){
+                        String alias = reader.nextName();
+                        if(reader.peek() == JsonToken.NULL){
+                            reader.nextNull();
+                            types.put(alias, OwnerType.NOT_FOUND);
+                        }else{
+                            String type = readObject(reader, "__typename").get("__typename");
+                            types.put(alias, "Organization".equals(type) ? OwnerType.ORGANIZATION : OwnerType.USER);
+                        }
+                    }
+                    reader.endObject();
+                }else if(name.equals("errors") && reader.peek() == JsonToken.BEGIN_ARRAY){
+                    reader.beginArray();
+                    while(reader.hasNext())
+                        readError(reader, errors);
+                    reader.endArray();
+                }else{
+                    reader.skipValue();
+                }
+            }
+        }catch(IllegalStateException ex){
+            throw new IOException("Unexpected response from GitHub", ex);
+        }
+        
+        if(!data)
+            throw new IOException("GitHub answered the GraphQL query without data" + (errors.isEmpty() ? "" : ": " + errors.values()));
+        
+        // A login that does not exist may be reported as an error instead of a null owner.
+        errors.forEach((alias, type) -> {
+            if(type.equals("NOT_FOUND"))
+                types.put(alias, OwnerType.NOT_FOUND);
+            else
+                types.remove(alias);
+        });
+        return types;
+    }
+    
+    /**
+     * Reads the type of an error and the alias it is about, if it is about one.
+     */
+    private static void readError(JsonReader reader, Map<String, String> errors) throws IOException{
+        String type = null;
+        String alias = null;
+        
+        reader.beginObject();
+        while(reader.hasNext()){
+            String name = reader.nextName();
+            if(name.equals("type") && reader.peek() == JsonToken.STRING){
+                type = reader.nextString();
+            }else if(name.equals("path") && reader.peek() == JsonToken.BEGIN_ARRAY){
+                reader.beginArray();
+                if(reader.hasNext() && reader.peek() == JsonToken.STRING)
+                    alias = reader.nextString();
+                while(reader.hasNext())
+                    reader.skipValue();
+                reader.endArray();
+            }else{
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        if(alias != null)
+            errors.put(alias, type == null ? "UNKNOWN" : type);
+    }
+    
+    /**
+     * Reads the string values of the given fields of the JSON object the reader is at, up to the end of the object.
+     */
+    private static Map<String, String> readObject(JsonReader reader, String... fields) throws IOException{
+        Set<String> wanted = Set.of(fields);
+        Map<String, String> values = new HashMap<>();
+        
+        reader.beginObject();
+        while(reader.hasNext()){
+            String name = reader.nextName();
+            if(wanted.contains(name) && reader.peek() == JsonToken.STRING)
+                values.put(name, reader.nextString());
+            else
+                reader.skipValue();
+        }
+        reader.endObject();
+        
+        return values;
+    }
+    
+    private record Reply<T>(int status, T value){}
+    
+    @FunctionalInterface
+    private interface Parser<T>{
+        T parse(HttpResponse<InputStream> response, InputStream body) throws IOException;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.github;
+
+import io.codemc.bot.tracing.Deadline;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpHeaders;
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces requests to GitHub by the rate limit headers of its responses.
+ * <br>While more than the {@code reserve} of the quota is left, requests go out right away. Below it, the remaining
+ * requests are spread evenly over the time until the quota resets, so that bulk operations slow down instead of
+ * running into the limit. Once the quota is used up, or GitHub asked to back off with {@code Retry-After} or a
+ * secondary rate limit, requests wait until it is allowed again.
+ * <br>A request never waits past the {@link Deadline} of the calling thread, nor longer than {@link #MAX_WAIT}, it
+ * fails instead, so that callers can fall back to what they have.
+ */
+public class GitHubRateLimit{
+    
+    /**
+     * GitHub asks to wait at least a minute after hitting a secondary rate limit without telling for how long.
+     */
+    static final long SECONDARY_BACKOFF = 60_000;
+    /**
+     * The longest a request waits for the quota, even without a deadline, so that it does not hold its thread until the
+     * quota resets.
+     */
+    static final long MAX_WAIT = 10_000;
+    
+    private final double reserve;
+    private final LongSupplier clock;
+    
+    private long limit = -1;
+    private long remaining = -1;
+    private long resetAt;
+    private long blockedUntil;
+    private long nextSlot;
+    
+    public GitHubRateLimit(double reserve){
+        this(reserve, System::currentTimeMillis);
+    }
+    
+    @VisibleForTesting
+    GitHubRateLimit(double reserve, LongSupplier clock){
+        this.reserve = reserve;
+        this.clock = clock;
+    }
+    
+    /**
+     * Waits until the next request may be sent.
+     *
+     * @throws IOException If the wait would last past the deadline of the calling thread or longer than {@link #MAX_WAIT}.
+     */
+    public void acquire() throws IOException{
+        long wait = reserve();
+        if(wait <= 0)
+            return;
+        
+        Deadline deadline = Deadline.current();
+        if(wait > MAX_WAIT || wait >= deadline.remainingMillis())
+            throw new IOException("GitHub rate limit reached, the next request is allowed in " + (wait / 1000) + " seconds");
+        
+        try{
+            Thread.sleep(wait);
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the GitHub rate limit");
+        }
+    }
+    
+    /**
+     * Takes the next free slot and returns how long to wait for it, in milliseconds.
+     */
+    @VisibleForTesting
+    synchronized long reserve(){
+        long now = clock.getAsLong();
+        if(blockedUntil > now)
+            return blockedUntil - now;
+        
+        if(remaining < 0 || resetAt <= now)
+            return 0;
+        
+        if(remaining == 0)
+            return resetAt - now;
+        
+        if(remaining > limit * reserve)
+            return 0;
+        
+        // Spread what is left of the quota until it resets. Concurrent callers take consecutive slots.
+        long interval = (resetAt - now) / (remaining + 1);
+        long slot = Math.max(now, nextSlot);
+        nextSlot = slot + interval;
+        return slot - now;
+    }
+    
+    /**
+     * Updates the quota from the headers of a response.
+     */
+    public synchronized void update(int status, HttpHeaders headers){
+        long now = clock.getAsLong();
+        OptionalLong newLimit = header(headers, "X-RateLimit-Limit");
+        OptionalLong newRemaining = header(headers, "X-RateLimit-Remaining");
+        OptionalLong reset = header(headers, "X-RateLimit-Reset");
+        
+        if(newLimit.isPresent())
+            limit = newLimit.getAsLong();
+        if(newRemaining.isPresent())
+            remaining = newRemaining.getAsLong();
+        if(reset.isPresent())
+            resetAt = reset.getAsLong() * 1000;
+        
+        if(!isThrottled(status, headers))
+            return;
+        
+        OptionalLong retryAfter = header(headers, "Retry-After");
+        if(retryAfter.isPresent())
+            blockedUntil = Math.max(blockedUntil, now + retryAfter.getAsLong() * 1000);
+        else if(remaining == 0 && resetAt > now)
+            blockedUntil = Math.max(blockedUntil, resetAt);
+        else
+            blockedUntil = Math.max(blockedUntil, now + SECONDARY_BACKOFF);
+    }
+    
+    /**
+     * Whether a response was refused because of a primary or secondary rate limit, rather than for lack of access.
+     */
+    public static boolean isThrottled(int status, HttpHeaders headers){
+        if(status == 429)
+            return true;
+        
+        if(status != 403)
+            return false;
+        
+        return headers.firstValue("Retry-After").isPresent()
+            || header(headers, "X-RateLimit-Remaining").orElse(-1) == 0;
+    }
+    
+    public synchronized long getLimit(){
+        return limit;
+    }
+    
+    /**
+     * The requests left until the quota resets, or {@code -1} before the first response.
+     */
+    public synchronized long getRemaining(){
+        return remaining;
+    }
+    
+    private static OptionalLong header(HttpHeaders headers, String name){
+        try{
+            return headers.firstValueAsLong(name);
+        }catch(NumberFormatException ex){
+            return OptionalLong.empty();
+        }
+    }
+}
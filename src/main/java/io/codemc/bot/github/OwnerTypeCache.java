@@ -0,0 +1,268 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.github;
+
+import io.codemc.bot.tracing.Deadline;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of the {@link OwnerType} of GitHub usernames.
+ * <br>Found accounts are kept for {@code ttl} and missing accounts for the shorter {@code negativeTtl}.
+ * Expired entries are revalidated with their ETag, so an unchanged account only costs a {@code 304 Not Modified},
+ * which GitHub does not count against the rate limit.
+ * <br>If a lookup fails, an expired entry is still returned rather than guessing. Concurrent lookups of the same
+ * username share a single request, which the others wait for until their {@link Deadline} at most.
+ * <br>Before handling many usernames at once, they can be {@link #prefetch(Collection) prefetched} in batches, so
+ * that they do not need a request each. Batches carry no ETag, so prefetching keeps the ETag of the entry it refreshes.
+ */
+public class OwnerTypeCache{
+    
+    private final Logger logger = LoggerFactory.getLogger(OwnerTypeCache.class);
+    
+    private final Lookup lookup;
+    private final BatchLookup batchLookup;
+    private final int maxSize;
+    private final long ttl;
+    private final long negativeTtl;
+    private final LongSupplier clock;
+    
+    private final Map<String, Entry> entries;
+    // Guarded by entries
+    private final Map<String, CompletableFuture<OwnerType>> inFlight = new HashMap<>();
+    
+    public OwnerTypeCache(Lookup lookup, int maxSize, Duration ttl, Duration negativeTtl){
+        this(lookup, null, maxSize, ttl, negativeTtl);
+    }
+    
+    /**
+     * @param batchLookup Used by {@link #prefetch(Collection)}, or {@code null} if usernames can only be looked up one by one.
+     */
+    public OwnerTypeCache(Lookup lookup, BatchLookup batchLookup, int maxSize, Duration ttl, Duration negativeTtl){
+        this(lookup, batchLookup, maxSize, ttl, negativeTtl, System::currentTimeMillis);
+    }
+    
+    @VisibleForTesting
+    OwnerTypeCache(Lookup lookup, int maxSize, Duration ttl, Duration negativeTtl, LongSupplier clock){
+        this(lookup, null, maxSize, ttl, negativeTtl, clock);
+    }
+    
+    @VisibleForTesting
+    OwnerTypeCache(Lookup lookup, BatchLookup batchLookup, int maxSize, Duration ttl, Duration negativeTtl, LongSupplier clock){
+        this.lookup = lookup;
+        this.batchLookup = batchLookup;
+        this.maxSize = maxSize;
+        this.ttl = ttl.toMillis();
+        this.negativeTtl = negativeTtl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest){
+                return size() > OwnerTypeCache.this.maxSize;
+            }
+        };
+    }
+    
+    /**
+     * Returns the owner type of the username, or {@code null} if it is unknown and could not be looked up.
+     */
+    public OwnerType get(String username){
+        String key = username.toLowerCase(Locale.ROOT);
+        long now = clock.getAsLong();
+        
+        Entry cached;
+        CompletableFuture<OwnerType> running;
+        CompletableFuture<OwnerType> lookup = new CompletableFuture<>();
+        synchronized(entries){
+            cached = entries.get(key);
+            if(cached != null && cached.expiresAt() > now)
+                return cached.type();
+            
+            running = inFlight.putIfAbsent(key, lookup);
+        }
+        
+        // Someone else is looking the username up already, their answer is just as good.
+        if(running != null)
+            return await(running, username, cached);
+        
+        OwnerType type = null;
+        try{
+            type = refresh(username, key, cached, now);
+        }finally{
+            synchronized(entries){
+                inFlight.remove(key);
+            }
+            lookup.complete(type);
+        }
+        return type;
+    }
+    
+    /**
+     * Waits for the lookup of someone else, falling back like a failed lookup once the deadline of the calling thread passed.
+     */
+    private OwnerType await(CompletableFuture<OwnerType> running, String username, Entry cached){
+        Deadline deadline = Deadline.current();
+        try{
+            return deadline.isBounded() ? running.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS) : running.get();
+        }catch(TimeoutException ex){
+            logger.warn("Gave up waiting for the GitHub owner type of {}, the deadline passed.", username);
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while waiting for the GitHub owner type of {}!", username, ex);
+        }catch(ExecutionException ex){
+            logger.error("Failed to look up GitHub owner type of {}!", username, ex.getCause());
+        }
+        
+        return cached == null ? null : cached.type();
+    }
+    
+    private OwnerType refresh(String username, String key, Entry cached, long now){
+        Response response;
+        try{
+            response = lookup.lookup(username, cached == null ? null : cached.etag());
+        }catch(IOException ex){
+            logger.error("Failed to look up GitHub owner type of {}!", username, ex);
+            return cached == null ? null : cached.type();
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while looking up GitHub owner type of {}!", username, ex);
+            return cached == null ? null : cached.type();
+        }
+        
+        Entry entry = switch(response.status()){
+            case 200 -> new Entry(response.type(), response.etag(), expiry(now, response.type()));
+            case 304 -> cached == null ? null : new Entry(cached.type(), cached.etag(), expiry(now, cached.type()));
+            case 404 -> new Entry(OwnerType.NOT_FOUND, response.etag(), expiry(now, OwnerType.NOT_FOUND));
+            default -> null;
+        };
+        
+        if(entry == null){
+            logger.warn("Unexpected response {} when looking up GitHub owner type of {}.", response.status(), username);
+            return cached == null ? null : cached.type();
+        }
+        
+        synchronized(entries){
+            entries.put(key, entry);
+        }
+        return entry.type();
+    }
+    
+    /**
+     * Looks up all usernames without a fresh entry in batches, so that {@link #get(String)} answers them from the cache.
+     * <br>Usernames the batch could not resolve, or all of them if it failed, are left for {@link #get(String)}.
+     */
+    public void prefetch(Collection<String> usernames){
+        if(batchLookup == null)
+            return;
+        
+        long now = clock.getAsLong();
+        Map<String, String> missing = new LinkedHashMap<>();
+        synchronized(entries){
+            for(String username : usernames){
+                String key = username.toLowerCase(Locale.ROOT);
+                Entry cached = entries.get(key);
+                if(cached == null || cached.expiresAt() <= now)
+                    missing.putIfAbsent(key, username);
+            }
+        }
+        if(missing.isEmpty())
+            return;
+        
+        Map<String, OwnerType> types;
+        try{
+            types = batchLookup.lookup(List.copyOf(missing.values()));
+        }catch(IOException ex){
+            logger.warn("Failed to look up GitHub owner types of {} users at once, they are looked up one by one instead.", missing.size(), ex);
+            return;
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while looking up GitHub owner types of {} users at once.", missing.size(), ex);
+            return;
+        }
+        
+        synchronized(entries){
+            types.forEach((username, type) -> {
+                String key = username.toLowerCase(Locale.ROOT);
+                // An unchanged account can then still be revalidated for free once the entry expires again.
+                Entry cached = entries.get(key);
+                String etag = cached != null && cached.type() == type ? cached.etag() : null;
+                entries.put(key, new Entry(type, etag, expiry(now, type)));
+            });
+        }
+        logger.info("Looked up GitHub owner types of {} users at once.", types.size());
+    }
+    
+    public void invalidate(String username){
+        synchronized(entries){
+            entries.remove(username.toLowerCase(Locale.ROOT));
+        }
+    }
+    
+    public int size(){
+        synchronized(entries){
+            return entries.size();
+        }
+    }
+    
+    private long expiry(long now, OwnerType type){
+        return now + (type == OwnerType.NOT_FOUND ? negativeTtl : ttl);
+    }
+    
+    private record Entry(OwnerType type, String etag, long expiresAt){}
+    
+    /**
+     * Result of a single GitHub lookup.
+     *
+     * @param status The HTTP status code.
+     * @param type The owner type, only meaningful for a {@code 200} response.
+     * @param etag The ETag header of the response, or {@code null}.
+     */
+    public record Response(int status, OwnerType type, String etag){}
+    
+    /**
+     * Performs the actual request for a username, sending {@code etag} as {@code If-None-Match} when it is not null.
+     */
+    @FunctionalInterface
+    public interface Lookup{
+        Response lookup(String username, String etag) throws IOException, InterruptedException;
+    }
+    
+    /**
+     * Looks up many usernames at once, returning the owner type of each username it could resolve.
+     */
+    @FunctionalInterface
+    public interface BatchLookup{
+        Map<String, OwnerType> lookup(List<String> usernames) throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.health;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tracks whether each {@link Backend} is ready to be used.
+ * <br>Every backend starts out as {@link State#STARTING STARTING} until the startup check for it completes, so that
+ * the bot can come online on Discord before all backends answered, and actions needing them are refused until then.
+ */
+public class BackendStatus{
+    
+    public enum State{
+        STARTING,
+        READY,
+        UNAVAILABLE
+    }
+    
+    private final AtomicReferenceArray<State> states = new AtomicReferenceArray<>(Backend.values().length);
+    
+    public BackendStatus(){
+        for(Backend backend : Backend.values())
+            states.set(backend.ordinal(), State.STARTING);
+    }
+    
+    public State get(Backend backend){
+        return states.get(backend.ordinal());
+    }
+    
+    public void set(Backend backend, State state){
+        states.set(backend.ordinal(), state);
+    }
+    
+    public boolean isReady(Backend backend){
+        return get(backend) == State.READY;
+    }
+    
+    /**
+     * Returns the first of the given backends that is not ready, or {@code null} if all of them are.
+     */
+    public Backend firstUnavailable(Set<Backend> backends){
+        for(Backend backend : backends){
+            if(!isReady(backend))
+                return backend;
+        }
+        
+        return null;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.health;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to a backend after it failed too often in a row, so that a degraded backend is not hammered further.
+ * <br>Once {@code openDuration} passed, a single call is let through to probe whether the backend recovered. The
+ * circuit closes again if it succeeds, or stays open for another period if it fails.
+ */
+public class CircuitBreaker{
+    
+    public enum State{
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+    
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+    private final Listener listener;
+    
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private long openedAt = 0;
+    
+    public CircuitBreaker(String name, int failureThreshold, long openMillis, LongSupplier clock, Listener listener){
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.clock = clock;
+        this.listener = listener == null ? Listener.NONE : listener;
+    }
+    
+    /**
+     * Checks whether a call may go through, claiming the probe if the circuit is due to be half-opened.
+     * <br>Every call allowed through has to report its outcome with {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public synchronized boolean tryAcquire(){
+        return switch(state){
+            case CLOSED -> true;
+            case OPEN -> {
+                if(clock.getAsLong() - openedAt < openMillis)
+                    yield false;
+                
+                transition(State.HALF_OPEN);
+                yield true;
+            }
+            // Only the call that half-opened the circuit may probe it.
+            case HALF_OPEN -> false;
+        };
+    }
+    
+    public synchronized void onSuccess(){
+        failures = 0;
+        
+        // A slow call started before the circuit opened says nothing about the backend now.
+        if(state == State.HALF_OPEN)
+            transition(State.CLOSED);
+    }
+    
+    public synchronized void onFailure(){
+        switch(state){
+            case CLOSED -> {
+                if(++failures >= failureThreshold)
+                    open();
+            }
+            case HALF_OPEN -> open();
+            case OPEN -> {}
+        }
+    }
+    
+    public String getName(){
+        return name;
+    }
+    
+    public synchronized State getState(){
+        return state;
+    }
+    
+    public synchronized int getFailures(){
+        return failures;
+    }
+    
+    /**
+     * How long the circuit stays open before it is probed, or {@code 0} if it is not open.
+     */
+    public synchronized long getRemainingMillis(){
+        if(state != State.OPEN)
+            return 0;
+        
+        return Math.max(0, openMillis - (clock.getAsLong() - openedAt));
+    }
+    
+    private void open(){
+        openedAt = clock.getAsLong();
+        transition(State.OPEN);
+    }
+    
+    private void transition(State to){
+        State from = state;
+        state = to;
+        listener.onStateChange(this, from, to);
+    }
+    
+    public interface Listener{
+        
+        Listener NONE = (breaker, from, to) -> {};
+        
+        /**
+         * Called while the breaker is locked, so implementations must not block.
+         */
+        void onStateChange(CircuitBreaker breaker, State from, State to);
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.health;
+
+import io.codemc.bot.execution.Bulkhead;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Guards the calls to Jenkins, Nexus and GitHub with a {@link CircuitBreaker} per backend, retrying idempotent calls.
+ * <br>Calls are {@link Metrics#recordCall(String, String, long, boolean) recorded} per attempt. Besides throwing,
+ * a call fails when its result matches the given predicate, such as {@link #UNSUCCESSFUL} for the API methods
+ * reporting failures by returning {@code false}.
+ *
+ * <p>Only calls that can safely run twice may use {@link #retry(String, String, Supplier) retry}, anything creating
+ * resources goes through {@link #call(String, String, Supplier) call} and is attempted once.
+ *
+ * <p>Once {@link #setBulkheads(Function) set}, every attempt runs in the {@link Bulkhead} of its backend. A full
+ * bulkhead fails the call with a {@link BulkheadFullException} without retrying it.
+ *
+ * <p>Calls are not started once the {@link Deadline} of the calling thread passed, and retries stop short of it.
+ */
+public final class Resilience{
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(Resilience.class);
+    
+    public static final RetryPolicy DEFAULT_RETRY = new RetryPolicy(3, Duration.ofMillis(200), Duration.ofSeconds(2));
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+    
+    /**
+     * The backends with a circuit breaker, in the order they are shown.
+     */
+    public static final List<String> BACKENDS = List.of(Metrics.JENKINS, Metrics.NEXUS, Metrics.GITHUB);
+    
+    public static final Predicate<Boolean> UNSUCCESSFUL = success -> success == null || !success;
+    
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+    private static volatile RetryPolicy retryPolicy = DEFAULT_RETRY;
+    private static volatile Function<String, Bulkhead> bulkheads = backend -> null;
+    
+    static{
+        configure(DEFAULT_RETRY, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION);
+    }
+    
+    private Resilience(){}
+    
+    /**
+     * Replaces the retry policy and the circuit breakers, closing all circuits.
+     */
+    public static void configure(RetryPolicy retry, int failureThreshold, Duration openDuration){
+        retryPolicy = retry;
+        for(String backend : BACKENDS)
+            BREAKERS.put(backend, new CircuitBreaker(backend, failureThreshold, openDuration.toMillis(), System::currentTimeMillis, Resilience::log));
+    }
+    
+    /**
+     * Sets where the bulkhead of each backend is looked up, usually {@link io.codemc.bot.execution.BotExecutors#bulkhead(String)}.
+     */
+    public static void setBulkheads(Function<String, Bulkhead> bulkheads){
+        Resilience.bulkheads = bulkheads;
+    }
+    
+    public static CircuitBreaker breaker(String backend){
+        CircuitBreaker breaker = BREAKERS.get(backend);
+        if(breaker == null)
+            throw new IllegalArgumentException("No circuit breaker for backend " + backend);
+        
+        return breaker;
+    }
+    
+    /**
+     * Calls the backend once, failing fast with a {@link CircuitOpenException} while its circuit is open.
+     */
+    public static <T> T call(String backend, String operation, Supplier<T> call, Predicate<? super T> failed){
+        return execute(breaker(backend), RetryPolicy.NONE, backend, operation, call, failed);
+    }
+    
+    public static <T> T call(String backend, String operation, Supplier<T> call){
+        return call(backend, operation, call, result -> false);
+    }
+    
+    /**
+     * Calls the backend, retrying with backoff while it throws or its result matches {@code failed}.
+     * <br>Once the retries are used up, the last result is returned or the last exception is thrown.
+     */
+    public static <T> T retry(String backend, String operation, Supplier<T> call, Predicate<? super T> failed){
+        return execute(breaker(backend), retryPolicy, backend, operation, call, failed);
+    }
+    
+    public static <T> T retry(String backend, String operation, Supplier<T> call){
+        return retry(backend, operation, call, result -> false);
+    }
+    
+    public static void retry(String backend, String operation, Runnable call){
+        retry(backend, operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Calls a backend without a circuit breaker, such as the database, in its bulkhead only.
+     */
+    public static <T> T isolate(String backend, String operation, Supplier<T> call){
+        Deadline.current().check(operation);
+        return isolated(backend, () -> Metrics.call(backend, operation, call));
+    }
+    
+    public static void isolate(String backend, String operation, Runnable call){
+        isolate(backend, operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+    
+    @VisibleForTesting
+    static <T> T execute(CircuitBreaker breaker, RetryPolicy policy, String backend, String operation, Supplier<T> call, Predicate<? super T> failed){
+        T result = null;
+        RuntimeException error = null;
+        Deadline deadline = Deadline.current();
+        
+        for(int attempt = 1; ; attempt++){
+            if(deadline.isExpired()){
+                if(attempt == 1)
+                    throw new DeadlineExceededException(operation);
+                
+                break;
+            }
+            
+            if(!breaker.tryAcquire()){
+                // A retry cut short by the circuit opening reports what the last attempt got.
+                if(attempt == 1)
+                    throw new CircuitOpenException(backend, breaker.getRemainingMillis());
+                
+                break;
+            }
+            
+            Attempt<T> outcome;
+            try{
+                outcome = isolated(backend, () -> attempt(backend, operation, call, failed));
+            }catch(RuntimeException ex){
+                // The bulkhead was full or the deadline passed while waiting on it. The call never got a result, but a
+                // backend too slow to keep up counts against its circuit, and a half-open probe has to end either way.
+                breaker.onFailure();
+                throw ex;
+            }
+            
+            result = outcome.result();
+            error = outcome.error();
+            if(!outcome.failed()){
+                breaker.onSuccess();
+                return result;
+            }
+            
+            breaker.onFailure();
+            if(attempt >= policy.attempts())
+                break;
+            
+            // No point in waiting for a retry that would start after the deadline.
+            long delay = policy.delayMillis(attempt, ThreadLocalRandom.current());
+            if(delay >= deadline.remainingMillis() || !sleep(delay))
+                break;
+            
+            LOGGER.debug("Retrying {} call {} (attempt {}/{}).", displayName(backend), operation, attempt + 1, policy.attempts());
+        }
+        
+        if(error != null)
+            throw error;
+        
+        return result;
+    }
+    
+    private static <T> Attempt<T> attempt(String backend, String operation, Supplier<T> call, Predicate<? super T> failed){
+        long started = System.nanoTime();
+        Attempt<T> outcome = new Attempt<>(null, null, true);
+        try{
+            T result = call.get();
+            outcome = new Attempt<>(result, null, failed.test(result));
+        }catch(RuntimeException ex){
+            outcome = new Attempt<>(null, ex, true);
+        }finally{
+            Metrics.recordCall(backend, operation, started, outcome.failed());
+        }
+        
+        return outcome;
+    }
+    
+    private static <T> T isolated(String backend, Supplier<T> call){
+        Bulkhead bulkhead = bulkheads.apply(backend);
+        return bulkhead == null ? call.get() : bulkhead.call(call);
+    }
+    
+    public static String displayName(String backend){
+        return switch(backend){
+            case Metrics.JENKINS -> "Jenkins";
+            case Metrics.NEXUS -> "Nexus";
+            case Metrics.GITHUB -> "GitHub";
+            case Metrics.DATABASE -> "Database";
+            default -> backend;
+        };
+    }
+    
+    private static boolean sleep(long millis){
+        if(millis <= 0)
+            return true;
+        
+        try{
+            Thread.sleep(millis);
+            return true;
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private static void log(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to){
+        Metrics.BREAKER_TRANSITIONS.inc(breaker.getName(), to.name().toLowerCase(Locale.ROOT));
+        
+        String name = displayName(breaker.getName());
+        switch(to){
+            case OPEN -> LOGGER.warn("Circuit for {} opened, failing calls fast for {} ms.", name, breaker.getRemainingMillis());
+            case HALF_OPEN -> LOGGER.info("Circuit for {} half-open, probing whether it recovered.", name);
+            case CLOSED -> LOGGER.info("Circuit for {} closed, {} recovered.", name, name);
+        }
+    }
+    
+    private record Attempt<T>(T result, RuntimeException error, boolean failed){}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.health;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * How often and how fast a failed call to a backend is retried.
+ * <br>Delays grow exponentially from {@code baseDelay} up to {@code maxDelay}. Each one is picked at random below
+ * that bound, so that calls failing at the same time do not retry in lockstep.
+ *
+ * @param attempts The number of attempts including the first one, so {@code 1} disables retries.
+ */
+public record RetryPolicy(int attempts, Duration baseDelay, Duration maxDelay){
+    
+    public static final RetryPolicy NONE = new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+    
+    public RetryPolicy{
+        attempts = Math.max(1, attempts);
+    }
+    
+    /**
+     * The time to wait before the attempt after {@code attempt}, counting from {@code 1}.
+     */
+    public long delayMillis(int attempt, RandomGenerator random){
+        long max = maxDelay.toMillis();
+        long bound = baseDelay.toMillis() << Math.min(attempt - 1, 30);
+        if(bound <= 0 || bound > max)
+            bound = max;
+        
+        return bound <= 0 ? 0 : random.nextLong(bound + 1);
+    }
+}
@@ -19,6 +19,13 @@
 package io.codemc.bot.listeners;
 
 import io.codemc.bot.CodeMCBot;
+import io.codemc.bot.config.Capability;
+import io.codemc.bot.config.PermissionMatrix;
+import io.codemc.bot.health.Backend;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.Trace;
+import io.codemc.bot.tracing.Tracing;
 import io.codemc.bot.utils.ApplicationHandler;
 import io.codemc.bot.utils.CommandUtil;
 import net.dv8tion.jda.api.components.label.Label;
@@ -27,16 +34,14 @@ import net.dv8tion.jda.api.components.textinput.TextInputStyle;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.MessageEmbed;
-import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.modals.Modal;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.util.Set;
 
 public class ButtonListener extends ListenerAdapter{
     
@@ -49,6 +54,7 @@ public class ButtonListener extends ListenerAdapter{
     
     @Override
     public void onButtonInteraction(@NotNull ButtonInteractionEvent event){
+        long started = System.nanoTime();
         Guild guild = event.getGuild();
         if(!event.isFromGuild() || guild == null){
             CommandUtil.EmbedReply.from(event).error("Buttons only work on the CodeMC Server!").send();
@@ -62,10 +68,8 @@ public class ButtonListener extends ListenerAdapter{
             return;
         }
         
-        List<Long> acceptApplicationRoles = bot.getConfigHandler().getLongList("allowed_roles", "applications", "accept");
-        List<Long> denyApplicationRoles = bot.getConfigHandler().getLongList("allowed_roles", "applications", "deny");
-        
-        if(acceptApplicationRoles.isEmpty() || denyApplicationRoles.isEmpty()){
+        PermissionMatrix permissions = bot.getConfigHandler().getConfig().permissions();
+        if(!permissions.isRestricted(Capability.ACCEPT_APPLICATIONS) || !permissions.isRestricted(Capability.DENY_APPLICATIONS)){
             CommandUtil.EmbedReply.from(event).error("No roles for accepting or denying applications set!").send();
             logger.error("No roles for accepting or denying applications set!");
             return;
@@ -91,22 +95,39 @@ public class ButtonListener extends ListenerAdapter{
             return;
         }
         
-        List<Long> roleIds = member.getRoles().stream()
-            .map(Role::getIdLong)
-            .toList();
+        int capabilities = bot.getPermissionCache().resolve(member, permissions);
         
         if(values[1].equals("accept")){
-            if(lacksRole(roleIds, acceptApplicationRoles)){
+            if(!Capability.ACCEPT_APPLICATIONS.in(capabilities)){
                 CommandUtil.EmbedReply.from(event).error("You lack permissions to perform this action.").send();
+                Metrics.rejected(Metrics.BUTTON, values[1]);
+                return;
+            }
+            
+            if(isUnavailable(event, Backend.ALL)){
+                Metrics.rejected(Metrics.BUTTON, values[1]);
                 return;
             }
             
-            event.deferReply(true).queue(
-                hook -> ApplicationHandler.handle(bot, hook, guild, event.getMessageIdLong(), null, true)
-            );
+            Trace trace = Tracing.start(Metrics.BUTTON, values[1]);
+            try(Trace.Scope ignored = trace.activate(); Trace.Scope bounded = Deadline.forInteraction().activate()){
+                event.deferReply(true).queue(bot.getExecutors().dispatch(
+                    hook -> ApplicationHandler.handle(bot, hook, guild, event.getMessageIdLong(), null, true)
+                        .whenComplete((v, ex) -> {
+                            Metrics.interaction(Metrics.BUTTON, values[1], ex == null ? Metrics.OK : Metrics.ERROR, started);
+                            trace.finish();
+                        })
+                ));
+            }
         }else{
-            if(lacksRole(roleIds, denyApplicationRoles)){
+            if(!Capability.DENY_APPLICATIONS.in(capabilities)){
                 CommandUtil.EmbedReply.from(event).error("You lack permissions to perform this action.").send();
+                Metrics.rejected(Metrics.BUTTON, values[1]);
+                return;
+            }
+            
+            if(isUnavailable(event, Set.of(Backend.DATABASE))){
+                Metrics.rejected(Metrics.BUTTON, values[1]);
                 return;
             }
 
@@ -123,14 +144,18 @@ public class ButtonListener extends ListenerAdapter{
                 .build();
             
             event.replyModal(modal).queue();
+            Metrics.interaction(Metrics.BUTTON, values[1], Metrics.OK, started);
         }
     }
     
-    @VisibleForTesting
-    boolean lacksRole(List<Long> roleIds, List<Long> allowedRoleIds){
-        if(roleIds.isEmpty())
-            return true;
+    private boolean isUnavailable(ButtonInteractionEvent event, Set<Backend> backends){
+        Backend unavailable = bot.getBackends().firstUnavailable(backends);
+        if(unavailable == null)
+            return false;
         
-        return roleIds.stream().noneMatch(allowedRoleIds::contains);
+        CommandUtil.EmbedReply.from(event)
+            .error(unavailable.getName() + " is not available right now. Please try again in a moment.")
+            .send();
+        return true;
     }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.listeners;
+
+import io.codemc.bot.CodeMCBot;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberUpdateEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keeps the {@link io.codemc.bot.cache.PermissionCache PermissionCache} and {@link io.codemc.bot.cache.MemberLookup MemberLookup}
+ * in sync with member changes on the server.
+ */
+public class MemberListener extends ListenerAdapter{
+    
+    private final CodeMCBot bot;
+    
+    public MemberListener(CodeMCBot bot){
+        this.bot = bot;
+    }
+    
+    @Override
+    public void onGuildMemberRoleAdd(@NotNull GuildMemberRoleAddEvent event){
+        invalidate(event.getUser().getIdLong());
+    }
+    
+    @Override
+    public void onGuildMemberRoleRemove(@NotNull GuildMemberRoleRemoveEvent event){
+        invalidate(event.getUser().getIdLong());
+    }
+    
+    // Role events are only fired for cached members, this one is fired for every member update.
+    @Override
+    public void onGuildMemberUpdate(@NotNull GuildMemberUpdateEvent event){
+        invalidate(event.getUser().getIdLong());
+    }
+    
+    @Override
+    public void onGuildMemberRemove(@NotNull GuildMemberRemoveEvent event){
+        invalidate(event.getUser().getIdLong());
+    }
+    
+    private void invalidate(long id){
+        bot.getPermissionCache().invalidate(id);
+        bot.getMemberLookup().invalidate(id);
+    }
+}
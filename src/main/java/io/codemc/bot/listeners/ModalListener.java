@@ -21,6 +21,14 @@ package io.codemc.bot.listeners;
 import io.codemc.api.database.DatabaseAPI;
 import io.codemc.api.jenkins.JenkinsAPI;
 import io.codemc.bot.CodeMCBot;
+import io.codemc.bot.health.BackendUnavailableException;
+import io.codemc.bot.health.Resilience;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.provisioning.ProvisioningPlan;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import io.codemc.bot.tracing.Trace;
+import io.codemc.bot.tracing.Tracing;
 import io.codemc.bot.utils.ApplicationHandler;
 import io.codemc.bot.utils.CommandUtil;
 import net.dv8tion.jda.api.components.actionrow.ActionRow;
@@ -31,16 +39,27 @@ import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.exceptions.ErrorHandler;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 import net.dv8tion.jda.api.interactions.modals.ModalMapping;
+import net.dv8tion.jda.api.requests.ErrorResponse;
 import net.dv8tion.jda.api.utils.MarkdownUtil;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 public class ModalListener extends ListenerAdapter{
     
+    /**
+     * How long checking a submitted request may take, parts not checked by then are left to provisioning.
+     */
+    private static final Duration PLAN_TIMEOUT = Duration.ofMinutes(2);
+    
     private final Logger logger = LoggerFactory.getLogger(ModalListener.class);
     
     private final CodeMCBot bot;
@@ -51,19 +70,27 @@ public class ModalListener extends ListenerAdapter{
     
     @Override
     public void onModalInteraction(@NotNull ModalInteractionEvent event){
+        long started = System.nanoTime();
         if(!event.isFromGuild())
             return;
         
         Guild guild = event.getGuild();
-        if(guild == null || guild.getIdLong() != bot.getConfigHandler().getLong("server")){
+        if(guild == null || guild.getIdLong() != bot.getConfigHandler().getConfig().server()){
             CommandUtil.EmbedReply.from(event).error("Unable to retrieve CodeMC Server!").send();
             return;
         }
         
         String[] args = event.getModalId().split(":");
         
+        Trace trace = Tracing.start(Metrics.MODAL, args[0]);
+        try(Trace.Scope ignored = trace.activate(); Trace.Scope bounded = Deadline.forInteraction().activate()){
+            handle(event, guild, args, trace, started);
+        }
+    }
+    
+    private void handle(ModalInteractionEvent event, Guild guild, String[] args, Trace trace, long started){
         switch(args[0]){
-            case "submit" -> event.deferReply(true).queue(hook -> {
+            case "submit" -> event.deferReply(true).queue(bot.getExecutors().dispatch(traced(trace, args[0], started, hook -> {
                 String user = value(event, "user");
 
                 if(user == null || user.isEmpty()){
@@ -71,7 +98,15 @@ public class ModalListener extends ListenerAdapter{
                     return;
                 }
                 
-                if (JenkinsAPI.existsUser(user)) {
+                boolean exists;
+                try{
+                    exists = Resilience.retry(Metrics.JENKINS, "existsUser", () -> JenkinsAPI.existsUser(user));
+                }catch(BackendUnavailableException | DeadlineExceededException ex){
+                    CommandUtil.EmbedReply.from(hook).error(ex.getMessage()).send();
+                    return;
+                }
+                
+                if (exists) {
                     CommandUtil.EmbedReply.from(hook)
                             .error("A Jenkins User named '" + user + "' already exists!")
                             .send();
@@ -88,7 +123,7 @@ public class ModalListener extends ListenerAdapter{
                     return;
                 }
                 
-                TextChannel requestChannel = guild.getTextChannelById(bot.getConfigHandler().getLong("channels", "request_access"));
+                TextChannel requestChannel = guild.getTextChannelById(bot.getConfigHandler().getConfig().channels().requestAccess());
                 if(requestChannel == null){
                     CommandUtil.EmbedReply.from(hook).error("Unable to retrieve `request-access` channel!").send();                     
                     return;
@@ -102,8 +137,10 @@ public class ModalListener extends ListenerAdapter{
                 String repoLink = MarkdownUtil.maskedLink(repo, repoLinkValue);
                 String submitter = String.format("`%s` (%s)", event.getUser().getEffectiveName(), event.getUser().getAsMention());
                 
-                MessageEmbed embed = CommandUtil.requestEmbed(userLink, repoLink, submitter, description);
+                MessageEmbed embed = CommandUtil.requestEmbed(userLink, repoLink, submitter, description, ProvisioningPlan.PENDING);
                 
+                // Storing the request blocks on the database, which must not happen on the thread running JDA's callbacks.
+                Consumer<Message> posted = Tracing.wrap(message -> submitted(hook, event, message, embed, user, repo));
                 requestChannel.sendMessageEmbeds(embed)
                     .setComponents(
                         ActionRow.of(
@@ -111,19 +148,7 @@ public class ModalListener extends ListenerAdapter{
                                 Button.danger("application:deny:" + user + ":" + repo, "Deny")
                         )
                     ).queue(
-                        message -> {
-                            CommandUtil.EmbedReply.from(hook).success(
-                                "[Request sent!](" + message.getJumpUrl() + ")")
-                                .send();
-                            
-                            message.createThreadChannel("Access Request - " + event.getUser().getName()).queue();
-                            message.addReaction(Emoji.fromCustom("like", 935126958193405962L, false)).queue();
-                            message.addReaction(Emoji.fromCustom("dislike", 935126958235344927L, false)).queue();
-                            
-                            DatabaseAPI.createRequest(message.getIdLong(), event.getUser().getIdLong(), user, repo);
-
-                            logger.info("[Access Request] User {} requested access to the CI.", event.getUser().getEffectiveName());
-                        },
+                        message -> bot.getExecutors().bulk().execute(() -> posted.accept(message)),
                         e -> {
                             CommandUtil.EmbedReply.from(hook).error(
                                 "Error while submitting request!",
@@ -133,9 +158,9 @@ public class ModalListener extends ListenerAdapter{
                             logger.error("Error while submitting request", e);
                         }
                 );
-            });
+            })));
             
-            case "message" -> event.deferReply(true).queue(hook -> {
+            case "message" -> event.deferReply(true).queue(bot.getExecutors().dispatch(traced(trace, args[0], started, hook -> {
                 if(args.length < 4){
                     CommandUtil.EmbedReply.from(hook)
                         .error("Invalid Modal data. Expected `4+` arguments but received `" + args.length + "`!")
@@ -234,9 +259,9 @@ public class ModalListener extends ListenerAdapter{
                         .error("Received Unknown Message type: `" + args[1] + "`.")
                         .send();
                 }
-            });
+            })));
             
-            case "deny_application" -> event.deferReply(true).queue(hook -> {
+            case "deny_application" -> event.deferReply(true).queue(bot.getExecutors().dispatch(hook -> {
                 if(args.length == 1){
                     CommandUtil.EmbedReply.from(hook).error("Received invalid Deny Application modal!").send();
                     return;
@@ -259,8 +284,12 @@ public class ModalListener extends ListenerAdapter{
                 if(reason == null || reason.isEmpty())
                     reason = "*No reason provided*";
                 
-                ApplicationHandler.handle(this.bot, hook, guild, messageId, reason, false);
-            });
+                ApplicationHandler.handle(this.bot, hook, guild, messageId, reason, false)
+                    .whenComplete((v, ex) -> {
+                        Metrics.interaction(Metrics.MODAL, args[0], ex == null ? Metrics.OK : Metrics.ERROR, started);
+                        trace.finish();
+                    });
+            }));
             
             default -> CommandUtil.EmbedReply.from(event)
                 .error("Received Modal with unknown ID `" + event.getModalId() + "`.")
@@ -268,6 +297,69 @@ public class ModalListener extends ListenerAdapter{
         }
     }
     
+    /**
+     * Stores the posted request and only then confirms it, as a request without its database entry cannot be accepted.
+     * <br>Should storing it fail, the request message is deleted again and the member is told to try again.
+     */
+    private void submitted(InteractionHook hook, ModalInteractionEvent event, Message message, MessageEmbed embed, String user, String repo){
+        try{
+            Resilience.isolate(Metrics.DATABASE, "createRequest", () -> DatabaseAPI.createRequest(message.getIdLong(), event.getUser().getIdLong(), user, repo));
+        }catch(RuntimeException ex){
+            message.delete().queue(null, new ErrorHandler().ignore(ErrorResponse.UNKNOWN_MESSAGE));
+            CommandUtil.EmbedReply.from(hook).error(
+                "Error while submitting request!",
+                "Reported Error: " + ex.getMessage()
+            ).send();
+            
+            logger.error("Error while storing the request of {}", user, ex);
+            return;
+        }
+        
+        CommandUtil.EmbedReply.from(hook).success(
+            "[Request sent!](" + message.getJumpUrl() + ")")
+            .send();
+        
+        message.createThreadChannel("Access Request - " + event.getUser().getName()).queue();
+        message.addReaction(Emoji.fromCustom("like", 935126958193405962L, false)).queue();
+        message.addReaction(Emoji.fromCustom("dislike", 935126958235344927L, false)).queue();
+        
+        plan(message, embed, user, repo);
+        
+        logger.info("[Access Request] User {} requested access to the CI.", event.getUser().getEffectiveName());
+    }
+    
+    private static <T> Consumer<T> traced(Trace trace, String name, long started, Consumer<T> handler){
+        Consumer<T> timed = Metrics.timed(Metrics.MODAL, name, started, handler);
+        return value -> {
+            try{
+                timed.accept(value);
+            }finally{
+                trace.finish();
+            }
+        };
+    }
+    
+    /**
+     * Checks the request in the background and shows the plan in its embed, so that reviewers see any problems
+     * before accepting it and accepting only has to carry the plan out.
+     */
+    private void plan(Message message, MessageEmbed embed, String user, String repo){
+        CompletableFuture.supplyAsync(() -> {
+            try(Trace.Scope ignored = Deadline.after(PLAN_TIMEOUT).activate()){
+                return ProvisioningPlan.check(user, repo);
+            }
+        }, bot.getExecutors().bulk()).whenComplete((plan, ex) -> {
+            if(ex != null){
+                logger.warn("Failed to check the Join Request of {}!", user, ex);
+                return;
+            }
+            
+            // The request may have been handled in the meantime.
+            message.editMessageEmbeds(CommandUtil.withPlan(embed, plan.describe()))
+                .queue(null, new ErrorHandler().ignore(ErrorResponse.UNKNOWN_MESSAGE));
+        });
+    }
+    
     private void sendConfirmation(InteractionHook hook, Message message, boolean edit){
         CommandUtil.EmbedReply.from(hook)
             .success(String.format("[%s](%s)", edit ? "Message edited!" : "Message sent!", message.getJumpUrl()))
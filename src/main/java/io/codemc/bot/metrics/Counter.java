@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count per combination of label values.
+ */
+public class Counter extends Metric{
+    
+    private final Map<List<String>, LongAdder> values = new ConcurrentHashMap<>();
+    
+    public Counter(String name, String help, String... labelNames){
+        super(name, help, labelNames);
+    }
+    
+    public void inc(String... labels){
+        values.computeIfAbsent(key(labels), k -> new LongAdder()).increment();
+    }
+    
+    public long get(String... labels){
+        LongAdder value = values.get(key(labels));
+        return value == null ? 0 : value.sum();
+    }
+    
+    @Override
+    String type(){
+        return "counter";
+    }
+    
+    @Override
+    void writeSamples(StringBuilder out){
+        values.forEach((labels, value) -> writeSample(out, "", labels, null, null, Long.toString(value.sum())));
+    }
+}
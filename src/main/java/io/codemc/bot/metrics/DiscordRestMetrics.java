@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.metrics;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Times every request JDA sends to the Discord REST API.
+ * <br>Routes are recorded with IDs and interaction tokens replaced by placeholders, to keep the number of series bounded.
+ */
+public class DiscordRestMetrics implements Interceptor{
+    
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException{
+        Request request = chain.request();
+        String method = request.method();
+        String route = route(request.url().encodedPath());
+        
+        long started = System.nanoTime();
+        try{
+            Response response = chain.proceed(request);
+            Metrics.DISCORD_REST_RESPONSES.inc(method, route, (response.code() / 100) + "xx");
+            return response;
+        }catch(IOException ex){
+            Metrics.DISCORD_REST_RESPONSES.inc(method, route, Metrics.ERROR);
+            throw ex;
+        }finally{
+            Metrics.DISCORD_REST_DURATION.observeNanos(System.nanoTime() - started, method, route);
+        }
+    }
+    
+    static String route(String path){
+        String[] segments = path.split("/");
+        StringBuilder route = new StringBuilder(path.length());
+        for(int i = 0; i < segments.length; i++){
+            String segment = segments[i];
+            if(segment.isEmpty())
+                continue;
+            
+            route.append('/');
+            if(isId(segment)){
+                route.append("{id}");
+            }else if(i >= 2 && isId(segments[i - 1]) && isTokenParent(segments[i - 2])){
+                route.append("{token}");
+            }else{
+                route.append(segment);
+            }
+        }
+        
+        return route.isEmpty() ? "/" : route.toString();
+    }
+    
+    private static boolean isId(String segment){
+        if(segment.isEmpty())
+            return false;
+        
+        for(int i = 0; i < segment.length(); i++){
+            if(!Character.isDigit(segment.charAt(i)))
+                return false;
+        }
+        
+        return true;
+    }
+    
+    // Interaction callbacks and webhook follow-ups carry a token after the application or webhook ID.
+    private static boolean isTokenParent(String segment){
+        return segment.equals("interactions") || segment.equals("webhooks");
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * A value read when scraped, such as the size of a queue.
+ */
+public class Gauge extends Metric{
+    
+    private final Map<List<String>, LongSupplier> values = new ConcurrentHashMap<>();
+    
+    public Gauge(String name, String help, String... labelNames){
+        super(name, help, labelNames);
+    }
+    
+    /**
+     * Reads the value of the series with the given labels from {@code value}, replacing any previous source.
+     */
+    public void register(LongSupplier value, String... labels){
+        values.put(key(labels), value);
+    }
+    
+    public long get(String... labels){
+        LongSupplier value = values.get(key(labels));
+        return value == null ? 0 : value.getAsLong();
+    }
+    
+    @Override
+    String type(){
+        return "gauge";
+    }
+    
+    @Override
+    void writeSamples(StringBuilder out){
+        values.forEach((labels, value) -> writeSample(out, "", labels, null, null, Long.toString(value.getAsLong())));
+    }
+}
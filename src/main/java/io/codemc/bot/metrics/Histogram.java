@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A latency distribution in seconds per combination of label values, using fixed buckets.
+ * <br>Recording only increments the matching bucket, the cumulative counts Prometheus expects are summed up when scraped.
+ */
+public class Histogram extends Metric{
+    
+    /**
+     * Buckets in seconds, ranging from cached lookups to slow Jenkins job creations.
+     */
+    public static final double[] DEFAULT_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+    
+    private final double[] buckets;
+    private final Map<List<String>, Series> series = new ConcurrentHashMap<>();
+    
+    public Histogram(String name, String help, String... labelNames){
+        this(name, help, DEFAULT_BUCKETS, labelNames);
+    }
+    
+    public Histogram(String name, String help, double[] buckets, String... labelNames){
+        super(name, help, labelNames);
+        this.buckets = buckets.clone();
+    }
+    
+    public void observeNanos(long nanos, String... labels){
+        observe(nanos / (double) TimeUnit.SECONDS.toNanos(1), labels);
+    }
+    
+    public void observe(double seconds, String... labels){
+        series.computeIfAbsent(key(labels), k -> new Series(buckets.length)).observe(buckets, seconds);
+    }
+    
+    public long count(String... labels){
+        Series value = series.get(key(labels));
+        return value == null ? 0 : value.count.sum();
+    }
+    
+    @Override
+    String type(){
+        return "histogram";
+    }
+    
+    @Override
+    void writeSamples(StringBuilder out){
+        series.forEach((labels, value) -> {
+            long cumulative = 0;
+            for(int i = 0; i < buckets.length; i++){
+                cumulative += value.buckets[i].sum();
+                writeSample(out, "_bucket", labels, "le", format(buckets[i]), Long.toString(cumulative));
+            }
+            
+            // A concurrent observation may already be in its bucket but not yet in the count.
+            long count = Math.max(cumulative, value.count.sum());
+            writeSample(out, "_bucket", labels, "le", "+Inf", Long.toString(count));
+            writeSample(out, "_sum", labels, null, null, format(value.sum.sum()));
+            writeSample(out, "_count", labels, null, null, Long.toString(count));
+        });
+    }
+    
+    private static final class Series{
+        
+        // Observations above the last bucket are only part of the count.
+        private final LongAdder[] buckets;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+        
+        private Series(int size){
+            this.buckets = new LongAdder[size];
+            for(int i = 0; i < size; i++)
+                buckets[i] = new LongAdder();
+        }
+        
+        private void observe(double[] bounds, double seconds){
+            for(int i = 0; i < bounds.length; i++){
+                if(seconds <= bounds[i]){
+                    buckets[i].increment();
+                    break;
+                }
+            }
+            
+            sum.add(seconds);
+            count.increment();
+        }
+    }
+}
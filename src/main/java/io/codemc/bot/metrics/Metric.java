@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.metrics;
+
+import java.util.List;
+
+/**
+ * A named metric family, written in the Prometheus text exposition format.
+ */
+abstract class Metric{
+    
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    
+    Metric(String name, String help, String... labelNames){
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames;
+    }
+    
+    public String getName(){
+        return name;
+    }
+    
+    abstract String type();
+    
+    abstract void writeSamples(StringBuilder out);
+    
+    final void write(StringBuilder out){
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type()).append('\n');
+        writeSamples(out);
+    }
+    
+    final List<String> key(String[] labels){
+        if(labels.length != labelNames.length)
+            throw new IllegalArgumentException(name + " expects " + labelNames.length + " labels but got " + labels.length);
+        
+        return List.of(labels);
+    }
+    
+    final void writeSample(StringBuilder out, String suffix, List<String> labels, String extraName, String extraValue, String value){
+        out.append(name).append(suffix);
+        if(!labels.isEmpty() || extraName != null){
+            out.append('{');
+            for(int i = 0; i < labels.size(); i++){
+                if(i > 0)
+                    out.append(',');
+                appendLabel(out, labelNames[i], labels.get(i));
+            }
+            
+            if(extraName != null){
+                if(!labels.isEmpty())
+                    out.append(',');
+                appendLabel(out, extraName, extraValue);
+            }
+            out.append('}');
+        }
+        
+        out.append(' ').append(value).append('\n');
+    }
+    
+    private static void appendLabel(StringBuilder out, String name, String value){
+        out.append(name).append("=\"");
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            switch(c){
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+        out.append('"');
+    }
+    
+    static String format(double value){
+        if(value == Double.POSITIVE_INFINITY)
+            return "+Inf";
+        
+        if(value == Math.rint(value) && Math.abs(value) < 1e15)
+            return Long.toString((long) value);
+        
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.metrics;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Counters and latency histograms for interactions, backend calls and Discord REST requests.
+ * <br>Exposed in the Prometheus text format by the {@link MetricsServer}.
+ */
+public final class Metrics{
+    
+    public static final String JENKINS = "jenkins";
+    public static final String NEXUS = "nexus";
+    public static final String DATABASE = "database";
+    public static final String GITHUB = "github";
+    
+    public static final String COMMAND = "command";
+    public static final String BUTTON = "button";
+    public static final String MODAL = "modal";
+    
+    public static final String OK = "ok";
+    public static final String ERROR = "error";
+    public static final String REJECTED = "rejected";
+    
+    public static final Counter INTERACTIONS = new Counter(
+        "codemc_interactions_total",
+        "Interactions received, by type, name and outcome.",
+        "type", "name", "outcome"
+    );
+    public static final Histogram INTERACTION_DURATION = new Histogram(
+        "codemc_interaction_duration_seconds",
+        "Time from receiving an interaction until it was handled.",
+        "type", "name"
+    );
+    public static final Histogram BACKEND_CALL_DURATION = new Histogram(
+        "codemc_backend_call_duration_seconds",
+        "Duration of calls to Jenkins, Nexus, the database and GitHub.",
+        "backend", "operation"
+    );
+    public static final Counter BACKEND_CALL_ERRORS = new Counter(
+        "codemc_backend_call_errors_total",
+        "Calls to Jenkins, Nexus, the database and GitHub that threw an exception or reported a failure.",
+        "backend", "operation"
+    );
+    public static final Counter BREAKER_TRANSITIONS = new Counter(
+        "codemc_circuit_breaker_transitions_total",
+        "State changes of the circuit breakers guarding Jenkins, Nexus and GitHub, by the state entered.",
+        "backend", "state"
+    );
+    public static final Gauge BULKHEAD_QUEUED = new Gauge(
+        "codemc_bulkhead_queued_calls",
+        "Calls waiting for a free thread of the bulkhead of a backend.",
+        "backend"
+    );
+    public static final Gauge BULKHEAD_ACTIVE = new Gauge(
+        "codemc_bulkhead_active_calls",
+        "Calls currently running on the bulkhead of a backend.",
+        "backend"
+    );
+    public static final Counter BULKHEAD_REJECTIONS = new Counter(
+        "codemc_bulkhead_rejections_total",
+        "Calls refused because the bulkhead of their backend was full.",
+        "backend"
+    );
+    public static final Gauge GITHUB_RATE_LIMIT_REMAINING = new Gauge(
+        "codemc_github_rate_limit_remaining",
+        "Requests left until the GitHub rate limit resets, or -1 before the first response."
+    );
+    public static final Histogram DISCORD_REST_DURATION = new Histogram(
+        "codemc_discord_rest_duration_seconds",
+        "Duration of requests to the Discord REST API, by route.",
+        "method", "route"
+    );
+    public static final Counter DISCORD_REST_RESPONSES = new Counter(
+        "codemc_discord_rest_responses_total",
+        "Responses of the Discord REST API, by route and status class.",
+        "method", "route", "status"
+    );
+    
+    private static final List<Metric> METRICS = List.of(
+        INTERACTIONS,
+        INTERACTION_DURATION,
+        BACKEND_CALL_DURATION,
+        BACKEND_CALL_ERRORS,
+        BREAKER_TRANSITIONS,
+        BULKHEAD_QUEUED,
+        BULKHEAD_ACTIVE,
+        BULKHEAD_REJECTIONS,
+        GITHUB_RATE_LIMIT_REMAINING,
+        DISCORD_REST_DURATION,
+        DISCORD_REST_RESPONSES
+    );
+    
+    private Metrics(){}
+    
+    /**
+     * Runs a call to one of the backends, recording its duration and whether it threw.
+     */
+    public static <T> T call(String backend, String operation, Supplier<T> call){
+        long started = System.nanoTime();
+        boolean failed = true;
+        try{
+            T result = call.get();
+            failed = false;
+            return result;
+        }finally{
+            recordCall(backend, operation, started, failed);
+        }
+    }
+    
+    public static void call(String backend, String operation, Runnable call){
+        call(backend, operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Records a backend call that could not go through {@link #call(String, String, Supplier)}, e.g. because it
+     * throws checked exceptions.
+     */
+    public static void recordCall(String backend, String operation, long started, boolean failed){
+        if(failed)
+            BACKEND_CALL_ERRORS.inc(backend, operation);
+        
+        BACKEND_CALL_DURATION.observeNanos(System.nanoTime() - started, backend, operation);
+    }
+    
+    /**
+     * Runs the handler of an interaction, recording it as {@link #ERROR failed} if it throws.
+     */
+    public static void handle(String type, String name, long started, Runnable handler){
+        String outcome = ERROR;
+        try{
+            handler.run();
+            outcome = OK;
+        }finally{
+            interaction(type, name, outcome, started);
+        }
+    }
+    
+    /**
+     * Wraps a callback such as the one receiving the {@link net.dv8tion.jda.api.interactions.InteractionHook hook} of
+     * a deferred reply, to {@link #handle(String, String, long, Runnable) handle} the interaction with it.
+     */
+    public static <T> Consumer<T> timed(String type, String name, long started, Consumer<T> handler){
+        return value -> handle(type, name, started, () -> handler.accept(value));
+    }
+    
+    /**
+     * Records an interaction that was handled, timed from {@code started} as returned by {@link System#nanoTime()}.
+     */
+    public static void interaction(String type, String name, String outcome, long started){
+        INTERACTIONS.inc(type, name, outcome);
+        INTERACTION_DURATION.observeNanos(System.nanoTime() - started, type, name);
+    }
+    
+    /**
+     * Records an interaction that was refused before doing any work, e.g. for missing permissions.
+     */
+    public static void rejected(String type, String name){
+        INTERACTIONS.inc(type, name, REJECTED);
+    }
+    
+    public static String scrape(){
+        StringBuilder out = new StringBuilder(4096);
+        for(Metric metric : METRICS)
+            metric.write(out);
+        
+        return out.toString();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@link Metrics#scrape()} on {@code /metrics} for a local Prometheus scraper.
+ */
+public class MetricsServer{
+    
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    
+    private final Logger logger = LoggerFactory.getLogger(MetricsServer.class);
+    private final HttpServer server;
+    
+    public MetricsServer(String host, int port) throws IOException{
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.server.createContext("/metrics", this::handle);
+        // Scrapes are rare and cheap, a single thread keeps them away from interaction handling.
+        this.server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "CodeMC-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+    
+    public void start(){
+        server.start();
+        logger.info("Serving metrics on http://{}:{}/metrics", server.getAddress().getHostString(), getPort());
+    }
+    
+    public void stop(){
+        server.stop(0);
+    }
+    
+    public int getPort(){
+        return server.getAddress().getPort();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException{
+        try(exchange){
+            if(!exchange.getRequestMethod().equals("GET")){
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            
+            byte[] body = Metrics.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try(OutputStream out = exchange.getResponseBody()){
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.provisioning;
+
+/**
+ * Thrown by a {@link ProvisioningStep} that could not be completed.
+ * <br>The job stays queued and resumes from the failed step when the request is accepted again or the bot restarts,
+ * unless the failure is {@link #isTerminal() terminal}.
+ */
+public class ProvisioningException extends RuntimeException{
+    
+    private final ProvisioningStep step;
+    private final String[] lines;
+    private final boolean terminal;
+    
+    public ProvisioningException(ProvisioningStep step, String... lines){
+        this(step, false, lines);
+    }
+    
+    private ProvisioningException(ProvisioningStep step, boolean terminal, String... lines){
+        super(String.join("\n", lines), null, false, false);
+        this.step = step;
+        this.lines = lines;
+        this.terminal = terminal;
+    }
+    
+    /**
+     * A failure that trying the step again cannot fix, so that the job is dropped instead of staying queued.
+     */
+    public static ProvisioningException terminal(ProvisioningStep step, String... lines){
+        return new ProvisioningException(step, true, lines);
+    }
+    
+    public ProvisioningStep getStep(){
+        return step;
+    }
+    
+    public String[] getLines(){
+        return lines;
+    }
+    
+    public boolean isTerminal(){
+        return terminal;
+    }
+}
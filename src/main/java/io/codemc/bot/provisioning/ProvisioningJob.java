@@ -0,0 +1,220 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.provisioning;
+
+import io.codemc.bot.tracing.Trace;
+import io.codemc.bot.utils.APIUtil;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An accepted join request being provisioned, identified by the ID of its request message.
+ * <br>Only the request itself and the progress through its {@link ProvisioningStep steps} are journaled. The password
+ * is kept in memory only, a job restored after a restart gets a new one and updates Jenkins to match it.
+ */
+public class ProvisioningJob{
+    
+    private final long messageId;
+    private final long userId;
+    private final long reviewerId;
+    private final String username;
+    private final String repoName;
+    private final ProvisioningPlan plan;
+    
+    private final EnumSet<ProvisioningStep> attempted = EnumSet.noneOf(ProvisioningStep.class);
+    private final EnumSet<ProvisioningStep> completed = EnumSet.noneOf(ProvisioningStep.class);
+    
+    private final String password = APIUtil.newPassword();
+    private boolean restored = false;
+    
+    // Set for the current attempt only, see ProvisioningQueue#submit.
+    private volatile Guild guild;
+    private volatile Message message;
+    private volatile Listener listener = Listener.NONE;
+    private volatile Trace trace;
+    private volatile CompletableFuture<Void> future = new CompletableFuture<>();
+    private final List<String> warnings = new ArrayList<>();
+    
+    public ProvisioningJob(long messageId, long userId, long reviewerId, String username, String repoName){
+        this(messageId, userId, reviewerId, username, repoName, ProvisioningPlan.UNKNOWN);
+    }
+    
+    public ProvisioningJob(long messageId, long userId, long reviewerId, String username, String repoName, ProvisioningPlan plan){
+        this.messageId = messageId;
+        this.userId = userId;
+        this.reviewerId = reviewerId;
+        this.username = username;
+        this.repoName = repoName;
+        this.plan = plan;
+    }
+    
+    public long messageId(){
+        return messageId;
+    }
+    
+    public long userId(){
+        return userId;
+    }
+    
+    public long reviewerId(){
+        return reviewerId;
+    }
+    
+    public String username(){
+        return username;
+    }
+    
+    public String repoName(){
+        return repoName;
+    }
+    
+    /**
+     * The plan worked out when the request was submitted.
+     */
+    public ProvisioningPlan plan(){
+        return plan;
+    }
+    
+    public String userLink(){
+        return "https://github.com/" + username;
+    }
+    
+    public String repoLink(){
+        return userLink() + "/" + repoName;
+    }
+    
+    /**
+     * The first step that has not been completed yet, or {@code null} if the job is done.
+     */
+    public synchronized ProvisioningStep next(){
+        for(ProvisioningStep step : ProvisioningStep.values()){
+            if(!completed.contains(step))
+                return step;
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Whether the step was started before, e.g. by an attempt that failed or was interrupted by a restart.
+     * <br>Steps use this to tell resources they created themselves apart from ones that already existed.
+     */
+    public synchronized boolean wasAttempted(ProvisioningStep step){
+        return attempted.contains(step);
+    }
+    
+    public synchronized boolean isCompleted(ProvisioningStep step){
+        return completed.contains(step);
+    }
+    
+    synchronized void markAttempted(ProvisioningStep step){
+        attempted.add(step);
+    }
+    
+    synchronized void markCompleted(ProvisioningStep step){
+        attempted.add(step);
+        completed.add(step);
+    }
+    
+    synchronized Set<ProvisioningStep> attemptedSteps(){
+        return EnumSet.copyOf(attempted);
+    }
+    
+    synchronized Set<ProvisioningStep> completedSteps(){
+        return EnumSet.copyOf(completed);
+    }
+    
+    String password(){
+        return password;
+    }
+    
+    /**
+     * Whether the Jenkins User was created with a password that got lost in a restart.
+     */
+    synchronized boolean needsPasswordSync(){
+        return restored && completed.contains(ProvisioningStep.JENKINS_USER);
+    }
+    
+    synchronized void restore(){
+        this.restored = true;
+    }
+    
+    public Guild guild(){
+        return guild;
+    }
+    
+    /**
+     * The request message, if it was already retrieved by whoever submitted the job.
+     */
+    public Message message(){
+        return message;
+    }
+    
+    Listener listener(){
+        return listener;
+    }
+    
+    Trace trace(){
+        return trace;
+    }
+    
+    CompletableFuture<Void> future(){
+        return future;
+    }
+    
+    public synchronized List<String> warnings(){
+        return List.copyOf(warnings);
+    }
+    
+    synchronized void warn(String warning){
+        warnings.add(warning);
+    }
+    
+    /**
+     * Prepares the job for another attempt, returning the future completing once it finished.
+     */
+    synchronized CompletableFuture<Void> attach(Guild guild, Message message, Listener listener, Trace trace){
+        this.guild = guild;
+        this.message = message;
+        this.listener = listener == null ? Listener.NONE : listener;
+        this.trace = trace;
+        this.warnings.clear();
+        
+        if(future.isDone())
+            future = new CompletableFuture<>();
+        
+        return future;
+    }
+    
+    /**
+     * Receives the progress of a job, e.g. to show it to the reviewer who accepted the request.
+     */
+    public interface Listener{
+        
+        Listener NONE = (job, step) -> {};
+        
+        void onStep(ProvisioningJob job, ProvisioningStep step);
+    }
+}
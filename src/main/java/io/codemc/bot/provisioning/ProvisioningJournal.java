@@ -0,0 +1,235 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.provisioning;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of the provisioning jobs and the progress through their steps.
+ * <br>Every record is one line and is flushed to disk before the call returns. A step is journaled as attempted
+ * before it runs and as completed afterwards, so that after a crash the job resumes from the step that was interrupted.
+ *
+ * <p>Records are tab separated:
+ * <ul>
+ *     <li>{@code Q <message> <user> <reviewer> <username> <repository> <plan>} - A job was queued.</li>
+ *     <li>{@code A <message> <step>} - A step is about to run.</li>
+ *     <li>{@code C <message> <step>} - A step completed.</li>
+ *     <li>{@code D <message>} - The job is done, or was dropped, and can be forgotten.</li>
+ * </ul>
+ * The journal is compacted when opened, keeping only the records of unfinished jobs.
+ */
+public class ProvisioningJournal implements Closeable{
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProvisioningJournal.class);
+    
+    private final FileChannel channel;
+    private final Map<Long, ProvisioningJob> restored;
+    
+    private ProvisioningJournal(FileChannel channel, Map<Long, ProvisioningJob> restored){
+        this.channel = channel;
+        this.restored = restored;
+    }
+    
+    /**
+     * A journal that keeps nothing, so that jobs are lost on a restart.
+     */
+    public static ProvisioningJournal inMemory(){
+        return new ProvisioningJournal(null, Map.of());
+    }
+    
+    /**
+     * Opens the journal at the given path, restoring the unfinished jobs recorded in it.
+     */
+    public static ProvisioningJournal open(Path path) throws IOException{
+        Map<Long, ProvisioningJob> jobs = Files.exists(path) ? read(path) : new LinkedHashMap<>();
+        for(ProvisioningJob job : jobs.values())
+            job.restore();
+        
+        Path parent = path.toAbsolutePath().getParent();
+        if(parent != null)
+            Files.createDirectories(parent);
+        
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        try(FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            for(ProvisioningJob job : jobs.values()){
+                for(String record : records(job))
+                    write(out, record);
+            }
+            out.force(true);
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new ProvisioningJournal(channel, jobs);
+    }
+    
+    /**
+     * The unfinished jobs found when the journal was opened, in the order they were queued.
+     */
+    public Collection<ProvisioningJob> restored(){
+        return restored.values();
+    }
+    
+    public void queued(ProvisioningJob job){
+        append(queuedRecord(job));
+    }
+    
+    public void attempted(ProvisioningJob job, ProvisioningStep step){
+        append(record("A", job.messageId(), step.name()));
+    }
+    
+    public void completed(ProvisioningJob job, ProvisioningStep step){
+        append(record("C", job.messageId(), step.name()));
+    }
+    
+    public void done(ProvisioningJob job){
+        append(record("D", job.messageId()));
+    }
+    
+    @Override
+    public synchronized void close() throws IOException{
+        if(channel != null)
+            channel.close();
+    }
+    
+    private synchronized void append(String record){
+        if(channel == null)
+            return;
+        
+        try{
+            write(channel, record);
+            channel.force(false);
+        }catch(IOException ex){
+            throw new UncheckedIOException("Unable to write to the provisioning journal", ex);
+        }
+    }
+    
+    private static void write(FileChannel channel, String record) throws IOException{
+        ByteBuffer buffer = ByteBuffer.wrap((record + "\n").getBytes(StandardCharsets.UTF_8));
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+    }
+    
+    static Map<Long, ProvisioningJob> read(Path path) throws IOException{
+        String content = Files.readString(path, StandardCharsets.UTF_8);
+        
+        // A record without a line break was cut off by a crash while it was written.
+        int end = content.lastIndexOf('\n');
+        if(end < content.length() - 1)
+            LOGGER.warn("Ignoring incomplete last record of the provisioning journal.");
+        
+        Map<Long, ProvisioningJob> jobs = new LinkedHashMap<>();
+        if(end < 0)
+            return jobs;
+        
+        for(String line : content.substring(0, end).split("\n")){
+            if(line.isEmpty())
+                continue;
+            
+            try{
+                apply(jobs, line.split("\t", -1));
+            }catch(RuntimeException ex){
+                LOGGER.warn("Ignoring malformed record '{}' of the provisioning journal.", line);
+            }
+        }
+        
+        return jobs;
+    }
+    
+    private static void apply(Map<Long, ProvisioningJob> jobs, String[] fields){
+        long messageId = Long.parseLong(fields[1]);
+        switch(fields[0]){
+            case "Q" -> jobs.putIfAbsent(messageId, new ProvisioningJob(
+                messageId, Long.parseLong(fields[2]), Long.parseLong(fields[3]), unescape(fields[4]), unescape(fields[5]),
+                ProvisioningPlan.decode(fields[6])
+            ));
+            case "A" -> {
+                ProvisioningJob job = jobs.get(messageId);
+                if(job != null)
+                    job.markAttempted(ProvisioningStep.valueOf(fields[2]));
+            }
+            case "C" -> {
+                ProvisioningJob job = jobs.get(messageId);
+                if(job != null)
+                    job.markCompleted(ProvisioningStep.valueOf(fields[2]));
+            }
+            case "D" -> jobs.remove(messageId);
+            default -> throw new IllegalArgumentException("Unknown record type " + fields[0]);
+        }
+    }
+    
+    private static List<String> records(ProvisioningJob job){
+        List<String> records = new ArrayList<>();
+        records.add(queuedRecord(job));
+        for(ProvisioningStep step : job.attemptedSteps())
+            records.add(record("A", job.messageId(), step.name()));
+        for(ProvisioningStep step : job.completedSteps())
+            records.add(record("C", job.messageId(), step.name()));
+        
+        return records;
+    }
+    
+    private static String queuedRecord(ProvisioningJob job){
+        return record("Q", job.messageId(), job.userId(), job.reviewerId(), escape(job.username()), escape(job.repoName()), job.plan().encode());
+    }
+    
+    private static String record(String type, Object... fields){
+        StringBuilder builder = new StringBuilder(type);
+        for(Object field : fields)
+            builder.append('\t').append(field);
+        
+        return builder.toString();
+    }
+    
+    private static String escape(String value){
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+    
+    private static String unescape(String value){
+        StringBuilder builder = new StringBuilder(value.length());
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(c == '\\' && i + 1 < value.length()){
+                char next = value.charAt(++i);
+                builder.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            }else{
+                builder.append(c);
+            }
+        }
+        
+        return builder.toString();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.provisioning;
+
+import io.codemc.api.jenkins.JenkinsAPI;
+import io.codemc.bot.github.OwnerType;
+import io.codemc.bot.health.BackendUnavailableException;
+import io.codemc.bot.health.Resilience;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import io.codemc.bot.utils.APIUtil;
+import io.codemc.bot.utils.CommandUtil;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What provisioning a join request needs to know about the GitHub account and repository, worked out when the
+ * request is submitted rather than while the reviewer waits for it to be accepted.
+ * <br>The plan is shown in the {@link CommandUtil#PLAN request embed}, which is also where it is read back from when
+ * the request is accepted, together with any problems reviewers should know about before accepting.
+ * <br>Parts that could not be checked are {@code null} and are looked up again by the provisioning step needing them.
+ *
+ * @param ownerType The owner type of the GitHub account, deciding whether the Jenkins User is created as a group.
+ * @param freestyle Whether the Jenkins Job is created as a freestyle job rather than a Maven job.
+ * @param problems Problems found by the checks, only kept for showing them in the request embed.
+ */
+public record ProvisioningPlan(OwnerType ownerType, Boolean freestyle, List<String> problems){
+    
+    public static final ProvisioningPlan UNKNOWN = new ProvisioningPlan(null, null, List.of());
+    
+    /**
+     * Shown in the request embed until the checks are done.
+     */
+    public static final String PENDING = "Checking GitHub account, repository and build system...";
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProvisioningPlan.class);
+    
+    private static final String OWNER = "Owner: ";
+    private static final String BUILD = "Build: ";
+    private static final String PROBLEM = ":warning: ";
+    
+    /**
+     * Checks that the GitHub account and repository exist, and looks up the owner type and build system.
+     * <br>Calls the backends and blocks, so it has to run off JDA's threads.
+     */
+    public static ProvisioningPlan check(String username, String repoName){
+        List<String> problems = new ArrayList<>();
+        
+        OwnerType ownerType = APIUtil.getOwnerType(username);
+        if(ownerType == null)
+            problems.add("Unable to look up the GitHub account, it is looked up again on accept.");
+        else if(ownerType == OwnerType.NOT_FOUND)
+            problems.add("There is no GitHub account named `" + username + "`.");
+        
+        // Without an account there is no repository, and no build system to detect.
+        if(ownerType == OwnerType.NOT_FOUND)
+            return new ProvisioningPlan(ownerType, null, List.copyOf(problems));
+        
+        Boolean repository = repositoryExists(username, repoName);
+        if(repository == null)
+            problems.add("Unable to check whether the repository exists.");
+        else if(!repository)
+            problems.add("There is no public repository `" + username + "/" + repoName + "` on GitHub.");
+        
+        Boolean freestyle = null;
+        if(!Boolean.FALSE.equals(repository)){
+            String repoLink = "https://github.com/" + username + "/" + repoName;
+            try{
+                freestyle = Resilience.retry(Metrics.JENKINS, "isFreestyle", () -> JenkinsAPI.isFreestyle(repoLink));
+            }catch(BackendUnavailableException | DeadlineExceededException ex){
+                problems.add("Unable to detect the build system, it is detected again on accept.");
+            }
+        }
+        
+        return new ProvisioningPlan(ownerType, freestyle, List.copyOf(problems));
+    }
+    
+    private static Boolean repositoryExists(String username, String repoName){
+        try{
+            return APIUtil.getGitHub().repositoryExists(username, repoName);
+        }catch(IOException ex){
+            LOGGER.warn("Failed to check whether GitHub repository {}/{} exists: {}", username, repoName, ex.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * The plan as shown in the request embed.
+     */
+    public String describe(){
+        StringBuilder builder = new StringBuilder()
+            .append(OWNER).append('`').append(label(ownerType)).append("`\n")
+            .append(BUILD).append('`').append(freestyle == null ? "Unknown" : freestyle ? "Freestyle" : "Maven").append('`');
+        
+        if(problems.isEmpty())
+            builder.append("\nNo problems found.");
+        
+        for(String problem : problems)
+            builder.append('\n').append(PROBLEM).append(problem);
+        
+        return builder.toString();
+    }
+    
+    /**
+     * Reads the plan back from a request embed, or returns {@link #UNKNOWN} if the embed has none (yet).
+     */
+    public static ProvisioningPlan fromEmbed(MessageEmbed embed){
+        if(embed == null)
+            return UNKNOWN;
+        
+        for(MessageEmbed.Field field : embed.getFields()){
+            if(CommandUtil.PLAN.equals(field.getName()) && field.getValue() != null)
+                return parse(field.getValue());
+        }
+        
+        return UNKNOWN;
+    }
+    
+    static ProvisioningPlan parse(String description){
+        OwnerType ownerType = null;
+        Boolean freestyle = null;
+        List<String> problems = new ArrayList<>();
+        
+        for(String line : description.split("\n")){
+            if(line.startsWith(OWNER)){
+                String label = strip(line.substring(OWNER.length()));
+                for(OwnerType type : OwnerType.values()){
+                    if(label(type).equals(label))
+                        ownerType = type;
+                }
+            }else if(line.startsWith(BUILD)){
+                String label = strip(line.substring(BUILD.length()));
+                freestyle = switch(label){
+                    case "Freestyle" -> Boolean.TRUE;
+                    case "Maven" -> Boolean.FALSE;
+                    default -> null;
+                };
+            }else if(line.startsWith(PROBLEM)){
+                problems.add(line.substring(PROBLEM.length()));
+            }
+        }
+        
+        return new ProvisioningPlan(ownerType, freestyle, List.copyOf(problems));
+    }
+    
+    /**
+     * The parts of the plan provisioning uses, for the {@link ProvisioningJournal}.
+     */
+    String encode(){
+        return (ownerType == null ? "-" : ownerType.name()) + "," + (freestyle == null ? "-" : freestyle.toString());
+    }
+    
+    static ProvisioningPlan decode(String value){
+        String[] parts = value.split(",", -1);
+        return new ProvisioningPlan(
+            parts[0].equals("-") ? null : OwnerType.valueOf(parts[0]),
+            parts[1].equals("-") ? null : Boolean.valueOf(parts[1]),
+            List.of()
+        );
+    }
+    
+    private static String label(OwnerType type){
+        if(type == null)
+            return "Unknown";
+        
+        return switch(type){
+            case USER -> "User";
+            case ORGANIZATION -> "Organization";
+            case NOT_FOUND -> "Not found";
+        };
+    }
+    
+    private static String strip(String value){
+        return value.replace("`", "").trim();
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.provisioning;
+
+import io.codemc.api.database.DatabaseAPI;
+import io.codemc.api.jenkins.JenkinsAPI;
+import io.codemc.api.nexus.NexusAPI;
+import io.codemc.bot.CodeMCBot;
+import io.codemc.bot.config.BotConfig;
+import io.codemc.bot.execution.KeyedDispatcher;
+import io.codemc.bot.github.OwnerType;
+import io.codemc.bot.health.BackendUnavailableException;
+import io.codemc.bot.health.Resilience;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.Span;
+import io.codemc.bot.tracing.Trace;
+import io.codemc.bot.tracing.Tracing;
+import io.codemc.bot.utils.APIUtil;
+import io.codemc.bot.utils.ApplicationHandler;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.UserSnowflake;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provisions accepted join requests step by step, journaling the progress of each job.
+ * <br>Jobs are drained by a limited number of workers, so that a burst of accepts is absorbed by the queue instead
+ * of being rejected. A job whose step fails stays queued and continues from that step once the request is accepted
+ * again, jobs interrupted by a restart are {@link #resume(Guild) resumed} once the bot is connected again.
+ * <br>Jobs failing {@link ProvisioningException#isTerminal() terminally} and jobs of denied requests are
+ * {@link #cancel(long) dropped}, so that they are never resumed.
+ *
+ * <p>The announcement is sent at least once: should the bot crash right after sending it, it is sent again on resume.
+ */
+public class ProvisioningQueue{
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProvisioningQueue.class);
+    
+    /**
+     * How long a step waits for Discord. The account is locked while its job runs, so a step must not wait forever.
+     */
+    private static final Duration DISCORD_TIMEOUT = Duration.ofMinutes(1);
+    
+    private final CodeMCBot bot;
+    private final ProvisioningJournal journal;
+    private final Executor executor;
+    private final int maxWorkers;
+    
+    private final Map<Long, ProvisioningJob> jobs = new ConcurrentHashMap<>();
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+    private final Queue<ProvisioningJob> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger workers = new AtomicInteger();
+    
+    /**
+     * @param executor The executor to run workers on. It has to accept up to {@code workers} long running tasks.
+     */
+    public ProvisioningQueue(CodeMCBot bot, ProvisioningJournal journal, Executor executor, int workers){
+        this.bot = bot;
+        this.journal = journal;
+        this.executor = executor;
+        this.maxWorkers = workers;
+        
+        for(ProvisioningJob job : journal.restored())
+            jobs.put(job.messageId(), job);
+    }
+    
+    /**
+     * Queues the job, or the job already queued for the same request message to continue where it stopped.
+     *
+     * @return A future completing once all steps completed, or exceptionally with a {@link ProvisioningException}.
+     */
+    public CompletableFuture<Void> submit(ProvisioningJob job, Guild guild, Message message, ProvisioningJob.Listener listener){
+        ProvisioningJob queued = jobs.putIfAbsent(job.messageId(), job);
+        if(queued == null){
+            try{
+                journal.queued(job);
+            }catch(RuntimeException ex){
+                jobs.remove(job.messageId());
+                return CompletableFuture.failedFuture(ex);
+            }
+        }else{
+            job = queued;
+        }
+        
+        if(!scheduled.add(job.messageId()))
+            return CompletableFuture.failedFuture(new ProvisioningException(null, "This request is already being provisioned."));
+        
+        CompletableFuture<Void> future = job.attach(guild, message, listener, Tracing.current());
+        ready.add(job);
+        schedule();
+        return future;
+    }
+    
+    /**
+     * Continues all jobs that are not running, e.g. the ones restored from the journal after a restart.
+     */
+    public void resume(Guild guild){
+        int resumed = 0;
+        for(ProvisioningJob job : jobs.values()){
+            if(!scheduled.add(job.messageId()))
+                continue;
+            
+            job.attach(guild, null, (j, step) -> LOGGER.info("Resuming provisioning of {} at step {}.", j.username(), step), null)
+                .whenComplete((v, ex) -> {
+                    if(ex == null)
+                        LOGGER.info("Finished resumed provisioning of {}.", job.username());
+                    else
+                        LOGGER.error("Failed to resume provisioning of {}: {}", job.username(), ex.getMessage());
+                });
+            ready.add(job);
+            resumed++;
+        }
+        
+        if(resumed > 0){
+            LOGGER.info("Resuming {} unfinished provisioning job(s).", resumed);
+            schedule();
+        }
+    }
+    
+    /**
+     * Drops the job queued for the request message, e.g. because the request was denied, so that it is not resumed.
+     *
+     * @return Whether no job is left for the request. A job that is being provisioned right now cannot be dropped.
+     */
+    public boolean cancel(long messageId){
+        ProvisioningJob job = jobs.get(messageId);
+        if(job == null)
+            return true;
+        
+        if(!scheduled.add(messageId))
+            return false;
+        
+        try{
+            drop(job);
+        }finally{
+            scheduled.remove(messageId);
+        }
+        return true;
+    }
+    
+    /**
+     * Drops all jobs queued for the account, e.g. because it was removed from the CodeMC Services.
+     */
+    public void cancel(String username){
+        for(ProvisioningJob job : jobs.values()){
+            if(job.username().equalsIgnoreCase(username) && !cancel(job.messageId()))
+                LOGGER.warn("Unable to cancel provisioning of {}, it is running right now.", username);
+        }
+    }
+    
+    public boolean isQueued(long messageId){
+        return jobs.containsKey(messageId);
+    }
+    
+    public int size(){
+        return jobs.size();
+    }
+    
+    private void schedule(){
+        while(!ready.isEmpty()){
+            int active = workers.get();
+            if(active >= maxWorkers)
+                return;
+            
+            if(!workers.compareAndSet(active, active + 1))
+                continue;
+            
+            try{
+                executor.execute(this::drain);
+            }catch(RejectedExecutionException ex){
+                workers.decrementAndGet();
+                LOGGER.warn("Unable to start a provisioning worker, {} job(s) stay queued.", ready.size());
+                return;
+            }
+        }
+    }
+    
+    private void drain(){
+        try{
+            ProvisioningJob job;
+            while((job = ready.poll()) != null)
+                run(job);
+        }finally{
+            workers.decrementAndGet();
+        }
+        
+        // A job queued while this worker was stopping would otherwise wait for the next submit.
+        if(!ready.isEmpty())
+            schedule();
+    }
+    
+    private void run(ProvisioningJob job){
+        Trace trace = job.trace();
+        // Accepted requests are provisioned completely, even after the reviewer's interaction expired.
+        try(Trace.Scope ignored = trace == null ? null : trace.activate(); Trace.Scope unbounded = Deadline.NONE.activate()){
+            // Commands changing the same account must not run while it is being created.
+            bot.getExecutors().keyed().run(KeyedDispatcher.user(job.username()), () -> runSteps(job));
+        }catch(Throwable ex){
+            // Failures of the steps are handled by runSteps, anything else must still release the job, or every later
+            // accept of the request would be refused as already running. The worker goes on with the next job.
+            LOGGER.error("Encountered an Exception while provisioning {}!", job.username(), ex);
+            scheduled.remove(job.messageId());
+            job.future().completeExceptionally(ex);
+        }
+    }
+    
+    private void runSteps(ProvisioningJob job){
+        try{
+            ProvisioningStep step;
+            while((step = job.next()) != null){
+                job.listener().onStep(job, step);
+                
+                try(Span ignored = Tracing.span(step.getId())){
+                    boolean retry = job.wasAttempted(step);
+                    if(!isDone(job, step, retry)){
+                        journal.attempted(job, step);
+                        job.markAttempted(step);
+                        perform(job, step, retry);
+                    }
+                }catch(BackendUnavailableException ex){
+                    throw new ProvisioningException(step, ex.getMessage());
+                }
+                
+                journal.completed(job, step);
+                job.markCompleted(step);
+            }
+            
+            journal.done(job);
+            jobs.remove(job.messageId());
+            scheduled.remove(job.messageId());
+            job.future().complete(null);
+        }catch(RuntimeException ex){
+            if(ex instanceof ProvisioningException provisioningException && provisioningException.isTerminal()){
+                try{
+                    drop(job);
+                }catch(RuntimeException dropEx){
+                    LOGGER.error("Unable to drop provisioning job of {}!", job.username(), dropEx);
+                }
+            }
+            
+            scheduled.remove(job.messageId());
+            if(!(ex instanceof ProvisioningException))
+                LOGGER.error("Encountered an Exception while provisioning {}!", job.username(), ex);
+            
+            job.future().completeExceptionally(ex);
+        }
+    }
+    
+    private void drop(ProvisioningJob job){
+        journal.done(job);
+        jobs.remove(job.messageId());
+    }
+    
+    /**
+     * Checks whether the step has nothing left to do, e.g. because an interrupted attempt got to complete it.
+     *
+     * @throws ProvisioningException If the step cannot be run at all.
+     */
+    private boolean isDone(ProvisioningJob job, ProvisioningStep step, boolean retry){
+        String username = job.username();
+        return switch(step){
+            case JENKINS_USER -> {
+                if(!Resilience.retry(Metrics.JENKINS, "existsUser", () -> JenkinsAPI.existsUser(username)))
+                    yield false;
+                
+                // Only a user created by an earlier attempt of this job may be taken over. This does not change by
+                // trying again, so the job is dropped rather than failing the same way on every accept and restart.
+                if(!retry)
+                    throw ProvisioningException.terminal(step, "Jenkins User for " + username + " already exists!");
+                
+                yield true;
+            }
+            case JENKINS_JOB -> retry && Resilience.retry(Metrics.JENKINS, "getJobInfo", () -> JenkinsAPI.getJobInfo(username, job.repoName())) != null;
+            case NEXUS -> retry && Resilience.retry(Metrics.NEXUS, "getNexusRepository", () -> NexusAPI.getNexusRepository(username)) != null;
+            default -> false;
+        };
+    }
+    
+    private void perform(ProvisioningJob job, ProvisioningStep step, boolean retry){
+        String username = job.username();
+        switch(step){
+            case JENKINS_USER -> {
+                // Worked out when the request was submitted, only looked up now if that failed.
+                OwnerType ownerType = job.plan().ownerType();
+                boolean group = ownerType == null ? APIUtil.isGroup(username) : ownerType.isGroup();
+                if(!Resilience.call(Metrics.JENKINS, "createJenkinsUser", () -> JenkinsAPI.createJenkinsUser(username, job.password(), group), Resilience.UNSUCCESSFUL))
+                    throw new ProvisioningException(step, "Failed to create Jenkins User for " + username + "!");
+            }
+            case JENKINS_JOB -> {
+                String repoLink = job.repoLink();
+                Boolean planned = job.plan().freestyle();
+                boolean freestyle = planned != null ? planned : Resilience.retry(Metrics.JENKINS, "isFreestyle", () -> JenkinsAPI.isFreestyle(repoLink));
+                if(!Resilience.call(Metrics.JENKINS, "createJenkinsJob", () -> JenkinsAPI.createJenkinsJob(username, job.repoName(), repoLink, freestyle), Resilience.UNSUCCESSFUL))
+                    throw new ProvisioningException(step, "Failed to create Jenkins Job '" + job.repoName() + "' for " + username + "!");
+            }
+            case BUILD_TRIGGER -> {
+                if(!Resilience.call(Metrics.JENKINS, "triggerBuild", () -> JenkinsAPI.triggerBuild(username, job.repoName()), Resilience.UNSUCCESSFUL))
+                    throw new ProvisioningException(step, "Failed to trigger Jenkins Build for " + username + "!");
+            }
+            case NEXUS -> {
+                if(!Resilience.call(Metrics.NEXUS, "createNexus", () -> NexusAPI.createNexus(username, job.password()), Resilience.UNSUCCESSFUL))
+                    throw new ProvisioningException(step, "Failed to create Nexus Repository!");
+                
+                // The Jenkins credentials have to match the Nexus password for deployments to work.
+                if(job.needsPasswordSync() && !Resilience.retry(Metrics.JENKINS, "changeJenkinsPassword", () -> JenkinsAPI.changeJenkinsPassword(username, job.password()), Resilience.UNSUCCESSFUL))
+                    throw new ProvisioningException(step, "Failed to change Jenkins Password for " + username + "!");
+            }
+            case DATABASE_LINK -> {
+                Member member = member(job);
+                if(member == null){
+                    LOGGER.warn("Member with ID {} not found!", job.userId());
+                    return;
+                }
+                
+                if(Resilience.isolate(Metrics.DATABASE, "getUser", () -> DatabaseAPI.getUser(username)) == null)
+                    bot.getUserIndex().add(username, member.getIdLong());
+            }
+            case ANNOUNCEMENT -> announce(job, retry);
+            case ROLE -> grantRole(job);
+        }
+    }
+    
+    private void announce(ProvisioningJob job, boolean retry){
+        Guild guild = guild(job, ProvisioningStep.ANNOUNCEMENT);
+        BotConfig config = bot.getConfigHandler().getConfig();
+        
+        TextChannel channel = guild.getTextChannelById(config.channels().acceptedRequests());
+        if(channel == null)
+            throw new ProvisioningException(ProvisioningStep.ANNOUNCEMENT, "Unable to retrieve `accepted-requests` channel.");
+        
+        Message message = job.message();
+        if(message == null){
+            TextChannel requests = guild.getTextChannelById(config.channels().requestAccess());
+            if(requests == null)
+                throw new ProvisioningException(ProvisioningStep.ANNOUNCEMENT, "Unable to retrieve `request-access` channel.");
+            
+            try{
+                message = await(requests.retrieveMessageById(job.messageId()));
+            }catch(CompletionException ex){
+                // The request message is deleted last, so it being gone means the interrupted attempt got that far.
+                if(retry && is(ex, ErrorResponse.UNKNOWN_MESSAGE))
+                    return;
+                
+                throw ex;
+            }
+        }
+        
+        String jenkinsUrl = config.jenkinsUrl() + "/job/" + job.username() + "/job/" + job.repoName() + "/";
+        await(channel.sendMessage(ApplicationHandler.getMessage(
+            bot, String.valueOf(job.userId()), job.userLink(), job.repoLink(), jenkinsUrl, UserSnowflake.fromId(job.reviewerId()), true
+        )));
+        
+        ThreadChannel thread = message.getStartedThread();
+        if(thread != null && !thread.isArchived()){
+            thread.getManager().setArchived(true)
+                .reason("Archiving Thread of deleted Request message.")
+                .queue();
+        }
+        
+        await(message.delete());
+    }
+    
+    private void grantRole(ProvisioningJob job){
+        Guild guild = guild(job, ProvisioningStep.ROLE);
+        Role authorRole = guild.getRoleById(bot.getConfigHandler().getConfig().authorRole());
+        if(authorRole == null)
+            throw new ProvisioningException(ProvisioningStep.ROLE, "Unable to retrieve Author Role!");
+        
+        Member member = member(job);
+        if(member == null){
+            job.warn("Unable to apply Role. Member not found!");
+            return;
+        }
+        
+        try{
+            await(guild.addRoleToMember(member, authorRole).reason("[Join Request] Application accepted."));
+        }catch(CompletionException ex){
+            if(is(ex, ErrorResponse.MISSING_PERMISSIONS))
+                throw new ProvisioningException(ProvisioningStep.ROLE, "I lack the `Manage Roles` permission to apply the role.");
+            
+            throw ex;
+        }
+    }
+    
+    private Member member(ProvisioningJob job){
+        Guild guild = job.guild();
+        return guild == null ? null : bot.getMemberLookup().retrieve(guild, job.userId())
+            .orTimeout(DISCORD_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+            .join();
+    }
+    
+    private static Guild guild(ProvisioningJob job, ProvisioningStep step){
+        Guild guild = job.guild();
+        if(guild == null)
+            throw new ProvisioningException(step, "Not connected to the CodeMC Server.");
+        
+        return guild;
+    }
+    
+    private static boolean is(CompletionException ex, ErrorResponse response){
+        return ex.getCause() instanceof ErrorResponseException error && error.getErrorResponse() == response;
+    }
+    
+    // Workers may block, unlike JDA's callback threads, so REST actions are waited for to keep the steps sequential.
+    private static <T> T await(RestAction<T> action){
+        CompletableFuture<T> future = new CompletableFuture<>();
+        action.timeout(DISCORD_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).queue(future::complete, future::completeExceptionally);
+        return future.join();
+    }
+}
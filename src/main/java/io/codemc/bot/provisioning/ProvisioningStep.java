@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.provisioning;
+
+/**
+ * The steps of provisioning an accepted join request, in the order they are run.
+ * <br>Every step is safe to run again after it was interrupted, so that a job can resume from the first step that
+ * has not been {@link ProvisioningJournal journaled} as completed.
+ */
+public enum ProvisioningStep{
+    
+    JENKINS_USER("jenkins-user", "Creating Jenkins User..."),
+    JENKINS_JOB("jenkins-job", "Creating Jenkins Job..."),
+    BUILD_TRIGGER("build-trigger", "Triggering first Jenkins Build..."),
+    NEXUS("nexus-repository", "Creating Nexus Repository..."),
+    DATABASE_LINK("db-link", "Linking Discord account..."),
+    ANNOUNCEMENT("announcement", "Announcing accepted Join Request..."),
+    ROLE("role-grant", "Giving User role...");
+    
+    private final String id;
+    private final String description;
+    
+    ProvisioningStep(String id, String description){
+        this.id = id;
+        this.description = description;
+    }
+    
+    /**
+     * Short name of the step, used for trace spans.
+     */
+    public String getId(){
+        return id;
+    }
+    
+    public String getDescription(){
+        return description;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.tracing;
+
+import net.dv8tion.jda.api.requests.RestAction;
+
+import java.time.Duration;
+
+/**
+ * The time by which the result of an interaction has to be delivered.
+ * <br>Discord's interaction tokens expire {@link #TOKEN_LIFETIME 15 minutes} after the interaction, after which its
+ * deferred reply can no longer be edited. A deadline is {@link #activate() activated} together with the trace of an
+ * interaction and carried along with it by {@link Tracing#wrap(Runnable)}, so that backend calls, HTTP requests and
+ * REST actions can give up on work whose result could not be shown anymore.
+ * <br>Threads without a deadline, such as the provisioning workers, see {@link #NONE}.
+ */
+public final class Deadline{
+    
+    public static final Duration TOKEN_LIFETIME = Duration.ofMinutes(15);
+    /**
+     * The part of the token lifetime kept back for sending the final reply.
+     */
+    public static final Duration REPLY_MARGIN = Duration.ofMinutes(1);
+    
+    public static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+    
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    
+    private final long expiresAt;
+    
+    private Deadline(long expiresAt){
+        this.expiresAt = expiresAt;
+    }
+    
+    /**
+     * A deadline for an interaction received just now, leaving the {@link #REPLY_MARGIN} to reply once it passed.
+     */
+    public static Deadline forInteraction(){
+        return after(TOKEN_LIFETIME.minus(REPLY_MARGIN));
+    }
+    
+    public static Deadline after(Duration budget){
+        return new Deadline(System.currentTimeMillis() + budget.toMillis());
+    }
+    
+    /**
+     * The deadline of the calling thread, or {@link #NONE} if there is none.
+     */
+    public static Deadline current(){
+        Deadline deadline = CURRENT.get();
+        return deadline == null ? NONE : deadline;
+    }
+    
+    public boolean isBounded(){
+        return expiresAt != Long.MAX_VALUE;
+    }
+    
+    /**
+     * The time the deadline passes at, in milliseconds since the epoch.
+     */
+    public long getExpiresAt(){
+        return expiresAt;
+    }
+    
+    public long remainingMillis(){
+        return isBounded() ? Math.max(0, expiresAt - System.currentTimeMillis()) : Long.MAX_VALUE;
+    }
+    
+    public boolean isExpired(){
+        return remainingMillis() == 0;
+    }
+    
+    /**
+     * Throws if the deadline passed, so that {@code operation} is not started anymore.
+     *
+     * @throws DeadlineExceededException If the deadline passed.
+     */
+    public void check(String operation){
+        if(isExpired())
+            throw new DeadlineExceededException(operation);
+    }
+    
+    /**
+     * Shortens the timeout of a single request so that it ends with the deadline at the latest.
+     *
+     * @throws DeadlineExceededException If the deadline passed.
+     */
+    public Duration timeout(String operation, Duration timeout){
+        check(operation);
+        return Duration.ofMillis(Math.min(timeout.toMillis(), remainingMillis()));
+    }
+    
+    /**
+     * Makes JDA drop the REST action instead of sending it once the deadline passed.
+     */
+    public <T> RestAction<T> bound(RestAction<T> action){
+        return isBounded() ? action.deadline(expiresAt) : action;
+    }
+    
+    /**
+     * Makes this the deadline of the calling thread until the returned scope is closed.
+     */
+    public Trace.Scope activate(){
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> set(previous);
+    }
+    
+    static Deadline get(){
+        return CURRENT.get();
+    }
+    
+    static void set(Deadline deadline){
+        if(deadline == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(deadline);
+    }
+}
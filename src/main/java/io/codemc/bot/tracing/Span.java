@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.tracing;
+
+import java.util.function.Consumer;
+
+/**
+ * A timed step of a {@link Trace}, such as a backend call or a REST action.
+ * <br>Spans may be ended on a different thread than they were started on, e.g. in the callback of a queued REST action.
+ */
+public class Span implements AutoCloseable{
+    
+    static final Span NOOP = new Span(null, "noop", 0L);
+    
+    private final Trace trace;
+    private final String name;
+    private final long started;
+    private volatile long ended = -1L;
+    
+    Span(Trace trace, String name, long started){
+        this.trace = trace;
+        this.name = name;
+        this.started = started;
+    }
+    
+    public String getName(){
+        return name;
+    }
+    
+    /**
+     * Nanoseconds from the start of the trace until this span started.
+     */
+    public long offsetNanos(){
+        return trace == null ? 0L : started - trace.getStarted();
+    }
+    
+    /**
+     * Duration of this span in nanoseconds, or {@code -1} if it has not been ended.
+     */
+    public long durationNanos(){
+        long end = ended;
+        return end < 0 ? -1L : end - started;
+    }
+    
+    public boolean isEnded(){
+        return ended >= 0;
+    }
+    
+    /**
+     * Ends this span. Only the first call has an effect.
+     */
+    public void end(){
+        if(this == NOOP)
+            return;
+        
+        long now = System.nanoTime();
+        synchronized(this){
+            if(ended >= 0)
+                return;
+            
+            ended = now;
+        }
+        
+        trace.spanEnded(now);
+    }
+    
+    /**
+     * Wraps a callback of a queued REST action to end this span before it is called.
+     */
+    public <T> Consumer<T> ending(Consumer<? super T> callback){
+        return value -> {
+            end();
+            callback.accept(value);
+        };
+    }
+    
+    @Override
+    public void close(){
+        end();
+    }
+}
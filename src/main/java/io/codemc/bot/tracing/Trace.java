@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.tracing;
+
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The timeline of a single interaction, made up of {@link Span Spans}.
+ * <br>A trace is made current on a thread with {@link #activate()}, after which {@link Tracing#wrap(Runnable)} carries
+ * it over to executors and JDA callbacks.
+ * <br>A finished trace is only written out once all of its spans ended, so that REST actions still in flight when the
+ * interaction's handler returns are part of it.
+ */
+public class Trace{
+    
+    private final String id;
+    private final String name;
+    private final long started;
+    private final List<Span> spans = new ArrayList<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicLong lastEnded = new AtomicLong();
+    private final AtomicBoolean finishing = new AtomicBoolean();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    
+    Trace(String name){
+        this.id = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 16);
+        this.name = name;
+        this.started = System.nanoTime();
+        this.lastEnded.set(started);
+    }
+    
+    public String getId(){
+        return id;
+    }
+    
+    public String getName(){
+        return name;
+    }
+    
+    public long getStarted(){
+        return started;
+    }
+    
+    public List<Span> getSpans(){
+        synchronized(spans){
+            return List.copyOf(spans);
+        }
+    }
+    
+    public Span span(String name){
+        Span span = new Span(this, name, System.nanoTime());
+        open.incrementAndGet();
+        synchronized(spans){
+            spans.add(span);
+        }
+        
+        return span;
+    }
+    
+    /**
+     * Makes this trace the current one of the calling thread and puts its ID into the {@link MDC}, until the returned
+     * scope is closed.
+     */
+    public Scope activate(){
+        return Tracing.activate(this);
+    }
+    
+    /**
+     * Ends the trace, writing its spans to the trace log once all of them ended. Only the first call has an effect.
+     */
+    public void finish(){
+        if(!finishing.compareAndSet(false, true))
+            return;
+        
+        lastEnded.accumulateAndGet(System.nanoTime(), Math::max);
+        complete();
+    }
+    
+    void spanEnded(long ended){
+        lastEnded.accumulateAndGet(ended, Math::max);
+        open.decrementAndGet();
+        complete();
+    }
+    
+    private void complete(){
+        if(finishing.get() && open.get() == 0 && finished.compareAndSet(false, true))
+            Tracing.finish(this, lastEnded.get() - started);
+    }
+    
+    /**
+     * Whether the trace has been written out.
+     */
+    public boolean isFinished(){
+        return finished.get();
+    }
+    
+    /**
+     * Restores the previously current trace when closed.
+     */
+    public interface Scope extends AutoCloseable{
+        @Override
+        void close();
+    }
+}
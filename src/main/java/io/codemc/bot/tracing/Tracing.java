@@ -0,0 +1,198 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Entry point for tracing interactions.
+ * <br>Spans are written to the {@code io.codemc.bot.tracing.Spans} logger, which goes to its own trace log. Traces
+ * taking longer than the {@link #setSlowThreshold(Duration) slow threshold} are additionally summarised in the main log.
+ * <br>Wrapped tasks and callbacks also carry the {@link Deadline} of the calling thread.
+ */
+public final class Tracing{
+    
+    public static final String MDC_KEY = "trace";
+    public static final Duration DEFAULT_SLOW_THRESHOLD = Duration.ofSeconds(5);
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(Tracing.class);
+    private static final Logger SPANS = LoggerFactory.getLogger("io.codemc.bot.tracing.Spans");
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+    
+    private static volatile long slowThresholdNanos = DEFAULT_SLOW_THRESHOLD.toNanos();
+    
+    private Tracing(){}
+    
+    public static void setSlowThreshold(Duration threshold){
+        slowThresholdNanos = threshold.toNanos();
+    }
+    
+    /**
+     * Starts a new trace for an interaction, e.g. {@code start("button", "accept")}.
+     * <br>The trace still has to be {@link Trace#activate() activated} to be picked up by spans and wrapped callbacks.
+     */
+    public static Trace start(String type, String name){
+        return new Trace(type + " " + name);
+    }
+    
+    /**
+     * The trace of the calling thread, or {@code null} if there is none.
+     */
+    public static Trace current(){
+        return CURRENT.get();
+    }
+    
+    /**
+     * Starts a span on the trace of the calling thread. Without a trace, a span that records nothing is returned.
+     */
+    public static Span span(String name){
+        Trace trace = CURRENT.get();
+        return trace == null ? Span.NOOP : trace.span(name);
+    }
+    
+    /**
+     * Wraps the task so that it runs with the trace, {@link MDC} and deadline of the calling thread, wherever it is executed.
+     */
+    public static Runnable wrap(Runnable task){
+        Trace trace = CURRENT.get();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        Deadline deadline = Deadline.get();
+        if(trace == null && context == null && deadline == null)
+            return task;
+        
+        return () -> {
+            try(Trace.Scope ignored = activate(trace, context, deadline)){
+                task.run();
+            }
+        };
+    }
+    
+    /**
+     * Wraps a callback, such as the success or failure consumer of a queued REST action, see {@link #wrap(Runnable)}.
+     */
+    public static <T> Consumer<T> wrap(Consumer<T> callback){
+        Trace trace = CURRENT.get();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        Deadline deadline = Deadline.get();
+        if(trace == null && context == null && deadline == null)
+            return callback;
+        
+        return value -> {
+            try(Trace.Scope ignored = activate(trace, context, deadline)){
+                callback.accept(value);
+            }
+        };
+    }
+    
+    /**
+     * Decorates the executor to {@link #wrap(Runnable) wrap} every task submitted to it.
+     */
+    public static Executor executor(Executor executor){
+        return task -> executor.execute(wrap(task));
+    }
+    
+    static Trace.Scope activate(Trace trace){
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return activate(trace, context == null ? Map.of(MDC_KEY, trace.getId()) : withTrace(context, trace), Deadline.get());
+    }
+    
+    private static Map<String, String> withTrace(Map<String, String> context, Trace trace){
+        context.put(MDC_KEY, trace.getId());
+        return context;
+    }
+    
+    private static Trace.Scope activate(Trace trace, Map<String, String> context, Deadline deadline){
+        Trace previousTrace = CURRENT.get();
+        Map<String, String> previousContext = MDC.getCopyOfContextMap();
+        Deadline previousDeadline = Deadline.get();
+        
+        set(trace, context, deadline);
+        return () -> set(previousTrace, previousContext, previousDeadline);
+    }
+    
+    private static void set(Trace trace, Map<String, String> context, Deadline deadline){
+        if(trace == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(trace);
+        
+        if(context == null)
+            MDC.clear();
+        else
+            MDC.setContextMap(context);
+        
+        Deadline.set(deadline);
+    }
+    
+    static void finish(Trace trace, long durationNanos){
+        List<Span> spans = trace.getSpans();
+        if(SPANS.isInfoEnabled()){
+            for(Span span : spans){
+                SPANS.info("trace={} name=\"{}\" span=\"{}\" offset={}ms duration={}",
+                    trace.getId(), trace.getName(), span.getName(), millis(span.offsetNanos()), duration(span));
+            }
+            SPANS.info("trace={} name=\"{}\" total={}ms spans={}", trace.getId(), trace.getName(), millis(durationNanos), spans.size());
+        }
+        
+        if(durationNanos < slowThresholdNanos)
+            return;
+        
+        Span slowest = spans.stream()
+            .filter(Span::isEnded)
+            .max(Comparator.comparingLong(Span::durationNanos))
+            .orElse(null);
+        
+        if(slowest == null){
+            LOGGER.warn("[Trace {}] {} took {} ms.", trace.getId(), trace.getName(), millis(durationNanos));
+        }else{
+            LOGGER.warn("[Trace {}] {} took {} ms, mostly in {} ({} ms). Spans: {}",
+                trace.getId(), trace.getName(), millis(durationNanos), slowest.getName(), millis(slowest.durationNanos()), summary(spans));
+        }
+    }
+    
+    private static String summary(List<Span> spans){
+        StringBuilder builder = new StringBuilder();
+        for(Span span : spans){
+            if(!builder.isEmpty())
+                builder.append(", ");
+            
+            builder.append(span.getName()).append('=').append(duration(span));
+        }
+        
+        return builder.toString();
+    }
+    
+    private static String duration(Span span){
+        return span.isEnded() ? millis(span.durationNanos()) + "ms" : "unfinished";
+    }
+    
+    private static long millis(long nanos){
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
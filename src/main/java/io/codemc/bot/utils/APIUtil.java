@@ -3,13 +3,16 @@ package io.codemc.bot.utils;
 import io.codemc.api.Generator;
 import io.codemc.api.jenkins.JenkinsAPI;
 import io.codemc.api.nexus.NexusAPI;
+import io.codemc.bot.github.GitHubAuth;
+import io.codemc.bot.github.GitHubClient;
+import io.codemc.bot.github.OwnerType;
+import io.codemc.bot.github.OwnerTypeCache;
+import io.codemc.bot.health.Resilience;
+import io.codemc.bot.metrics.Metrics;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 
-import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,8 +21,13 @@ public class APIUtil {
 
     public static final int PASSWORD_SIZE = 32;
     private static final Logger LOGGER = LoggerFactory.getLogger(APIUtil.class);
-    private static final HttpClient CLIENT = HttpClient.newHttpClient();
-    public static String GITHUB_API_TOKEN = "";
+
+    private static volatile GitHubClient github = new GitHubClient(GitHubClient.DEFAULT_URL, GitHubAuth.NONE);
+    private static final OwnerTypeCache OWNER_TYPES = new OwnerTypeCache(
+        (username, etag) -> github.getOwnerType(username, etag),
+        usernames -> github.getOwnerTypes(usernames),
+        4096, Duration.ofHours(24), Duration.ofHours(1)
+    );
 
     public APIUtil() {}
 
@@ -28,7 +36,7 @@ public class APIUtil {
     }
 
     public static boolean createNexus(InteractionHook hook, String username, String password) {
-        boolean success = NexusAPI.createNexus(username, password);
+        boolean success = Resilience.call(Metrics.NEXUS, "createNexus", () -> NexusAPI.createNexus(username, password), Resilience.UNSUCCESSFUL);
         if (!success) {
             if (hook != null)
                 CommandUtil.EmbedReply.from(hook)
@@ -43,59 +51,8 @@ public class APIUtil {
         return true;
     }
 
-    public static boolean createJenkinsJob(InteractionHook hook, String username, String password, String project, String repoLink, boolean trigger) {
-        if (JenkinsAPI.existsUser(username)) {
-            if (hook != null)
-                CommandUtil.EmbedReply.from(hook)
-                        .error("Jenkins User for " + username + " already exists!")
-                        .send();
-
-            LOGGER.error("Jenkins User for {} already exists!", username);
-            return false;
-        }
-
-        boolean userSuccess = JenkinsAPI.createJenkinsUser(username, password, isGroup(username));
-        if (!userSuccess) {
-            if (hook != null)
-                CommandUtil.EmbedReply.from(hook)
-                        .error("Failed to create Jenkins User for " + username + "!")
-                        .send();
-
-            LOGGER.error("Failed to create Jenkins User for {}!", username);
-            return false;
-        }
-
-        boolean freestyle = JenkinsAPI.isFreestyle(repoLink);
-        boolean jobSuccess = JenkinsAPI.createJenkinsJob(username, project, repoLink, freestyle);
-        if (!jobSuccess) {
-            if (hook != null)
-                CommandUtil.EmbedReply.from(hook)
-                        .error("Failed to create Jenkins Job '" + project + "' for " + username + "!")
-                        .send();
-
-            LOGGER.error("Failed to create Jenkins Job '{}' for {}!", project, username);
-            return false;
-        }
-
-        if (trigger) {
-            boolean triggerBuild = JenkinsAPI.triggerBuild(username, project);
-            if (!triggerBuild) {
-                if (hook != null)
-                    CommandUtil.EmbedReply.from(hook)
-                            .error("Failed to trigger Jenkins Build for " + username + "!")
-                            .send();
-
-                LOGGER.error("Failed to trigger Jenkins Build for {}!", username);
-                return false;
-            }
-        }
-
-        LOGGER.info("Successfully created Jenkins Job '{}' for {}!", project, username);
-        return true;
-    }
-
     public static boolean changePassword(InteractionHook hook, String username, String newPassword) {
-        boolean jenkinsSuccess = JenkinsAPI.changeJenkinsPassword(username, newPassword);
+        boolean jenkinsSuccess = Resilience.retry(Metrics.JENKINS, "changeJenkinsPassword", () -> JenkinsAPI.changeJenkinsPassword(username, newPassword), Resilience.UNSUCCESSFUL);
         if (!jenkinsSuccess) {
             CommandUtil.EmbedReply.from(hook)
                     .error("Failed to change Jenkins Password for " + username + "!")
@@ -105,7 +62,7 @@ public class APIUtil {
             return false;
         }
 
-        boolean nexusSuccess = NexusAPI.changeNexusPassword(username, newPassword);
+        boolean nexusSuccess = Resilience.retry(Metrics.NEXUS, "changeNexusPassword", () -> NexusAPI.changeNexusPassword(username, newPassword), Resilience.UNSUCCESSFUL);
         if (!nexusSuccess) {
             CommandUtil.EmbedReply.from(hook)
                     .error("Failed to change Nexus Password for " + username + "!")
@@ -118,27 +75,30 @@ public class APIUtil {
     }
 
     public static boolean isGroup(String username) {
-        try {
-            HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create("https://api.github.com/users/" + username))
-                .GET();
+        OwnerType type = getOwnerType(username);
+        return type != null && type.isGroup();
+    }
 
-            if (!GITHUB_API_TOKEN.isEmpty())
-                builder.header("Authorization", "Bearer " + GITHUB_API_TOKEN);
+    /**
+     * The owner type of the GitHub account, or {@code null} if it is unknown and could not be looked up.
+     */
+    public static OwnerType getOwnerType(String username) {
+        return OWNER_TYPES.get(username);
+    }
 
-            HttpRequest req = builder.build();
+    /**
+     * Looks up the owner types of many users with a few batched requests, ahead of {@link #isGroup(String)} calls for them.
+     */
+    public static void prefetchOwnerTypes(Collection<String> usernames) {
+        OWNER_TYPES.prefetch(usernames);
+    }
 
-            HttpResponse<String> res = CLIENT.send(req, HttpResponse.BodyHandlers.ofString());
-            if (res.statusCode() == 404) return false;
+    public static GitHubClient getGitHub() {
+        return github;
+    }
 
-            return res.body().contains("\"type\":\"Organization\"");
-        } catch (IOException e) {
-            LOGGER.error("Failed to check if {} is a group!", username, e);
-            return false;
-        } catch (InterruptedException e) {
-            LOGGER.error("Interrupted when checking if {} is a group!", username, e);
-            return false;
-        }
+    public static void setGitHub(GitHubClient client) {
+        github = client;
     }
 
 }
@@ -21,13 +21,24 @@ package io.codemc.bot.utils;
 import io.codemc.bot.CodeMCBot;
 import io.codemc.api.database.DatabaseAPI;
 import io.codemc.api.database.Request;
+import io.codemc.bot.execution.KeyedDispatcher;
+import io.codemc.bot.health.BackendUnavailableException;
+import io.codemc.bot.health.Resilience;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.provisioning.ProvisioningException;
+import io.codemc.bot.provisioning.ProvisioningJob;
+import io.codemc.bot.provisioning.ProvisioningPlan;
+import io.codemc.bot.provisioning.ProvisioningStep;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import io.codemc.bot.tracing.Span;
+import io.codemc.bot.tracing.Tracing;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
-import net.dv8tion.jda.api.exceptions.ErrorHandler;
 import net.dv8tion.jda.api.interactions.InteractionHook;
-import net.dv8tion.jda.api.requests.ErrorResponse;
+import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 
@@ -35,250 +46,317 @@ import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
 public class ApplicationHandler{
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationHandler.class);
+    private static final Duration MEMBER_TIMEOUT = Duration.ofMinutes(1);
     
-    public static void handle(CodeMCBot bot, InteractionHook hook, Guild guild, long messageId, String str, boolean accepted){
-        TextChannel requestChannel = guild.getTextChannelById(bot.getConfigHandler().getLong("channels", "request_access"));
+    /**
+     * Accepts or denies the join request posted as the message with the given ID.
+     * <br>The JDA callback only schedules the work: the request is looked up on the bot's provisioning executor.
+     * An accepted request is then handed to the {@link io.codemc.bot.provisioning.ProvisioningQueue provisioning queue},
+     * which creates the accounts, announces the request and gives out the role, a denied one is announced right away.
+     *
+     * <br>Only one reviewer can handle a request at a time, anyone else trying to while it is in progress is turned away.
+     *
+     * @return A future completing once the request has been handled and its announcement has been queued.
+     */
+    public static CompletableFuture<Void> handle(CodeMCBot bot, InteractionHook hook, Guild guild, long messageId, String str, boolean accepted){
+        CompletableFuture<Void> result = bot.getExecutors().keyed().claim(
+            KeyedDispatcher.application(messageId),
+            () -> process(bot, hook, guild, messageId, str, accepted)
+        );
+        if(result == null){
+            CommandUtil.EmbedReply.from(hook).error("This request is already being handled by someone else.").send();
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        return result;
+    }
+    
+    private static CompletableFuture<Void> process(CodeMCBot bot, InteractionHook hook, Guild guild, long messageId, String str, boolean accepted){
+        TextChannel requestChannel = guild.getTextChannelById(bot.getConfigHandler().getConfig().channels().requestAccess());
         if(requestChannel == null){
             CommandUtil.EmbedReply.from(hook).error("Unable to retrieve `request-access` channel.").send();
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         
-        hook.editOriginal(
+        ProgressReporter reporter = new ProgressReporter(hook, bot.getExecutors().scheduler());
+        reporter.update(
             "[1/5] Handling Join Request...\n" +
             "- [1/1] Retrieving Request..."
-        ).queue();
+        );
         
-        requestChannel.retrieveMessageById(messageId).queue(message -> {
-            Request req = DatabaseAPI.getRequest(messageId);
-            if(req == null){
-                // try to parse from message
-                if (message.getEmbeds().isEmpty()) {
-                    CommandUtil.EmbedReply.from(hook).error("Request not found in Database and Message has no embeds to parse from.").send();
-                    return;
-                }
-
-                MessageEmbed embed = message.getEmbeds().get(0);
-                req = fromEmbed(message.getIdLong(), embed);
-
-                if (req == null) {
-                    CommandUtil.EmbedReply.from(hook).error("Request not found in Database and data could not be parsed from embed.").send();
-                    return;
-                }
-            }
-
-            hook.editOriginal(
-                """
-                [2/5] Handling Join Request...
-                - [<:like:935126958193405962>] Request retrieved!
-                - [1/2] Validating Request...
-                """
-            ).queue();
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Span retrieve = Tracing.span("retrieve-message");
+        Deadline.current().bound(requestChannel.retrieveMessageById(messageId)).queue(Tracing.wrap(retrieve.ending(message -> {
+            Executor executor = bot.getExecutors().provisioning();
             
-            long userId = req.getUserId();
-            if(userId <= 0){
-                CommandUtil.EmbedReply.from(hook).error("Request does not have a valid user.").send();
-                return;
+            try{
+                CompletableFuture.supplyAsync(() -> resolve(bot, reporter, guild, message, messageId, accepted), executor)
+                    .thenCompose(application -> {
+                        if(accepted)
+                            return provision(bot, hook, reporter, guild, message, messageId, application);
+                        
+                        // A job left over from accepting the request earlier must not be resumed once it is denied.
+                        if(!bot.getProvisioning().cancel(messageId))
+                            throw new HandlerException("This request is being provisioned right now and cannot be denied.");
+                        
+                        announce(bot, hook, reporter, message, application, str);
+                        return CompletableFuture.<Void>completedFuture(null);
+                    })
+                    .whenComplete((v, ex) -> {
+                        if(ex != null)
+                            fail(reporter, ex);
+                        
+                        result.complete(null);
+                    });
+            }catch(RejectedExecutionException ex){
+                fail(reporter, ex);
+                result.complete(null);
             }
-
-            hook.editOriginalFormat(
+        })), Tracing.wrap(retrieve.ending(e -> {
+            reporter.error(
+                "Unable to retrieve Message. Encountered error:",
+                "`" + e.getMessage() + "`"
+            );
+            
+            LOGGER.warn("Encountered an Exception while retrieving a message!", e);
+            result.complete(null);
+        })));
+        
+        return result;
+    }
+    
+    private static Application resolve(CodeMCBot bot, ProgressReporter reporter, Guild guild, Message message, long messageId, boolean accepted){
+        Request req;
+        try(Span ignored = Tracing.span("db-lookup")){
+            req = Resilience.isolate(Metrics.DATABASE, "getRequest", () -> DatabaseAPI.getRequest(messageId));
+        }
+        if(req == null){
+            // try to parse from message
+            if(message.getEmbeds().isEmpty())
+                throw new HandlerException("Request not found in Database and Message has no embeds to parse from.");
+            
+            MessageEmbed embed = message.getEmbeds().get(0);
+            req = fromEmbed(message.getIdLong(), embed);
+            
+            if(req == null)
+                throw new HandlerException("Request not found in Database and data could not be parsed from embed.");
+        }
+        
+        reporter.update(
+            """
+            [2/5] Handling Join Request...
+            - [<:like:935126958193405962>] Request retrieved!
+            - [1/2] Validating Request...
+            """
+        );
+        
+        long userId = req.getUserId();
+        if(userId <= 0)
+            throw new HandlerException("Request does not have a valid user.");
+        
+        reporter.update(
+            """
+            [2/5] Handling Join Request...
+            - [<:like:935126958193405962>] Request retrieved!
+            - [2/2] Validating Request...
+                - Found User ID `%d`.
+                - Find and validate User and Repository link...
+            """.formatted(userId)
+        );
+        
+        String username = req.getGithubName();
+        String repoName = req.getRepoName();
+        
+        if(username.isEmpty() || repoName.isEmpty())
+            throw new HandlerException("Database Request is missing values.");
+        
+        reporter.update(
+            """
+            [3/5] Handling Join Request...
+            - [<:like:935126958193405962>] Request retrieved!
+                - Found User ID `%s`.
+                - User and Repository found and validated!
+            - [1/1] Finding `%s-requests` channel...
+            """.formatted(userId, (accepted ? "accepted" : "rejected"))
+        );
+        
+        TextChannel channel = guild.getTextChannelById(accepted 
+            ? bot.getConfigHandler().getConfig().channels().acceptedRequests() 
+            : bot.getConfigHandler().getConfig().channels().rejectedRequests()
+        );
+        if(channel == null)
+            throw new HandlerException("Unable to retrieve `" + (accepted ? "accepted" : "rejected") + "-requests` channel.");
+        
+        reporter.update(
+            """
+            [4/5] Handling Join Request...
+            - [<:like:935126958193405962>] Request retrieved!
+                - Found User ID `%d`.
+                - User and Repository Link found and validated!
+            - [<:like:935126958193405962>] `%s-requests` channel found!
+            - [1/2] Removing Join Request...
+                - Archive Thread...
+            """.formatted(userId, (accepted ? "accepted" : "rejected"))
+        );
+        
+        // Runs on the provisioning executor, so waiting for a member outside the cache does not block JDA.
+        // A member that can't be retrieved in time is treated like one that left the server.
+        Member member;
+        try(Span ignored = Tracing.span("member-lookup")){
+            Duration timeout = Deadline.current().timeout("member-lookup", MEMBER_TIMEOUT);
+            member = bot.getMemberLookup().retrieve(guild, userId)
+                .completeOnTimeout(null, timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .join();
+        }
+        
+        // Checked when the request was submitted, so that accepting it only has to carry the plan out.
+        ProvisioningPlan plan = message.getEmbeds().isEmpty() ? ProvisioningPlan.UNKNOWN : ProvisioningPlan.fromEmbed(message.getEmbeds().get(0));
+        return new Application(userId, username, repoName, channel, member, plan);
+    }
+    
+    private static CompletableFuture<Void> provision(CodeMCBot bot, InteractionHook hook, ProgressReporter reporter, Guild guild, Message message, long messageId, Application application){
+        long userId = application.userId();
+        ProvisioningJob job = new ProvisioningJob(messageId, userId, hook.getInteraction().getUser().getIdLong(), application.username(), application.repoName(), application.plan());
+        
+        // Accepting a request again continues the job that is still queued for it, with the steps it already completed.
+        return bot.getProvisioning().submit(job, guild, message, (queued, step) -> reporter.update(
+            """
+            [4/5] Handling Join Request...
+            - [<:like:935126958193405962>] Request retrieved!
+                - Found User ID `%d`.
+                - User and Repository found and validated!
+            - [%d/%d] %s
+            """.formatted(userId, step.ordinal() + 1, ProvisioningStep.values().length, step.getDescription())
+        )).thenRun(() -> {
+            Member member = application.member();
+            StringBuilder warnings = new StringBuilder();
+            for(String warning : job.warnings())
+                warnings.append("- [:warning:] ").append(warning).append('\n');
+            
+            reporter.complete(
                 """
-                [2/5] Handling Join Request...
+                [<:like:935126958193405962>] Handling of Join Request complete!
                 - [<:like:935126958193405962>] Request retrieved!
-                - [2/2] Validating Request...
                     - Found User ID `%d`.
-                    - Find and validate User and Repository link...
-                """, userId
-            ).queue();
-
-            String username = req.getGithubName();
-            String repoName = req.getRepoName();
-            
-            if(username.isEmpty() || repoName.isEmpty()){
-                CommandUtil.EmbedReply.from(hook).error("Database Request is missing values.").send();
-                return;
+                    - User and Repository Link found and validated!
+                - [<:like:935126958193405962>] Created Jenkins and Nexus accounts!
+                - [<:like:935126958193405962>] Join Request announced and removed!
+                %s
+                **Successfully accepted Join Request of user %s!**
+                """.formatted(userId, warnings, (member == null ? "*Unknown*" : member.getUser().getEffectiveName()))
+            );
+        });
+    }
+    
+    private static void announce(CodeMCBot bot, InteractionHook hook, ProgressReporter reporter, Message message, Application application, String str){
+        long userId = application.userId();
+        Member member = application.member();
+        
+        Span send = Tracing.span("message-send");
+        application.channel().sendMessage(getMessage(bot, String.valueOf(userId), application.userLink(), application.repoLink(), str, hook.getInteraction().getUser(), false)).queue(Tracing.wrap(send.ending(m -> {
+            ThreadChannel thread = message.getStartedThread();
+            if(thread != null && !thread.isArchived()){
+                Span archive = Tracing.span("thread-archive");
+                thread.getManager().setArchived(true)
+                    .reason("Archiving Thread of deleted Request message.")
+                    .queue(archive.ending(v -> {}), archive.ending(RestAction.getDefaultFailure()));
             }
-
-            String userLink = "https://github.com/" + username;
-            String repoLink = userLink + "/" + repoName;
             
-            hook.editOriginalFormat(
+            reporter.update(
                 """
-                [3/5] Handling Join Request...
+                [4/5] Handling Join Request...
                 - [<:like:935126958193405962>] Request retrieved!
-                    - Found User ID `%s`.
+                    - Found User ID `%d`.
                     - User and Repository found and validated!
-                - [1/1] Finding `%s-requests` channel...
-                """, userId, (accepted ? "accepted" : "rejected")
-            ).queue();
-            
-            TextChannel channel = guild.getTextChannelById(accepted 
-                ? bot.getConfigHandler().getLong("channels", "accepted_requests") 
-                : bot.getConfigHandler().getLong("channels", "rejected_requests")
+                - [<:like:935126958193405962>] `rejected-requests` channel found!
+                - [2/2] Removing Join Request...
+                    - Thread archived!
+                    - Delete Request Message...
+                """.formatted(userId)
             );
-            if(channel == null){
-                CommandUtil.EmbedReply.from(hook)
-                    .error("Unable to retrieve `" + (accepted ? "accepted" : "rejected") + "-requests` channel.")
-                    .send();
-                return;
-            }
             
-            hook.editOriginalFormat(
+            message.delete().queue();
+            
+            reporter.complete(
                 """
-                [4/5] Handling Join Request...
+                [<:like:935126958193405962>] Handling of Join Request complete!
                 - [<:like:935126958193405962>] Request retrieved!
                     - Found User ID `%d`.
-                    - User and Repository Link found and validated!
-                - [<:like:935126958193405962>] `%s-requests` channel found!
-                - [1/2] Removing Join Request...
-                    - Archive Thread...
-                """, userId, (accepted ? "accepted" : "rejected")
-            ).queue();
-            
-            String jenkinsUrl = bot.getConfigHandler().getString("jenkins", "url") + "/job/" + username + "/job/" + repoName + "/";
-            Member member = guild.getMemberById(userId);
+                    - User and Repository found and validated!
+                - [<:like:935126958193405962>] `rejected-requests` channel found!
+                - [<:like:935126958193405962>] Join Request removed!
+                    - Thread archived!
+                    - Request Message deleted!
+                - [<:like:935126958193405962>] Finished rejecting join request of %s!
+                """.formatted(userId, (member == null ? "*Unknown*" : member.getUser().getEffectiveName()))
+            );
+        }), send.ending(RestAction.getDefaultFailure())));
+    }
+    
+    private static void fail(ProgressReporter reporter, Throwable ex){
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        
+        if(cause instanceof HandlerException handlerException){
+            if(handlerException.lines.length > 0)
+                reporter.error(handlerException.lines);
+            else
+                reporter.cancel();
             
-            if(accepted){
-                String password = APIUtil.newPassword();
-                boolean jenkinsSuccess = APIUtil.createJenkinsJob(hook, username, password, repoName, repoLink, true);
-                boolean nexusSuccess = APIUtil.createNexus(hook, username, password);
-                
-                if(!jenkinsSuccess || !nexusSuccess)
-                    return;
-                
-                if(member == null){
-                    LOGGER.warn("Member with ID {} not found!", userId);
-                }else{
-                    if(DatabaseAPI.getUser(username) == null)
-                        DatabaseAPI.addUser(username, member.getIdLong());
-                }
+            return;
+        }
+        
+        if(cause instanceof ProvisioningException provisioningException){
+            if(provisioningException.getStep() == null){
+                reporter.error(provisioningException.getLines());
+                return;
             }
-
-            channel.sendMessage(getMessage(bot, String.valueOf(userId), userLink, repoLink, str == null ? jenkinsUrl : str, hook.getInteraction().getUser(), accepted)).queue(m -> {
-                ThreadChannel thread = message.getStartedThread();
-                if(thread != null && !thread.isArchived()){
-                    thread.getManager().setArchived(true)
-                        .reason("Archiving Thread of deleted Request message.")
-                        .queue();
-                }
-                
-                hook.editOriginalFormat(
-                    """
-                    [4/5] Handling Join Request...
-                    - [<:like:935126958193405962>] Request retrieved!
-                        - Found User ID `%d`.
-                        - User and Repository found and validated!
-                    - [<:like:935126958193405962>] `%s-requests` channel found!
-                    - [2/2] Removing Join Request...
-                        - Thread archived!
-                        - Delete Request Message...
-                    """, userId, (accepted ? "accepted" : "rejected")
-                ).queue();
-                
-                message.delete().queue();
-                
-                hook.editOriginalFormat(
-                    """
-                    [5/5] Handling Join Request...
-                    - [<:like:935126958193405962>] Request retrieved!
-                        - Found User ID `%d`.
-                        - User and Repository Link found and validated!
-                    - [<:like:935126958193405962>] `%s-requests` channel found!
-                    - [<:like:935126958193405962>] Join Request removed!
-                        - Thread archived!
-                        - Request Message deleted!
-                    - %s
-                    """, userId, (accepted ? "accepted" : "rejected"), (accepted ? "[1/2] Giving User role...\n  - Finding Author role..." : "[1/1] Finishing...")
-                ).queue();
-                
-                if(!accepted){
-                    hook.editOriginalFormat(
-                        """
-                        [<:like:935126958193405962>] Handling of Join Request complete!
-                        - [<:like:935126958193405962>] Request retrieved!
-                            - Found User ID `%d`.
-                            - User and Repository found and validated!
-                        - [<:like:935126958193405962>] `rejected-requests` channel found!
-                        - [<:like:935126958193405962>] Join Request removed!
-                            - Thread archived!
-                            - Request Message deleted!
-                        - [<:like:935126958193405962>] Finished rejecting join request of %s!
-                        """, userId, (member == null ? "*Unknown*" : member.getUser().getEffectiveName())
-                    ).queue();
-                    return;
-                }
-                
-                Role authorRole = guild.getRoleById(bot.getConfigHandler().getLong("author_role"));
-                if(authorRole == null){
-                    CommandUtil.EmbedReply.from(hook).error("Unable to retrieve Author Role!").send();
-                    return;
-                }
-                
-                hook.editOriginalFormat(
-                    """
-                    [5/5] Handling Join Request...
-                    - [<:like:935126958193405962>] Request retrieved!
-                        - Found User ID `%d`.
-                        - User and Repository found and validated!
-                    - [<:like:935126958193405962>] `accepted-requests` channel found!
-                    - [<:like:935126958193405962>] Join Request removed!
-                        - Thread archived!
-                        - Request Message deleted!
-                    - [2/2] Giving User role...
-                        - Found Author Role!
-                        - Applying role to user...
-                    """, userId
-                ).queue();
-                
-                if(member == null){
-                    CommandUtil.EmbedReply.from(hook).error("Unable to apply Role. Member not found!").send();
-                    return;
-                }
-                
-                guild.addRoleToMember(member, authorRole)
-                    .reason("[Join Request] Application accepted.")
-                    .queue(v -> hook.editOriginalFormat(
-                        """
-                        [5/5] Handling Join Request...
-                        - [<:like:935126958193405962>] Request retrieved!
-                            - Found User ID `%d`.
-                            - User and Repository Link found and validated!
-                        - [<:like:935126958193405962>] `accepted-requests` channel found!
-                        - [<:like:935126958193405962>] Join Request removed!
-                            - Thread archived!
-                            - Request Message deleted!
-                        - [<:like:935126958193405962>] Gave User Role!
-                            - Found Author Role!
-                            - Applied Author Role to User!
-                        
-                        **Successfully accepted Join Request of user %s!**
-                        """, userId, member.getUser().getEffectiveName()
-                    ).queue(), 
-                        new ErrorHandler()
-                            .handle(
-                                ErrorResponse.MISSING_PERMISSIONS,
-                                e -> CommandUtil.EmbedReply.from(hook)
-                                    .error("I lack the `Manage Roles` permission to apply the role.")
-                                    .send()
-                            )
-                    );
-            });
-        }, e -> {
-            CommandUtil.EmbedReply.from(hook)
-                .error(
-                    "Unable to retrieve Message. Encountered error:",
-                    "`" + e.getMessage() + "`"
-                ).send();
             
-            LOGGER.warn("Encountered an Exception while retrieving a message!", e);
-        });
+            String[] lines = Arrays.copyOf(provisioningException.getLines(), provisioningException.getLines().length + 1);
+            lines[lines.length - 1] = provisioningException.isTerminal()
+                ? "Provisioning of this request was stopped, accepting it again starts over."
+                : "Completed steps are kept, accepting the request again resumes from `" + provisioningException.getStep().getId() + "`.";
+            reporter.error(lines);
+            
+            LOGGER.warn("Provisioning stopped at step {}: {}", provisioningException.getStep(), provisioningException.getMessage());
+            return;
+        }
+        
+        if(cause instanceof BackendUnavailableException || cause instanceof DeadlineExceededException){
+            reporter.error(cause.getMessage());
+            return;
+        }
+        
+        if(cause instanceof RejectedExecutionException){
+            reporter.error(
+                "Too many Join Requests are being handled right now.",
+                "Please try again in a moment."
+            );
+            
+            LOGGER.warn("Provisioning queue is full! Rejected Join Request handling.");
+            return;
+        }
+        
+        reporter.error(
+            "Encountered an unexpected error while handling the Join Request:",
+            "`" + cause.getMessage() + "`"
+        );
+        
+        LOGGER.error("Encountered an Exception while handling a Join Request!", cause);
     }
     
-    @VisibleForTesting
-    static MessageCreateData getMessage(CodeMCBot bot, String userId, String userLink, String repoLink, String str, User reviewer, boolean accepted){
-        String msg = String.join("\n", bot.getConfigHandler().getStringList("messages", (accepted ? "accepted" : "denied")));
+    public static MessageCreateData getMessage(CodeMCBot bot, String userId, String userLink, String repoLink, String str, UserSnowflake reviewer, boolean accepted){
+        String msg = bot.getConfigHandler().getConfig().messages().get(accepted);
         
         MessageEmbed embed = new EmbedBuilder()
             .setColor(accepted ? 0x00FF00 : 0xFF0000)
@@ -381,4 +459,29 @@ public class ApplicationHandler{
 
         return new Request(messageId, userId, githubName, repoName);
     }
+
+    private record Application(long userId, String username, String repoName, TextChannel channel, Member member, ProvisioningPlan plan){
+        
+        String userLink(){
+            return GITHUB_PREFIX + username;
+        }
+        
+        String repoLink(){
+            return userLink() + "/" + repoName;
+        }
+    }
+    
+    /**
+     * Stops the handling of a Join Request, optionally reporting the given lines as an error.
+     * <br>Thrown without lines when the failure was already reported to the hook.
+     */
+    private static final class HandlerException extends RuntimeException{
+        
+        private final String[] lines;
+        
+        private HandlerException(String... lines){
+            super(String.join("\n", lines), null, false, false);
+            this.lines = lines;
+        }
+    }
 }
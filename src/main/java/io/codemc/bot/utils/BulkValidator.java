@@ -0,0 +1,197 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.utils;
+
+import io.codemc.bot.execution.AdaptiveLimiter;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Validates many users with bounded, adaptive parallelism.
+ * <br>Up to {@code parallelism} workers are started on the given executor and share the list of users, while an
+ * {@link AdaptiveLimiter} paces them based on how long each validation takes. A failing user does not stop the others;
+ * every user gets its own {@link Result}. Problems found with a user are not held against the backends, only a
+ * validator that throws, e.g. because a backend is unavailable, makes the limiter back off.
+ * <br>Once the {@link Deadline} of the calling thread passed, the workers stop and the remaining users are reported
+ * as skipped, as the report could not be delivered anyway.
+ */
+public class BulkValidator{
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkValidator.class);
+    
+    private final Executor executor;
+    private final int parallelism;
+    private final Function<String, List<String>> validator;
+    
+    /**
+     * @param executor The executor to run the workers on.
+     * @param parallelism The maximum amount of users validated at once.
+     * @param validator Validates a single user, returning the problems found. An empty list means success.
+     */
+    public BulkValidator(Executor executor, int parallelism, Function<String, List<String>> validator){
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+        this.validator = validator;
+    }
+    
+    /**
+     * Validates all given users.
+     *
+     * @param usernames The users to validate.
+     * @param progress Called after every validated user with the current progress. May be called from any worker.
+     * @return A future completing with the report once every user has been validated or the deadline passed.
+     */
+    public CompletableFuture<Report> run(List<String> usernames, Consumer<Progress> progress){
+        int total = usernames.size();
+        AtomicReferenceArray<Result> results = new AtomicReferenceArray<>(total);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, parallelism, 2.0);
+        Deadline deadline = Deadline.current();
+        
+        long start = System.nanoTime();
+        Runnable worker = () -> {
+            // Validators waiting for something, e.g. a user locked by another command, give up with the deadline.
+            try(Trace.Scope ignored = deadline.activate()){
+                int index;
+                while(!deadline.isExpired() && (index = next.getAndIncrement()) < total){
+                    try{
+                        limiter.acquire();
+                    }catch(InterruptedException ex){
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    
+                    long started = System.nanoTime();
+                    Attempt attempt = validate(usernames.get(index));
+                    limiter.release(System.nanoTime() - started, !attempt.error());
+                    
+                    Result result = attempt.result();
+                    results.set(index, result);
+                    
+                    int failures = result.isSuccess() ? failed.get() : failed.incrementAndGet();
+                    progress.accept(new Progress(completed.incrementAndGet(), failures, total));
+                }
+            }
+        };
+        
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(parallelism, total)];
+        for(int i = 0; i < workers.length; i++){
+            workers[i] = CompletableFuture.runAsync(worker, executor);
+        }
+        
+        return CompletableFuture.allOf(workers).thenApply(v -> {
+            List<Result> list = new ArrayList<>(total);
+            for(int i = 0; i < total; i++){
+                Result result = results.get(i);
+                // Only left empty if the deadline passed or a worker was interrupted before validating the user.
+                if(result == null)
+                    result = new Result(usernames.get(i), List.of(deadline.isExpired() ? "Skipped, the deadline passed." : "Validation was interrupted."), 0);
+                
+                list.add(result);
+            }
+            
+            Report report = new Report(list, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            LOGGER.info("Validated {} user(s) in {}ms, {} failed.", total, report.millis(), report.failed().size());
+            return report;
+        });
+    }
+    
+    private Attempt validate(String username){
+        long start = System.nanoTime();
+        List<String> problems;
+        boolean error = false;
+        try{
+            problems = validator.apply(username);
+        }catch(RuntimeException ex){
+            LOGGER.error("Unexpected error while validating {}!", username, ex);
+            problems = Arrays.asList("Unexpected error: " + ex.getMessage());
+            error = true;
+        }
+        
+        return new Attempt(new Result(username, List.copyOf(problems), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)), error);
+    }
+    
+    /**
+     * The outcome of validating a single user.
+     *
+     * @param username The validated user.
+     * @param problems The problems found, empty if the user is valid.
+     * @param millis How long the validation took.
+     */
+    public record Result(String username, List<String> problems, long millis){
+        public boolean isSuccess(){
+            return problems.isEmpty();
+        }
+        
+        @Override
+        public String toString(){
+            return username + ": " + (isSuccess() ? "OK" : String.join(", ", problems)) + " (" + millis + "ms)";
+        }
+    }
+    
+    public record Progress(int completed, int failed, int total){}
+    
+    /**
+     * A result and whether the validator threw rather than returning the problems it found.
+     */
+    private record Attempt(Result result, boolean error){}
+    
+    /**
+     * The results of all validated users, in the order they were given.
+     *
+     * @param results The per-user results.
+     * @param millis How long the whole run took.
+     */
+    public record Report(List<Result> results, long millis){
+        public List<Result> failed(){
+            return results.stream().filter(result -> !result.isSuccess()).toList();
+        }
+        
+        public boolean isSuccess(){
+            return results.stream().allMatch(Result::isSuccess);
+        }
+        
+        /**
+         * Renders one line per user, suitable for a text attachment.
+         */
+        public String toText(){
+            StringBuilder builder = new StringBuilder();
+            for(Result result : results){
+                builder.append(result).append('\n');
+            }
+            
+            return builder.toString();
+        }
+    }
+}
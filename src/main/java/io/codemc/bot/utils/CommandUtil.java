@@ -26,6 +26,7 @@ import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
 import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
@@ -50,6 +51,14 @@ public class CommandUtil{
             .orElse(null) != null;
     }
 
+    /**
+     * Starts a message to the user of an interaction whose hook expired, posted in the channel of the interaction.
+     * <br>Interaction tokens expire after 15 minutes, after which a deferred reply can no longer be edited.
+     */
+    public static MessageCreateAction fallback(InteractionHook hook){
+        return hook.getInteraction().getMessageChannel().sendMessage(hook.getInteraction().getUser().getAsMention());
+    }
+
     public static MessageEmbed embedError(String... lines){
         return EmbedReply.empty().error(lines).build();
     }
@@ -62,6 +71,7 @@ public class CommandUtil{
     public static final String REPOSITORY = "Repository:";
     public static final String SUBMITTED_BY = "Submitted by:";
     public static final String DESCRIPTION = "Description";
+    public static final String PLAN = "Provisioning Plan:";
 
     public static MessageEmbed requestEmbed(String userLink, String repoLink, String submitter, String description) {
         return getEmbed()
@@ -73,6 +83,26 @@ public class CommandUtil{
             .build();
     }
     
+    /**
+     * A request embed also showing the plan for provisioning the request, see {@link io.codemc.bot.provisioning.ProvisioningPlan}.
+     */
+    public static MessageEmbed requestEmbed(String userLink, String repoLink, String submitter, String description, String plan) {
+        return new EmbedBuilder(requestEmbed(userLink, repoLink, submitter, description))
+            .addField(PLAN, plan, false)
+            .build();
+    }
+    
+    /**
+     * Replaces the plan shown in a request embed, keeping everything else.
+     */
+    public static MessageEmbed withPlan(MessageEmbed embed, String plan) {
+        EmbedBuilder builder = new EmbedBuilder(embed).clearFields();
+        for (MessageEmbed.Field field : embed.getFields())
+            builder.addField(field.getName(), PLAN.equals(field.getName()) ? plan : field.getValue(), field.isInline());
+        
+        return builder.build();
+    }
+    
     public static class EmbedReply<T> {
         
         private final T type;
@@ -128,7 +158,10 @@ public class CommandUtil{
                 buttonEvent.replyEmbeds(build()).setEphemeral(true).queue();
             }else
             if(type instanceof InteractionHook hook){
-                hook.editOriginal(EmbedBuilder.ZERO_WIDTH_SPACE).setEmbeds(build()).queue();
+                if(hook.isExpired())
+                    fallback(hook).setEmbeds(build()).queue();
+                else
+                    hook.editOriginal(EmbedBuilder.ZERO_WIDTH_SPACE).setEmbeds(build()).queue();
             }else{
                 LOG.error("Received unknown Type {} for EmbedReply!", type);
             }
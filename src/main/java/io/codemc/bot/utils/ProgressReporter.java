@@ -0,0 +1,345 @@
+/*
+ * Copyright 2024 CodeMC.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE
+ * OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package io.codemc.bot.utils;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.requests.restaction.WebhookMessageEditAction;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Reports the progress of a long-running action by editing the original response of an {@link InteractionHook}.
+ * <br>Every edit is a REST request in the same webhook rate-limit bucket, so updates are coalesced:
+ * <ul>
+ *     <li>The first update is sent right away, later ones at most once per {@code window}.</li>
+ *     <li>Only the newest state is sent; intermediate states replaced before their turn are dropped.</li>
+ *     <li>At most one edit is in flight at once.</li>
+ *     <li>States equal to the one last sent are skipped.</li>
+ * </ul>
+ * The final state is sent through {@link #complete(String)} or {@link #finish(Consumer)}, which discard
+ * any pending update so it can't overwrite the result. Afterwards the reporter ignores further updates.
+ * <br>Once the interaction token expired, updates are dropped and the final state is posted as a
+ * {@link CommandUtil#fallback(InteractionHook) new message} instead.
+ */
+public class ProgressReporter{
+    
+    public static final Duration DEFAULT_WINDOW = Duration.ofSeconds(1);
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgressReporter.class);
+    
+    private final InteractionHook hook;
+    private final ScheduledExecutorService scheduler;
+    private final long window;
+    private final Function<String, WebhookMessageEditAction<Message>> renderer;
+    private final LongSupplier clock;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private String sent = null;
+    private String pending = null;
+    private String completed = null;
+    private long lastSend = 0;
+    private boolean inFlight = false;
+    private boolean flushRequested = false;
+    private boolean closed = false;
+    private ScheduledFuture<?> flush = null;
+    
+    private int edits = 0;
+    private int skipped = 0;
+    
+    public ProgressReporter(InteractionHook hook, ScheduledExecutorService scheduler){
+        this(hook, scheduler, DEFAULT_WINDOW, hook::editOriginal);
+    }
+    
+    /**
+     * @param hook The hook whose original response is edited.
+     * @param scheduler The scheduler to send delayed updates on.
+     * @param window The minimum time between two edits.
+     * @param renderer Creates the edit for a state, defaults to setting it as the message content.
+     */
+    public ProgressReporter(InteractionHook hook, ScheduledExecutorService scheduler, Duration window, Function<String, WebhookMessageEditAction<Message>> renderer){
+        this(hook, scheduler, window, renderer, System::nanoTime);
+    }
+    
+    /**
+     * @param clock The time in nanoseconds the window is measured with.
+     */
+    @VisibleForTesting
+    ProgressReporter(InteractionHook hook, ScheduledExecutorService scheduler, Duration window, Function<String, WebhookMessageEditAction<Message>> renderer, LongSupplier clock){
+        this.hook = hook;
+        this.scheduler = scheduler;
+        this.window = window.toNanos();
+        this.renderer = renderer;
+        this.clock = clock;
+        this.lastSend = clock.getAsLong() - this.window;
+    }
+    
+    /**
+     * Sets the current state. It is sent once the window since the last edit has passed and no other edit is in flight.
+     */
+    public void update(String state){
+        lock.lock();
+        try{
+            if(closed)
+                return;
+            
+            if(state.equals(sent)){
+                // Reverted to what is already shown, so whatever was pending is outdated.
+                if(pending != null)
+                    skipped++;
+                
+                pending = null;
+                return;
+            }
+            
+            if(pending != null)
+                skipped++;
+            
+            pending = state;
+            schedule();
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Sends the pending state right away, ignoring the window. If an edit is still in flight, the pending state is
+     * sent as soon as that edit completed instead, so that the edits cannot arrive out of order.
+     */
+    public void flush(){
+        lock.lock();
+        try{
+            if(closed || pending == null)
+                return;
+            
+            cancelFlush();
+            if(inFlight){
+                flushRequested = true;
+                return;
+            }
+            
+            send();
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Discards any pending state and sends the final one right away, unless it is already shown. Like with
+     * {@link #flush()}, it waits for an edit still in flight to complete first.
+     */
+    public void complete(String state){
+        lock.lock();
+        try{
+            if(closed)
+                return;
+            
+            close();
+            if(state.equals(sent))
+                return;
+            
+            if(inFlight){
+                completed = state;
+                return;
+            }
+            
+            pending = state;
+            send();
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Discards any pending state and lets the action edit the hook itself, e.g. to send an embed or an attachment.
+     */
+    public void finish(Consumer<InteractionHook> action){
+        lock.lock();
+        try{
+            if(closed)
+                return;
+            
+            close();
+            action.accept(hook);
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Discards any pending state and replaces the response with an error embed.
+     */
+    public void error(String... lines){
+        finish(hook -> CommandUtil.EmbedReply.from(hook).error(lines).send());
+    }
+    
+    /**
+     * Discards any pending state without sending anything. Further updates are ignored.
+     */
+    public void cancel(){
+        lock.lock();
+        try{
+            close();
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    public boolean isClosed(){
+        lock.lock();
+        try{
+            return closed;
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * The amount of edits sent so far.
+     */
+    public int getEdits(){
+        lock.lock();
+        try{
+            return edits;
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * The amount of states that were replaced by a newer one before being sent.
+     */
+    public int getSkipped(){
+        lock.lock();
+        try{
+            return skipped;
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    // Must hold the lock
+    private void schedule(){
+        if(inFlight || flush != null)
+            return;
+        
+        long wait = lastSend + window - clock.getAsLong();
+        if(wait <= 0){
+            send();
+            return;
+        }
+        
+        flush = scheduler.schedule(this::scheduledFlush, wait, TimeUnit.NANOSECONDS);
+    }
+    
+    private void scheduledFlush(){
+        lock.lock();
+        try{
+            flush = null;
+            if(closed || pending == null)
+                return;
+            
+            if(inFlight)
+                return;
+            
+            send();
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    // Must hold the lock
+    private void send(){
+        String state = pending;
+        pending = null;
+        flushRequested = false;
+        if(hook.isExpired()){
+            if(closed)
+                CommandUtil.fallback(hook).addContent("\n" + state).queue();
+            else
+                skipped++;
+            
+            return;
+        }
+        
+        sent = state;
+        lastSend = clock.getAsLong();
+        inFlight = true;
+        edits++;
+        
+        renderer.apply(state).queue(
+            message -> sent(),
+            ex -> {
+                LOGGER.warn("Failed to update progress of interaction {}: {}", hook.getIdLong(), ex.getMessage());
+                sent();
+            }
+        );
+    }
+    
+    private void sent(){
+        lock.lock();
+        try{
+            inFlight = false;
+            if(completed != null){
+                pending = completed;
+                completed = null;
+                send();
+                return;
+            }
+            
+            if(closed || pending == null)
+                return;
+            
+            if(flushRequested)
+                send();
+            else
+                schedule();
+        }finally{
+            lock.unlock();
+        }
+    }
+    
+    // Must hold the lock
+    private void close(){
+        closed = true;
+        if(pending != null)
+            skipped++;
+        
+        pending = null;
+        flushRequested = false;
+        cancelFlush();
+    }
+    
+    private void cancelFlush(){
+        if(flush != null){
+            flush.cancel(false);
+            flush = null;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package io.codemc.bot;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Fires interactions of several types at once and records their throughput and latency per type.
+ * <br>Interactions are prepared up front on the calling thread, as creating the {@link MockJDA} mocks is slow,
+ * and are then fired in random order from {@code concurrency} threads. Only firing an interaction is timed.
+ */
+public class LoadHarness {
+
+    private final int concurrency;
+    private final long seed;
+    private final List<Scenario<?>> scenarios = new ArrayList<>();
+
+    public LoadHarness(int concurrency, long seed) {
+        this.concurrency = concurrency;
+        this.seed = seed;
+    }
+
+    /**
+     * Adds {@code count} interactions of the given type.
+     *
+     * @param prepare Creates the i-th interaction.
+     * @param fire Handles an interaction and returns whether it was handled successfully. Thrown exceptions count as errors.
+     */
+    public <T> LoadHarness add(String type, int count, IntFunction<T> prepare, Predicate<T> fire) {
+        scenarios.add(new Scenario<>(type, count, prepare, fire));
+        return this;
+    }
+
+    public Report run() throws InterruptedException {
+        List<Task> tasks = new ArrayList<>();
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        for (Scenario<?> scenario : scenarios) {
+            Recorder recorder = new Recorder(scenario.count());
+            recorders.put(scenario.type(), recorder);
+            scenario.prepare(recorder, tasks);
+        }
+        Collections.shuffle(tasks, new Random(seed));
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch done = new CountDownLatch(tasks.size());
+        long start = System.nanoTime();
+
+        for (Task task : tasks) {
+            pool.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        done.await();
+        long nanos = System.nanoTime() - start;
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        List<Stats> stats = new ArrayList<>();
+        recorders.forEach((type, recorder) -> stats.add(recorder.stats(type)));
+        return new Report(stats, concurrency, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    private record Scenario<T>(String type, int count, IntFunction<T> prepare, Predicate<T> fire) {
+
+        void prepare(Recorder recorder, List<Task> tasks) {
+            for (int i = 0; i < count; i++) {
+                T interaction = prepare.apply(i);
+                tasks.add(() -> recorder.record(() -> fire.test(interaction)));
+            }
+        }
+    }
+
+    private interface Task {
+        void run();
+    }
+
+    private interface Attempt {
+        boolean handle() throws Exception;
+    }
+
+    private static final class Recorder {
+
+        private final long[] latencies;
+        private final AtomicInteger recorded = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private final AtomicLong firstStart = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong lastEnd = new AtomicLong(Long.MIN_VALUE);
+
+        Recorder(int count) {
+            this.latencies = new long[count];
+        }
+
+        void record(Attempt attempt) {
+            long start = System.nanoTime();
+            boolean success;
+            try {
+                success = attempt.handle();
+            } catch (Throwable t) {
+                success = false;
+            }
+            long end = System.nanoTime();
+
+            latencies[recorded.getAndIncrement()] = end - start;
+            if (!success)
+                errors.incrementAndGet();
+
+            firstStart.accumulateAndGet(start, Math::min);
+            lastEnd.accumulateAndGet(end, Math::max);
+        }
+
+        Stats stats(String type) {
+            int count = recorded.get();
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+
+            double seconds = count == 0 ? 0 : (lastEnd.get() - firstStart.get()) / 1e9;
+            return new Stats(
+                    type, count, errors.get(),
+                    seconds == 0 ? 0 : count / seconds,
+                    millis(percentile(sorted, 0.50)),
+                    millis(percentile(sorted, 0.99)),
+                    millis(count == 0 ? 0 : sorted[count - 1])
+            );
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0)
+                return 0;
+
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+
+    public record Stats(String type, int count, int errors, double perSecond, double p50Millis, double p99Millis, double maxMillis) {
+
+        public double perMinute() {
+            return perSecond * 60;
+        }
+    }
+
+    public record Report(List<Stats> stats, int concurrency, long millis) {
+
+        public Stats get(String type) {
+            return stats.stream()
+                    .filter(stat -> stat.type().equals(type))
+                    .findFirst()
+                    .orElseThrow(() -> new NoSuchElementException("No interactions of type " + type));
+        }
+
+        public String toText() {
+            StringBuilder builder = new StringBuilder(String.format(
+                    "%d interaction(s) from %d thread(s) in %d ms%n", stats.stream().mapToInt(Stats::count).sum(), concurrency, millis
+            ));
+            builder.append(String.format("%-16s %8s %8s %10s %10s %10s %10s%n", "type", "count", "errors", "ops/min", "p50 ms", "p99 ms", "max ms"));
+            for (Stats stat : stats) {
+                builder.append(String.format("%-16s %8d %8d %10.1f %10.2f %10.2f %10.2f%n",
+                        stat.type(), stat.count(), stat.errors(), stat.perMinute(), stat.p50Millis(), stat.p99Millis(), stat.maxMillis()));
+            }
+
+            return builder.toString();
+        }
+
+        public String toJson() {
+            JsonArray types = new JsonArray();
+            for (Stats stat : stats) {
+                JsonObject json = new JsonObject();
+                json.addProperty("type", stat.type());
+                json.addProperty("count", stat.count());
+                json.addProperty("errors", stat.errors());
+                json.addProperty("perMinute", stat.perMinute());
+                json.addProperty("p50Millis", stat.p50Millis());
+                json.addProperty("p99Millis", stat.p99Millis());
+                json.addProperty("maxMillis", stat.maxMillis());
+                types.add(json);
+            }
+
+            JsonObject json = new JsonObject();
+            json.addProperty("concurrency", concurrency);
+            json.addProperty("millis", millis);
+            json.add("types", types);
+
+            return new GsonBuilder().setPrettyPrinting().create().toJson(json);
+        }
+    }
+}
@@ -9,10 +9,18 @@ import org.slf4j.LoggerFactory;
 import io.codemc.api.jenkins.JenkinsAPI;
 import io.codemc.api.nexus.NexusAPI;
 import io.codemc.bot.config.ConfigHandler;
+import io.codemc.bot.execution.BotExecutors;
+import io.codemc.bot.standin.StandIns;
 import io.codemc.bot.utils.APIUtil;
 
 public class MockCodeMCBot extends CodeMCBot {
 
+    /**
+     * In-process stand-ins for Jenkins, Nexus, GitHub and the database, used instead of the live services
+     * when running with {@code -Dcodemc.standins=true}.
+     */
+    public static final StandIns STAND_INS = startStandIns();
+
     public static final MockCodeMCBot INSTANCE = new MockCodeMCBot();
 
     private MockCodeMCBot() {
@@ -43,6 +51,27 @@ public class MockCodeMCBot extends CodeMCBot {
         if (token != null && !token.isEmpty()) {
             configHandler.set(System.getenv("GITHUB_TOKEN"), "github");
         }
+
+        if (STAND_INS != null)
+            STAND_INS.apply(configHandler);
+    }
+
+    private static StandIns startStandIns() {
+        if (!Boolean.getBoolean("codemc.standins"))
+            return null;
+
+        try {
+            StandIns standIns = StandIns.fromProperties().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    standIns.close();
+                } catch (Exception ignored) {}
+            }));
+
+            return standIns;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to start the stand-ins", e);
+        }
     }
 
     @Override
@@ -50,6 +79,9 @@ public class MockCodeMCBot extends CodeMCBot {
         logger.info("Starting test bot...");
 
         validateConfig();
+        executors = BotExecutors.direct();
+        configureResilience();
+        openProvisioning();
         initializeAPI();
     }
 
@@ -57,7 +89,8 @@ public class MockCodeMCBot extends CodeMCBot {
         String link = "https://github.com/" + username + "/" + job;
         if (!JenkinsAPI.existsUser(username)) {
             String password = APIUtil.newPassword();
-            APIUtil.createJenkinsJob(null, username, password, job, link, false);
+            JenkinsAPI.createJenkinsUser(username, password, APIUtil.isGroup(username));
+            JenkinsAPI.createJenkinsJob(username, job, link, JenkinsAPI.isFreestyle(link));
             APIUtil.createNexus(null, username, password);
         } else {
             JenkinsAPI.createJenkinsJob(username, job, link, JenkinsAPI.isFreestyle(link));
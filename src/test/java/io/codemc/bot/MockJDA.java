@@ -38,6 +38,8 @@ import org.mockito.Mockito;
 
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -50,11 +52,13 @@ public class MockJDA {
     private static final ConfigHandler CONFIG = MockCodeMCBot.INSTANCE.getConfigHandler();
     private static final SecureRandom RANDOM = new SecureRandom();
 
-    private static final Map<Long, String> messages = new HashMap<>();
-    private static final Map<Long, MessageEmbed[]> embeds = new HashMap<>();
-    private static final Map<Long, Member> members = new HashMap<>();
-    private static final Map<Long, String> latestMessages = new HashMap<>();
-    private static final Map<Long, MessageEmbed[]> latestEmbeds = new HashMap<>();
+    // Synchronized, as the load tests fire interactions from several threads at once
+    private static final Map<Long, String> messages = Collections.synchronizedMap(new HashMap<>());
+    private static final Map<Long, MessageEmbed[]> embeds = Collections.synchronizedMap(new HashMap<>());
+    private static final Map<Long, Member> members = Collections.synchronizedMap(new HashMap<>());
+    private static final Map<Long, String> latestMessages = Collections.synchronizedMap(new HashMap<>());
+    private static final Map<Long, MessageEmbed[]> latestEmbeds = Collections.synchronizedMap(new HashMap<>());
+    private static final Map<Long, Set<Long>> channelMessages = new ConcurrentHashMap<>();
 
     public static final JDA JDA = mockJDA();
     public static final SelfMember SELF = mockSelfMember();
@@ -107,6 +111,10 @@ public class MockJDA {
         return Arrays.asList(latestEmbeds.get(channel.getIdLong()));
     }
 
+    public static Set<Long> getMessageIds(MessageChannel channel) {
+        return Set.copyOf(channelMessages.getOrDefault(channel.getIdLong(), Set.of()));
+    }
+
     public static InteractionHook mockInteractionHook(Member user, MessageChannel channel, InteractionType type) {
         return mockInteractionHook(user, channel, type, RANDOM.nextLong(0, Long.MAX_VALUE));
     }
@@ -293,6 +301,7 @@ public class MockJDA {
         Message message = mock(Message.class);
         messages.put(message.getIdLong(), content);
         latestMessages.put(channel.getIdLong(), content);
+        channelMessages.computeIfAbsent(channel.getIdLong(), k -> ConcurrentHashMap.newKeySet()).add(id);
         latestEmbeds.remove(channel.getIdLong());
 
         when(message.getContentRaw()).thenAnswer(invocation -> content);
@@ -405,6 +414,12 @@ public class MockJDA {
             long id = inv.getArgument(0);
             return members.get(id);
         });
+        when(guild.retrieveMemberById(anyLong())).thenAnswer(inv -> {
+            long id = inv.getArgument(0);
+            CacheRestAction<Member> action = mock(CacheRestAction.class);
+            when(action.submit()).thenAnswer(inv2 -> CompletableFuture.completedFuture(members.get(id)));
+            return action;
+        });
 
         return guild;
     }
@@ -0,0 +1,151 @@
+package io.codemc.bot;
+
+import com.jagrosh.jdautilities.command.SlashCommand;
+import com.jagrosh.jdautilities.command.SlashCommandEvent;
+import io.codemc.api.database.DatabaseAPI;
+import io.codemc.bot.commands.CmdCodeMC;
+import io.codemc.bot.commands.TestCommandListener;
+import io.codemc.bot.listeners.ButtonListener;
+import io.codemc.bot.listeners.ModalListener;
+import io.codemc.bot.utils.CommandUtil;
+import net.dv8tion.jda.api.components.buttons.Button;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.modals.Modal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static io.codemc.bot.MockJDA.GENERAL;
+import static io.codemc.bot.MockJDA.REQUEST_CHANNEL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires storms of submissions, reviews and commands through the real listeners.
+ * <br>Excluded from {@code test}, run it with {@code ./gradlew loadTest}. The {@code load.*} system properties
+ * change the number of interactions and threads, and {@code load.minReviewsPerMinute} fails the run
+ * if accepting and denying requests got slower than that.
+ */
+@Tag("load")
+public class TestInteractionLoad {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestInteractionLoad.class);
+
+    private static final int COUNT = Integer.getInteger("load.count", 250);
+    private static final int ACCEPTS = Integer.getInteger("load.accepts", 25);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+    private static final long SEED = Long.getLong("load.seed", 42L);
+    private static final double MIN_REVIEWS_PER_MINUTE = Double.parseDouble(System.getProperty("load.minReviewsPerMinute", "0"));
+    private static final Path REPORT = Path.of(System.getProperty("load.report", "build/reports/load/results.json"));
+
+    private static final String COMPLETE = "[<:like:935126958193405962>] Handling of Join Request complete!";
+    private static final String STATUS_USER = "TestLoadStatus";
+
+    @Test
+    @DisplayName("Test Interaction Storm")
+    public void testStorm() throws InterruptedException, IOException {
+        ModalListener modals = new ModalListener(MockCodeMCBot.INSTANCE);
+        ButtonListener buttons = new ButtonListener(MockCodeMCBot.INSTANCE);
+
+        SlashCommand status = Arrays.stream(new CmdCodeMC(MockCodeMCBot.INSTANCE).getChildren())
+                .filter(command -> command.getName().equals("my-status"))
+                .findFirst()
+                .orElseThrow();
+        TestCommandListener commands = new TestCommandListener(status);
+
+        Member statusMember = MockJDA.mockMember(STATUS_USER);
+        MockJDA.GUILD.addRoleToMember(statusMember, MockJDA.AUTHOR);
+        MockCodeMCBot.INSTANCE.create(STATUS_USER, "Job");
+        MockCodeMCBot.INSTANCE.getUserIndex().add(STATUS_USER, statusMember.getIdLong());
+
+        Modal submit = MockJDA.mockModal("submit", "Submit");
+
+        LoadHarness harness = new LoadHarness(CONCURRENCY, SEED)
+                .add("submit", COUNT, i -> MockJDA.mockModalInteractionEvent(submit, GENERAL, Map.of(
+                        "user", "TestLoadSubmit" + i,
+                        "repo", "Job",
+                        "description", "Load test"
+                )), event -> {
+                    modals.onModalInteraction(event);
+                    return MockJDA.getEmbeds(event.getIdLong()).get(0).getDescription().startsWith("[Request sent!]");
+                })
+                .add("deny", COUNT, i -> {
+                    Message message = request("TestLoadDeny" + i);
+                    Modal modal = MockJDA.mockModal("deny_application:" + message.getId(), "Deny Application");
+                    return MockJDA.mockModalInteractionEvent(modal, REQUEST_CHANNEL, Map.of("reason", "Load test"));
+                }, (ModalInteractionEvent event) -> {
+                    modals.onModalInteraction(event);
+                    return MockJDA.getMessage(event.getIdLong()).startsWith(COMPLETE);
+                })
+                .add("accept", ACCEPTS, i -> {
+                    String username = "TestLoadAccept" + i;
+                    Message message = request(username);
+                    return MockJDA.mockButtonInteractionEvent(message, Button.success("application:accept:" + username + ":Job", "Accept"));
+                }, (ButtonInteractionEvent event) -> {
+                    buttons.onButtonInteraction(event);
+                    return MockJDA.getMessage(event.getIdLong()).startsWith(COMPLETE);
+                })
+                .add("my-status", COUNT, i -> {
+                    SlashCommandEvent event = MockJDA.mockSlashCommandEvent(GENERAL, commands.getCommand(), Map.of());
+                    when(event.getMember()).thenReturn(statusMember);
+                    return event;
+                }, event -> {
+                    commands.onEvent(event);
+                    MessageEmbed embed = MockJDA.getEmbeds(event.getIdLong()).get(0);
+                    return embed.getFields().stream().noneMatch(field -> field.getName().equals("Error:"))
+                            && !embed.getDescription().startsWith("An error occurred");
+                });
+
+        LoadHarness.Report report;
+        try {
+            report = harness.run();
+        } finally {
+            for (long id : MockJDA.getMessageIds(REQUEST_CHANNEL))
+                DatabaseAPI.removeRequest(id);
+
+            for (int i = 0; i < ACCEPTS; i++) {
+                MockCodeMCBot.INSTANCE.delete("TestLoadAccept" + i);
+                MockCodeMCBot.INSTANCE.getUserIndex().remove("TestLoadAccept" + i);
+            }
+
+            MockCodeMCBot.INSTANCE.delete(STATUS_USER);
+            MockCodeMCBot.INSTANCE.getUserIndex().remove(STATUS_USER);
+        }
+
+        LOGGER.info("Interaction load results:\n{}", report.toText());
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        Files.writeString(REPORT, report.toJson());
+
+        for (LoadHarness.Stats stats : report.stats())
+            assertEquals(0, stats.errors(), stats.errors() + " " + stats.type() + " interaction(s) failed");
+
+        double reviewsPerMinute = report.get("accept").perMinute() + report.get("deny").perMinute();
+        assertTrue(reviewsPerMinute >= MIN_REVIEWS_PER_MINUTE,
+                "Handled " + reviewsPerMinute + " reviews per minute, expected at least " + MIN_REVIEWS_PER_MINUTE);
+    }
+
+    private static Message request(String username) {
+        Member member = MockJDA.mockMember(username);
+        MessageEmbed embed = CommandUtil.requestEmbed("[" + username + "](https://github.com/" + username + ")",
+                "[Job](https://github.com/" + username + "/Job)", member.getAsMention(), "Load test");
+
+        Message message = MockJDA.mockMessage("", List.of(embed), REQUEST_CHANNEL);
+        DatabaseAPI.createRequest(message.getIdLong(), member.getIdLong(), username, "Job");
+        return message;
+    }
+
+}
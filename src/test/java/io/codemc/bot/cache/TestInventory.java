@@ -0,0 +1,91 @@
+package io.codemc.bot.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestInventory {
+
+    @Test
+    @DisplayName("Test Inventory (Lazy Load)")
+    public void testLazyLoad() {
+        AtomicInteger calls = new AtomicInteger();
+        Inventory inventory = new Inventory(() -> {
+            calls.incrementAndGet();
+            return List.of("a", "b");
+        }, List::of, List::of);
+
+        assertNull(inventory.getJenkinsUsers().getRefreshedAt());
+        assertEquals(0, calls.get());
+
+        assertEquals(2, inventory.getJenkinsUsers().count());
+        assertTrue(inventory.getJenkinsUsers().contains("a"));
+        assertFalse(inventory.getJenkinsUsers().contains("c"));
+        assertNotNull(inventory.getJenkinsUsers().getRefreshedAt());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Test Inventory (Delta)")
+    public void testDelta() {
+        List<Collection<String>> listings = new ArrayList<>(List.of(
+                List.of("a", "b"),
+                List.of("b", "c", "d")
+        ));
+        Inventory inventory = new Inventory(List::of, () -> listings.remove(0), List::of);
+        Inventory.Source repositories = inventory.getNexusRepositories();
+
+        repositories.refresh();
+        assertTrue(repositories.getLastDelta().isEmpty());
+
+        repositories.refresh();
+        assertEquals(Set.of("c", "d"), repositories.getLastDelta().added());
+        assertEquals(Set.of("a"), repositories.getLastDelta().removed());
+        assertEquals(3, repositories.count());
+    }
+
+    @Test
+    @DisplayName("Test Inventory (Failures)")
+    public void testFailures() {
+        List<Supplier<Collection<String>>> listings = new ArrayList<>(List.of(
+                () -> List.of("a"),
+                () -> { throw new IllegalStateException("Service unavailable"); }
+        ));
+        Inventory inventory = new Inventory(List::of, List::of, () -> listings.remove(0).get());
+        Inventory.Source users = inventory.getDatabaseUsers();
+
+        users.refresh();
+        Instant refreshedAt = users.getRefreshedAt();
+
+        // failed refresh keeps the previous snapshot
+        assertEquals(Set.of("a"), users.refresh());
+        assertEquals(1, users.count());
+        assertEquals(refreshedAt, users.getRefreshedAt());
+    }
+
+    @Test
+    @DisplayName("Test Inventory#refresh")
+    public void testRefresh() {
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Collection<String>> loader = () -> {
+            calls.incrementAndGet();
+            return List.of();
+        };
+        Inventory inventory = new Inventory(loader, loader, loader);
+
+        inventory.refresh();
+        assertEquals(3, calls.get());
+        assertEquals(0, inventory.getDatabaseUsers().count());
+        assertEquals(3, calls.get());
+    }
+
+}
@@ -0,0 +1,68 @@
+package io.codemc.bot.cache;
+
+import io.codemc.bot.MockJDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.requests.restaction.CacheRestAction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+public class TestMemberLookup {
+
+    @Test
+    @DisplayName("Test MemberLookup#retrieve (Cached)")
+    public void testCached() {
+        MemberLookup lookup = new MemberLookup(4);
+        Member member = MockJDA.mockMember("TestMemberLookupCached");
+
+        assertSame(member, lookup.retrieve(MockJDA.GUILD, member.getIdLong()).join());
+        assertEquals(0, lookup.size());
+    }
+
+    @Test
+    @DisplayName("Test MemberLookup#retrieve (Uncached)")
+    public void testUncached() {
+        Member member = mock(Member.class);
+        Guild guild = mock(Guild.class);
+        CacheRestAction<Member> action = mock(CacheRestAction.class);
+        when(action.submit()).thenReturn(CompletableFuture.completedFuture(member));
+        when(guild.retrieveMemberById(anyLong())).thenReturn(action);
+
+        MemberLookup lookup = new MemberLookup(2);
+        assertSame(member, lookup.retrieve(guild, 1L).join());
+        assertSame(member, lookup.retrieve(guild, 1L).join());
+        verify(guild, times(1)).retrieveMemberById(1L);
+
+        lookup.retrieve(guild, 2L).join();
+        lookup.retrieve(guild, 3L).join();
+        assertEquals(2, lookup.size());
+
+        // 1 was the least recently used one
+        lookup.retrieve(guild, 1L).join();
+        verify(guild, times(2)).retrieveMemberById(1L);
+
+        lookup.invalidate(1L);
+        assertEquals(1, lookup.size());
+    }
+
+    @Test
+    @DisplayName("Test MemberLookup#retrieve (Failed)")
+    public void testFailed() {
+        Guild guild = mock(Guild.class);
+        CacheRestAction<Member> action = mock(CacheRestAction.class);
+        when(action.submit()).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Boom")));
+        when(guild.retrieveMemberById(anyLong())).thenReturn(action);
+
+        MemberLookup lookup = new MemberLookup(2);
+        assertNull(lookup.retrieve(guild, 1L).join());
+        assertEquals(0, lookup.size());
+    }
+
+}
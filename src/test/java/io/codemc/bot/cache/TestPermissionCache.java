@@ -0,0 +1,89 @@
+package io.codemc.bot.cache;
+
+import io.codemc.bot.MockCodeMCBot;
+import io.codemc.bot.MockJDA;
+import io.codemc.bot.config.Capability;
+import io.codemc.bot.config.ConfigHandler;
+import io.codemc.bot.config.PermissionMatrix;
+import net.dv8tion.jda.api.entities.Member;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TestPermissionCache {
+
+    @Test
+    @DisplayName("Test PermissionCache#resolve")
+    public void testResolve() {
+        PermissionCache cache = new PermissionCache();
+        PermissionMatrix matrix = MockCodeMCBot.INSTANCE.getConfigHandler().getConfig().permissions();
+
+        Member member = MockJDA.mockMember("TestPermissionCache");
+        member.getRoles().add(MockJDA.AUTHOR);
+
+        assertTrue(cache.allows(member, matrix, Capability.AUTHOR.bit()));
+        assertFalse(cache.allows(member, matrix, Capability.RELOAD.bit()));
+        assertEquals(1, cache.size());
+
+        // cached until invalidated
+        member.getRoles().add(MockJDA.ADMINISTRATOR);
+        assertFalse(cache.allows(member, matrix, Capability.RELOAD.bit()));
+
+        cache.invalidate(member.getIdLong());
+        assertEquals(0, cache.size());
+        assertTrue(cache.allows(member, matrix, Capability.RELOAD.bit()));
+    }
+
+    @Test
+    @DisplayName("Test PermissionCache (Config Reload)")
+    public void testReload() {
+        PermissionCache cache = new PermissionCache();
+        ConfigHandler config = new ConfigHandler();
+        config.loadConfig();
+
+        Member member = MockJDA.mockMember("TestPermissionCacheReload");
+        member.getRoles().add(MockJDA.MAINTAINER);
+
+        assertTrue(cache.allows(member, config.getConfig().permissions(), Capability.CODEMC.bit()));
+
+        config.set(List.of(MockJDA.ADMINISTRATOR.getIdLong()), "allowed_roles", "commands", "codemc");
+        assertFalse(cache.allows(member, config.getConfig().permissions(), Capability.CODEMC.bit()));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Test PermissionCache (Growth)")
+    public void testGrowth() {
+        PermissionCache cache = new PermissionCache();
+        PermissionMatrix matrix = MockCodeMCBot.INSTANCE.getConfigHandler().getConfig().permissions();
+
+        List<Member> members = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            Member member = mock(Member.class);
+            when(member.getIdLong()).thenReturn(id);
+            when(member.getRoles()).thenReturn(id % 2 == 0 ? List.of(MockJDA.AUTHOR) : List.of());
+            members.add(member);
+
+            cache.resolve(member, matrix);
+        }
+        assertEquals(500, cache.size());
+
+        for (long id = 1; id <= 500; id += 3)
+            cache.invalidate(id);
+
+        for (Member member : members) {
+            boolean author = member.getIdLong() % 2 == 0;
+            assertEquals(author, Capability.AUTHOR.in(cache.resolve(member, matrix)));
+        }
+        assertEquals(500, cache.size());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+}
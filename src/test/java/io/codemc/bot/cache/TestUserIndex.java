@@ -0,0 +1,115 @@
+package io.codemc.bot.cache;
+
+import io.codemc.api.database.DatabaseAPI;
+import io.codemc.bot.MockCodeMCBot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestUserIndex {
+
+    @Test
+    @DisplayName("Test UserIndex#add and UserIndex#remove")
+    public void testAddRemove() {
+        UserIndex index = MockCodeMCBot.INSTANCE.getUserIndex();
+
+        index.add("TestIndex1", 100L);
+        index.add("TestIndex2", 100L);
+
+        assertNotNull(DatabaseAPI.getUser("TestIndex1"));
+        assertEquals(List.of("TestIndex1", "TestIndex2"), index.getUsernames(100L));
+        assertEquals("TestIndex1", index.getUsername(100L));
+        assertEquals("TestIndex2", index.getUsername(100L, "TestIndex2"));
+        assertNull(index.getUsername(100L, "TestIndex3"));
+        assertEquals(100L, index.getDiscord("TestIndex2"));
+
+        assertEquals(1, index.remove("TestIndex1"));
+        assertNull(DatabaseAPI.getUser("TestIndex1"));
+        assertEquals(List.of("TestIndex2"), index.getUsernames(100L));
+        assertEquals(-1L, index.getDiscord("TestIndex1"));
+
+        assertEquals(1, index.remove("TestIndex2"));
+        assertTrue(index.getUsernames(100L).isEmpty());
+        assertNull(index.getUsername(100L));
+    }
+
+    @Test
+    @DisplayName("Test UserIndex#link")
+    public void testLink() {
+        UserIndex index = MockCodeMCBot.INSTANCE.getUserIndex();
+
+        index.link("TestIndexLink", 200L);
+        assertEquals("TestIndexLink", index.getUsername(200L));
+
+        index.link("TestIndexLink", 201L);
+        assertNull(index.getUsername(200L));
+        assertEquals("TestIndexLink", index.getUsername(201L));
+        assertEquals(201L, DatabaseAPI.getUser("TestIndexLink").getDiscord());
+
+        assertEquals(1, index.remove("TestIndexLink"));
+    }
+
+    @Test
+    @DisplayName("Test UserIndex (Case-Insensitive)")
+    public void testCaseInsensitive() {
+        UserIndex index = MockCodeMCBot.INSTANCE.getUserIndex();
+
+        index.add("TestIndexCase", 500L);
+        assertEquals("TestIndexCase", index.getUsername(500L, "testindexcase"));
+        assertEquals(500L, index.getDiscord("TESTINDEXCASE"));
+
+        index.link("testIndexCase", 501L);
+        assertNull(index.getUsername(500L));
+        assertEquals("testIndexCase", index.getUsername(501L, "TestIndexCase"));
+
+        assertEquals(1, index.remove("TESTINDEXCASE"));
+        assertNull(index.getUsername(501L));
+        assertEquals(-1L, index.getDiscord("TestIndexCase"));
+    }
+
+    @Test
+    @DisplayName("Test UserIndex#load")
+    public void testLoad() {
+        UserIndex index = MockCodeMCBot.INSTANCE.getUserIndex();
+
+        DatabaseAPI.addUser("TestIndexLoad", 300L);
+        assertNull(index.getUsername(300L));
+
+        index.load();
+        assertEquals("TestIndexLoad", index.getUsername(300L));
+        assertEquals(DatabaseAPI.getAllUsers().size(), index.size());
+
+        assertEquals(1, index.remove("TestIndexLoad"));
+    }
+
+    @Test
+    @DisplayName("Test UserIndex#load (Concurrent Readers)")
+    public void testLoadConcurrentReaders() throws InterruptedException {
+        UserIndex index = MockCodeMCBot.INSTANCE.getUserIndex();
+        index.add("TestIndexReload", 400L);
+
+        AtomicBoolean loading = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+        Thread reader = Thread.ofVirtual().start(() -> {
+            while (loading.get()) {
+                if (index.getUsername(400L) == null || index.getDiscord("TestIndexReload") != 400L)
+                    misses.incrementAndGet();
+            }
+        });
+
+        // readers keep seeing the old index until the new one is complete
+        for (int i = 0; i < 20; i++)
+            index.load();
+
+        loading.set(false);
+        reader.join();
+        assertEquals(0, misses.get());
+
+        assertEquals(1, index.remove("TestIndexReload"));
+    }
+}
@@ -3,6 +3,8 @@ package io.codemc.bot.commands;
 import com.jagrosh.jdautilities.command.SlashCommandEvent;
 import io.codemc.bot.MockCodeMCBot;
 import io.codemc.bot.MockJDA;
+import io.codemc.bot.health.Backend;
+import io.codemc.bot.health.BackendStatus;
 import io.codemc.bot.utils.CommandUtil;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
+import java.util.Set;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -62,4 +65,21 @@ public class TestBotCommand {
         MockJDA.assertSlashCommandEvent(e3, listener, CommandUtil.embedError("Unable to retrieve Member from Event!"));
     }
 
+    @Test
+    @DisplayName("Test BotCommand Backends")
+    public void testBackends() {
+        TestCommandListener listener = new TestCommandListener(command);
+        BackendStatus backends = MockCodeMCBot.INSTANCE.getBackends();
+
+        command.backends = Set.of(Backend.NEXUS);
+        backends.set(Backend.NEXUS, BackendStatus.State.UNAVAILABLE);
+        try {
+            SlashCommandEvent event = MockJDA.mockSlashCommandEvent(MockJDA.GENERAL, command, Map.of());
+            MockJDA.assertSlashCommandEvent(event, listener, CommandUtil.embedError("Nexus is not available right now. Please try again in a moment."));
+        } finally {
+            backends.set(Backend.NEXUS, BackendStatus.State.READY);
+            command.backends = Set.of();
+        }
+    }
+
 }
@@ -7,6 +7,7 @@ import io.codemc.bot.MockCodeMCBot;
 import io.codemc.bot.MockJDA;
 import io.codemc.bot.commands.CmdApplication.Accept;
 import io.codemc.bot.commands.CmdApplication.Deny;
+import io.codemc.bot.config.Capability;
 import io.codemc.bot.utils.CommandUtil;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
@@ -37,7 +38,7 @@ public class TestCmdApplication {
         assertEquals("application", command.getName());
         assertFalse(command.getHelp().isEmpty());
         assertEquals(0, command.getOptions().size());
-        assertFalse(command.allowedRoles.isEmpty());
+        assertTrue(Capability.APPLICATION.in(command.capabilities));
         assertTrue(command.getChildren().length > 0);
     }
 
@@ -49,7 +50,7 @@ public class TestCmdApplication {
         assertEquals("accept", accept.getName());
         assertFalse(accept.getHelp().isEmpty());
         assertEquals(1, accept.getOptions().size());
-        assertFalse(accept.allowedRoles.isEmpty());
+        assertTrue(Capability.APPLICATION.in(accept.capabilities));
 
         TestCommandListener listener = new TestCommandListener(accept);
         String username = "TestApplicationAccept";
@@ -95,7 +96,7 @@ public class TestCmdApplication {
 
         assertTrue(JenkinsAPI.deleteUser(username));
         assertTrue(NexusAPI.deleteNexus(username));
-        assertEquals(1, DatabaseAPI.removeUser(username));
+        assertEquals(1, MockCodeMCBot.INSTANCE.getUserIndex().remove(username));
         assertEquals(1, DatabaseAPI.removeRequest(message.getIdLong()));
     }
 
@@ -107,7 +108,7 @@ public class TestCmdApplication {
         assertEquals("deny", deny.getName());
         assertFalse(deny.getHelp().isEmpty());
         assertEquals(2, deny.getOptions().size());
-        assertFalse(deny.allowedRoles.isEmpty());
+        assertTrue(Capability.APPLICATION.in(deny.capabilities));
 
         TestCommandListener listener = new TestCommandListener(deny);
 
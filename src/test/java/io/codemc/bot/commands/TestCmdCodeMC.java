@@ -7,6 +7,8 @@ import io.codemc.api.nexus.NexusAPI;
 import io.codemc.bot.MockCodeMCBot;
 import io.codemc.bot.MockJDA;
 import io.codemc.bot.commands.CmdCodeMC.*;
+import io.codemc.bot.config.Capability;
+import io.codemc.bot.health.CircuitBreaker;
 import io.codemc.bot.utils.CommandUtil;
 import net.dv8tion.jda.api.entities.Member;
 import org.junit.jupiter.api.AfterAll;
@@ -94,7 +96,7 @@ public class TestCmdCodeMC {
         assertEquals("remove", remove.getName());
         assertFalse(remove.getHelp().isEmpty());
         assertEquals(1, remove.getOptions().size());
-        assertFalse(remove.allowedRoles.isEmpty());
+        assertTrue(Capability.CODEMC.in(remove.capabilities));
 
         TestCommandListener listener = new TestCommandListener(remove);
 
@@ -110,13 +112,13 @@ public class TestCmdCodeMC {
         assertFalse(NexusAPI.exists("TestRemove"));
 
         MockCodeMCBot.INSTANCE.delete("TestRemove2");
-        DatabaseAPI.removeUser("TestRemove2");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestRemove2");
         Member m1 = MockJDA.mockMember("TestRemove2");
         MockJDA.GUILD.addRoleToMember(m1, MockJDA.AUTHOR);
 
         JenkinsAPI.createJenkinsUser("TestRemove2", "5678");
         NexusAPI.createNexus("TestRemove2", "5678");
-        DatabaseAPI.addUser("TestRemove2", m1.getIdLong());
+        MockCodeMCBot.INSTANCE.getUserIndex().add("TestRemove2", m1.getIdLong());
 
         assertTrue(JenkinsAPI.existsUser("TestRemove2"));
         assertTrue(NexusAPI.exists("TestRemove2"));
@@ -136,7 +138,7 @@ public class TestCmdCodeMC {
 
         JenkinsAPI.createJenkinsUser("TestRemove3", "1234");
         NexusAPI.createNexus("TestRemove3", "1234");
-        DatabaseAPI.addUser("TestRemove3", m2.getIdLong());
+        MockCodeMCBot.INSTANCE.getUserIndex().add("TestRemove3", m2.getIdLong());
 
         assertTrue(JenkinsAPI.existsUser("TestRemove3"));
         assertTrue(NexusAPI.exists("TestRemove3"));
@@ -150,7 +152,7 @@ public class TestCmdCodeMC {
 
         JenkinsAPI.createJenkinsUser("TestRemove4", "1234");
         NexusAPI.createNexus("TestRemove4", "1234");
-        DatabaseAPI.addUser("TestRemove4", -10L);
+        MockCodeMCBot.INSTANCE.getUserIndex().add("TestRemove4", -10L);
 
         assertTrue(JenkinsAPI.existsUser("TestRemove4"));
         assertTrue(NexusAPI.exists("TestRemove4"));
@@ -171,7 +173,7 @@ public class TestCmdCodeMC {
         assertEquals("validate", validate.getName());
         assertFalse(validate.getHelp().isEmpty());
         assertEquals(1, validate.getOptions().size());
-        assertFalse(validate.allowedRoles.isEmpty());
+        assertTrue(Capability.CODEMC.in(validate.capabilities));
 
         TestCommandListener listener = new TestCommandListener(validate);
 
@@ -239,7 +241,7 @@ public class TestCmdCodeMC {
         assertEquals("link", link.getName());
         assertFalse(link.getHelp().isEmpty());
         assertEquals(2, link.getOptions().size());
-        assertFalse(link.allowedRoles.isEmpty());
+        assertTrue(Capability.CODEMC.in(link.capabilities));
 
         TestCommandListener listener = new TestCommandListener(link);
 
@@ -277,9 +279,9 @@ public class TestCmdCodeMC {
         MockCodeMCBot.INSTANCE.delete("TestLink");
         MockCodeMCBot.INSTANCE.delete("TestLink2");
         MockCodeMCBot.INSTANCE.delete("TestLink3");
-        DatabaseAPI.removeUser("TestLink");
-        DatabaseAPI.removeUser("TestLink2");
-        DatabaseAPI.removeUser("TestLink3");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestLink");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestLink2");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestLink3");
     }
 
     @Test
@@ -290,7 +292,7 @@ public class TestCmdCodeMC {
         assertEquals("unlink", unlink.getName());
         assertFalse(unlink.getHelp().isEmpty());
         assertEquals(2, unlink.getOptions().size());
-        assertFalse(unlink.allowedRoles.isEmpty());
+        assertTrue(Capability.CODEMC.in(unlink.capabilities));
 
         TestCommandListener listener = new TestCommandListener(unlink);
 
@@ -298,7 +300,7 @@ public class TestCmdCodeMC {
         MockJDA.GUILD.addRoleToMember(m1, MockJDA.AUTHOR);
 
         MockCodeMCBot.INSTANCE.create("TestUnlink", "Job");
-        DatabaseAPI.addUser("TestUnlink", m1.getIdLong());
+        MockCodeMCBot.INSTANCE.getUserIndex().add("TestUnlink", m1.getIdLong());
 
         assertNotNull(DatabaseAPI.getUser("TestUnlink"));
         MockJDA.assertSlashCommandEvent(listener, Map.of("discord", m1), CommandUtil.embedSuccess("Unlinked Discord User TestUnlink from their Jenkins/Nexus account!"));
@@ -308,17 +310,17 @@ public class TestCmdCodeMC {
         MockJDA.assertSlashCommandEvent(listener, Map.of("discord", m1), CommandUtil.embedError("The user is not linked to any Jenkins/Nexus account!"));
     
         MockCodeMCBot.INSTANCE.delete("TestUnlink");
-        DatabaseAPI.removeUser("TestUnlink");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestUnlink");
 
         Member m2 = MockJDA.mockMember("TestUnlink2");
         MockJDA.GUILD.addRoleToMember(m2, MockJDA.AUTHOR);
 
-        DatabaseAPI.removeUser("TestUnlink2");
-        DatabaseAPI.removeUser("TestUnlink3");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestUnlink2");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestUnlink3");
         MockCodeMCBot.INSTANCE.create("TestUnlink2", "Job");
         MockCodeMCBot.INSTANCE.create("TestUnlink3", "Job");
-        DatabaseAPI.addUser("TestUnlink2", m2.getIdLong());
-        DatabaseAPI.addUser("TestUnlink3", m2.getIdLong());
+        MockCodeMCBot.INSTANCE.getUserIndex().add("TestUnlink2", m2.getIdLong());
+        MockCodeMCBot.INSTANCE.getUserIndex().add("TestUnlink3", m2.getIdLong());
 
         assertNotNull(DatabaseAPI.getUser("TestUnlink2"));
         assertNotNull(DatabaseAPI.getUser("TestUnlink3"));
@@ -328,8 +330,8 @@ public class TestCmdCodeMC {
 
         MockCodeMCBot.INSTANCE.delete("TestUnlink2");
         MockCodeMCBot.INSTANCE.delete("TestUnlink3");
-        DatabaseAPI.removeUser("TestUnlink2");
-        DatabaseAPI.removeUser("TestUnlink3");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestUnlink2");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestUnlink3");
     }
 
     @Test
@@ -346,7 +348,7 @@ public class TestCmdCodeMC {
 
         JenkinsAPI.createJenkinsUser("Bot", "1234");
         NexusAPI.createNexus("Bot", "1234");
-        DatabaseAPI.addUser("Bot", event.getMember().getIdLong());
+        MockCodeMCBot.INSTANCE.getUserIndex().add("Bot", event.getMember().getIdLong());
 
         MockJDA.assertSlashCommandEvent(event, listener, CommandUtil.embedSuccess("Successfully changed your password!"));
 
@@ -355,7 +357,7 @@ public class TestCmdCodeMC {
 
         MockJDA.assertSlashCommandEvent(event, listener, CommandUtil.embedError("You do not have a Jenkins account!"));
 
-        assertEquals(1, DatabaseAPI.removeUser("Bot"));
+        assertEquals(1, MockCodeMCBot.INSTANCE.getUserIndex().remove("Bot"));
 
         MockJDA.assertSlashCommandEvent(event, listener, CommandUtil.embedError("You are not linked to any Jenkins/Nexus accounts!"));
 
@@ -372,7 +374,7 @@ public class TestCmdCodeMC {
         assertEquals("createuser", createUser.getName());
         assertFalse(createUser.getHelp().isEmpty());
         assertEquals(2, createUser.getOptions().size());
-        assertFalse(createUser.allowedRoles.isEmpty());
+        assertTrue(Capability.CODEMC.in(createUser.capabilities));
 
         TestCommandListener listener = new TestCommandListener(createUser);
 
@@ -382,7 +384,7 @@ public class TestCmdCodeMC {
 
         Member m2 = MockJDA.mockMember("TestCreateUser2");
         MockCodeMCBot.INSTANCE.create("TestCreateUser2", "Job");
-        DatabaseAPI.addUser("TestCreateUser2", m2.getIdLong());
+        MockCodeMCBot.INSTANCE.getUserIndex().add("TestCreateUser2", m2.getIdLong());
 
         MockJDA.assertSlashCommandEvent(listener, Map.of("username", "TestCreateUser2", "discord", m2), CommandUtil.embedError("A user with that username already exists."));
         MockJDA.assertSlashCommandEvent(listener, Map.of(), CommandUtil.embedError("Invalid Username provided!"));
@@ -391,8 +393,8 @@ public class TestCmdCodeMC {
 
         MockCodeMCBot.INSTANCE.delete("TestCreateUser");
         MockCodeMCBot.INSTANCE.delete("TestCreateUser2");
-        DatabaseAPI.removeUser("TestCreateUser");
-        DatabaseAPI.removeUser("TestCreateUser2");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestCreateUser");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestCreateUser2");
     }
 
     @Test
@@ -403,14 +405,14 @@ public class TestCmdCodeMC {
         assertEquals("deluser", delUser.getName());
         assertFalse(delUser.getHelp().isEmpty());
         assertEquals(1, delUser.getOptions().size());
-        assertFalse(delUser.allowedRoles.isEmpty());
+        assertTrue(Capability.CODEMC.in(delUser.capabilities));
 
         TestCommandListener listener = new TestCommandListener(delUser);
 
         Member m1 = MockJDA.mockMember("TestDelUser");
 
         MockCodeMCBot.INSTANCE.create("TestDelUser", "Job");
-        DatabaseAPI.addUser("TestDelUser", m1.getIdLong());
+        MockCodeMCBot.INSTANCE.getUserIndex().add("TestDelUser", m1.getIdLong());
 
         assertTrue(JenkinsAPI.existsUser("TestDelUser"));
         assertTrue(NexusAPI.exists("TestDelUser"));
@@ -426,7 +428,7 @@ public class TestCmdCodeMC {
         MockJDA.assertSlashCommandEvent(listener, Map.of(), CommandUtil.embedError("Invalid Username provided!"));
         MockJDA.assertSlashCommandEvent(listener, Map.of("username", "Inexistent"), CommandUtil.embedError("The user does not exist!"));
     
-        DatabaseAPI.removeUser("TestDelUser");
+        MockCodeMCBot.INSTANCE.getUserIndex().remove("TestDelUser");
     }
 
     @Test
@@ -437,7 +439,8 @@ public class TestCmdCodeMC {
 
         assertEquals("my-status", status.getName());
         assertFalse(status.getHelp().isEmpty());
-        assertFalse(status.allowedRoles.isEmpty());
+        assertTrue(Capability.AUTHOR.in(status.capabilities));
+        assertTrue(Capability.CODEMC.in(status.capabilities));
         assertNotEquals(0, status.getAliases().length);
 
         SlashCommandEvent event = MockJDA.mockSlashCommandEvent(MockJDA.REQUEST_CHANNEL, status, Map.of());
@@ -445,7 +448,7 @@ public class TestCmdCodeMC {
 
         JenkinsAPI.createJenkinsUser(username, "1234");
         NexusAPI.createNexus(username, "1234");
-        DatabaseAPI.addUser(username, event.getMember().getIdLong());
+        MockCodeMCBot.INSTANCE.getUserIndex().add(username, event.getMember().getIdLong());
 
         MockJDA.assertSlashCommandEvent(event, listener, status.build(username));
 
@@ -457,9 +460,32 @@ public class TestCmdCodeMC {
 
         MockJDA.assertSlashCommandEvent(event, listener, status.build(username));
 
-        assertEquals(1, DatabaseAPI.removeUser(username));
+        assertEquals(1, MockCodeMCBot.INSTANCE.getUserIndex().remove(username));
 
         MockJDA.assertSlashCommandEvent(event, listener, CommandUtil.embedError("You are not linked to any Jenkins/Nexus accounts!"));
     }
 
+    @Test
+    @DisplayName("Test /codemc status")
+    public void testStatus() {
+        Status status = (Status) command.getChildren()[11];
+
+        assertEquals("status", status.getName());
+        assertFalse(status.getHelp().isEmpty());
+        assertTrue(Capability.APPLICATION.in(status.capabilities));
+        assertTrue(Capability.CODEMC.in(status.capabilities));
+
+        TestCommandListener listener = new TestCommandListener(status);
+        MockJDA.assertSlashCommandEvent(listener, Map.of(), status.createStatusEmbed());
+
+        CircuitBreaker breaker = new CircuitBreaker("jenkins", 2, 30_000, () -> 0L, null);
+        assertEquals("Closed", Status.describe(breaker));
+
+        breaker.onFailure();
+        assertEquals("Closed (1 failed call(s) in a row)", Status.describe(breaker));
+
+        breaker.onFailure();
+        assertEquals("Open, probing again in 30 seconds", Status.describe(breaker));
+    }
+
 }
@@ -1,6 +1,7 @@
 package io.codemc.bot.commands;
 
 import io.codemc.bot.MockCodeMCBot;
+import io.codemc.bot.config.Capability;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -17,7 +18,7 @@ public class TestCmdDisable {
         assertEquals("disable", command.getName());
         assertFalse(command.getHelp().isEmpty());
         assertEquals(0, command.getOptions().size());
-        assertFalse(command.allowedRoles.isEmpty());
+        assertTrue(Capability.DISABLE.in(command.capabilities));
 
         // Command calls System.exit - cannot be tested
     }
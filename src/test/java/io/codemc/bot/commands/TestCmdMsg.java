@@ -4,6 +4,7 @@ import io.codemc.bot.MockCodeMCBot;
 import io.codemc.bot.MockJDA;
 import io.codemc.bot.commands.CmdMsg.Edit;
 import io.codemc.bot.commands.CmdMsg.Post;
+import io.codemc.bot.config.Capability;
 import io.codemc.bot.utils.CommandUtil;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
@@ -40,7 +41,7 @@ public class TestCmdMsg {
 
         assertEquals("send", post.getName());
         assertFalse(post.getHelp().isEmpty());
-        assertFalse(post.allowedRoles.isEmpty());
+        assertTrue(Capability.MSG.in(post.capabilities));
         assertTrue(post.hasModalReply);
         assertEquals(2, post.getOptions().size());
 
@@ -61,7 +62,7 @@ public class TestCmdMsg {
 
         assertEquals("edit", edit.getName());
         assertFalse(edit.getHelp().isEmpty());
-        assertFalse(edit.allowedRoles.isEmpty());
+        assertTrue(Capability.MSG.in(edit.capabilities));
         assertTrue(edit.hasModalReply);
         assertEquals(3, edit.getOptions().size());
 
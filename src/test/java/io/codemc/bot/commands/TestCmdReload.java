@@ -2,6 +2,7 @@ package io.codemc.bot.commands;
 
 import io.codemc.bot.MockCodeMCBot;
 import io.codemc.bot.MockJDA;
+import io.codemc.bot.config.Capability;
 import io.codemc.bot.utils.CommandUtil;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,7 +22,7 @@ public class TestCmdReload {
         assertEquals("reload", command.getName());
         assertFalse(command.getHelp().isEmpty());
         assertEquals(0, command.getOptions().size());
-        assertFalse(command.allowedRoles.isEmpty());
+        assertTrue(Capability.RELOAD.in(command.capabilities));
 
         TestCommandListener listener = new TestCommandListener(command);
 
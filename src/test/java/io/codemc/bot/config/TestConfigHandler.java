@@ -5,7 +5,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestConfigHandler {
 
@@ -64,4 +67,40 @@ public class TestConfigHandler {
         assertEquals(3306, handler.getInt("database", "port"));
     }
 
+    @Test
+    @DisplayName("Test ConfigHandler#getConfig")
+    public void testGetConfig() {
+        BotConfig config = handler.getConfig();
+
+        assertEquals(handler.getLong("server"), config.server());
+        assertEquals(handler.getLong("author_role"), config.authorRole());
+        assertEquals(handler.getLong("channels", "request_access"), config.channels().requestAccess());
+        assertEquals(handler.getLong("channels", "accepted_requests"), config.channels().acceptedRequests());
+        assertEquals(handler.getLong("channels", "rejected_requests"), config.channels().rejectedRequests());
+        assertEquals(handler.getString("jenkins", "url"), config.jenkinsUrl());
+        assertEquals(handler.getString("nexus", "url"), config.nexusUrl());
+
+        assertEquals(3, config.roles().acceptApplications().size());
+        assertTrue(config.roles().acceptApplications().contains(405917902865170453L));
+        assertFalse(config.roles().reload().contains(659568973079379971L));
+
+        assertEquals(String.join("\n", handler.getStringList("messages", "accepted")), config.messages().get(true));
+        assertEquals(String.join("\n", handler.getStringList("messages", "denied")), config.messages().get(false));
+    }
+
+    @Test
+    @DisplayName("Test ConfigHandler#reloadConfig")
+    public void testReloadConfig() {
+        BotConfig before = handler.getConfig();
+
+        assertTrue(handler.reloadConfig());
+
+        BotConfig after = handler.getConfig();
+        assertNotSame(before, after);
+        assertEquals(before.server(), after.server());
+        assertEquals(before.roles(), after.roles());
+
+        MockCodeMCBot.INSTANCE.setTestConfig();
+    }
+
 }
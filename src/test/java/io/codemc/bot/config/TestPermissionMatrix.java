@@ -0,0 +1,70 @@
+package io.codemc.bot.config;
+
+import net.dv8tion.jda.api.entities.Role;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestPermissionMatrix {
+
+    private static final long AUTHOR = 10L;
+    private static final long REVIEWER = 20L;
+    private static final long ADMIN = 30L;
+
+    private static final BotConfig.Roles ROLES = new BotConfig.Roles(
+            RoleSet.of(REVIEWER, ADMIN),
+            RoleSet.of(ADMIN),
+            RoleSet.of(REVIEWER, ADMIN),
+            RoleSet.of(ADMIN),
+            RoleSet.EMPTY,
+            RoleSet.of(ADMIN),
+            RoleSet.of(ADMIN)
+    );
+
+    @Test
+    @DisplayName("Test PermissionMatrix#resolve")
+    public void testResolve() {
+        PermissionMatrix matrix = PermissionMatrix.compile(AUTHOR, ROLES);
+
+        assertEquals(Capability.AUTHOR.bit(), matrix.resolve(AUTHOR));
+        assertEquals(Capability.mask(Capability.ACCEPT_APPLICATIONS, Capability.APPLICATION), matrix.resolve(REVIEWER));
+        assertEquals(0, matrix.resolve(40L));
+
+        int mask = matrix.resolve(List.of(role(AUTHOR), role(REVIEWER), role(40L)));
+        assertTrue(Capability.AUTHOR.in(mask));
+        assertTrue(Capability.APPLICATION.in(mask));
+        assertFalse(Capability.CODEMC.in(mask));
+        assertEquals(0, matrix.resolve(List.of()));
+    }
+
+    @Test
+    @DisplayName("Test PermissionMatrix#allows")
+    public void testAllows() {
+        PermissionMatrix matrix = PermissionMatrix.compile(AUTHOR, ROLES);
+        int reviewer = matrix.resolve(REVIEWER);
+
+        assertTrue(matrix.allows(reviewer, Capability.APPLICATION.bit()));
+        assertFalse(matrix.allows(reviewer, Capability.RELOAD.bit()));
+        assertTrue(matrix.allows(reviewer, Capability.mask(Capability.AUTHOR, Capability.APPLICATION)));
+
+        // no roles configured or none required
+        assertTrue(matrix.allows(0, Capability.DISABLE.bit()));
+        assertTrue(matrix.allows(0, 0));
+
+        assertFalse(matrix.allows(0, Capability.AUTHOR.bit()));
+        assertTrue(matrix.isRestricted(Capability.AUTHOR));
+        assertFalse(matrix.isRestricted(Capability.DISABLE));
+    }
+
+    private static Role role(long id) {
+        Role role = mock(Role.class);
+        when(role.getIdLong()).thenReturn(id);
+        return role;
+    }
+
+}
@@ -0,0 +1,37 @@
+package io.codemc.bot.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRoleSet {
+
+    @Test
+    @DisplayName("Test RoleSet#of")
+    public void testOf() {
+        RoleSet set = RoleSet.of(List.of(3L, 1L, 2L, 3L));
+
+        assertEquals(3, set.size());
+        assertEquals(List.of(1L, 2L, 3L), set.toList());
+        assertEquals(set, RoleSet.of(1L, 2L, 3L));
+
+        assertSame(RoleSet.EMPTY, RoleSet.of(List.of()));
+        assertSame(RoleSet.EMPTY, RoleSet.of((List<Long>) null));
+        assertTrue(RoleSet.EMPTY.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test RoleSet#contains")
+    public void testContains() {
+        RoleSet set = RoleSet.of(405917902865170453L, 659568973079379971L, 1233971297185431582L);
+
+        assertTrue(set.contains(405917902865170453L));
+        assertTrue(set.contains(1233971297185431582L));
+        assertFalse(set.contains(405918641859723294L));
+        assertFalse(RoleSet.EMPTY.contains(405917902865170453L));
+    }
+
+}
@@ -0,0 +1,78 @@
+package io.codemc.bot.execution;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAdaptiveLimiter {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1000);
+
+    @Test
+    @DisplayName("Test AdaptiveLimiter (Increase)")
+    public void testIncrease() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 8, 2.0);
+        assertEquals(1, limiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(FAST, true);
+        }
+
+        assertEquals(8, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Test AdaptiveLimiter (Decrease)")
+    public void testDecrease() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 8, 2.0);
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(FAST, true);
+        }
+
+        // latency increasing tenfold
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+            limiter.release(SLOW, true);
+        }
+        assertTrue(limiter.getLimit() < 8);
+
+        // failures
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire();
+            limiter.release(FAST, false);
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Test AdaptiveLimiter#acquire")
+    public void testAcquire() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 2.0);
+        limiter.acquire();
+
+        Thread waiting = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        waiting.join(200);
+        assertTrue(waiting.isAlive());
+        assertEquals(1, limiter.getInFlight());
+
+        limiter.release(FAST, true);
+        waiting.join(1000);
+        assertFalse(waiting.isAlive());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+}
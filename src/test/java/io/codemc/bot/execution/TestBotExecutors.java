@@ -0,0 +1,97 @@
+package io.codemc.bot.execution;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBotExecutors {
+
+    private static final int TASKS = 500;
+    private static final long BLOCKING_MILLIS = 20;
+
+    @Test
+    @DisplayName("Test ExecutionMode#fromString")
+    public void testFromString() {
+        assertEquals(ExecutionMode.VIRTUAL, ExecutionMode.fromString("virtual"));
+        assertEquals(ExecutionMode.PLATFORM, ExecutionMode.fromString("PLATFORM"));
+        assertEquals(ExecutionMode.PLATFORM, ExecutionMode.fromString(""));
+        assertEquals(ExecutionMode.PLATFORM, ExecutionMode.fromString(null));
+        assertEquals(ExecutionMode.PLATFORM, ExecutionMode.fromString("unknown"));
+    }
+
+    @Test
+    @DisplayName("Test BotExecutors#dispatch")
+    public void testDispatch() throws InterruptedException {
+        BotExecutors executors = new BotExecutors(ExecutionMode.VIRTUAL, 1, 1);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        executors.<String>dispatch(value -> {
+            assertEquals("hook", value);
+            assertTrue(Thread.currentThread().isVirtual());
+            latch.countDown();
+        }).accept("hook");
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        executors.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test BotExecutors#provisioning (Bounded)")
+    public void testProvisioningBounded() throws InterruptedException {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            BotExecutors executors = new BotExecutors(mode, 1, 1);
+            CountDownLatch release = new CountDownLatch(1);
+
+            // One running, one queued, the third one has to be rejected
+            executors.provisioning().execute(() -> await(release));
+            executors.provisioning().execute(() -> await(release));
+            assertThrows(RejectedExecutionException.class, () -> executors.provisioning().execute(() -> {}), mode.name());
+
+            release.countDown();
+            executors.shutdown();
+        }
+    }
+
+    // The throughput compared to the common pool is measured by ExecutorBenchmark, not asserted here.
+    @Test
+    @DisplayName("Test BotExecutors#interactions (Virtual)")
+    public void testVirtualInteractions() throws InterruptedException {
+        BotExecutors executors = new BotExecutors(ExecutionMode.VIRTUAL, 1, 1);
+        CountDownLatch latch = new CountDownLatch(TASKS);
+        AtomicInteger platform = new AtomicInteger();
+
+        // Every blocking task gets its own virtual thread instead of waiting for a pooled one
+        for (int i = 0; i < TASKS; i++) {
+            executors.interactions().execute(() -> {
+                if (!Thread.currentThread().isVirtual())
+                    platform.incrementAndGet();
+
+                try {
+                    Thread.sleep(BLOCKING_MILLIS);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(1, TimeUnit.MINUTES));
+        assertEquals(0, platform.get());
+        executors.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
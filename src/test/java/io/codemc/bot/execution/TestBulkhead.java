@@ -0,0 +1,143 @@
+package io.codemc.bot.execution;
+
+import io.codemc.bot.health.BulkheadFullException;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import io.codemc.bot.tracing.Trace;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBulkhead {
+
+    @Test
+    @DisplayName("Test Bulkhead.Rejection#fromString")
+    public void testFromString() {
+        assertEquals(Bulkhead.Rejection.CALLER_RUNS, Bulkhead.Rejection.fromString("caller_runs"));
+        assertEquals(Bulkhead.Rejection.ABORT, Bulkhead.Rejection.fromString("ABORT"));
+        assertEquals(Bulkhead.Rejection.ABORT, Bulkhead.Rejection.fromString(""));
+        assertEquals(Bulkhead.Rejection.ABORT, Bulkhead.Rejection.fromString(null));
+        assertEquals(Bulkhead.Rejection.ABORT, Bulkhead.Rejection.fromString("unknown"));
+    }
+
+    @Test
+    @DisplayName("Test Bulkhead#call")
+    public void testCall() {
+        Bulkhead bulkhead = BotExecutors.direct().bulkhead(Metrics.JENKINS);
+
+        assertEquals("result", bulkhead.call(() -> "result"));
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> bulkhead.call(() -> {
+            throw new IllegalStateException("failed");
+        }));
+        assertEquals("failed", error.getMessage());
+        assertEquals(0, bulkhead.getActive());
+        assertEquals(0, bulkhead.getQueued());
+
+        assertThrows(IllegalArgumentException.class, () -> BotExecutors.direct().bulkhead("unknown"));
+    }
+
+    @Test
+    @DisplayName("Test Bulkhead (Saturated)")
+    public void testSaturated() throws InterruptedException {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            BotExecutors executors = new BotExecutors(mode, 1, 1, Map.of(Metrics.NEXUS, new Bulkhead.Limits(1, 1)), Bulkhead.Rejection.ABORT);
+            Bulkhead nexus = executors.bulkhead(Metrics.NEXUS);
+            CountDownLatch release = new CountDownLatch(1);
+            long rejections = Metrics.BULKHEAD_REJECTIONS.get(Metrics.NEXUS);
+
+            // One running, one queued, the third one has to be rejected
+            Thread running = fill(nexus, release);
+            Thread queued = fill(nexus, release);
+            awaitDepth(nexus, 1, 1);
+            assertEquals(1, Metrics.BULKHEAD_ACTIVE.get(Metrics.NEXUS), mode.name());
+            assertEquals(1, Metrics.BULKHEAD_QUEUED.get(Metrics.NEXUS), mode.name());
+
+            BulkheadFullException error = assertThrows(BulkheadFullException.class, () -> nexus.call(() -> "rejected"), mode.name());
+            assertEquals(Metrics.NEXUS, error.getBackend());
+            assertEquals(rejections + 1, Metrics.BULKHEAD_REJECTIONS.get(Metrics.NEXUS));
+
+            // The other backends are not affected
+            assertEquals("jenkins", executors.bulkhead(Metrics.JENKINS).call(() -> "jenkins"), mode.name());
+
+            release.countDown();
+            running.join(5000);
+            queued.join(5000);
+            assertEquals(0, nexus.getActive(), mode.name());
+            assertEquals(0, nexus.getQueued(), mode.name());
+            executors.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test Bulkhead (Deadline)")
+    public void testDeadline() throws InterruptedException {
+        BotExecutors executors = new BotExecutors(ExecutionMode.PLATFORM, 1, 1, Map.of(Metrics.DATABASE, new Bulkhead.Limits(1, 1)), Bulkhead.Rejection.ABORT);
+        Bulkhead database = executors.bulkhead(Metrics.DATABASE);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        Thread running = fill(database, release);
+        awaitDepth(database, 1, 0);
+
+        // the caller stops waiting at its deadline, and the queued call is skipped once a thread frees up
+        try (Trace.Scope ignored = Deadline.after(Duration.ofMillis(50)).activate()) {
+            assertThrows(DeadlineExceededException.class, () -> database.call(calls::incrementAndGet));
+        }
+
+        release.countDown();
+        running.join(5000);
+        awaitDepth(database, 0, 0);
+        assertEquals(0, calls.get());
+        executors.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test Bulkhead (Caller Runs)")
+    public void testCallerRuns() throws InterruptedException {
+        BotExecutors executors = new BotExecutors(ExecutionMode.PLATFORM, 1, 1, Map.of(Metrics.GITHUB, new Bulkhead.Limits(1, 1)), Bulkhead.Rejection.CALLER_RUNS);
+        Bulkhead github = executors.bulkhead(Metrics.GITHUB);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread running = fill(github, release);
+        Thread queued = fill(github, release);
+        awaitDepth(github, 1, 1);
+
+        Thread caller = Thread.currentThread();
+        assertSame(caller, github.call(Thread::currentThread));
+
+        release.countDown();
+        running.join(5000);
+        queued.join(5000);
+        executors.shutdown();
+    }
+
+    private static Thread fill(Bulkhead bulkhead, CountDownLatch release) {
+        Thread thread = new Thread(() -> bulkhead.call(() -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitDepth(Bulkhead bulkhead, int active, int queued) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bulkhead.getActive() != active || bulkhead.getQueued() != queued) {
+            assertTrue(System.currentTimeMillis() < deadline, "Bulkhead did not fill up");
+            Thread.sleep(5);
+        }
+    }
+
+}
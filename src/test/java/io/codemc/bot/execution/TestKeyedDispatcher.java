@@ -0,0 +1,191 @@
+package io.codemc.bot.execution;
+
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import io.codemc.bot.tracing.Trace;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestKeyedDispatcher {
+
+    @Test
+    @DisplayName("Test KeyedDispatcher#user")
+    public void testKeys() {
+        assertEquals(KeyedDispatcher.user("CodeMC"), KeyedDispatcher.user("codemc"));
+        assertNotEquals(KeyedDispatcher.user("CodeMC"), KeyedDispatcher.application(1L));
+        assertNull(KeyedDispatcher.user(null));
+        assertNull(KeyedDispatcher.user(""));
+    }
+
+    @Test
+    @DisplayName("Test KeyedDispatcher#run (Same Key)")
+    public void testSameKey() throws InterruptedException {
+        KeyedDispatcher dispatcher = new KeyedDispatcher();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(Thread.ofVirtual().start(() -> dispatcher.run(KeyedDispatcher.user("CodeMC"), () -> {
+                if (running.incrementAndGet() > 1)
+                    overlaps.incrementAndGet();
+
+                sleep(10);
+                running.decrementAndGet();
+            })));
+        }
+
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    @DisplayName("Test KeyedDispatcher#run (Different Keys)")
+    public void testDifferentKeys() throws InterruptedException {
+        KeyedDispatcher dispatcher = new KeyedDispatcher();
+        // keys with the same hash code do not wait on each other either
+        String first = "user:Aa";
+        String second = "user:BB";
+        assertEquals(first.hashCode(), second.hashCode());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = Thread.ofVirtual().start(() -> dispatcher.run(first, () -> {
+            started.countDown();
+            await(release);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicInteger ran = new AtomicInteger();
+        dispatcher.run(second, ran::incrementAndGet);
+        dispatcher.run(null, ran::incrementAndGet);
+        assertEquals(2, ran.get());
+
+        release.countDown();
+        holder.join();
+        assertEquals(0, dispatcher.getActiveKeys());
+    }
+
+    @Test
+    @DisplayName("Test KeyedDispatcher#run (Deadline)")
+    public void testDeadline() throws InterruptedException {
+        KeyedDispatcher dispatcher = new KeyedDispatcher();
+        String key = KeyedDispatcher.user("CodeMC");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = Thread.ofVirtual().start(() -> dispatcher.run(key, () -> {
+            started.countDown();
+            await(release);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicInteger ran = new AtomicInteger();
+        try (Trace.Scope ignored = Deadline.after(Duration.ofMillis(50)).activate()) {
+            assertThrows(DeadlineExceededException.class, () -> dispatcher.run(key, ran::incrementAndGet));
+        }
+        assertEquals(0, ran.get());
+
+        release.countDown();
+        holder.join();
+
+        // the lock is free again for the next caller
+        try (Trace.Scope ignored = Deadline.after(Duration.ofSeconds(5)).activate()) {
+            dispatcher.run(key, ran::incrementAndGet);
+        }
+        assertEquals(1, ran.get());
+        assertEquals(0, dispatcher.getActiveKeys());
+    }
+
+    @Test
+    @DisplayName("Test KeyedDispatcher#submit")
+    public void testSubmit() throws InterruptedException {
+        KeyedDispatcher dispatcher = new KeyedDispatcher();
+        String key = KeyedDispatcher.user("CodeMC");
+        List<Runnable> handedOver = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+
+        // a free key runs the task on the caller
+        assertTrue(dispatcher.submit(key, handedOver::add, () -> order.add("free")).isDone());
+        assertTrue(handedOver.isEmpty());
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> dispatcher.run(key, () -> {
+            started.countDown();
+            await(release);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // a busy key queues the task instead of waiting for it
+        CompletableFuture<Void> first = dispatcher.submit(key, Runnable::run, () -> order.add("first"));
+        CompletableFuture<Void> failing = dispatcher.submit(key, Runnable::run, () -> {
+            throw new IllegalStateException("Boom");
+        });
+        CompletableFuture<Void> second = dispatcher.submit(key, Runnable::run, () -> order.add("second"));
+        assertFalse(first.isDone());
+
+        release.countDown();
+        holder.join();
+        second.join();
+
+        assertEquals(List.of("free", "first", "second"), order);
+        assertTrue(failing.isCompletedExceptionally());
+        assertEquals(0, dispatcher.getActiveKeys());
+    }
+
+    @Test
+    @DisplayName("Test KeyedDispatcher#claim")
+    public void testClaim() {
+        KeyedDispatcher dispatcher = new KeyedDispatcher();
+        String key = KeyedDispatcher.application(1L);
+        CompletableFuture<Void> task = new CompletableFuture<>();
+
+        CompletableFuture<Void> first = dispatcher.claim(key, () -> task);
+        assertNotNull(first);
+        assertTrue(dispatcher.isInFlight(key));
+        assertNull(dispatcher.claim(key, () -> CompletableFuture.completedFuture(null)));
+
+        task.complete(null);
+        assertTrue(first.isDone());
+        assertFalse(dispatcher.isInFlight(key));
+
+        assertThrows(IllegalStateException.class, () -> dispatcher.claim(key, () -> {
+            throw new IllegalStateException("Boom");
+        }));
+        assertFalse(dispatcher.isInFlight(key));
+
+        CompletableFuture<Void> second = dispatcher.claim(key, () -> CompletableFuture.failedFuture(new IllegalStateException()));
+        assertTrue(second.isCompletedExceptionally());
+        assertFalse(dispatcher.isInFlight(key));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
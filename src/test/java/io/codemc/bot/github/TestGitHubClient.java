@@ -0,0 +1,124 @@
+package io.codemc.bot.github;
+
+import io.codemc.bot.standin.FaultProfile;
+import io.codemc.bot.standin.GitHubStandIn;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestGitHubClient {
+
+    @Test
+    @DisplayName("Test GitHubClient#readFields")
+    public void testReadFields() throws IOException {
+        String json = "{\"login\":\"CodeMC\",\"plan\":{\"type\":\"free\"},\"ids\":[1,2],\"type\":\"Organization\",\"site_admin\":false}";
+        assertEquals(Map.of("type", "Organization"), GitHubClient.readFields(stream(json), "type"));
+        assertEquals(Map.of("login", "CodeMC"), GitHubClient.readFields(stream(json), "login", "site_admin"));
+        assertEquals(Map.of(), GitHubClient.readFields(stream("{}"), "type"));
+
+        assertThrows(IOException.class, () -> GitHubClient.readFields(stream("[]"), "type"));
+        assertThrows(IOException.class, () -> GitHubClient.readFields(stream("{\"type\":"), "type"));
+    }
+
+    @Test
+    @DisplayName("Test GitHubClient#getOwnerType")
+    public void testGetOwnerType() throws IOException {
+        try (GitHubStandIn github = new GitHubStandIn(FaultProfile.NONE, 1)) {
+            github.addOrganization("CodeMC").addMissing("-1").start();
+            GitHubClient client = new GitHubClient(github.getUrl(), GitHubAuth.token("token"));
+
+            OwnerTypeCache.Response organization = client.getOwnerType("CodeMC", null);
+            assertEquals(200, organization.status());
+            assertEquals(OwnerType.ORGANIZATION, organization.type());
+            assertNotNull(organization.etag());
+            assertEquals("Bearer token", github.getLastAuthorization());
+
+            assertEquals(OwnerType.USER, client.getOwnerType("gmitch215", null).type());
+            assertEquals(404, client.getOwnerType("-1", null).status());
+            assertEquals(304, client.getOwnerType("CodeMC", organization.etag()).status());
+
+            new GitHubClient(github.getUrl(), GitHubAuth.NONE).getOwnerType("CodeMC", null);
+            assertNull(github.getLastAuthorization());
+        }
+    }
+
+    @Test
+    @DisplayName("Test GitHubClient#repositoryExists")
+    public void testRepositoryExists() throws IOException {
+        try (GitHubStandIn github = new GitHubStandIn(FaultProfile.NONE, 1)) {
+            github.addRepository("CodeMC", "Bot").start();
+            GitHubClient client = new GitHubClient(github.getUrl(), GitHubAuth.token("token"));
+
+            assertTrue(client.repositoryExists("CodeMC", "Bot"));
+            assertTrue(client.repositoryExists("codemc", "bot"));
+            assertFalse(client.repositoryExists("CodeMC", "Missing"));
+        }
+    }
+
+    @Test
+    @DisplayName("Test GitHubClient#readOwnerTypes")
+    public void testReadOwnerTypes() throws IOException {
+        String json = "{\"errors\":[{\"type\":\"NOT_FOUND\",\"path\":[\"u2\"]},{\"type\":\"INTERNAL\",\"path\":[\"u3\",\"__typename\"]}],"
+                + "\"data\":{\"u0\":{\"__typename\":\"Organization\"},\"u1\":{\"__typename\":\"User\"},\"u2\":null,\"u3\":null,\"u4\":null}}";
+        assertEquals(
+                Map.of("u0", OwnerType.ORGANIZATION, "u1", OwnerType.USER, "u2", OwnerType.NOT_FOUND, "u4", OwnerType.NOT_FOUND),
+                GitHubClient.readOwnerTypes(stream(json))
+        );
+
+        assertThrows(IOException.class, () -> GitHubClient.readOwnerTypes(stream("{\"errors\":[{\"message\":\"Bad credentials\"}]}")));
+    }
+
+    @Test
+    @DisplayName("Test GitHubClient#getOwnerTypes")
+    public void testGetOwnerTypes() throws IOException {
+        try (GitHubStandIn github = new GitHubStandIn(FaultProfile.NONE, 1)) {
+            github.addOrganization("CodeMC").addMissing("-1").start();
+
+            List<String> logins = new ArrayList<>(List.of("CodeMC", "-1", "gmitch215"));
+            for (int i = 0; i < 247; i++)
+                logins.add("user" + i);
+
+            Map<String, OwnerType> types = new GitHubClient(github.getUrl(), GitHubAuth.token("token")).getOwnerTypes(logins);
+            assertEquals(250, types.size());
+            assertEquals(OwnerType.ORGANIZATION, types.get("CodeMC"));
+            assertEquals(OwnerType.NOT_FOUND, types.get("-1"));
+            assertEquals(OwnerType.USER, types.get("gmitch215"));
+            assertEquals(OwnerType.USER, types.get("user246"));
+            assertEquals(3, github.getQueries());
+
+            // GraphQL is not available without authentication
+            assertThrows(IOException.class, () -> new GitHubClient(github.getUrl(), GitHubAuth.NONE).getOwnerTypes(logins));
+            assertEquals(3, github.getQueries());
+        }
+    }
+
+    @Test
+    @DisplayName("Test GitHubClient#forApp")
+    public void testForApp() throws Exception {
+        try (GitHubStandIn github = new GitHubStandIn(FaultProfile.NONE, 1)) {
+            github.start();
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            GitHubClient client = GitHubClient.forApp(github.getUrl(), "1234", 42, generator.generateKeyPair().getPrivate());
+
+            assertEquals(OwnerType.USER, client.getOwnerType("gmitch215", null).type());
+            assertEquals("Bearer ghs_stand-in-1", github.getLastAuthorization());
+
+            client.getOwnerType("Andre601", null);
+            assertEquals(1, github.getTokens());
+        }
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,106 @@
+package io.codemc.bot.github;
+
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.Trace;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestGitHubRateLimit {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("Test GitHubRateLimit (Quota)")
+    public void testQuota() {
+        AtomicLong now = new AtomicLong(NOW);
+        GitHubRateLimit rateLimit = new GitHubRateLimit(0.1, now::get);
+
+        // nothing is known before the first response
+        assertEquals(0, rateLimit.reserve());
+        assertEquals(-1, rateLimit.getRemaining());
+
+        rateLimit.update(200, quota(5000, 4000, NOW + 3_600_000));
+        assertEquals(5000, rateLimit.getLimit());
+        assertEquals(4000, rateLimit.getRemaining());
+        assertEquals(0, rateLimit.reserve());
+
+        // below the reserve, the rest of the quota is spread until the reset
+        rateLimit.update(200, quota(5000, 99, NOW + 100_000));
+        assertEquals(0, rateLimit.reserve());
+        assertEquals(1_000, rateLimit.reserve());
+        assertEquals(2_000, rateLimit.reserve());
+
+        rateLimit.update(200, quota(5000, 0, NOW + 100_000));
+        assertEquals(100_000, rateLimit.reserve());
+
+        // a new quota after the reset
+        now.set(NOW + 100_000);
+        assertEquals(0, rateLimit.reserve());
+    }
+
+    @Test
+    @DisplayName("Test GitHubRateLimit (Throttled)")
+    public void testThrottled() {
+        AtomicLong now = new AtomicLong(NOW);
+        GitHubRateLimit rateLimit = new GitHubRateLimit(0.1, now::get);
+
+        HttpHeaders exhausted = quota(5000, 0, NOW + 30_000);
+        assertTrue(GitHubRateLimit.isThrottled(403, exhausted));
+        assertTrue(GitHubRateLimit.isThrottled(429, headers(Map.of())));
+        assertFalse(GitHubRateLimit.isThrottled(403, quota(5000, 10, NOW + 30_000)));
+        assertFalse(GitHubRateLimit.isThrottled(200, exhausted));
+
+        rateLimit.update(403, exhausted);
+        assertEquals(30_000, rateLimit.reserve());
+
+        // secondary rate limits
+        now.set(NOW + 30_000);
+        rateLimit.update(403, headers(Map.of("Retry-After", "20")));
+        assertEquals(20_000, rateLimit.reserve());
+
+        now.set(NOW + 50_000);
+        assertEquals(0, rateLimit.reserve());
+        rateLimit.update(429, headers(Map.of()));
+        assertEquals(GitHubRateLimit.SECONDARY_BACKOFF, rateLimit.reserve());
+    }
+
+    @Test
+    @DisplayName("Test GitHubRateLimit#acquire (Deadline)")
+    public void testDeadline() throws IOException {
+        long now = System.currentTimeMillis();
+        GitHubRateLimit rateLimit = new GitHubRateLimit(0.1);
+        rateLimit.acquire();
+
+        rateLimit.update(403, quota(5000, 0, now + 3_600_000));
+        try (Trace.Scope ignored = Deadline.after(Duration.ofSeconds(5)).activate()) {
+            assertThrows(IOException.class, rateLimit::acquire);
+        }
+
+        // not waiting for the quota to reset without a deadline either
+        assertThrows(IOException.class, rateLimit::acquire);
+    }
+
+    private static HttpHeaders quota(long limit, long remaining, long resetAt) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("X-RateLimit-Limit", Long.toString(limit));
+        headers.put("X-RateLimit-Remaining", Long.toString(remaining));
+        headers.put("X-RateLimit-Reset", Long.toString(resetAt / 1000));
+        return headers(headers);
+    }
+
+    private static HttpHeaders headers(Map<String, String> headers) {
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        headers.forEach((key, value) -> values.put(key, List.of(value)));
+        return HttpHeaders.of(values, (key, value) -> true);
+    }
+}
@@ -0,0 +1,248 @@
+package io.codemc.bot.github;
+
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.Trace;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestOwnerTypeCache {
+
+    private static final Duration TTL = Duration.ofHours(24);
+    private static final Duration NEGATIVE_TTL = Duration.ofHours(1);
+
+    @Test
+    @DisplayName("Test OwnerTypeCache (TTL)")
+    public void testTtl() {
+        AtomicLong now = new AtomicLong();
+        List<String> calls = new ArrayList<>();
+        OwnerTypeCache cache = new OwnerTypeCache((username, etag) -> {
+            calls.add(username + ":" + etag);
+            return new OwnerTypeCache.Response(200, OwnerType.ORGANIZATION, "\"v1\"");
+        }, 16, TTL, NEGATIVE_TTL, now::get);
+
+        assertEquals(OwnerType.ORGANIZATION, cache.get("CodeMC"));
+        assertEquals(OwnerType.ORGANIZATION, cache.get("codemc"));
+        assertEquals(List.of("CodeMC:null"), calls);
+
+        now.addAndGet(TTL.toMillis() + 1);
+        assertEquals(OwnerType.ORGANIZATION, cache.get("CodeMC"));
+        assertEquals(List.of("CodeMC:null", "CodeMC:\"v1\""), calls);
+    }
+
+    @Test
+    @DisplayName("Test OwnerTypeCache (Not Modified)")
+    public void testNotModified() {
+        AtomicLong now = new AtomicLong();
+        List<Integer> statuses = new ArrayList<>(List.of(200, 304));
+        OwnerTypeCache cache = new OwnerTypeCache((username, etag) -> {
+            int status = statuses.remove(0);
+            return new OwnerTypeCache.Response(status, status == 200 ? OwnerType.USER : null, "\"v1\"");
+        }, 16, TTL, NEGATIVE_TTL, now::get);
+
+        assertEquals(OwnerType.USER, cache.get("gmitch215"));
+
+        now.addAndGet(TTL.toMillis() + 1);
+        assertEquals(OwnerType.USER, cache.get("gmitch215"));
+        assertTrue(statuses.isEmpty());
+
+        // revalidated entry is fresh again
+        assertEquals(OwnerType.USER, cache.get("gmitch215"));
+    }
+
+    @Test
+    @DisplayName("Test OwnerTypeCache (Negative)")
+    public void testNegative() {
+        AtomicLong now = new AtomicLong();
+        AtomicLong calls = new AtomicLong();
+        OwnerTypeCache cache = new OwnerTypeCache((username, etag) -> {
+            calls.incrementAndGet();
+            return new OwnerTypeCache.Response(404, null, null);
+        }, 16, TTL, NEGATIVE_TTL, now::get);
+
+        assertEquals(OwnerType.NOT_FOUND, cache.get("-1"));
+        assertFalse(cache.get("-1").isGroup());
+        assertEquals(1, calls.get());
+
+        now.addAndGet(NEGATIVE_TTL.toMillis() + 1);
+        assertEquals(OwnerType.NOT_FOUND, cache.get("-1"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Test OwnerTypeCache (Failures)")
+    public void testFailures() {
+        AtomicLong now = new AtomicLong();
+        List<Object> responses = new ArrayList<>(List.of(
+                new OwnerTypeCache.Response(403, null, null),
+                new OwnerTypeCache.Response(200, OwnerType.ORGANIZATION, null),
+                new IOException("Connection reset"),
+                new OwnerTypeCache.Response(500, null, null)
+        ));
+        OwnerTypeCache cache = new OwnerTypeCache((username, etag) -> {
+            Object next = responses.remove(0);
+            if (next instanceof IOException ex) throw ex;
+            return (OwnerTypeCache.Response) next;
+        }, 16, TTL, NEGATIVE_TTL, now::get);
+
+        assertNull(cache.get("CodeMC"));
+        assertEquals(0, cache.size());
+
+        assertEquals(OwnerType.ORGANIZATION, cache.get("CodeMC"));
+
+        // stale entries are served while GitHub is unavailable
+        now.addAndGet(TTL.toMillis() + 1);
+        assertEquals(OwnerType.ORGANIZATION, cache.get("CodeMC"));
+        assertEquals(OwnerType.ORGANIZATION, cache.get("CodeMC"));
+        assertTrue(responses.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test OwnerTypeCache#prefetch")
+    public void testPrefetch() {
+        AtomicLong now = new AtomicLong();
+        List<List<String>> batches = new ArrayList<>();
+        List<String> lookups = new ArrayList<>();
+        OwnerTypeCache cache = new OwnerTypeCache((username, etag) -> {
+            lookups.add(username);
+            return new OwnerTypeCache.Response(200, OwnerType.USER, null);
+        }, usernames -> {
+            batches.add(usernames);
+            // "unresolved" is left for the single lookup
+            return Map.of("CodeMC", OwnerType.ORGANIZATION, "gmitch215", OwnerType.USER, "-1", OwnerType.NOT_FOUND);
+        }, 16, TTL, NEGATIVE_TTL, now::get);
+
+        cache.get("gmitch215");
+        cache.prefetch(List.of("CodeMC", "codemc", "gmitch215", "-1", "unresolved"));
+        assertEquals(List.of(List.of("CodeMC", "-1", "unresolved")), batches);
+
+        assertEquals(OwnerType.ORGANIZATION, cache.get("codemc"));
+        assertEquals(OwnerType.NOT_FOUND, cache.get("-1"));
+        assertEquals(OwnerType.USER, cache.get("unresolved"));
+        assertEquals(List.of("gmitch215", "unresolved"), lookups);
+
+        // nothing left to look up
+        cache.prefetch(List.of("CodeMC", "gmitch215"));
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    @DisplayName("Test OwnerTypeCache#prefetch (ETag)")
+    public void testPrefetchETag() {
+        AtomicLong now = new AtomicLong();
+        List<String> calls = new ArrayList<>();
+        OwnerTypeCache cache = new OwnerTypeCache((username, etag) -> {
+            calls.add(username + ":" + etag);
+            return new OwnerTypeCache.Response(etag == null ? 200 : 304, etag == null ? OwnerType.ORGANIZATION : null, "\"v1\"");
+        }, usernames -> Map.of("CodeMC", OwnerType.ORGANIZATION, "Batched", OwnerType.USER), 16, TTL, NEGATIVE_TTL, now::get);
+
+        cache.get("CodeMC");
+        now.addAndGet(TTL.toMillis() + 1);
+        cache.prefetch(List.of("CodeMC", "Batched"));
+        assertEquals(OwnerType.ORGANIZATION, cache.get("CodeMC"));
+
+        // the entry refreshed by the batch is still revalidated with the ETag of the last single lookup
+        now.addAndGet(TTL.toMillis() + 1);
+        assertEquals(OwnerType.ORGANIZATION, cache.get("CodeMC"));
+        assertEquals(OwnerType.ORGANIZATION, cache.get("Batched"));
+        assertEquals(List.of("CodeMC:null", "CodeMC:\"v1\"", "Batched:null"), calls);
+    }
+
+    @Test
+    @DisplayName("Test OwnerTypeCache (Concurrent Misses)")
+    public void testConcurrentMisses() throws Exception {
+        AtomicLong calls = new AtomicLong();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OwnerTypeCache cache = new OwnerTypeCache((username, etag) -> {
+            calls.incrementAndGet();
+            started.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return new OwnerTypeCache.Response(200, OwnerType.ORGANIZATION, null);
+        }, 16, TTL, NEGATIVE_TTL, () -> 0L);
+
+        CompletableFuture<OwnerType> first = CompletableFuture.supplyAsync(() -> cache.get("CodeMC"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<OwnerType> second = CompletableFuture.supplyAsync(() -> cache.get("codemc"));
+
+        release.countDown();
+        assertEquals(OwnerType.ORGANIZATION, first.get(5, TimeUnit.SECONDS));
+        assertEquals(OwnerType.ORGANIZATION, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Test OwnerTypeCache#get (Waiter Deadline)")
+    public void testWaiterDeadline() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OwnerTypeCache cache = new OwnerTypeCache((username, etag) -> {
+            started.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return new OwnerTypeCache.Response(200, OwnerType.ORGANIZATION, null);
+        }, 16, TTL, NEGATIVE_TTL, () -> 0L);
+
+        CompletableFuture<OwnerType> first = CompletableFuture.supplyAsync(() -> cache.get("CodeMC"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // a slow lookup of someone else is not waited for past the own deadline
+        try (Trace.Scope ignored = Deadline.after(Duration.ofMillis(50)).activate()) {
+            assertNull(cache.get("codemc"));
+        }
+
+        release.countDown();
+        assertEquals(OwnerType.ORGANIZATION, first.get(5, TimeUnit.SECONDS));
+        assertEquals(OwnerType.ORGANIZATION, cache.get("codemc"));
+    }
+
+    @Test
+    @DisplayName("Test OwnerTypeCache#prefetch (Failures)")
+    public void testPrefetchFailures() {
+        AtomicLong calls = new AtomicLong();
+        OwnerTypeCache cache = new OwnerTypeCache((username, etag) -> {
+            calls.incrementAndGet();
+            return new OwnerTypeCache.Response(200, OwnerType.ORGANIZATION, null);
+        }, usernames -> {
+            throw new IOException("Connection reset");
+        }, 16, TTL, NEGATIVE_TTL, () -> 0L);
+
+        cache.prefetch(List.of("CodeMC"));
+        assertEquals(0, cache.size());
+        assertEquals(OwnerType.ORGANIZATION, cache.get("CodeMC"));
+        assertEquals(1, calls.get());
+
+        // without a batch lookup, prefetching does nothing
+        OwnerTypeCache single = new OwnerTypeCache((username, etag) -> null, 16, TTL, NEGATIVE_TTL, () -> 0L);
+        single.prefetch(List.of("CodeMC"));
+        assertEquals(0, single.size());
+    }
+
+    @Test
+    @DisplayName("Test OwnerTypeCache (Bounded)")
+    public void testBounded() {
+        OwnerTypeCache cache = new OwnerTypeCache(
+                (username, etag) -> new OwnerTypeCache.Response(200, OwnerType.USER, null),
+                2, TTL, NEGATIVE_TTL, () -> 0L
+        );
+
+        cache.get("a");
+        cache.get("b");
+        cache.get("c");
+        assertEquals(2, cache.size());
+
+        cache.invalidate("c");
+        assertEquals(1, cache.size());
+    }
+
+}
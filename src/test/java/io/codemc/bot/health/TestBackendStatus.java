@@ -0,0 +1,34 @@
+package io.codemc.bot.health;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBackendStatus {
+
+    @Test
+    @DisplayName("Test BackendStatus#firstUnavailable")
+    public void testFirstUnavailable() {
+        BackendStatus status = new BackendStatus();
+
+        assertEquals(BackendStatus.State.STARTING, status.get(Backend.JENKINS));
+        assertEquals(Backend.DATABASE, status.firstUnavailable(Backend.ALL));
+        assertNull(status.firstUnavailable(Set.of()));
+
+        status.set(Backend.DATABASE, BackendStatus.State.READY);
+        status.set(Backend.JENKINS, BackendStatus.State.READY);
+        assertTrue(status.isReady(Backend.JENKINS));
+        assertNull(status.firstUnavailable(Set.of(Backend.DATABASE, Backend.JENKINS)));
+        assertEquals(Backend.NEXUS, status.firstUnavailable(Backend.ALL));
+
+        status.set(Backend.NEXUS, BackendStatus.State.UNAVAILABLE);
+        assertEquals(Backend.NEXUS, status.firstUnavailable(Backend.ALL));
+
+        status.set(Backend.NEXUS, BackendStatus.State.READY);
+        assertNull(status.firstUnavailable(Backend.ALL));
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.codemc.bot.health;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCircuitBreaker {
+
+    @Test
+    @DisplayName("Test CircuitBreaker (Open and Recover)")
+    public void testOpenAndRecover() {
+        AtomicLong now = new AtomicLong();
+        List<CircuitBreaker.State> transitions = new ArrayList<>();
+        CircuitBreaker breaker = new CircuitBreaker("jenkins", 3, 1000, now::get, (b, from, to) -> transitions.add(to));
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        assertEquals(0, breaker.getFailures());
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1000, breaker.getRemainingMillis());
+
+        now.addAndGet(1000);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // only one probe at a time
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+
+        assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED), transitions);
+    }
+
+    @Test
+    @DisplayName("Test CircuitBreaker (Failed Probe)")
+    public void testFailedProbe() {
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker("nexus", 1, 1000, now::get, null);
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        now.addAndGet(1500);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1000, breaker.getRemainingMillis());
+
+        // late results of calls started before the circuit opened are ignored
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+}
@@ -0,0 +1,167 @@
+package io.codemc.bot.health;
+
+import io.codemc.bot.execution.BotExecutors;
+import io.codemc.bot.execution.Bulkhead;
+import io.codemc.bot.execution.ExecutionMode;
+import io.codemc.bot.metrics.Metrics;
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.DeadlineExceededException;
+import io.codemc.bot.tracing.Trace;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestResilience {
+
+    private static final RetryPolicy RETRY = new RetryPolicy(3, Duration.ZERO, Duration.ZERO);
+
+    @Test
+    @DisplayName("Test Resilience#execute (Retry)")
+    public void testRetry() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 1000, () -> 0L, null);
+        AtomicInteger calls = new AtomicInteger();
+
+        boolean result = Resilience.execute(breaker, RETRY, "test", "flaky", () -> calls.incrementAndGet() == 3, Resilience.UNSUCCESSFUL);
+        assertTrue(result);
+        assertEquals(3, calls.get());
+        assertEquals(0, breaker.getFailures());
+
+        calls.set(0);
+        assertFalse(Resilience.execute(breaker, RETRY, "test", "failing", () -> {
+            calls.incrementAndGet();
+            return false;
+        }, Resilience.UNSUCCESSFUL));
+        assertEquals(3, calls.get());
+        assertEquals(3, breaker.getFailures());
+
+        calls.set(0);
+        RuntimeException error = assertThrows(IllegalStateException.class, () -> Resilience.execute(breaker, RETRY, "test", "throwing", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("down");
+        }, r -> false));
+        assertEquals("down", error.getMessage());
+        assertEquals(3, calls.get());
+
+        // a single attempt for calls that are not safe to repeat
+        calls.set(0);
+        assertFalse(Resilience.execute(breaker, RetryPolicy.NONE, "test", "create", () -> {
+            calls.incrementAndGet();
+            return false;
+        }, Resilience.UNSUCCESSFUL));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Test Resilience#execute (Deadline)")
+    public void testDeadline() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 1000, () -> 0L, null);
+        AtomicInteger calls = new AtomicInteger();
+
+        try (Trace.Scope ignored = Deadline.after(Duration.ZERO).activate()) {
+            assertThrows(DeadlineExceededException.class, () -> Resilience.execute(breaker, RETRY, "test", "late", calls::incrementAndGet, r -> false));
+            assertThrows(DeadlineExceededException.class, () -> Resilience.isolate("test", "late", calls::incrementAndGet));
+        }
+        assertEquals(0, calls.get());
+        assertEquals(0, breaker.getFailures());
+
+        // retries that would only start after the deadline are not waited for
+        RetryPolicy slow = new RetryPolicy(3, Duration.ofDays(1), Duration.ofDays(1));
+        try (Trace.Scope ignored = Deadline.after(Duration.ofSeconds(1)).activate()) {
+            assertFalse(Resilience.execute(breaker, slow, "test", "failing", () -> {
+                calls.incrementAndGet();
+                return false;
+            }, Resilience.UNSUCCESSFUL));
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Test Resilience#execute (Open Circuit)")
+    public void testOpenCircuit() {
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker("jenkins", 2, 30_000, now::get, null);
+        AtomicInteger calls = new AtomicInteger();
+
+        // the circuit opens after the second attempt, cutting the retries short
+        assertFalse(Resilience.execute(breaker, RETRY, "jenkins", "changeJenkinsPassword", () -> {
+            calls.incrementAndGet();
+            return false;
+        }, Resilience.UNSUCCESSFUL));
+        assertEquals(2, calls.get());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        CircuitOpenException error = assertThrows(CircuitOpenException.class, () -> Resilience.execute(breaker, RETRY, "jenkins", "existsUser", calls::incrementAndGet, result -> false));
+        assertEquals("jenkins", error.getBackend());
+        assertEquals("Jenkins is not available right now. Please try again in 30 seconds.", error.getMessage());
+        assertEquals(2, calls.get());
+
+        now.addAndGet(30_000);
+        int result = Resilience.execute(breaker, RETRY, "jenkins", "existsUser", calls::incrementAndGet, r -> false);
+        assertEquals(3, result);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Test Resilience#execute (Half-Open Probe in Bulkhead)")
+    public void testProbeTimeout() {
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker("jenkins", 1, 30_000, now::get, null);
+        BotExecutors executors = new BotExecutors(ExecutionMode.PLATFORM, 1, 1, Map.of(Metrics.JENKINS, new Bulkhead.Limits(1, 1)), Bulkhead.Rejection.ABORT);
+        CountDownLatch hung = new CountDownLatch(1);
+
+        Resilience.setBulkheads(executors::bulkhead);
+        try {
+            assertFalse(Resilience.execute(breaker, RetryPolicy.NONE, "jenkins", "existsUser", () -> false, Resilience.UNSUCCESSFUL));
+            assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+            // the probe times out waiting on the bulkhead, which has to open the circuit again
+            now.addAndGet(30_000);
+            try (Trace.Scope ignored = Deadline.after(Duration.ofMillis(50)).activate()) {
+                assertThrows(DeadlineExceededException.class, () -> Resilience.execute(breaker, RetryPolicy.NONE, "jenkins", "existsUser", () -> {
+                    try {
+                        return hung.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        return false;
+                    }
+                }, Resilience.UNSUCCESSFUL));
+            }
+            assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+            now.addAndGet(30_000);
+            assertTrue(breaker.tryAcquire());
+        } finally {
+            hung.countDown();
+            Resilience.setBulkheads(backend -> null);
+            executors.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test RetryPolicy#delayMillis")
+    public void testDelay() {
+        RetryPolicy policy = new RetryPolicy(5, Duration.ofMillis(100), Duration.ofMillis(250));
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(policy.delayMillis(1, random) <= 100);
+            assertTrue(policy.delayMillis(2, random) <= 200);
+            assertTrue(policy.delayMillis(3, random) <= 250);
+            assertTrue(policy.delayMillis(40, random) <= 250);
+        }
+
+        assertEquals(0, RetryPolicy.NONE.delayMillis(1, random));
+        assertEquals(1, new RetryPolicy(0, Duration.ZERO, Duration.ZERO).attempts());
+        assertEquals(List.of("jenkins", "nexus", "github"), Resilience.BACKENDS);
+    }
+
+}
@@ -44,7 +44,7 @@ public class TestButtonListener {
 
         JenkinsAPI.deleteUser(username);
         NexusAPI.deleteNexus(username);
-        DatabaseAPI.removeUser(username);
+        MockCodeMCBot.INSTANCE.getUserIndex().remove(username);
 
         assertFalse(CommandUtil.hasRole(member, List.of(AUTHOR.getIdLong())));
         assertFalse(JenkinsAPI.existsUser(username));
@@ -61,7 +61,7 @@ public class TestButtonListener {
 
         assertTrue(JenkinsAPI.deleteUser(username));
         assertTrue(NexusAPI.deleteNexus(username));
-        assertEquals(1, DatabaseAPI.removeUser(username));
+        assertEquals(1, MockCodeMCBot.INSTANCE.getUserIndex().remove(username));
         assertEquals(1, DatabaseAPI.removeRequest(message.getIdLong()));
     }
 
@@ -77,7 +77,7 @@ public class TestButtonListener {
 
         JenkinsAPI.deleteUser(username);
         NexusAPI.deleteNexus(username);
-        DatabaseAPI.removeUser(username);
+        MockCodeMCBot.INSTANCE.getUserIndex().remove(username);
 
         assertFalse(CommandUtil.hasRole(member, List.of(AUTHOR.getIdLong())));
         assertFalse(JenkinsAPI.existsUser(username));
@@ -119,17 +119,4 @@ public class TestButtonListener {
         MockJDA.assertButtonInteractionEvent(listener, e5, CommandUtil.embedError("Received unknown Button Application type.", "Expected `accept` or `deny` but got `null`."));
     }
 
-    @Test
-    @DisplayName("Test ButtonListener#lacksRole")
-    public void testLacksRole() {
-        assertTrue(listener.lacksRole(List.of(), List.of()));
-
-        assertTrue(listener.lacksRole(List.of(1L, 2L, 3L), List.of(4L)));
-        assertTrue(listener.lacksRole(List.of(1L, 2L, 3L), List.of(4L, 5L)));
-        assertTrue(listener.lacksRole(List.of(2L, 3L, 4L), List.of(5L, 6L, 7L)));
-
-        assertFalse(listener.lacksRole(List.of(1L, 2L, 3L), List.of(1L)));
-        assertFalse(listener.lacksRole(List.of(1L, 2L, 3L), List.of(1L, 2L)));
-    }
-
 }
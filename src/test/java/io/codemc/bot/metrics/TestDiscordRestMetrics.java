@@ -0,0 +1,18 @@
+package io.codemc.bot.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDiscordRestMetrics {
+
+    @Test
+    @DisplayName("Test DiscordRestMetrics#route")
+    public void testRoute() {
+        assertEquals("/api/v10/channels/{id}/messages/{id}", DiscordRestMetrics.route("/api/v10/channels/1234567890/messages/987654321"));
+        assertEquals("/api/v10/interactions/{id}/{token}/callback", DiscordRestMetrics.route("/api/v10/interactions/123/aW50ZXJhY3Rpb24/callback"));
+        assertEquals("/api/v10/webhooks/{id}/{token}/messages/@original", DiscordRestMetrics.route("/api/v10/webhooks/123/dG9rZW4/messages/@original"));
+        assertEquals("/", DiscordRestMetrics.route("/"));
+    }
+}
@@ -0,0 +1,107 @@
+package io.codemc.bot.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMetrics {
+
+    @Test
+    @DisplayName("Test Histogram")
+    public void testHistogram() {
+        Histogram histogram = new Histogram("test_duration_seconds", "Test.", new double[]{0.1, 1}, "name");
+        histogram.observe(0.05, "a");
+        histogram.observe(0.5, "a");
+        histogram.observe(2, "a");
+
+        StringBuilder out = new StringBuilder();
+        histogram.write(out);
+
+        assertEquals("""
+                # HELP test_duration_seconds Test.
+                # TYPE test_duration_seconds histogram
+                test_duration_seconds_bucket{name="a",le="0.1"} 1
+                test_duration_seconds_bucket{name="a",le="1"} 2
+                test_duration_seconds_bucket{name="a",le="+Inf"} 3
+                test_duration_seconds_sum{name="a"} 2.55
+                test_duration_seconds_count{name="a"} 3
+                """, out.toString());
+        assertEquals(3, histogram.count("a"));
+        assertEquals(0, histogram.count("b"));
+    }
+
+    @Test
+    @DisplayName("Test Counter")
+    public void testCounter() {
+        Counter counter = new Counter("test_total", "Test.", "name");
+        counter.inc("quote\"d");
+        counter.inc("quote\"d");
+
+        StringBuilder out = new StringBuilder();
+        counter.write(out);
+
+        assertEquals("""
+                # HELP test_total Test.
+                # TYPE test_total counter
+                test_total{name="quote\\"d"} 2
+                """, out.toString());
+        assertThrows(IllegalArgumentException.class, () -> counter.inc("a", "b"));
+    }
+
+    @Test
+    @DisplayName("Test Metrics#call")
+    public void testCall() {
+        assertEquals("ok", Metrics.call("test", "testCall", () -> "ok"));
+        assertThrows(IllegalStateException.class, () -> Metrics.call("test", "testCall", (Runnable) () -> {
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(2, Metrics.BACKEND_CALL_DURATION.count("test", "testCall"));
+        assertEquals(1, Metrics.BACKEND_CALL_ERRORS.get("test", "testCall"));
+    }
+
+    @Test
+    @DisplayName("Test Metrics#handle")
+    public void testHandle() {
+        long started = System.nanoTime();
+        Metrics.handle(Metrics.COMMAND, "testHandle", started, () -> {});
+        assertThrows(IllegalStateException.class, () -> Metrics.handle(Metrics.COMMAND, "testHandle", started, () -> {
+            throw new IllegalStateException();
+        }));
+        Metrics.rejected(Metrics.COMMAND, "testHandle");
+
+        assertEquals(1, Metrics.INTERACTIONS.get(Metrics.COMMAND, "testHandle", Metrics.OK));
+        assertEquals(1, Metrics.INTERACTIONS.get(Metrics.COMMAND, "testHandle", Metrics.ERROR));
+        assertEquals(1, Metrics.INTERACTIONS.get(Metrics.COMMAND, "testHandle", Metrics.REJECTED));
+        assertEquals(2, Metrics.INTERACTION_DURATION.count(Metrics.COMMAND, "testHandle"));
+    }
+
+    @Test
+    @DisplayName("Test MetricsServer")
+    public void testServer() throws IOException {
+        Metrics.call("test", "testServer", () -> true);
+
+        MetricsServer server = new MetricsServer("127.0.0.1", 0);
+        server.start();
+        try {
+            HttpURLConnection connection = (HttpURLConnection) URI.create("http://127.0.0.1:" + server.getPort() + "/metrics").toURL().openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith("text/plain"));
+
+            try (InputStream in = connection.getInputStream()) {
+                String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(body.contains("# TYPE codemc_backend_call_duration_seconds histogram"));
+                assertTrue(body.contains("codemc_backend_call_duration_seconds_count{backend=\"test\",operation=\"testServer\"} 1"));
+            }
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.codemc.bot.provisioning;
+
+import io.codemc.bot.github.OwnerType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestProvisioningJournal {
+
+    @Test
+    @DisplayName("Test ProvisioningJournal (Restore)")
+    public void testRestore() throws IOException {
+        Path path = Files.createTempDirectory("provisioning").resolve("journal");
+
+        ProvisioningJob first = new ProvisioningJob(1L, 10L, 20L, "TestJournal1", "Job");
+        ProvisioningJob second = new ProvisioningJob(2L, 11L, 20L, "TestJournal2", "Job\tWith Tab");
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            assertTrue(journal.restored().isEmpty());
+
+            journal.queued(first);
+            journal.attempted(first, ProvisioningStep.JENKINS_USER);
+            journal.completed(first, ProvisioningStep.JENKINS_USER);
+            journal.attempted(first, ProvisioningStep.JENKINS_JOB);
+
+            journal.queued(second);
+            journal.attempted(second, ProvisioningStep.JENKINS_USER);
+            journal.completed(second, ProvisioningStep.JENKINS_USER);
+            journal.done(second);
+        }
+
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            List<ProvisioningJob> restored = new ArrayList<>(journal.restored());
+            assertEquals(1, restored.size());
+
+            ProvisioningJob job = restored.get(0);
+            assertEquals(1L, job.messageId());
+            assertEquals(10L, job.userId());
+            assertEquals(20L, job.reviewerId());
+            assertEquals("TestJournal1", job.username());
+            assertEquals("https://github.com/TestJournal1/Job", job.repoLink());
+
+            assertTrue(job.isCompleted(ProvisioningStep.JENKINS_USER));
+            assertTrue(job.wasAttempted(ProvisioningStep.JENKINS_JOB));
+            assertFalse(job.isCompleted(ProvisioningStep.JENKINS_JOB));
+            assertEquals(ProvisioningStep.JENKINS_JOB, job.next());
+
+            // the password was not journaled, so the Jenkins User has to get the new one
+            assertTrue(job.needsPasswordSync());
+        }
+
+        // finished jobs are dropped when compacting
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(List.of("Q\t1\t10\t20\tTestJournal1\tJob\t-,-", "A\t1\tJENKINS_USER", "A\t1\tJENKINS_JOB", "C\t1\tJENKINS_USER"), lines);
+    }
+
+    @Test
+    @DisplayName("Test ProvisioningJournal (Torn Record)")
+    public void testTornRecord() throws IOException {
+        Path path = Files.createTempDirectory("provisioning").resolve("journal");
+        Files.writeString(path, String.join("\n",
+                "Q\t3\t12\t20\tTestJournal3\tJob\\tWith Tab\t-,-",
+                "Q\t5\t14\t20\tTestJournal5\tJob",
+                "X\t3",
+                "C\t3\tNOT_A_STEP",
+                "A\t3\tJENKINS_USER",
+                "C\t3\tJENKINS_U"
+        ), StandardCharsets.UTF_8);
+
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            List<ProvisioningJob> restored = new ArrayList<>(journal.restored());
+            assertEquals(1, restored.size());
+
+            ProvisioningJob job = restored.get(0);
+            assertEquals("Job\tWith Tab", job.repoName());
+            assertEquals(Set.of(ProvisioningStep.JENKINS_USER), job.attemptedSteps());
+            assertTrue(job.completedSteps().isEmpty());
+            assertFalse(job.needsPasswordSync());
+
+            // a job queued before its plan was checked restores without one
+            assertEquals(ProvisioningPlan.UNKNOWN, job.plan());
+
+            journal.done(job);
+        }
+
+        // the torn record must not be joined with the records appended after it
+        Files.writeString(path, "Q\t4\t13\t20\tTestJournal4\tJob\t-,-\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            List<ProvisioningJob> restored = new ArrayList<>(journal.restored());
+            assertEquals(1, restored.size());
+            assertEquals(4L, restored.get(0).messageId());
+        }
+    }
+
+    @Test
+    @DisplayName("Test ProvisioningJournal (Plan)")
+    public void testPlan() throws IOException {
+        Path path = Files.createTempDirectory("provisioning").resolve("journal");
+
+        ProvisioningPlan plan = new ProvisioningPlan(OwnerType.ORGANIZATION, false, List.of("Repository could not be found."));
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            journal.queued(new ProvisioningJob(6L, 15L, 20L, "TestJournal6", "Job", plan));
+        }
+
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            List<ProvisioningJob> restored = new ArrayList<>(journal.restored());
+            assertEquals(1, restored.size());
+
+            // problems were shown to the reviewer already, only the decisions are kept
+            ProvisioningPlan journaled = restored.get(0).plan();
+            assertEquals(OwnerType.ORGANIZATION, journaled.ownerType());
+            assertEquals(false, journaled.freestyle());
+            assertTrue(journaled.problems().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Test ProvisioningJournal (In-Memory)")
+    public void testInMemory() throws IOException {
+        try (ProvisioningJournal journal = ProvisioningJournal.inMemory()) {
+            ProvisioningJob job = new ProvisioningJob(5L, 14L, 20L, "TestJournal5", "Job");
+            journal.queued(job);
+            journal.attempted(job, ProvisioningStep.JENKINS_USER);
+            journal.done(job);
+
+            assertTrue(journal.restored().isEmpty());
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package io.codemc.bot.provisioning;
+
+import io.codemc.bot.github.OwnerType;
+import io.codemc.bot.utils.CommandUtil;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestProvisioningPlan {
+
+    @Test
+    @DisplayName("Test ProvisioningPlan#describe and ProvisioningPlan#parse")
+    public void testDescribe() {
+        ProvisioningPlan plan = new ProvisioningPlan(OwnerType.USER, true, List.of());
+        assertEquals("Owner: `User`\nBuild: `Freestyle`\nNo problems found.", plan.describe());
+        assertEquals(plan, ProvisioningPlan.parse(plan.describe()));
+
+        ProvisioningPlan problems = new ProvisioningPlan(OwnerType.NOT_FOUND, null, List.of("There is no GitHub account named `-1`."));
+        assertEquals("Owner: `Not found`\nBuild: `Unknown`\n:warning: There is no GitHub account named `-1`.", problems.describe());
+        assertEquals(problems, ProvisioningPlan.parse(problems.describe()));
+
+        assertEquals(ProvisioningPlan.UNKNOWN, ProvisioningPlan.parse(ProvisioningPlan.UNKNOWN.describe()));
+        assertEquals(ProvisioningPlan.UNKNOWN, ProvisioningPlan.parse(ProvisioningPlan.PENDING));
+    }
+
+    @Test
+    @DisplayName("Test ProvisioningPlan#encode and ProvisioningPlan#decode")
+    public void testEncode() {
+        ProvisioningPlan plan = new ProvisioningPlan(OwnerType.ORGANIZATION, false, List.of("Unable to check whether the repository exists."));
+        assertEquals("ORGANIZATION,false", plan.encode());
+        assertEquals(new ProvisioningPlan(OwnerType.ORGANIZATION, false, List.of()), ProvisioningPlan.decode(plan.encode()));
+
+        assertEquals("-,-", ProvisioningPlan.UNKNOWN.encode());
+        assertEquals(ProvisioningPlan.UNKNOWN, ProvisioningPlan.decode("-,-"));
+    }
+
+    @Test
+    @DisplayName("Test ProvisioningPlan#fromEmbed")
+    public void testFromEmbed() {
+        ProvisioningPlan plan = new ProvisioningPlan(OwnerType.ORGANIZATION, false, List.of());
+
+        MessageEmbed pending = CommandUtil.requestEmbed(
+            "[CodeMC](https://github.com/CodeMC)", "[Bot](https://github.com/CodeMC/Bot)", "<@1>", "Description",
+            ProvisioningPlan.PENDING
+        );
+        assertEquals(ProvisioningPlan.UNKNOWN, ProvisioningPlan.fromEmbed(pending));
+
+        MessageEmbed checked = CommandUtil.withPlan(pending, plan.describe());
+        assertEquals(plan, ProvisioningPlan.fromEmbed(checked));
+        assertEquals(pending.getFields().size(), checked.getFields().size());
+
+        // requests submitted before plans were added
+        MessageEmbed legacy = CommandUtil.requestEmbed(
+            "[CodeMC](https://github.com/CodeMC)", "[Bot](https://github.com/CodeMC/Bot)", "<@1>", "Description"
+        );
+        assertEquals(ProvisioningPlan.UNKNOWN, ProvisioningPlan.fromEmbed(legacy));
+        assertEquals(ProvisioningPlan.UNKNOWN, ProvisioningPlan.fromEmbed(null));
+    }
+
+}
@@ -0,0 +1,249 @@
+package io.codemc.bot.provisioning;
+
+import io.codemc.api.jenkins.JenkinsAPI;
+import io.codemc.api.nexus.NexusAPI;
+import io.codemc.bot.MockCodeMCBot;
+import io.codemc.bot.MockJDA;
+import io.codemc.bot.github.OwnerType;
+import io.codemc.bot.utils.APIUtil;
+import io.codemc.bot.utils.CommandUtil;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.codemc.bot.MockJDA.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestProvisioningQueue {
+
+    private static final ProvisioningPlan PLAN = new ProvisioningPlan(OwnerType.USER, true, List.of());
+
+    @Test
+    @DisplayName("Test ProvisioningQueue#cancel")
+    public void testCancel() throws IOException {
+        Path path = Files.createTempDirectory("provisioning").resolve("journal");
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            journal.queued(new ProvisioningJob(1L, 10L, 20L, "TestQueue1", "Job"));
+            journal.queued(new ProvisioningJob(2L, 11L, 20L, "TestQueue2", "Job"));
+            journal.queued(new ProvisioningJob(3L, 11L, 20L, "TestQueue2", "Other"));
+        }
+
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            ProvisioningQueue queue = new ProvisioningQueue(MockCodeMCBot.INSTANCE, journal, Runnable::run, 1);
+            assertEquals(3, queue.size());
+
+            assertTrue(queue.cancel(1L));
+            assertFalse(queue.isQueued(1L));
+            assertTrue(queue.cancel(1L));
+
+            queue.cancel("testqueue2");
+            assertEquals(0, queue.size());
+        }
+
+        // dropped jobs are not resumed after a restart
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            assertTrue(journal.restored().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Test ProvisioningQueue#submit")
+    public void testSubmit() {
+        ProvisioningQueue queue = new ProvisioningQueue(MockCodeMCBot.INSTANCE, ProvisioningJournal.inMemory(), Runnable::run, 1);
+
+        for (String username : List.of("TestQueueSubmit1", "TestQueueSubmit2")) {
+            Member member = MockJDA.mockMember(username);
+            Message message = requestMessage(username, member);
+
+            try {
+                List<ProvisioningStep> steps = new ArrayList<>();
+                ProvisioningJob job = new ProvisioningJob(message.getIdLong(), member.getIdLong(), SELF.getIdLong(), username, "Job", PLAN);
+                queue.submit(job, GUILD, message, (j, step) -> steps.add(step)).join();
+
+                assertEquals(ProvisioningStep.JENKINS_USER, steps.get(0));
+                assertFalse(queue.isQueued(message.getIdLong()));
+
+                assertTrue(JenkinsAPI.existsUser(username));
+                assertNotNull(JenkinsAPI.getJobInfo(username, "Job"));
+                assertTrue(NexusAPI.exists(username));
+                assertNotNull(NexusAPI.getNexusRepository(username));
+            } finally {
+                cleanup(username);
+            }
+
+            assertFalse(JenkinsAPI.existsUser(username));
+            assertFalse(NexusAPI.exists(username));
+        }
+    }
+
+    @Test
+    @DisplayName("Test ProvisioningQueue#submit (Resume)")
+    public void testResume() throws IOException {
+        String username = "TestQueueResume";
+        Member member = MockJDA.mockMember(username);
+        Message message = requestMessage(username, member);
+        Path path = Files.createTempDirectory("provisioning").resolve("journal");
+
+        // the bot stopped after creating the Jenkins User
+        ProvisioningJob interrupted = new ProvisioningJob(message.getIdLong(), member.getIdLong(), SELF.getIdLong(), username, "Job", PLAN);
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            journal.queued(interrupted);
+            journal.attempted(interrupted, ProvisioningStep.JENKINS_USER);
+            assertTrue(JenkinsAPI.createJenkinsUser(username, APIUtil.newPassword()));
+            journal.completed(interrupted, ProvisioningStep.JENKINS_USER);
+        }
+
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            ProvisioningQueue queue = new ProvisioningQueue(MockCodeMCBot.INSTANCE, journal, Runnable::run, 1);
+            assertTrue(queue.isQueued(message.getIdLong()));
+
+            List<ProvisioningStep> steps = new ArrayList<>();
+            ProvisioningJob job = new ProvisioningJob(message.getIdLong(), member.getIdLong(), SELF.getIdLong(), username, "Job", PLAN);
+            queue.submit(job, GUILD, message, (j, step) -> steps.add(step)).join();
+
+            assertEquals(ProvisioningStep.JENKINS_JOB, steps.get(0));
+            assertFalse(steps.contains(ProvisioningStep.JENKINS_USER));
+            assertFalse(queue.isQueued(message.getIdLong()));
+
+            assertNotNull(JenkinsAPI.getJobInfo(username, "Job"));
+            assertTrue(NexusAPI.exists(username));
+            assertTrue(CommandUtil.hasRole(member, List.of(AUTHOR.getIdLong())));
+        } finally {
+            cleanup(username);
+        }
+
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            assertTrue(journal.restored().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Test ProvisioningQueue#resume (Takeover)")
+    public void testTakeover() throws IOException {
+        String username = "TestQueueTakeover";
+        Member member = MockJDA.mockMember(username);
+        Message message = requestMessage(username, member);
+        Path path = Files.createTempDirectory("provisioning").resolve("journal");
+
+        // the bot stopped while each resource was created, but before it could journal them as completed
+        ProvisioningJob interrupted = new ProvisioningJob(message.getIdLong(), member.getIdLong(), SELF.getIdLong(), username, "Job", PLAN);
+        String password = APIUtil.newPassword();
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            journal.queued(interrupted);
+            journal.attempted(interrupted, ProvisioningStep.JENKINS_USER);
+            assertTrue(JenkinsAPI.createJenkinsUser(username, password));
+            journal.attempted(interrupted, ProvisioningStep.JENKINS_JOB);
+            assertTrue(JenkinsAPI.createJenkinsJob(username, "Job", interrupted.repoLink(), true));
+            journal.attempted(interrupted, ProvisioningStep.NEXUS);
+            assertTrue(NexusAPI.createNexus(username, password));
+        }
+
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            ProvisioningQueue queue = new ProvisioningQueue(MockCodeMCBot.INSTANCE, journal, Runnable::run, 1);
+            queue.resume(GUILD);
+
+            // taken over instead of failing on the resources that already exist
+            assertFalse(queue.isQueued(message.getIdLong()));
+            assertNotNull(JenkinsAPI.getJobInfo(username, "Job"));
+            assertTrue(NexusAPI.exists(username));
+            assertEquals(member.getIdLong(), MockCodeMCBot.INSTANCE.getUserIndex().getDiscord(username));
+        } finally {
+            cleanup(username);
+        }
+    }
+
+    @Test
+    @DisplayName("Test ProvisioningQueue#submit (Terminal Failure)")
+    public void testTerminalFailure() throws IOException {
+        String username = "TestQueueTerminal";
+        Member member = MockJDA.mockMember(username);
+        Message message = requestMessage(username, member);
+        Path path = Files.createTempDirectory("provisioning").resolve("journal");
+
+        // a Jenkins User this job did not create is never taken over
+        assertTrue(JenkinsAPI.createJenkinsUser(username, APIUtil.newPassword()));
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            ProvisioningQueue queue = new ProvisioningQueue(MockCodeMCBot.INSTANCE, journal, Runnable::run, 1);
+            ProvisioningJob job = new ProvisioningJob(message.getIdLong(), member.getIdLong(), SELF.getIdLong(), username, "Job", PLAN);
+
+            CompletionException error = assertThrows(CompletionException.class, () -> queue.submit(job, GUILD, message, null).join());
+            ProvisioningException cause = assertInstanceOf(ProvisioningException.class, error.getCause());
+            assertTrue(cause.isTerminal());
+            assertEquals(ProvisioningStep.JENKINS_USER, cause.getStep());
+
+            assertFalse(queue.isQueued(message.getIdLong()));
+            assertNull(JenkinsAPI.getJobInfo(username, "Job"));
+        } finally {
+            cleanup(username);
+        }
+
+        try (ProvisioningJournal journal = ProvisioningJournal.open(path)) {
+            assertTrue(journal.restored().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Test ProvisioningQueue#submit (Duplicate)")
+    public void testDuplicate() throws InterruptedException {
+        List<Runnable> workers = Collections.synchronizedList(new ArrayList<>());
+        ProvisioningQueue queue = new ProvisioningQueue(MockCodeMCBot.INSTANCE, ProvisioningJournal.inMemory(), workers::add, 1);
+        Message message = MockJDA.mockMessage("", List.of(), REQUEST_CHANNEL);
+
+        // reviewers accepting the same request at once
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> futures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    start.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+
+                ProvisioningJob job = new ProvisioningJob(message.getIdLong(), 10L, 20L, "TestQueueDuplicate", "Job", PLAN);
+                futures.add(queue.submit(job, GUILD, message, null));
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(8, futures.size());
+        assertEquals(1, futures.stream().filter(future -> !future.isDone()).count());
+        for (CompletableFuture<Void> future : futures) {
+            if (future.isDone()) {
+                CompletionException error = assertThrows(CompletionException.class, future::join);
+                assertEquals("This request is already being provisioned.", error.getCause().getMessage());
+            }
+        }
+
+        assertEquals(1, queue.size());
+        assertEquals(1, workers.size());
+    }
+
+    private static Message requestMessage(String username, Member member) {
+        MessageEmbed embed = CommandUtil.requestEmbed("[" + username + "](userLink)", "[Job](repoLink)", member.getAsMention(), "description");
+        return MockJDA.mockMessage("", List.of(embed), REQUEST_CHANNEL);
+    }
+
+    private static void cleanup(String username) {
+        JenkinsAPI.deleteUser(username);
+        NexusAPI.deleteNexus(username);
+        MockCodeMCBot.INSTANCE.getUserIndex().remove(username);
+    }
+
+}
@@ -0,0 +1,51 @@
+package io.codemc.bot.standin;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * A MariaDB server started from the binaries bundled with MariaDB4j, listening on a free local port.
+ * <br>The data directory is temporary, so every run starts with an empty database.
+ */
+public class EmbeddedDatabase implements AutoCloseable {
+
+    public static final String USERNAME = "root";
+    public static final String PASSWORD = "";
+
+    private final String database;
+    private DB db;
+
+    public EmbeddedDatabase(String database) {
+        this.database = database;
+    }
+
+    public synchronized EmbeddedDatabase start() throws ManagedProcessException {
+        if (db != null)
+            return this;
+
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+
+        db = DB.newEmbeddedDB(config.build());
+        db.start();
+        db.createDB(database);
+        return this;
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    public int getPort() {
+        return db.getConfiguration().getPort();
+    }
+
+    @Override
+    public synchronized void close() throws ManagedProcessException {
+        if (db != null) {
+            db.stop();
+            db = null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.codemc.bot.standin;
+
+/**
+ * The faults a stand-in injects into every request.
+ *
+ * @param latency The delay before a request is answered.
+ * @param errorRate The share of requests answered with {@code 503 Service Unavailable}.
+ * @param throttleRate The share of requests answered with {@code 429 Too Many Requests}.
+ */
+public record FaultProfile(Latency latency, double errorRate, double throttleRate) {
+
+    public static final FaultProfile NONE = new FaultProfile(Latency.NONE, 0, 0);
+
+    public FaultProfile {
+        if (errorRate < 0 || throttleRate < 0 || errorRate + throttleRate > 1)
+            throw new IllegalArgumentException("Error and throttle rates must be between 0 and 1 in total");
+    }
+
+    /**
+     * Reads {@code standins.<name>.latency}, {@code standins.<name>.errorRate} and {@code standins.<name>.throttleRate}.
+     */
+    public static FaultProfile fromProperties(String name) {
+        String prefix = "standins." + name + ".";
+        return new FaultProfile(
+                Latency.parse(System.getProperty(prefix + "latency")),
+                Double.parseDouble(System.getProperty(prefix + "errorRate", "0")),
+                Double.parseDouble(System.getProperty(prefix + "throttleRate", "0"))
+        );
+    }
+
+    public FaultProfile withLatency(Latency latency) {
+        return new FaultProfile(latency, errorRate, throttleRate);
+    }
+
+    public FaultProfile withErrorRate(double errorRate) {
+        return new FaultProfile(latency, errorRate, throttleRate);
+    }
+
+    public FaultProfile withThrottleRate(double throttleRate) {
+        return new FaultProfile(latency, errorRate, throttleRate);
+    }
+}
@@ -0,0 +1,162 @@
+package io.codemc.bot.standin;
+
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stands in for {@code GET /users/<name>}, {@code GET /repos/<owner>/<name>} and {@code POST /app/installations/<id>/access_tokens} of the GitHub REST API,
+ * and for {@code repositoryOwner} lookups over GraphQL.
+ * <br>Every name is a user unless it was added as an organization or as missing. Responses carry an
+ * {@code ETag} and conditional requests with a matching {@code If-None-Match} are answered with
+ * {@code 304 Not Modified}, like GitHub does.
+ * <br>Only repositories that were added exist.
+ * <br>Installation tokens are handed out for any JWT and are valid for an hour.
+ */
+public class GitHubStandIn extends StandInServer {
+
+    private static final Pattern REPOSITORY_OWNER = Pattern.compile("(\\w+):\\s*repositoryOwner\\(login:\\s*\\$(\\w+)\\)");
+
+    private final Set<String> organizations = ConcurrentHashMap.newKeySet();
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+    private final Set<String> repositories = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger tokens = new AtomicInteger();
+    private final AtomicInteger queries = new AtomicInteger();
+    private volatile String lastAuthorization;
+
+    public GitHubStandIn(FaultProfile faultProfile, long seed) {
+        super("GitHub", faultProfile, seed);
+    }
+
+    public GitHubStandIn addOrganization(String name) {
+        organizations.add(name.toLowerCase());
+        return this;
+    }
+
+    public GitHubStandIn addMissing(String name) {
+        missing.add(name.toLowerCase());
+        return this;
+    }
+
+    public GitHubStandIn addRepository(String owner, String name) {
+        repositories.add((owner + "/" + name).toLowerCase());
+        return this;
+    }
+
+    public int getTokens() {
+        return tokens.get();
+    }
+
+    public int getQueries() {
+        return queries.get();
+    }
+
+    /**
+     * The {@code Authorization} header of the last request for a user, or {@code null} if it had none.
+     */
+    public String getLastAuthorization() {
+        return lastAuthorization;
+    }
+
+    @Override
+    protected Response handle(Request request) {
+        String[] segments = request.segments();
+        if (request.method().equals("POST") && segments.length == 4 && segments[0].equals("app") && segments[3].equals("access_tokens"))
+            return createToken(request);
+
+        if (request.method().equals("POST") && segments.length == 1 && segments[0].equals("graphql"))
+            return query(request);
+
+        if (request.method().equals("GET") && segments.length == 3 && segments[0].equals("repos"))
+            return repository(segments[1], segments[2]);
+
+        if (!request.method().equals("GET") || segments.length != 2 || !segments[0].equals("users"))
+            return Response.status(404);
+
+        lastAuthorization = request.headers().getFirst("Authorization");
+        String name = segments[1];
+        String key = name.toLowerCase();
+        if (missing.contains(key))
+            return Response.status(404);
+
+        String type = type(key);
+        String etag = "\"" + Integer.toHexString((key + type).hashCode()) + "\"";
+        if (etag.equals(request.headers().getFirst("If-None-Match")))
+            return Response.status(304).header("ETag", etag);
+
+        JsonObject json = new JsonObject();
+        json.addProperty("login", name);
+        json.addProperty("type", type);
+        return Response.json(200, json).header("ETag", etag);
+    }
+
+    private Response repository(String owner, String name) {
+        if (!repositories.contains((owner + "/" + name).toLowerCase()))
+            return Response.status(404);
+
+        JsonObject json = new JsonObject();
+        json.addProperty("full_name", owner + "/" + name);
+        json.addProperty("private", false);
+        return Response.json(200, json);
+    }
+
+    /**
+     * Answers queries of the form {@code u0: repositoryOwner(login: $l0) { __typename }}, as sent by the bot.
+     */
+    private Response query(Request request) {
+        if (request.headers().getFirst("Authorization") == null)
+            return Response.status(401);
+
+        queries.incrementAndGet();
+        JsonObject body = JsonParser.parseString(request.body()).getAsJsonObject();
+        JsonObject variables = body.getAsJsonObject("variables");
+
+        JsonObject data = new JsonObject();
+        Matcher owner = REPOSITORY_OWNER.matcher(body.get("query").getAsString());
+        while (owner.find()) {
+            String key = variables.get(owner.group(2)).getAsString().toLowerCase();
+            if (missing.contains(key)) {
+                data.add(owner.group(1), JsonNull.INSTANCE);
+            } else {
+                JsonObject type = new JsonObject();
+                type.addProperty("__typename", type(key));
+                data.add(owner.group(1), type);
+            }
+        }
+
+        JsonObject json = new JsonObject();
+        json.add("data", data);
+        return Response.json(200, json);
+    }
+
+    private String type(String key) {
+        return organizations.contains(key) ? "Organization" : "User";
+    }
+
+    private Response createToken(Request request) {
+        String authorization = request.headers().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ") || authorization.split("\\.").length != 3)
+            return Response.status(401);
+
+        JsonObject json = new JsonObject();
+        json.addProperty("token", "ghs_stand-in-" + tokens.incrementAndGet());
+        json.addProperty("expires_at", Instant.now().plus(Duration.ofHours(1)).truncatedTo(ChronoUnit.SECONDS).toString());
+        return Response.json(201, json);
+    }
+
+    @Override
+    protected Response throttled() {
+        return Response.text(403, "API rate limit exceeded")
+                .header("X-RateLimit-Remaining", "0")
+                .header("X-RateLimit-Reset", Long.toString(System.currentTimeMillis() / 1000 + 60));
+    }
+}
@@ -0,0 +1,146 @@
+package io.codemc.bot.standin;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stands in for the Jenkins REST API: folders and jobs are kept in memory with their {@code config.xml},
+ * credentials created in a folder are appended to its config and builds are only counted.
+ */
+public class JenkinsStandIn extends StandInServer {
+
+    private final Item root = new Item("");
+
+    public JenkinsStandIn(FaultProfile faultProfile, long seed) {
+        super("Jenkins", faultProfile, seed);
+    }
+
+    @Override
+    protected Response handle(Request request) {
+        String[] segments = request.segments();
+        if (segments.length == 1 && segments[0].isEmpty())
+            segments = new String[0];
+
+        // Resolve the /job/<name>/job/<name>/... prefix to an item
+        Item item = root;
+        int i = 0;
+        while (i + 1 < segments.length && segments[i].equals("job")) {
+            item = item.children.get(segments[i + 1]);
+            if (item == null)
+                return Response.status(404);
+
+            i += 2;
+        }
+
+        String[] rest = Arrays.copyOfRange(segments, i, segments.length);
+        String action = String.join("/", rest);
+        boolean post = request.method().equals("POST");
+
+        return switch (action) {
+            case "", "api/json" -> Response.json(200, item.toJson());
+            case "crumbIssuer/api/json" -> {
+                JsonObject crumb = new JsonObject();
+                crumb.addProperty("crumb", "stand-in");
+                crumb.addProperty("crumbRequestField", "Jenkins-Crumb");
+                yield Response.json(200, crumb);
+            }
+            case "config.xml" -> {
+                if (item == root)
+                    yield Response.status(404);
+
+                if (post) {
+                    item.config = request.body();
+                    yield Response.status(200);
+                }
+
+                yield Response.xml(item.config);
+            }
+            case "createItem" -> {
+                String name = request.query().get("name");
+                if (!post || name == null || name.isEmpty())
+                    yield Response.status(400);
+
+                Item created = new Item(name);
+                created.config = request.body();
+                yield item.children.putIfAbsent(name, created) == null ? Response.status(200) : Response.status(400);
+            }
+            case "doDelete" -> {
+                Item parent = parent(segments, i);
+                if (!post || parent == null || item == root)
+                    yield Response.status(400);
+
+                parent.children.remove(item.name);
+                yield Response.status(200);
+            }
+            case "build", "buildWithParameters" -> {
+                if (!post || item == root)
+                    yield Response.status(400);
+
+                int build = item.builds.incrementAndGet();
+                yield Response.status(201).header("Location", "/queue/item/" + build + "/");
+            }
+            default -> {
+                // Folder credentials, e.g. credentials/store/folder/domain/_/createCredentials
+                if (post && action.startsWith("credentials/") && action.endsWith("createCredentials")) {
+                    item.config = item.config + "\n" + request.body();
+                    yield Response.status(200);
+                }
+
+                if (action.startsWith("credentials/") && action.endsWith("config.xml")) {
+                    if (post) {
+                        item.config = item.config + "\n" + request.body();
+                        yield Response.status(200);
+                    }
+
+                    yield item.config.contains("<id>") ? Response.xml(item.config) : Response.status(404);
+                }
+
+                yield Response.status(404);
+            }
+        };
+    }
+
+    private Item parent(String[] segments, int end) {
+        Item parent = root;
+        for (int j = 0; j + 2 < end; j += 2) {
+            parent = parent.children.get(segments[j + 1]);
+            if (parent == null)
+                return null;
+        }
+
+        return parent;
+    }
+
+    private final class Item {
+
+        private final String name;
+        private final Map<String, Item> children = new ConcurrentHashMap<>();
+        private volatile String config = "";
+        private final AtomicInteger builds = new AtomicInteger();
+
+        Item(String name) {
+            this.name = name;
+        }
+
+        JsonObject toJson() {
+            JsonArray jobs = new JsonArray();
+            children.keySet().stream().sorted().forEach(child -> {
+                JsonObject job = new JsonObject();
+                job.addProperty("name", child);
+                job.addProperty("url", getUrl() + "/job/" + child + "/");
+                jobs.add(job);
+            });
+
+            JsonObject json = new JsonObject();
+            json.addProperty("name", name);
+            json.addProperty("nextBuildNumber", builds.get() + 1);
+            json.add("jobs", jobs);
+            return json;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.codemc.bot.standin;
+
+import java.util.Random;
+
+/**
+ * A distribution of response delays in milliseconds.
+ */
+@FunctionalInterface
+public interface Latency {
+
+    Latency NONE = random -> 0L;
+
+    long sample(Random random);
+
+    static Latency fixed(long millis) {
+        return random -> millis;
+    }
+
+    static Latency uniform(long min, long max) {
+        if (max < min)
+            throw new IllegalArgumentException("max < min");
+
+        return random -> min + (long) (random.nextDouble() * (max - min));
+    }
+
+    /**
+     * A long-tailed distribution with the given median and 99th percentile, which is closer to
+     * the latency of real services than a uniform one.
+     */
+    static Latency logNormal(long median, long p99) {
+        if (median <= 0 || p99 < median)
+            throw new IllegalArgumentException("Expected 0 < median <= p99");
+
+        double mu = Math.log(median);
+        // 2.326 is the 99th percentile of the standard normal distribution
+        double sigma = (Math.log(p99) - mu) / 2.326;
+        return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+    }
+
+    /**
+     * Parses {@code none}, {@code fixed:<ms>}, {@code uniform:<min>-<max>} or {@code lognormal:<median>/<p99>}.
+     */
+    static Latency parse(String value) {
+        if (value == null || value.isBlank() || value.equals("none"))
+            return NONE;
+
+        String[] parts = value.split(":", 2);
+        if (parts.length != 2)
+            throw new IllegalArgumentException("Invalid latency '" + value + "'");
+
+        return switch (parts[0]) {
+            case "fixed" -> fixed(Long.parseLong(parts[1]));
+            case "uniform" -> {
+                String[] range = parts[1].split("-", 2);
+                yield uniform(Long.parseLong(range[0]), Long.parseLong(range[1]));
+            }
+            case "lognormal" -> {
+                String[] range = parts[1].split("/", 2);
+                yield logNormal(Long.parseLong(range[0]), Long.parseLong(range[1]));
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution '" + parts[0] + "'");
+        };
+    }
+}
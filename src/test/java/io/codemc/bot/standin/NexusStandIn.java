@@ -0,0 +1,132 @@
+package io.codemc.bot.standin;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stands in for the Nexus REST API ({@code /service/rest/v1}): repositories, users, roles and privileges are kept
+ * in memory as the JSON they were created with.
+ */
+public class NexusStandIn extends StandInServer {
+
+    private static final String PREFIX = "/service/rest/v1/";
+
+    private final Map<String, JsonObject> repositories = new ConcurrentHashMap<>();
+    private final Map<String, JsonObject> users = new ConcurrentHashMap<>();
+    private final Map<String, JsonObject> roles = new ConcurrentHashMap<>();
+    private final Map<String, JsonObject> privileges = new ConcurrentHashMap<>();
+
+    public NexusStandIn(FaultProfile faultProfile, long seed) {
+        super("Nexus", faultProfile, seed);
+    }
+
+    @Override
+    protected Response handle(Request request) {
+        if (!request.path().startsWith(PREFIX))
+            return Response.status(404);
+
+        String[] path = request.path().substring(PREFIX.length()).split("/");
+        String method = request.method();
+
+        return switch (path[0]) {
+            case "status" -> Response.status(200);
+            case "repositories" -> {
+                // POST repositories/<format>/<type>, GET/PUT/DELETE repositories/[<format>/<type>/]<name>
+                if (method.equals("POST"))
+                    yield create(repositories, request.body(), "name");
+
+                if (path.length == 1)
+                    yield list(repositories);
+
+                String name = path[path.length - 1];
+                yield item(repositories, name, method, request.body());
+            }
+            case "security" -> {
+                if (path.length < 2)
+                    yield Response.status(404);
+
+                Map<String, JsonObject> store = switch (path[1]) {
+                    case "users" -> users;
+                    case "roles" -> roles;
+                    case "privileges" -> privileges;
+                    default -> null;
+                };
+                if (store == null)
+                    yield Response.status(404);
+
+                String key = store == users ? "userId" : store == roles ? "id" : "name";
+                if (method.equals("POST"))
+                    yield create(store, request.body(), key);
+
+                if (path.length == 2) {
+                    // GET security/users?userId=<id> answers with a list
+                    String id = request.query().get("userId");
+                    if (id == null)
+                        yield list(store);
+
+                    JsonArray array = new JsonArray();
+                    JsonObject user = store.get(id);
+                    if (user != null)
+                        array.add(user);
+
+                    yield Response.json(200, array);
+                }
+
+                if (store == users && path.length == 4 && path[3].equals("change-password"))
+                    yield store.containsKey(path[2]) ? Response.status(204) : Response.status(404);
+
+                // POST security/privileges/<type> creates, anything else addresses the item by its id
+                yield item(store, path[path.length - 1], method, request.body());
+            }
+            default -> Response.status(404);
+        };
+    }
+
+    private static Response create(Map<String, JsonObject> store, String body, String key) {
+        JsonObject json;
+        try {
+            json = JsonParser.parseString(body).getAsJsonObject();
+        } catch (RuntimeException ex) {
+            return Response.status(400);
+        }
+
+        JsonElement id = json.get(key);
+        if (id == null)
+            return Response.status(400);
+
+        return store.putIfAbsent(id.getAsString(), json) == null ? Response.status(201) : Response.status(400);
+    }
+
+    private static Response item(Map<String, JsonObject> store, String id, String method, String body) {
+        return switch (method) {
+            case "GET" -> {
+                JsonObject json = store.get(id);
+                yield json == null ? Response.status(404) : Response.json(200, json);
+            }
+            case "PUT" -> {
+                if (!store.containsKey(id))
+                    yield Response.status(404);
+
+                try {
+                    store.put(id, JsonParser.parseString(body).getAsJsonObject());
+                    yield Response.status(204);
+                } catch (RuntimeException ex) {
+                    yield Response.status(400);
+                }
+            }
+            case "DELETE" -> store.remove(id) == null ? Response.status(404) : Response.status(204);
+            default -> Response.status(405);
+        };
+    }
+
+    private static Response list(Map<String, JsonObject> store) {
+        JsonArray array = new JsonArray();
+        store.values().forEach(array::add);
+        return Response.json(200, array);
+    }
+}
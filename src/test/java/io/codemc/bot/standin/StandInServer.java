@@ -0,0 +1,228 @@
+package io.codemc.bot.standin;
+
+import com.google.gson.JsonElement;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An in-process HTTP server standing in for one of the services the bot talks to.
+ * <br>Every request first goes through the {@link FaultProfile}, which may delay it or answer it with an error,
+ * before it is passed to {@link #handle(Request)}. Faults are drawn from a seeded {@link Random}, so a run
+ * with the same seed and the same order of requests injects the same faults.
+ * <br>Bodies are gzip compressed for requests accepting it.
+ */
+public abstract class StandInServer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StandInServer.class);
+
+    private final String name;
+    private final Random random;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong faults = new AtomicLong();
+
+    private volatile FaultProfile faultProfile;
+    private HttpServer server;
+
+    protected StandInServer(String name, FaultProfile faultProfile, long seed) {
+        this.name = name;
+        this.faultProfile = faultProfile;
+        this.random = new Random(seed);
+    }
+
+    public synchronized StandInServer start() throws IOException {
+        if (server != null)
+            return this;
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::exchange);
+        server.start();
+
+        LOGGER.info("Started {} stand-in at {}", name, getUrl());
+        return this;
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public FaultProfile getFaultProfile() {
+        return faultProfile;
+    }
+
+    /**
+     * Changes the injected faults, e.g. to make a backend slow in the middle of a test.
+     */
+    public void setFaultProfile(FaultProfile faultProfile) {
+        this.faultProfile = faultProfile;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getFaults() {
+        return faults.get();
+    }
+
+    protected abstract Response handle(Request request);
+
+    private void exchange(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+
+        try (exchange) {
+            Response response = fault();
+            if (response == null) {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                response = handle(new Request(
+                        exchange.getRequestMethod(),
+                        exchange.getRequestURI().getPath(),
+                        query(exchange.getRequestURI().getRawQuery()),
+                        body,
+                        exchange.getRequestHeaders()
+                ));
+            } else {
+                faults.incrementAndGet();
+            }
+
+            response.headers().forEach((key, value) -> exchange.getResponseHeaders().set(key, value));
+            byte[] bytes = response.body() == null ? new byte[0] : response.body().getBytes(StandardCharsets.UTF_8);
+            String encoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (bytes.length > 0 && encoding != null && encoding.contains("gzip")) {
+                bytes = gzip(bytes);
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+
+            exchange.sendResponseHeaders(response.status(), bytes.length == 0 ? -1 : bytes.length);
+
+            if (bytes.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.error("{} stand-in failed to handle {} {}", name, exchange.getRequestMethod(), exchange.getRequestURI(), ex);
+        }
+    }
+
+    private Response fault() {
+        FaultProfile profile = faultProfile;
+        long delay;
+        double roll;
+        synchronized (random) {
+            delay = profile.latency().sample(random);
+            roll = random.nextDouble();
+        }
+
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (roll < profile.errorRate())
+            return Response.text(503, "Service Unavailable (injected by the " + name + " stand-in)");
+
+        if (roll < profile.errorRate() + profile.throttleRate())
+            return throttled();
+
+        return null;
+    }
+
+    /**
+     * The response to a throttled request. Services with their own rate limiting headers override this.
+     */
+    protected Response throttled() {
+        return Response.text(429, "Too Many Requests").header("Retry-After", "1");
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+
+        return out.toByteArray();
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> query = new HashMap<>();
+        if (raw == null || raw.isEmpty())
+            return query;
+
+        for (String pair : raw.split("&")) {
+            String[] parts = pair.split("=", 2);
+            query.put(
+                    URLDecoder.decode(parts[0], StandardCharsets.UTF_8),
+                    parts.length == 2 ? URLDecoder.decode(parts[1], StandardCharsets.UTF_8) : ""
+            );
+        }
+
+        return query;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+
+        executor.shutdownNow();
+    }
+
+    protected record Request(String method, String path, Map<String, String> query, String body, Headers headers) {
+
+        /**
+         * The path split at {@code /}, without empty segments.
+         */
+        public String[] segments() {
+            return path.replaceAll("^/+|/+$", "").split("/+");
+        }
+    }
+
+    protected record Response(int status, String body, Map<String, String> headers) {
+
+        public static Response status(int status) {
+            return new Response(status, null, new LinkedHashMap<>());
+        }
+
+        public static Response text(int status, String body) {
+            return new Response(status, body, new LinkedHashMap<>());
+        }
+
+        public static Response json(int status, JsonElement json) {
+            return text(status, json.toString()).header("Content-Type", "application/json");
+        }
+
+        public static Response xml(String body) {
+            return text(200, body).header("Content-Type", "application/xml");
+        }
+
+        public Response header(String key, String value) {
+            headers.put(key, value);
+            return this;
+        }
+    }
+}
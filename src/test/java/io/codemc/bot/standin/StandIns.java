@@ -0,0 +1,77 @@
+package io.codemc.bot.standin;
+
+import io.codemc.bot.config.ConfigHandler;
+
+/**
+ * Starts the stand-ins for Jenkins, Nexus, GitHub and the database and points a config at them.
+ * <br>Faults are read per service from the {@code standins.<jenkins|nexus|github>.*} system properties,
+ * see {@link FaultProfile#fromProperties(String)}, and are drawn from {@code standins.seed}.
+ */
+public class StandIns implements AutoCloseable {
+
+    private final JenkinsStandIn jenkins;
+    private final NexusStandIn nexus;
+    private final GitHubStandIn github;
+    private final EmbeddedDatabase database;
+
+    public StandIns(long seed) {
+        this.jenkins = new JenkinsStandIn(FaultProfile.fromProperties("jenkins"), seed);
+        this.nexus = new NexusStandIn(FaultProfile.fromProperties("nexus"), seed + 1);
+        this.github = new GitHubStandIn(FaultProfile.fromProperties("github"), seed + 2);
+        this.database = new EmbeddedDatabase("test");
+    }
+
+    public static StandIns fromProperties() {
+        return new StandIns(Long.getLong("standins.seed", 42L));
+    }
+
+    public StandIns start() throws Exception {
+        jenkins.start();
+        nexus.start();
+        github.start();
+        database.start();
+        return this;
+    }
+
+    /**
+     * Points the Jenkins, Nexus, GitHub and database settings of the given config at the stand-ins.
+     */
+    public void apply(ConfigHandler config) {
+        config.set(jenkins.getUrl(), "jenkins", "url");
+        config.set(nexus.getUrl(), "nexus", "url");
+        config.set("stand-in", "nexus", "password");
+        config.set(github.getUrl(), "github_url");
+        config.set("stand-in", "github");
+
+        config.set("mariadb", "database", "service");
+        config.set("127.0.0.1", "database", "host");
+        config.set(database.getPort(), "database", "port");
+        config.set(database.getDatabase(), "database", "database");
+        config.set(EmbeddedDatabase.USERNAME, "database", "username");
+        config.set(EmbeddedDatabase.PASSWORD, "database", "password");
+    }
+
+    public JenkinsStandIn getJenkins() {
+        return jenkins;
+    }
+
+    public NexusStandIn getNexus() {
+        return nexus;
+    }
+
+    public GitHubStandIn getGitHub() {
+        return github;
+    }
+
+    public EmbeddedDatabase getDatabase() {
+        return database;
+    }
+
+    @Override
+    public void close() throws Exception {
+        jenkins.close();
+        nexus.close();
+        github.close();
+        database.close();
+    }
+}
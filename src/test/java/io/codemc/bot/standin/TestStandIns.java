@@ -0,0 +1,136 @@
+package io.codemc.bot.standin;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestStandIns {
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("Test Latency#parse")
+    public void testLatency() {
+        assertEquals(0, Latency.parse(null).sample(new Random()));
+        assertEquals(25, Latency.parse("fixed:25").sample(new Random()));
+
+        long uniform = Latency.parse("uniform:10-20").sample(new Random(1));
+        assertTrue(uniform >= 10 && uniform <= 20);
+
+        Latency logNormal = Latency.parse("lognormal:50/500");
+        Random random = new Random(1);
+        long[] samples = new long[10_000];
+        for (int i = 0; i < samples.length; i++)
+            samples[i] = logNormal.sample(random);
+
+        Arrays.sort(samples);
+        assertEquals(50.0, samples[5_000], 5.0);
+        assertEquals(500.0, samples[9_900], 75.0);
+
+        assertThrows(IllegalArgumentException.class, () -> Latency.parse("gaussian:10"));
+        assertThrows(IllegalArgumentException.class, () -> new FaultProfile(Latency.NONE, 0.6, 0.6));
+    }
+
+    @Test
+    @DisplayName("Test JenkinsStandIn")
+    public void testJenkins() throws Exception {
+        try (JenkinsStandIn jenkins = new JenkinsStandIn(FaultProfile.NONE, 1)) {
+            jenkins.start();
+
+            assertEquals(200, post(jenkins, "/createItem?name=CodeMC", "<folder/>").statusCode());
+            assertEquals(400, post(jenkins, "/createItem?name=CodeMC", "<folder/>").statusCode());
+            assertEquals(200, post(jenkins, "/job/CodeMC/createItem?name=Bot", "<project/>").statusCode());
+            assertEquals(200, post(jenkins, "/job/CodeMC/credentials/store/folder/domain/_/createCredentials", "<id>nexus-repository</id>").statusCode());
+
+            assertTrue(get(jenkins, "/api/json").body().contains("\"name\":\"CodeMC\""));
+            assertTrue(get(jenkins, "/job/CodeMC/config.xml").body().contains("<id>nexus-repository</id>"));
+            assertEquals("<project/>", get(jenkins, "/job/CodeMC/job/Bot/config.xml").body());
+            assertEquals(201, post(jenkins, "/job/CodeMC/job/Bot/build", "").statusCode());
+
+            assertEquals(200, post(jenkins, "/job/CodeMC/doDelete", "").statusCode());
+            assertEquals(404, get(jenkins, "/job/CodeMC/api/json").statusCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Test NexusStandIn")
+    public void testNexus() throws Exception {
+        try (NexusStandIn nexus = new NexusStandIn(FaultProfile.NONE, 1)) {
+            nexus.start();
+
+            assertEquals(201, post(nexus, "/service/rest/v1/repositories/maven/hosted", "{\"name\":\"codemc\"}").statusCode());
+            assertEquals(201, post(nexus, "/service/rest/v1/security/users", "{\"userId\":\"codemc\",\"roles\":[\"codemc\"]}").statusCode());
+
+            assertEquals(200, get(nexus, "/service/rest/v1/repositories/codemc").statusCode());
+            assertTrue(get(nexus, "/service/rest/v1/repositories").body().contains("codemc"));
+            assertTrue(get(nexus, "/service/rest/v1/security/users?userId=codemc").body().contains("\"userId\":\"codemc\""));
+            assertEquals("[]", get(nexus, "/service/rest/v1/security/users?userId=other").body());
+
+            HttpRequest delete = HttpRequest.newBuilder(URI.create(nexus.getUrl() + "/service/rest/v1/repositories/codemc")).DELETE().build();
+            assertEquals(204, CLIENT.send(delete, HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(404, get(nexus, "/service/rest/v1/repositories/codemc").statusCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Test GitHubStandIn")
+    public void testGitHub() throws Exception {
+        try (GitHubStandIn github = new GitHubStandIn(FaultProfile.NONE, 1)) {
+            github.addOrganization("CodeMC").addMissing("-1").start();
+
+            HttpResponse<String> organization = get(github, "/users/CodeMC");
+            assertTrue(organization.body().contains("\"type\":\"Organization\""));
+            assertTrue(get(github, "/users/gmitch215").body().contains("\"type\":\"User\""));
+            assertEquals(404, get(github, "/users/-1").statusCode());
+
+            String etag = organization.headers().firstValue("ETag").orElseThrow();
+            HttpRequest conditional = HttpRequest.newBuilder(URI.create(github.getUrl() + "/users/CodeMC"))
+                    .header("If-None-Match", etag)
+                    .build();
+            assertEquals(304, CLIENT.send(conditional, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Test StandInServer Faults")
+    public void testFaults() throws Exception {
+        try (GitHubStandIn github = new GitHubStandIn(FaultProfile.NONE.withErrorRate(1), 1)) {
+            github.start();
+            assertEquals(503, get(github, "/users/CodeMC").statusCode());
+
+            github.setFaultProfile(FaultProfile.NONE.withThrottleRate(1));
+            HttpResponse<String> throttled = get(github, "/users/CodeMC");
+            assertEquals(403, throttled.statusCode());
+            assertEquals("0", throttled.headers().firstValue("X-RateLimit-Remaining").orElseThrow());
+
+            github.setFaultProfile(FaultProfile.NONE.withLatency(Latency.fixed(100)));
+            long start = System.nanoTime();
+            assertEquals(200, get(github, "/users/CodeMC").statusCode());
+            assertTrue(System.nanoTime() - start >= 100_000_000L);
+
+            assertEquals(3, github.getRequests());
+            assertEquals(2, github.getFaults());
+        }
+    }
+
+    private static HttpResponse<String> get(StandInServer server, String path) throws IOException, InterruptedException {
+        return CLIENT.send(HttpRequest.newBuilder(URI.create(server.getUrl() + path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> post(StandInServer server, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.getUrl() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+}
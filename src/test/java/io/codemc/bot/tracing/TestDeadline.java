@@ -0,0 +1,79 @@
+package io.codemc.bot.tracing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDeadline {
+
+    @Test
+    @DisplayName("Test Deadline#activate")
+    public void testActivate() {
+        assertSame(Deadline.NONE, Deadline.current());
+        assertFalse(Deadline.NONE.isBounded());
+        assertFalse(Deadline.NONE.isExpired());
+
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        try (Trace.Scope ignored = deadline.activate()) {
+            assertSame(deadline, Deadline.current());
+
+            try (Trace.Scope unbounded = Deadline.NONE.activate()) {
+                assertSame(Deadline.NONE, Deadline.current());
+            }
+
+            assertSame(deadline, Deadline.current());
+        }
+
+        assertSame(Deadline.NONE, Deadline.current());
+    }
+
+    @Test
+    @DisplayName("Test Deadline#check and Deadline#timeout")
+    public void testExpiry() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        assertTrue(deadline.isBounded());
+        assertFalse(deadline.isExpired());
+        assertDoesNotThrow(() -> deadline.check("getUser"));
+        assertEquals(Duration.ofSeconds(10), deadline.timeout("getUser", Duration.ofSeconds(10)));
+        assertTrue(deadline.timeout("getUser", Duration.ofMinutes(5)).toMillis() <= Duration.ofMinutes(1).toMillis());
+
+        Deadline expired = Deadline.after(Duration.ZERO);
+        assertTrue(expired.isExpired());
+        assertEquals(0, expired.remainingMillis());
+
+        DeadlineExceededException error = assertThrows(DeadlineExceededException.class, () -> expired.check("getUser"));
+        assertEquals("getUser", error.getOperation());
+        assertThrows(DeadlineExceededException.class, () -> expired.timeout("getUser", Duration.ofSeconds(10)));
+    }
+
+    @Test
+    @DisplayName("Test Tracing#wrap (Deadline)")
+    public void testWrap() throws Exception {
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        try {
+            Deadline deadline = Deadline.forInteraction();
+            AtomicReference<Deadline> seen = new AtomicReference<>();
+
+            try (Trace.Scope ignored = deadline.activate()) {
+                Tracing.executor(service).execute(() -> seen.set(Deadline.current()));
+            }
+
+            service.submit(() -> {}).get(5, TimeUnit.SECONDS);
+            assertSame(deadline, seen.get());
+
+            // the worker thread is left without a deadline afterwards
+            service.submit(() -> seen.set(Deadline.current())).get(5, TimeUnit.SECONDS);
+            assertSame(Deadline.NONE, seen.get());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package io.codemc.bot.tracing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTracing {
+
+    @Test
+    @DisplayName("Test Trace#activate")
+    public void testActivate() {
+        assertNull(Tracing.current());
+        assertSame(Span.NOOP, Tracing.span("ignored"));
+
+        Trace trace = Tracing.start("command", "test");
+        try (Trace.Scope ignored = trace.activate()) {
+            assertSame(trace, Tracing.current());
+            assertEquals(trace.getId(), MDC.get(Tracing.MDC_KEY));
+
+            Tracing.span("step").end();
+        }
+
+        assertNull(Tracing.current());
+        assertNull(MDC.get(Tracing.MDC_KEY));
+        assertEquals(List.of("step"), trace.getSpans().stream().map(Span::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Test Tracing#wrap")
+    public void testWrap() throws Exception {
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        try {
+            Trace trace = Tracing.start("button", "accept");
+            AtomicReference<Trace> seen = new AtomicReference<>();
+            AtomicReference<String> mdc = new AtomicReference<>();
+            Consumer<String> callback;
+
+            try (Trace.Scope ignored = trace.activate()) {
+                Tracing.executor(service).execute(() -> {
+                    seen.set(Tracing.current());
+                    mdc.set(MDC.get(Tracing.MDC_KEY));
+                });
+                callback = Tracing.wrap(value -> Tracing.span(value).end());
+            }
+
+            service.submit(() -> {}).get(5, TimeUnit.SECONDS);
+            assertSame(trace, seen.get());
+            assertEquals(trace.getId(), mdc.get());
+
+            // the callback runs after the scope was closed, e.g. once a REST action completes
+            callback.accept("callback");
+            assertNull(Tracing.current());
+            assertEquals(List.of("callback"), trace.getSpans().stream().map(Span::getName).toList());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test Trace#finish")
+    public void testFinish() {
+        Trace trace = Tracing.start("modal", "submit");
+        Span first = trace.span("first");
+        Span second = trace.span("second");
+        first.end();
+
+        trace.finish();
+        assertFalse(trace.isFinished());
+
+        second.end();
+        assertTrue(trace.isFinished());
+        assertTrue(first.durationNanos() >= 0);
+        assertTrue(second.offsetNanos() >= 0);
+
+        second.end();
+        trace.finish();
+        assertTrue(trace.isFinished());
+    }
+
+    @Test
+    @DisplayName("Test Span#ending")
+    public void testEnding() {
+        Trace trace = Tracing.start("command", "ending");
+        Span span = trace.span("rest");
+
+        AtomicReference<String> value = new AtomicReference<>();
+        span.<String>ending(value::set).accept("done");
+
+        assertTrue(span.isEnded());
+        assertEquals("done", value.get());
+    }
+}
@@ -81,57 +81,6 @@ public class TestAPIUtil {
         assertNull(NexusAPI.getNexusRepository(user2));
     }
 
-    @Test
-    @DisplayName("Test APIUtil#createJenkinsJob")
-    public void testJenkins() {
-        String user1 = "TestJenkins1";
-        String j1 = "Job";
-        Member u1 = MockJDA.mockMember(user1);
-        String p1 = APIUtil.newPassword();
-        InteractionHook h1 = MockJDA.mockInteractionHook(u1, MockJDA.REQUEST_CHANNEL, InteractionType.MODAL_SUBMIT);
-
-        assertTrue(APIUtil.createJenkinsJob(h1, user1, p1, j1, "https://github.com/gmitch215/SocketMC", false));
-        assertTrue(JenkinsAPI.existsUser(user1));
-        assertNotNull(JenkinsAPI.getJobInfo(user1, j1));
-
-        assertTrue(JenkinsAPI.deleteJob(user1, j1));
-        assertNull(JenkinsAPI.getJobInfo(user1, j1));
-        assertTrue(JenkinsAPI.deleteUser(user1));
-        assertFalse(JenkinsAPI.existsUser(user1));
-
-        String user2 = "TestJenkins2";
-        String j2 = "Job";
-        Member u2 = MockJDA.mockMember(user2);
-        String p2 = APIUtil.newPassword();
-        InteractionHook h2 = MockJDA.mockInteractionHook(u2, MockJDA.REQUEST_CHANNEL, InteractionType.MODAL_SUBMIT);
-
-        assertTrue(APIUtil.createJenkinsJob(h2, user2, p2, j2, "https://github.com/CodeMC/Bot", false));
-        assertTrue(JenkinsAPI.existsUser(user2));
-        assertNotNull(JenkinsAPI.getJobInfo(user2, j2));
-
-        assertTrue(JenkinsAPI.deleteJob(user2, j2));
-        assertNull(JenkinsAPI.getJobInfo(user2, j2));
-        assertTrue(JenkinsAPI.deleteUser(user2));
-        assertFalse(JenkinsAPI.existsUser(user2));
-
-        String user3 = "TestJenkins3";
-        String j3 = "Job";
-        Member u3 = MockJDA.mockMember(user3);
-        String p3 = APIUtil.newPassword();
-        InteractionHook h3 = MockJDA.mockInteractionHook(u3, MockJDA.REQUEST_CHANNEL, InteractionType.MODAL_SUBMIT);
-
-        JenkinsAPI.createJenkinsUser(user3, p3, false);
-        APIUtil.createJenkinsJob(h3, user3, p3, j3, "https://github.com/CodeMC/Bot", false);
-
-        MockJDA.assertEmbeds(
-            List.of(CommandUtil.embedError("Jenkins User for " + user3 + " already exists!")), 
-            MockJDA.getEmbeds(h3.getIdLong()),
-            true
-        );
-
-        assertTrue(JenkinsAPI.deleteUser(user3));
-    }
-
     @Test
     @DisplayName("Test APIUtil#changePassword")
     public void testChangePassword() {
@@ -142,7 +91,8 @@ public class TestAPIUtil {
 
         String old1 = APIUtil.newPassword();
         assertTrue(APIUtil.createNexus(h1, u1, old1));
-        assertTrue(APIUtil.createJenkinsJob(h1, u1, old1, j1, "https://github.com/CodeMC/API", false));
+        assertTrue(JenkinsAPI.createJenkinsUser(u1, old1, false));
+        assertTrue(JenkinsAPI.createJenkinsJob(u1, j1, "https://github.com/CodeMC/API", false));
 
         String new1 = APIUtil.newPassword();
         assertTrue(APIUtil.changePassword(h1, u1, new1));
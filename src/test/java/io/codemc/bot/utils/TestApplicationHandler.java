@@ -6,6 +6,7 @@ import io.codemc.api.jenkins.JenkinsAPI;
 import io.codemc.api.nexus.NexusAPI;
 import io.codemc.bot.MockCodeMCBot;
 import io.codemc.bot.MockJDA;
+import io.codemc.bot.execution.KeyedDispatcher;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static io.codemc.bot.MockJDA.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -59,7 +61,7 @@ public class TestApplicationHandler {
 
         assertTrue(JenkinsAPI.deleteUser(username));
         assertTrue(NexusAPI.deleteNexus(username));
-        assertEquals(1, DatabaseAPI.removeUser(username));
+        assertEquals(1, MockCodeMCBot.INSTANCE.getUserIndex().remove(username));
         assertEquals(1, DatabaseAPI.removeRequest(message.getIdLong()));
     }
 
@@ -164,6 +166,27 @@ public class TestApplicationHandler {
         );
     }
 
+    @Test
+    @DisplayName("Test ApplicationHandler#handle (Duplicate)")
+    public void testHandleDuplicate() {
+        InteractionHook hook = MockJDA.mockInteractionHook(SELF, REQUEST_CHANNEL, InteractionType.MODAL_SUBMIT);
+        Message message = MockJDA.mockMessage("", List.of(), REQUEST_CHANNEL);
+
+        // another reviewer is still handling the request
+        CompletableFuture<Void> inFlight = new CompletableFuture<>();
+        KeyedDispatcher keyed = MockCodeMCBot.INSTANCE.getExecutors().keyed();
+        keyed.claim(KeyedDispatcher.application(message.getIdLong()), () -> inFlight);
+
+        ApplicationHandler.handle(
+            MockCodeMCBot.INSTANCE, hook, GUILD, message.getIdLong(), null, true
+        );
+        assertEmbeds(
+            List.of(CommandUtil.embedError("This request is already being handled by someone else.")), MockJDA.getEmbeds(hook.getIdLong()), true
+        );
+
+        inFlight.complete(null);
+        assertFalse(keyed.isInFlight(KeyedDispatcher.application(message.getIdLong())));
+    }
 
     @Test
     @DisplayName("Test ApplicationHandler#fromMessage")
@@ -0,0 +1,132 @@
+package io.codemc.bot.utils;
+
+import io.codemc.bot.tracing.Deadline;
+import io.codemc.bot.tracing.Trace;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBulkValidator {
+
+    @Test
+    @DisplayName("Test BulkValidator (Per-User Results)")
+    public void testResults() {
+        List<String> users = List.of("User1", "Broken1", "User2", "Broken2", "Crash");
+        List<BulkValidator.Progress> progress = new ArrayList<>();
+
+        BulkValidator validator = new BulkValidator(Runnable::run, 4, username -> {
+            if (username.equals("Crash")) throw new IllegalStateException("Boom");
+            return username.startsWith("Broken") ? List.of("Failed to create Nexus Repository") : List.of();
+        });
+
+        BulkValidator.Report report = validator.run(users, progress::add).join();
+
+        assertEquals(5, report.results().size());
+        assertEquals(users, report.results().stream().map(BulkValidator.Result::username).toList());
+        assertFalse(report.isSuccess());
+        assertEquals(List.of("Broken1", "Broken2", "Crash"), report.failed().stream().map(BulkValidator.Result::username).toList());
+        assertEquals(List.of("Unexpected error: Boom"), report.failed().get(2).problems());
+
+        assertEquals(5, progress.size());
+        assertEquals(new BulkValidator.Progress(5, 3, 5), progress.get(4));
+
+        String text = report.toText();
+        assertTrue(text.contains("User1: OK"));
+        assertTrue(text.contains("Broken2: Failed to create Nexus Repository"));
+    }
+
+    @Test
+    @DisplayName("Test BulkValidator (Empty)")
+    public void testEmpty() {
+        BulkValidator validator = new BulkValidator(Runnable::run, 4, username -> List.of());
+        BulkValidator.Report report = validator.run(List.of(), progress -> fail("No progress expected")).join();
+
+        assertTrue(report.isSuccess());
+        assertTrue(report.results().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test BulkValidator (Deadline)")
+    public void testDeadline() {
+        BulkValidator validator = new BulkValidator(Runnable::run, 4, username -> fail("No validation expected"));
+
+        BulkValidator.Report report;
+        try (Trace.Scope ignored = Deadline.after(Duration.ZERO).activate()) {
+            report = validator.run(List.of("User1", "User2"), progress -> fail("No progress expected")).join();
+        }
+
+        assertEquals(List.of("User1", "User2"), report.failed().stream().map(BulkValidator.Result::username).toList());
+        assertEquals(List.of("Skipped, the deadline passed."), report.failed().get(0).problems());
+    }
+
+    @Test
+    @DisplayName("Test BulkValidator (Parallelism)")
+    public void testParallelism() {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        BulkValidator validator = new BulkValidator(executor, 4, username -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            running.decrementAndGet();
+            return List.of();
+        });
+
+        List<String> users = IntStream.range(0, 200).mapToObj(i -> "User" + i).toList();
+        long start = System.nanoTime();
+        BulkValidator.Report report = validator.run(users, progress -> {}).join();
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(report.isSuccess());
+        assertEquals(200, report.results().size());
+        assertTrue(peak.get() > 1, "Expected users to be validated in parallel");
+        assertTrue(peak.get() <= 4, "Expected at most 4 users validated at once, got " + peak.get());
+        assertTrue(millis < 200 * 10, "Expected parallel run to be faster than a serial one, took " + millis + "ms");
+
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test BulkValidator (Parallelism with Problems)")
+    public void testParallelismWithProblems() {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        // problems found with the users are no reason to slow down
+        BulkValidator validator = new BulkValidator(executor, 4, username -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            running.decrementAndGet();
+            return List.of("Failed to validate Nexus Privileges");
+        });
+
+        List<String> users = IntStream.range(0, 200).mapToObj(i -> "User" + i).toList();
+        BulkValidator.Report report = validator.run(users, progress -> {}).join();
+
+        assertEquals(200, report.failed().size());
+        assertTrue(peak.get() > 1, "Expected users with problems to be validated in parallel");
+
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,227 @@
+package io.codemc.bot.utils;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.interactions.Interaction;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+import net.dv8tion.jda.api.requests.restaction.WebhookMessageEditAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestProgressReporter {
+
+    private static final Duration WINDOW = Duration.ofMillis(200);
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private final InteractionHook hook = mock(InteractionHook.class);
+    private final List<String> rendered = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Object>> unacknowledged = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        // Delayed updates are run by hand through advance(), instead of waiting for the window to pass
+        when(scheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenAnswer(inv -> {
+            scheduled.add(inv.getArgument(0));
+            return mock(ScheduledFuture.class);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProgressReporter reporter(boolean acknowledge) {
+        WebhookMessageEditAction<Message> action = mock(WebhookMessageEditAction.class);
+        doAnswer(inv -> {
+            Consumer<Object> success = inv.getArgument(0);
+            if (acknowledge)
+                success.accept(null);
+            else
+                unacknowledged.add(success);
+            return null;
+        }).when(action).queue(any(), any());
+
+        return new ProgressReporter(hook, scheduler, WINDOW, state -> {
+            rendered.add(state);
+            return action;
+        }, now::get);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+        List<Runnable> due = List.copyOf(scheduled);
+        scheduled.clear();
+        due.forEach(Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Test ProgressReporter#update (Coalescing)")
+    public void testCoalescing() {
+        ProgressReporter reporter = reporter(true);
+
+        reporter.update("[1/3]");
+        assertEquals(List.of("[1/3]"), rendered);
+
+        reporter.update("[2/3]");
+        reporter.update("[3/3]");
+        assertEquals(List.of("[1/3]"), rendered);
+
+        advance(WINDOW);
+        assertEquals(List.of("[1/3]", "[3/3]"), rendered);
+        assertEquals(2, reporter.getEdits());
+        assertEquals(1, reporter.getSkipped());
+    }
+
+    @Test
+    @DisplayName("Test ProgressReporter#update (Unchanged)")
+    public void testUnchanged() {
+        ProgressReporter reporter = reporter(true);
+
+        reporter.update("[1/3]");
+        reporter.update("[2/3]");
+        reporter.update("[1/3]");
+
+        advance(WINDOW);
+        assertEquals(List.of("[1/3]"), rendered);
+
+        reporter.complete("[1/3]");
+        assertEquals(List.of("[1/3]"), rendered);
+        assertTrue(reporter.isClosed());
+    }
+
+    @Test
+    @DisplayName("Test ProgressReporter#complete")
+    public void testComplete() {
+        ProgressReporter reporter = reporter(true);
+
+        reporter.update("[1/3]");
+        reporter.update("[2/3]");
+        reporter.complete("Done!");
+        assertEquals(List.of("[1/3]", "Done!"), rendered);
+
+        reporter.update("[3/3]");
+        reporter.complete("Done again!");
+        advance(WINDOW);
+        assertEquals(List.of("[1/3]", "Done!"), rendered);
+    }
+
+    @Test
+    @DisplayName("Test ProgressReporter (In Flight)")
+    public void testInFlight() {
+        ProgressReporter reporter = reporter(false);
+
+        reporter.update("[1/3]");
+        advance(WINDOW);
+
+        // The first edit was never acknowledged, so nothing else is sent until the final state.
+        reporter.update("[2/3]");
+        advance(WINDOW);
+        assertEquals(List.of("[1/3]"), rendered);
+
+        // The final state also waits for the acknowledgement, but is never dropped
+        reporter.complete("Done!");
+        assertEquals(List.of("[1/3]"), rendered);
+        assertTrue(reporter.isClosed());
+
+        unacknowledged.remove(0).accept(null);
+        assertEquals(List.of("[1/3]", "Done!"), rendered);
+        assertEquals(1, reporter.getSkipped());
+
+        unacknowledged.remove(0).accept(null);
+        assertEquals(List.of("[1/3]", "Done!"), rendered);
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test ProgressReporter#flush and ProgressReporter#cancel")
+    public void testFlushCancel() {
+        ProgressReporter reporter = reporter(true);
+
+        reporter.update("[1/3]");
+        reporter.update("[2/3]");
+        reporter.flush();
+        assertEquals(List.of("[1/3]", "[2/3]"), rendered);
+
+        reporter.update("[3/3]");
+        reporter.cancel();
+        advance(WINDOW);
+        assertEquals(List.of("[1/3]", "[2/3]"), rendered);
+
+        List<InteractionHook> finished = new CopyOnWriteArrayList<>();
+        reporter.finish(finished::add);
+        assertTrue(finished.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test ProgressReporter#flush (In Flight)")
+    public void testFlushInFlight() {
+        ProgressReporter reporter = reporter(false);
+
+        reporter.update("[1/3]");
+        reporter.update("[2/3]");
+
+        // Only one edit may be in flight, so the flushed state waits for the first one
+        reporter.flush();
+        assertEquals(List.of("[1/3]"), rendered);
+
+        // ...and goes out as soon as it completed, without waiting for the window
+        unacknowledged.remove(0).accept(null);
+        assertEquals(List.of("[1/3]", "[2/3]"), rendered);
+        assertTrue(scheduled.isEmpty());
+        assertEquals(2, reporter.getEdits());
+    }
+
+    @Test
+    @DisplayName("Test ProgressReporter (Expired Hook)")
+    public void testExpired() {
+        ProgressReporter reporter = reporter(true);
+        List<String> fallback = new CopyOnWriteArrayList<>();
+
+        Interaction interaction = mock(Interaction.class);
+        User user = mock(User.class);
+        MessageChannel channel = mock(MessageChannel.class);
+        MessageCreateAction action = mock(MessageCreateAction.class);
+        when(hook.getInteraction()).thenReturn(interaction);
+        when(interaction.getUser()).thenReturn(user);
+        when(interaction.getMessageChannel()).thenReturn(channel);
+        when(user.getAsMention()).thenReturn("<@1>");
+        when(channel.sendMessage(anyString())).thenAnswer(inv -> {
+            fallback.add(inv.getArgument(0));
+            return action;
+        });
+        when(action.addContent(anyString())).thenAnswer(inv -> {
+            fallback.add(inv.getArgument(0));
+            return action;
+        });
+
+        reporter.update("[1/3]");
+        when(hook.isExpired()).thenReturn(true);
+
+        // Progress can no longer be shown, only the result is posted as a new message
+        reporter.update("[2/3]");
+        reporter.complete("Done!");
+        assertEquals(List.of("[1/3]"), rendered);
+        assertEquals(List.of("<@1>", "\nDone!"), fallback);
+    }
+
+}